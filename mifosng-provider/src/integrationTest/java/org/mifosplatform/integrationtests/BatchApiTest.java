@@ -409,4 +409,32 @@ public class BatchApiTest {
         Assert.assertEquals("Verify Status Code 200 for Approve Loan", 200L, (long) response.get(3).getStatusCode());
         Assert.assertEquals("Verify Status Code 200 for Disburse Loan", 200L, (long) response.get(4).getStatusCode());
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that independent requests executed with the query parameter
+     * 'parallel' all succeed, that each update still waits for the client it
+     * references, and that the responses come back ordered by request id.
+     */
+    @Test
+    public void shouldExecuteIndependentRequestsInParallel() {
+
+        final List<BatchRequest> batchRequests = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            final Long createRequestId = 4740L + 2 * i;
+            batchRequests.add(BatchHelper.createClientRequest(createRequestId, ""));
+            batchRequests.add(BatchHelper.updateClientRequest(createRequestId + 1, createRequestId));
+        }
+
+        final String jsonifiedRequest = BatchHelper.toJsonString(batchRequests);
+
+        final List<BatchResponse> response = BatchHelper.postBatchRequestsInParallel(this.requestSpec, this.responseSpec,
+                jsonifiedRequest);
+
+        Assert.assertEquals("Verify a response for every request", batchRequests.size(), response.size());
+        for (int i = 0; i < response.size(); i++) {
+            Assert.assertEquals("Verify responses are ordered by request id", batchRequests.get(i).getRequestId(), response.get(i)
+                    .getRequestId());
+            Assert.assertEquals("Verify Status Code 200", 200L, (long) response.get(i).getStatusCode());
+        }
+    }
+}
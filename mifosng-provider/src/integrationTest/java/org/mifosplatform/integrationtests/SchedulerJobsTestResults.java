@@ -13,6 +13,7 @@ import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -701,6 +702,123 @@ public class SchedulerJobsTestResults {
 
     }
 
+    @Test
+    public void testApplyPenaltyForOverdueLoansInPartitionsMatchesLoanByLoanRun() throws InterruptedException {
+        this.schedulerJobHelper = new SchedulerJobHelper(this.requestSpec, this.responseSpec);
+        this.loanTransactionHelper = new LoanTransactionHelper(this.requestSpec, this.responseSpec);
+
+        final Account assetAccount = this.accountHelper.createAssetAccount();
+        final Account incomeAccount = this.accountHelper.createIncomeAccount();
+        final Account expenseAccount = this.accountHelper.createExpenseAccount();
+        final Account overpaymentAccount = this.accountHelper.createLiabilityAccount();
+
+        final Integer overdueFeeChargeId = ChargesHelper.createCharges(this.requestSpec, this.responseSpec,
+                ChargesHelper.getLoanOverdueFeeJSON());
+        Assert.assertNotNull(overdueFeeChargeId);
+
+        final String loanProductJSON = new LoanProductTestBuilder() //
+                .withPrincipal("15,000.00") //
+                .withNumberOfRepayments("4") //
+                .withRepaymentAfterEvery("1") //
+                .withRepaymentTypeAsMonth() //
+                .withinterestRatePerPeriod("1") //
+                .withInterestRateFrequencyTypeAsMonths() //
+                .withAmortizationTypeAsEqualInstallments() //
+                .withInterestTypeAsDecliningBalance() //
+                .withAccountingRuleUpfrontAccrual(new Account[] { assetAccount, incomeAccount, expenseAccount, overpaymentAccount }) //
+                .build(overdueFeeChargeId.toString());
+        final Integer loanProductID = this.loanTransactionHelper.getLoanProductId(loanProductJSON);
+        Assert.assertNotNull(loanProductID);
+
+        final String partitioningConfigId = getGlobalConfigurationId("job-partition-thread-count");
+        final Boolean partitioningEnabled = (Boolean) GlobalConfigurationHelper.getGlobalConfigurationById(this.requestSpec,
+                this.responseSpec, partitioningConfigId).get("enabled");
+        final String JobName = "Apply penalty to overdue loans";
+        try {
+            GlobalConfigurationHelper.updateEnabledFlagForGlobalConfiguration(this.requestSpec, this.responseSpec, partitioningConfigId,
+                    false);
+            final Integer loanByLoanID = createDisbursedLoan(loanProductID);
+            this.schedulerJobHelper.executeJob(JobName);
+
+            GlobalConfigurationHelper.updateEnabledFlagForGlobalConfiguration(this.requestSpec, this.responseSpec, partitioningConfigId,
+                    true);
+            final Integer partitionedID = createDisbursedLoan(loanProductID);
+            this.schedulerJobHelper.executeJob(JobName);
+
+            final Float chargeAmount = (Float) ChargesHelper.getChargeById(this.requestSpec, this.responseSpec, overdueFeeChargeId).get(
+                    "amount");
+            final List<Float> loanByLoanPenalties = getPenaltyChargesDue(loanByLoanID);
+            Assert.assertEquals("Verifying the loan by loan run charged the first repayment", chargeAmount, loanByLoanPenalties.get(1));
+            Assert.assertEquals("Verifying both runs charged the same penalties", loanByLoanPenalties, getPenaltyChargesDue(partitionedID));
+
+            final List<String> loanByLoanEntries = getPenaltyJournalEntries(loanByLoanID);
+            Assert.assertFalse("Verifying the loan by loan run posted journal entries", loanByLoanEntries.isEmpty());
+            Assert.assertEquals("Verifying both runs posted the same journal entries", loanByLoanEntries,
+                    getPenaltyJournalEntries(partitionedID));
+        } finally {
+            GlobalConfigurationHelper.updateEnabledFlagForGlobalConfiguration(this.requestSpec, this.responseSpec, partitioningConfigId,
+                    partitioningEnabled);
+        }
+    }
+
+    private Integer createDisbursedLoan(final Integer loanProductID) {
+        final Integer clientID = ClientHelper.createClient(this.requestSpec, this.responseSpec);
+        Assert.assertNotNull(clientID);
+
+        final Integer loanID = applyForLoanApplication(clientID.toString(), loanProductID.toString(), null);
+        Assert.assertNotNull(loanID);
+
+        HashMap loanStatusHashMap = this.loanTransactionHelper.approveLoan(AccountTransferTest.LOAN_APPROVAL_DATE, loanID);
+        LoanStatusChecker.verifyLoanIsApproved(loanStatusHashMap);
+
+        loanStatusHashMap = this.loanTransactionHelper.disburseLoan(AccountTransferTest.LOAN_APPROVAL_DATE_PLUS_ONE, loanID);
+        LoanStatusChecker.verifyLoanIsActive(loanStatusHashMap);
+        return loanID;
+    }
+
+    private List<Float> getPenaltyChargesDue(final Integer loanID) {
+        final ArrayList<HashMap> repaymentSchedule = this.loanTransactionHelper.getLoanRepaymentSchedule(this.requestSpec,
+                this.responseSpec, loanID);
+        final List<Float> penaltyChargesDue = new ArrayList<>();
+        for (final HashMap period : repaymentSchedule) {
+            penaltyChargesDue.add((Float) period.get("penaltyChargesDue"));
+        }
+        return penaltyChargesDue;
+    }
+
+    /**
+     * Journal entries of the transactions that carry penalties, by GL
+     * account, entry type and amount in a stable order
+     */
+    private List<String> getPenaltyJournalEntries(final Integer loanID) {
+        final ArrayList<HashMap> transactions = (ArrayList<HashMap>) this.loanTransactionHelper.getLoanDetail(this.requestSpec,
+                this.responseSpec, loanID, "transactions");
+        final List<String> entries = new ArrayList<>();
+        for (final HashMap transaction : transactions) {
+            final Float penaltyPortion = (Float) transaction.get("penaltyChargesPortion");
+            if (penaltyPortion == null || penaltyPortion == 0) {
+                continue;
+            }
+            final HashMap type = (HashMap) transaction.get("type");
+            for (final HashMap entry : this.journalEntryHelper.getJournalEntriesOfLoanTransaction(transaction.get("id"))) {
+                entries.add(type.get("value") + ":" + entry.get("glAccountId") + ":" + ((HashMap) entry.get("entryType")).get("value")
+                        + ":" + entry.get("amount"));
+            }
+        }
+        Collections.sort(entries);
+        return entries;
+    }
+
+    private String getGlobalConfigurationId(final String name) {
+        final ArrayList<HashMap> configurations = GlobalConfigurationHelper.getAllGlobalConfigurations(this.requestSpec,
+                this.responseSpec);
+        for (final HashMap configuration : configurations) {
+            if (name.equals(configuration.get("name"))) { return configuration.get("id").toString(); }
+        }
+        Assert.fail("Global configuration " + name + " not found");
+        return null;
+    }
+
     @Test
     public void testUpdateOverdueDaysForNPA() throws InterruptedException {
         this.schedulerJobHelper = new SchedulerJobHelper(this.requestSpec, this.responseSpec);
@@ -30,6 +30,7 @@ public class BatchHelper {
 
     private static final String BATCH_API_URL = "/mifosng-provider/api/v1/batches?" + Utils.TENANT_IDENTIFIER;
     private static final String BATCH_API_URL_EXT = BATCH_API_URL + "&enclosingTransaction=true";
+    private static final String BATCH_API_URL_PARALLEL = BATCH_API_URL + "&parallel=true";
 
     private BatchHelper() {
         super();
@@ -87,6 +88,21 @@ public class BatchHelper {
         return BatchHelper.fromJsonString(response);
     }
 
+    /**
+     * Returns a list of BatchResponse with query parameter parallel set to true
+     * by posting the jsonified BatchRequest to the server.
+     * 
+     * @param requestSpec
+     * @param responseSpec
+     * @param jsonifiedBatchRequests
+     * @return a list of BatchResponse
+     */
+    public static List<BatchResponse> postBatchRequestsInParallel(final RequestSpecification requestSpec,
+            final ResponseSpecification responseSpec, final String jsonifiedBatchRequests) {
+        final String response = Utils.performServerPost(requestSpec, responseSpec, BATCH_API_URL_PARALLEL, jsonifiedBatchRequests, null);
+        return BatchHelper.fromJsonString(response);
+    }
+
     /**
      * Returns a BatchResponse based on the given BatchRequest, by posting the
      * request to the server.
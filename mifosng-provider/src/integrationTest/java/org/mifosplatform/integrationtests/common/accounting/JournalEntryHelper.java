@@ -84,6 +84,10 @@ public class JournalEntryHelper {
         return url;
     }
 
+    public ArrayList<HashMap> getJournalEntriesOfLoanTransaction(final Object loanTransactionId) {
+        return getJournalEntriesByTransactionId("L" + loanTransactionId);
+    }
+
     private ArrayList<HashMap> getJournalEntriesByTransactionId(final String transactionId) {
         final String url = createURLForGettingAccountEntriesByTransactionId(transactionId);
         final ArrayList<HashMap> response = Utils.performServerGet(this.requestSpec, this.responseSpec, url, "pageItems");
@@ -0,0 +1,144 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.domain;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.joda.time.LocalDate;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.portfolio.loanaccount.domain.Loan;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.Database;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Saves the repayment schedule of a loan through the JPA mapping of
+ * {@link LoanRepaymentScheduleInstallment}, with ids from the
+ * {@link PooledTableIdGenerator}. A JDBC batch size of 1 sends one insert per
+ * installment as identity ids used to, 100 is the configured batch size.
+ *
+ * Needs a running MySQL with the default tenant schema, pass
+ * <code>-Dmifos.benchmark.url=...</code> (plus <code>.user</code> and
+ * <code>.password</code>) to use another database. Every schedule is rolled
+ * back, only the reserved id blocks remain used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PooledIdInsertBenchmark {
+
+    @Param({ "1", "100" })
+    private String jdbcBatchSize;
+
+    @Param({ "120" })
+    private int numberOfInstallments;
+
+    private DataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup
+    public void setUp() {
+        final PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setDriverClassName("com.mysql.jdbc.Driver");
+        poolProperties.setUrl(System.getProperty("mifos.benchmark.url", "jdbc:mysql://localhost:3306/mifostenant-default"));
+        poolProperties.setUsername(System.getProperty("mifos.benchmark.user", "root"));
+        poolProperties.setPassword(System.getProperty("mifos.benchmark.password", "mysql"));
+        // as set up for tenant connection pools
+        poolProperties.setConnectionProperties("rewriteBatchedStatements=true");
+        this.dataSource = new DataSource(poolProperties);
+
+        final HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setDatabase(Database.MYSQL);
+        vendorAdapter.setDatabasePlatform("org.hibernate.dialect.MySQLDialect");
+        final Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put("hibernate.jdbc.batch_size", this.jdbcBatchSize);
+
+        this.entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        this.entityManagerFactoryBean.setDataSource(this.dataSource);
+        this.entityManagerFactoryBean.setPersistenceUnitName("jpa-pu");
+        this.entityManagerFactoryBean.setJpaVendorAdapter(vendorAdapter);
+        this.entityManagerFactoryBean.setJpaPropertyMap(jpaProperties);
+        this.entityManagerFactoryBean.afterPropertiesSet();
+        this.entityManagerFactory = this.entityManagerFactoryBean.getObject();
+
+        // the id generator reserves its blocks per tenant
+        ThreadLocalContextUtil.setTenant(new MifosPlatformTenant(Long.valueOf(1), "default", "Default Demo Tenant", "Asia/Kolkata",
+                null));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+        this.entityManagerFactoryBean.destroy();
+        this.dataSource.close();
+    }
+
+    @Benchmark
+    public int saveRepaymentSchedule() {
+        final EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            // the schedule is saved for a loan that need not exist
+            setForeignKeyChecks(entityManager, false);
+            final Loan loan = entityManager.getReference(Loan.class, Long.valueOf(1));
+            LocalDate fromDate = new LocalDate(2015, 1, 1);
+            for (int installment = 1; installment <= this.numberOfInstallments; installment++) {
+                final LocalDate dueDate = fromDate.plusMonths(1);
+                entityManager.persist(new LoanRepaymentScheduleInstallment(loan, installment, fromDate, dueDate, BigDecimal
+                        .valueOf(83.33), BigDecimal.valueOf(12.5), BigDecimal.ZERO, BigDecimal.ZERO, false));
+                fromDate = dueDate;
+            }
+            entityManager.flush();
+            setForeignKeyChecks(entityManager, true);
+            return this.numberOfInstallments;
+        } finally {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+    }
+
+    private static void setForeignKeyChecks(final EntityManager entityManager, final boolean enabled) {
+        entityManager.unwrap(Session.class).doWork(new Work() {
+
+            @Override
+            public void execute(final Connection connection) throws SQLException {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("set foreign_key_checks = " + (enabled ? 1 : 0));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.serialization;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Compares handling a loan application command when every step parses the
+ * raw json again with handling it from the tree parsed once for the
+ * command. Run with <code>-prof gc</code> to compare the allocations per
+ * command.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JsonCommandParsingBenchmark {
+
+    private static final String LOAN_APPLICATION = "{\"dateFormat\":\"dd MMMM yyyy\",\"locale\":\"en_GB\",\"clientId\":1,"
+            + "\"productId\":1,\"principal\":\"10,000.00\",\"loanTermFrequency\":12,\"loanTermFrequencyType\":2,"
+            + "\"loanType\":\"individual\",\"numberOfRepayments\":12,\"repaymentEvery\":1,\"repaymentFrequencyType\":2,"
+            + "\"interestRatePerPeriod\":2,\"amortizationType\":1,\"interestType\":0,\"interestCalculationPeriodType\":1,"
+            + "\"transactionProcessingStrategyId\":1,\"expectedDisbursementDate\":\"10 Jun 2013\","
+            + "\"submittedOnDate\":\"10 Jun 2013\",\"externalId\":\"ext-4711\",\"loanPurposeId\":3,\"fundId\":2,"
+            + "\"charges\":[{\"chargeId\":2,\"amount\":100},{\"chargeId\":5,\"amount\":\"25.50\",\"dueDate\":\"10 Jul 2013\"}],"
+            + "\"collateral\":[{\"type\":7,\"value\":2000,\"description\":\"Motorbike\"}]}";
+
+    private static final Set<String> SUPPORTED_PARAMETERS = new HashSet<>(Arrays.asList("dateFormat", "locale", "id", "clientId",
+            "groupId", "loanType", "productId", "principal", "loanTermFrequency", "loanTermFrequencyType", "numberOfRepayments",
+            "repaymentEvery", "repaymentFrequencyType", "interestRatePerPeriod", "amortizationType", "interestType",
+            "interestCalculationPeriodType", "expectedDisbursementDate", "submittedOnDate", "externalId", "fundId", "loanPurposeId",
+            "charges", "collateral", "transactionProcessingStrategyId"));
+
+    private static final Set<String> SUPPORTED_CHARGE_PARAMETERS = new HashSet<>(Arrays.asList("id", "chargeId", "amount",
+            "chargeTimeType", "chargeCalculationType", "dueDate"));
+
+    private FromJsonHelper fromApiJsonHelper;
+    private Type typeOfMap;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        this.fromApiJsonHelper = new FromJsonHelper();
+        this.typeOfMap = new TypeToken<Map<String, Object>>() {}.getType();
+        // a fresh instance per run, as the api would receive it
+        this.json = new String(LOAN_APPLICATION);
+    }
+
+    /**
+     * The command source parses the json, the validator deserialises it into
+     * a map for the unsupported parameter check and parses it once more; each
+     * charge is written back to json and deserialised again for its own check.
+     */
+    @Benchmark
+    public void parsedPerStep(final Blackhole blackhole) {
+        blackhole.consume(this.fromApiJsonHelper.parse(this.json));
+
+        this.fromApiJsonHelper.checkForUnsupportedParameters(this.typeOfMap, this.json, SUPPORTED_PARAMETERS);
+        final JsonElement element = this.fromApiJsonHelper.parse(this.json);
+        for (final JsonElement charge : element.getAsJsonObject().getAsJsonArray("charges")) {
+            final String chargeJson = this.fromApiJsonHelper.toJson(charge);
+            this.fromApiJsonHelper.checkForUnsupportedParameters(this.typeOfMap, chargeJson, SUPPORTED_CHARGE_PARAMETERS);
+        }
+        validate(element, blackhole);
+    }
+
+    @Benchmark
+    public void parsedOnce(final Blackhole blackhole) {
+        final JsonElement parsedCommand = this.fromApiJsonHelper.parseCommand(this.json);
+        try {
+            blackhole.consume(parsedCommand);
+
+            this.fromApiJsonHelper.checkForUnsupportedParameters(this.typeOfMap, this.json, SUPPORTED_PARAMETERS);
+            final JsonElement element = this.fromApiJsonHelper.parse(this.json);
+            for (final JsonElement charge : element.getAsJsonObject().getAsJsonArray("charges")) {
+                this.fromApiJsonHelper.checkForUnsupportedParameters(charge.getAsJsonObject(), SUPPORTED_CHARGE_PARAMETERS);
+            }
+            validate(element, blackhole);
+        } finally {
+            this.fromApiJsonHelper.releaseCommand();
+        }
+    }
+
+    private void validate(final JsonElement element, final Blackhole blackhole) {
+        blackhole.consume(this.fromApiJsonHelper.extractStringNamed("loanType", element));
+        blackhole.consume(this.fromApiJsonHelper.extractLongNamed("clientId", element));
+        blackhole.consume(this.fromApiJsonHelper.extractLongNamed("productId", element));
+        blackhole.consume(this.fromApiJsonHelper.extractBigDecimalWithLocaleNamed("principal", element));
+        blackhole.consume(this.fromApiJsonHelper.extractIntegerWithLocaleNamed("numberOfRepayments", element));
+        blackhole.consume(this.fromApiJsonHelper.extractLocalDateNamed("expectedDisbursementDate", element));
+    }
+}
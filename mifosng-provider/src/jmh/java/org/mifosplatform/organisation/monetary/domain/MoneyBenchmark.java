@@ -0,0 +1,117 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.organisation.monetary.domain;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The {@link Money} arithmetic the schedule generators and repayment
+ * processors run for every installment and transaction. Every operation
+ * creates a new rounded instance, so run with <code>-prof gc</code> to see the
+ * allocations as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({ "2", "0" })
+    private int digitsAfterDecimal;
+
+    @Param({ "200" })
+    private int numberOfAmounts;
+
+    private MonetaryCurrency currency;
+    private List<Money> amounts;
+    private BigDecimal periodicInterestRate;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Field roundingMode = MoneyHelper.class.getDeclaredField("roundingMode");
+        roundingMode.setAccessible(true);
+        roundingMode.set(null, RoundingMode.HALF_EVEN);
+
+        // currencies without decimals are rounded to multiples of 50
+        final Integer inMultiplesOf = this.digitsAfterDecimal == 0 ? 50 : null;
+        this.currency = new MonetaryCurrency("USD", this.digitsAfterDecimal, inMultiplesOf);
+        this.amounts = new ArrayList<>(this.numberOfAmounts);
+        for (int i = 0; i < this.numberOfAmounts; i++) {
+            this.amounts.add(Money.of(this.currency, BigDecimal.valueOf(1000 + i * 37, 2)));
+        }
+        this.periodicInterestRate = BigDecimal.valueOf(0.0165);
+    }
+
+    @Benchmark
+    public void plus(final Blackhole blackhole) {
+        Money total = Money.zero(this.currency);
+        for (final Money amount : this.amounts) {
+            total = total.plus(amount);
+        }
+        blackhole.consume(total);
+    }
+
+    @Benchmark
+    public void total(final Blackhole blackhole) {
+        blackhole.consume(Money.total(this.amounts));
+    }
+
+    /**
+     * Interest and principal split of each amount as in a declining balance
+     * installment.
+     */
+    @Benchmark
+    public void interestAndPrincipal(final Blackhole blackhole) {
+        for (final Money amount : this.amounts) {
+            final Money interest = amount.multiplyRetainScale(this.periodicInterestRate, RoundingMode.HALF_EVEN);
+            blackhole.consume(amount.minus(interest));
+        }
+    }
+
+    /**
+     * Spreading each amount over twelve installments and adjusting the last
+     * one for the remainder.
+     */
+    @Benchmark
+    public void dividedBy(final Blackhole blackhole) {
+        for (final Money amount : this.amounts) {
+            final Money installment = amount.dividedBy(12, RoundingMode.HALF_EVEN);
+            blackhole.consume(amount.minus(installment.multipliedBy(11)));
+        }
+    }
+
+    @Benchmark
+    public void compare(final Blackhole blackhole) {
+        final Money threshold = this.amounts.get(this.amounts.size() / 2);
+        int greater = 0;
+        for (final Money amount : this.amounts) {
+            if (amount.isGreaterThan(threshold)) {
+                greater++;
+            }
+        }
+        blackhole.consume(greater);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.calendar.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.mifosplatform.organisation.workingdays.domain.RepaymentRescheduleType;
+import org.mifosplatform.organisation.workingdays.domain.WorkingDays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Expands the recurrence of a center or group meeting calendar, as done when
+ * generating and rescheduling the repayments of loans synced with meetings
+ * and when listing the meeting dates of a calendar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CalendarUtilsBenchmark {
+
+    @Param({ "FREQ=WEEKLY;INTERVAL=1;BYDAY=TU", "FREQ=WEEKLY;INTERVAL=2;BYDAY=FR", "FREQ=MONTHLY;INTERVAL=1;BYMONTHDAY=15" })
+    private String recurringRule;
+
+    @Param({ "60" })
+    private int numberOfMeetings;
+
+    private final LocalDate seedDate = new LocalDate(2014, 1, 7);
+    private final LocalDate periodStartDate = new LocalDate(2015, 1, 5);
+
+    private String frequency;
+    private WorkingDays workingDays;
+
+    @Setup
+    public void setUp() {
+        this.frequency = CalendarUtils.getMeetingFrequencyFromPeriodFrequencyType(CalendarUtils
+                .getMeetingPeriodFrequencyType(this.recurringRule));
+        this.workingDays = new WorkingDays("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TU,WE,TH,FR",
+                RepaymentRescheduleType.MOVE_TO_NEXT_WORKING_DAY.getValue(), false) {};
+    }
+
+    @Benchmark
+    public void recurringDates(final Blackhole blackhole) {
+        blackhole.consume(CalendarUtils.getRecurringDates(this.recurringRule, this.seedDate, this.periodStartDate,
+                this.periodStartDate.plusYears(10), this.numberOfMeetings));
+    }
+
+    /**
+     * Walks the meeting dates one at a time, as the schedule generator does
+     * for every installment of a loan synced with a meeting.
+     */
+    @Benchmark
+    public void nextRecurringDates(final Blackhole blackhole) {
+        LocalDate meetingDate = this.periodStartDate;
+        for (int meeting = 0; meeting < this.numberOfMeetings; meeting++) {
+            meetingDate = CalendarUtils.getNextRecurringDate(this.recurringRule, this.seedDate, meetingDate.plusDays(1));
+        }
+        blackhole.consume(meetingDate);
+    }
+
+    /**
+     * Moves each repayment date to the next meeting date on a working day, as
+     * done when a meeting calendar is changed.
+     */
+    @Benchmark
+    public void newRepaymentMeetingDates(final Blackhole blackhole) {
+        LocalDate repaymentDate = this.periodStartDate;
+        for (int meeting = 0; meeting < this.numberOfMeetings; meeting++) {
+            repaymentDate = CalendarUtils.getNewRepaymentMeetingDate(this.recurringRule, this.seedDate, repaymentDate.plusDays(1), 1,
+                    this.frequency, this.workingDays);
+        }
+        blackhole.consume(repaymentDate);
+    }
+}
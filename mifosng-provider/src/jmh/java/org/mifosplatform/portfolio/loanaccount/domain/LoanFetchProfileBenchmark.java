@@ -0,0 +1,254 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.domain;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernateEntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.Database;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Loads a loan with a long transaction history the way a command does.
+ * <code>ALL_COLLECTIONS</code> initializes every child collection, as the
+ * former eager mapping did on each findOne, the other values load the loan
+ * with the matching {@link LoanFetchProfile}.
+ *
+ * The SQL statements (from the Hibernate {@link Statistics}) and entities
+ * loaded per operation, and the heap retained by one loaded loan, are printed
+ * at the end of each trial. Run with <code>-prof gc</code> for the bytes
+ * allocated per operation.
+ *
+ * Needs a running MySQL with the default tenant schema and a disbursed loan
+ * with at least one repayment, pass <code>-Dmifos.benchmark.url=...</code>
+ * (plus <code>.user</code>, <code>.password</code> and <code>.loanId</code>)
+ * to use another database or loan. Copies of the last repayment are added as
+ * reversed transactions for the trial and deleted afterwards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoanFetchProfileBenchmark {
+
+    @Param({ "ALL_COLLECTIONS", "BASIC", "REPAYMENT_SCHEDULE", "TRANSACTIONS" })
+    private String fetchProfile;
+
+    @Param({ "520" })
+    private int numberOfTransactions;
+
+    private Long loanId;
+    private DataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private final List<Long> addedTransactionIds = new ArrayList<>();
+
+    private long operations;
+    private long statements;
+    private long entities;
+
+    @Setup
+    public void setUp() throws SQLException {
+        this.loanId = Long.valueOf(System.getProperty("mifos.benchmark.loanId", "1"));
+
+        final PoolProperties poolProperties = new PoolProperties();
+        poolProperties.setDriverClassName("com.mysql.jdbc.Driver");
+        poolProperties.setUrl(System.getProperty("mifos.benchmark.url", "jdbc:mysql://localhost:3306/mifostenant-default"));
+        poolProperties.setUsername(System.getProperty("mifos.benchmark.user", "root"));
+        poolProperties.setPassword(System.getProperty("mifos.benchmark.password", "mysql"));
+        this.dataSource = new DataSource(poolProperties);
+        addTransactions();
+
+        final HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setDatabase(Database.MYSQL);
+        vendorAdapter.setDatabasePlatform("org.hibernate.dialect.MySQLDialect");
+        final Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put("hibernate.generate_statistics", "true");
+
+        this.entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        this.entityManagerFactoryBean.setDataSource(this.dataSource);
+        this.entityManagerFactoryBean.setPersistenceUnitName("jpa-pu");
+        this.entityManagerFactoryBean.setJpaVendorAdapter(vendorAdapter);
+        this.entityManagerFactoryBean.setJpaPropertyMap(jpaProperties);
+        this.entityManagerFactoryBean.afterPropertiesSet();
+        this.entityManagerFactory = this.entityManagerFactoryBean.getObject();
+        final SessionFactory sessionFactory = ((HibernateEntityManagerFactory) this.entityManagerFactory).getSessionFactory();
+        this.statistics = sessionFactory.getStatistics();
+
+        ThreadLocalContextUtil.setTenant(new MifosPlatformTenant(Long.valueOf(1), "default", "Default Demo Tenant", "Asia/Kolkata",
+                null));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try {
+            System.out.println();
+            System.out.println(this.fetchProfile + ": " + (this.statements / this.operations) + " statements, "
+                    + (this.entities / this.operations) + " entities per load, " + (retainedHeap() / 1024) + " KB retained heap");
+        } finally {
+            ThreadLocalContextUtil.clearTenant();
+            this.entityManagerFactoryBean.destroy();
+            deleteAddedTransactions();
+            this.dataSource.close();
+        }
+    }
+
+    @Benchmark
+    public Loan loadLoan() {
+        final long statementsBefore = this.statistics.getPrepareStatementCount();
+        final long entitiesBefore = this.statistics.getEntityLoadCount();
+        final EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            final Loan loan = load(entityManager);
+            entityManager.getTransaction().commit();
+            return loan;
+        } finally {
+            entityManager.close();
+            this.operations++;
+            this.statements += this.statistics.getPrepareStatementCount() - statementsBefore;
+            this.entities += this.statistics.getEntityLoadCount() - entitiesBefore;
+        }
+    }
+
+    private Loan load(final EntityManager entityManager) {
+        final Loan loan;
+        switch (this.fetchProfile) {
+            case "ALL_COLLECTIONS":
+                loan = entityManager.find(Loan.class, this.loanId);
+                loan.getLoanTransactions().size();
+                loan.getRepaymentScheduleInstallments().size();
+                loan.charges();
+                loan.trancheCharges();
+                loan.getCollateral().size();
+                loan.getDisbursementDetails().size();
+            break;
+            case "REPAYMENT_SCHEDULE":
+                loan = find(entityManager, Loan.REPAYMENT_SCHEDULE_GRAPH);
+                loan.getRepaymentScheduleInstallments().size();
+            break;
+            case "TRANSACTIONS":
+                loan = find(entityManager, Loan.TRANSACTIONS_GRAPH);
+                loan.getLoanTransactions().size();
+            break;
+            default:
+                loan = entityManager.find(Loan.class, this.loanId);
+                loan.status();
+            break;
+        }
+        return loan;
+    }
+
+    /**
+     * Loads the loan as the entity graphs on {@link LoanRepository} do.
+     */
+    private Loan find(final EntityManager entityManager, final String graphName) {
+        final Map<String, Object> hints = Collections.<String, Object> singletonMap("javax.persistence.loadgraph",
+                entityManager.getEntityGraph(graphName));
+        return entityManager.find(Loan.class, this.loanId, hints);
+    }
+
+    private long retainedHeap() {
+        final long heapBefore = usedHeap();
+        final EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            final Loan loan = load(entityManager);
+            final long heapAfter = usedHeap();
+            entityManager.getTransaction().commit();
+            // keeps the loaded graph reachable until the heap has been sampled
+            return loan == null ? 0 : heapAfter - heapBefore;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private void addTransactions() throws SQLException {
+        try (Connection connection = this.dataSource.getConnection()) {
+            final List<String> columns = new ArrayList<>();
+            try (ResultSet rs = connection.getMetaData().getColumns(null, null, "m_loan_transaction", null)) {
+                while (rs.next()) {
+                    final String column = rs.getString("COLUMN_NAME");
+                    if (!"id".equals(column) && !"is_reversed".equals(column) && !"external_id".equals(column)) {
+                        columns.add(column);
+                    }
+                }
+            }
+            final StringBuilder columnList = new StringBuilder();
+            for (final String column : columns) {
+                columnList.append(", ").append(column);
+            }
+            final String copyLastRepayment = "insert into m_loan_transaction (is_reversed, external_id" + columnList + ")"
+                    + " select 1, null" + columnList + " from m_loan_transaction where loan_id = ? and transaction_type_enum = 2"
+                    + " order by id desc limit 1";
+
+            try (PreparedStatement statement = connection.prepareStatement(copyLastRepayment, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setLong(1, this.loanId);
+                for (int i = 0; i < this.numberOfTransactions; i++) {
+                    if (statement.executeUpdate() == 0) { throw new IllegalStateException("Loan " + this.loanId
+                            + " has no repayment to copy"); }
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        keys.next();
+                        this.addedTransactionIds.add(keys.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private void deleteAddedTransactions() throws SQLException {
+        try (Connection connection = this.dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("delete from m_loan_transaction where id = ?")) {
+            for (final Long id : this.addedTransactionIds) {
+                statement.setLong(1, id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        this.addedTransactionIds.clear();
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.domain.transactionprocessor;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
+import org.mifosplatform.organisation.monetary.domain.MonetaryCurrency;
+import org.mifosplatform.organisation.monetary.domain.Money;
+import org.mifosplatform.organisation.monetary.domain.MoneyHelper;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanCharge;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reprocesses the repayments of a 60 installment loan with every repayment
+ * strategy, as done whenever a back dated transaction is made or a
+ * transaction is adjusted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoanRepaymentScheduleTransactionProcessorBenchmark {
+
+    private static final int NUMBER_OF_INSTALLMENTS = 60;
+
+    @Param({ "MifosStyleLoanRepaymentScheduleTransactionProcessor", "HeavensFamilyLoanRepaymentScheduleTransactionProcessor",
+            "CreocoreLoanRepaymentScheduleTransactionProcessor", "RBILoanRepaymentScheduleTransactionProcessor",
+            "PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor",
+            "InterestPrincipalPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor",
+            "EarlyPaymentLoanRepaymentScheduleTransactionProcessor" })
+    private String strategy;
+
+    @Param({ "200" })
+    private int numberOfRepayments;
+
+    private final LocalDate disbursementDate = new LocalDate(2015, 1, 5);
+    private final MonetaryCurrency currency = new MonetaryCurrency("USD", 2, null);
+
+    private LoanRepaymentScheduleTransactionProcessor processor;
+    private Set<LoanCharge> charges;
+
+    private List<LoanRepaymentScheduleInstallment> installments;
+    private List<LoanTransaction> repayments;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Field roundingMode = MoneyHelper.class.getDeclaredField("roundingMode");
+        roundingMode.setAccessible(true);
+        roundingMode.set(null, RoundingMode.HALF_EVEN);
+
+        this.processor = (LoanRepaymentScheduleTransactionProcessor) Class.forName(
+                LoanRepaymentScheduleTransactionProcessor.class.getPackage().getName() + ".impl." + this.strategy).newInstance();
+        this.charges = new HashSet<>();
+    }
+
+    /**
+     * Processing splits the repayments over the installments and records the
+     * mappings on both, so each invocation starts from a fresh schedule and
+     * fresh transactions.
+     */
+    @Setup(Level.Invocation)
+    public void setUpLoan() {
+        this.installments = new ArrayList<>(NUMBER_OF_INSTALLMENTS);
+        final BigDecimal principal = BigDecimal.valueOf(1666.67);
+        BigDecimal outstanding = principal.multiply(BigDecimal.valueOf(NUMBER_OF_INSTALLMENTS));
+        BigDecimal totalDue = BigDecimal.ZERO;
+        LocalDate fromDate = this.disbursementDate;
+        for (int installmentNumber = 1; installmentNumber <= NUMBER_OF_INSTALLMENTS; installmentNumber++) {
+            final LocalDate dueDate = this.disbursementDate.plusMonths(installmentNumber);
+            final BigDecimal interest = outstanding.multiply(BigDecimal.valueOf(0.02)).setScale(2, RoundingMode.HALF_EVEN);
+            this.installments.add(new LoanRepaymentScheduleInstallment(null, installmentNumber, fromDate, dueDate, principal, interest,
+                    BigDecimal.ZERO, BigDecimal.ZERO, false));
+            outstanding = outstanding.subtract(principal);
+            totalDue = totalDue.add(principal).add(interest);
+            fromDate = dueDate;
+        }
+
+        // repayments every nine days leaving part of the loan unpaid, some
+        // paid early and some late against the monthly due dates
+        final Money repaymentAmount = Money.of(this.currency,
+                totalDue.multiply(BigDecimal.valueOf(0.9)).divide(BigDecimal.valueOf(this.numberOfRepayments), 2, RoundingMode.DOWN));
+        this.repayments = new ArrayList<>(this.numberOfRepayments);
+        for (int repaymentNumber = 1; repaymentNumber <= this.numberOfRepayments; repaymentNumber++) {
+            final LocalDate paymentDate = this.disbursementDate.plusDays(9 * repaymentNumber);
+            this.repayments.add(LoanTransaction.repayment(null, repaymentAmount, null, paymentDate, null,
+                    paymentDate.toLocalDateTime(LocalTime.MIDNIGHT), null));
+        }
+    }
+
+    @Benchmark
+    public void handleTransactions(final Blackhole blackhole) {
+        blackhole.consume(this.processor.handleTransaction(this.disbursementDate, this.repayments, this.currency, this.installments,
+                this.charges));
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.loanschedule.domain;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.mifosplatform.organisation.holiday.domain.Holiday;
+import org.mifosplatform.organisation.monetary.domain.ApplicationCurrency;
+import org.mifosplatform.organisation.monetary.domain.MonetaryCurrency;
+import org.mifosplatform.organisation.monetary.domain.Money;
+import org.mifosplatform.organisation.monetary.domain.MoneyHelper;
+import org.mifosplatform.organisation.workingdays.domain.RepaymentRescheduleType;
+import org.mifosplatform.organisation.workingdays.domain.WorkingDays;
+import org.mifosplatform.portfolio.calendar.domain.Calendar;
+import org.mifosplatform.portfolio.calendar.domain.CalendarInstance;
+import org.mifosplatform.portfolio.common.domain.DayOfWeekType;
+import org.mifosplatform.portfolio.common.domain.DaysInMonthType;
+import org.mifosplatform.portfolio.common.domain.DaysInYearType;
+import org.mifosplatform.portfolio.common.domain.PeriodFrequencyType;
+import org.mifosplatform.portfolio.loanaccount.data.DisbursementData;
+import org.mifosplatform.portfolio.loanaccount.data.HolidayDetailDTO;
+import org.mifosplatform.portfolio.loanaccount.data.LoanTermVariationsData;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanCharge;
+import org.mifosplatform.portfolio.loanproduct.domain.AmortizationMethod;
+import org.mifosplatform.portfolio.loanproduct.domain.InterestCalculationPeriodMethod;
+import org.mifosplatform.portfolio.loanproduct.domain.InterestMethod;
+import org.mifosplatform.portfolio.loanproduct.domain.LoanPreClosureInterestCalculationStrategy;
+import org.mifosplatform.portfolio.loanproduct.domain.RecalculationFrequencyType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Generates the repayment schedule of a monthly loan with the declining
+ * balance and the flat interest generators, as done for every loan
+ * application, approval and reschedule.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoanScheduleGeneratorBenchmark {
+
+    @Param({ "DECLINING_BALANCE", "FLAT" })
+    private String interestMethod;
+
+    @Param({ "12", "60" })
+    private int numberOfRepayments;
+
+    private final LocalDate disbursementDate = new LocalDate(2015, 1, 5);
+
+    private LoanScheduleGenerator generator;
+    private MathContext mc;
+    private ApplicationCurrency applicationCurrency;
+    private MonetaryCurrency currency;
+    private HolidayDetailDTO holidayDetailDTO;
+    private Set<LoanCharge> loanCharges;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Field roundingMode = MoneyHelper.class.getDeclaredField("roundingMode");
+        roundingMode.setAccessible(true);
+        roundingMode.set(null, RoundingMode.HALF_EVEN);
+
+        final Constructor<ApplicationCurrency> constructor = ApplicationCurrency.class.getDeclaredConstructor(String.class,
+                String.class, int.class, Integer.class, String.class, String.class);
+        constructor.setAccessible(true);
+        this.applicationCurrency = constructor.newInstance("USD", "US Dollar", 2, null, "currency.USD", "$");
+        this.currency = new MonetaryCurrency("USD", 2, null);
+
+        final InterestMethod method = InterestMethod.valueOf(this.interestMethod);
+        this.generator = method.isDecliningBalnce() ? new DecliningBalanceInterestLoanScheduleGenerator()
+                : new FlatInterestLoanScheduleGenerator();
+        this.mc = new MathContext(8, RoundingMode.HALF_EVEN);
+
+        final WorkingDays workingDays = new WorkingDays("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TU,WE,TH,FR",
+                RepaymentRescheduleType.MOVE_TO_NEXT_WORKING_DAY.getValue(), false) {};
+        this.holidayDetailDTO = new HolidayDetailDTO(false, new ArrayList<Holiday>(), workingDays);
+        this.loanCharges = new HashSet<>();
+    }
+
+    /**
+     * The generator updates the loan end date on the terms it is given, so
+     * every invocation assembles its own terms as the api would.
+     */
+    @Benchmark
+    public void generate(final Blackhole blackhole) {
+        blackhole.consume(this.generator.generate(this.mc, loanApplicationTerms(), this.loanCharges, this.holidayDetailDTO));
+    }
+
+    private LoanApplicationTerms loanApplicationTerms() {
+        final Integer nthDay = null;
+        final DayOfWeekType weekDayType = null;
+        final LocalDate repaymentsStartingFromDate = null;
+        final LocalDate calculatedRepaymentsStartingFromDate = this.disbursementDate.plusMonths(1);
+        final Integer graceOnPrincipalPayment = null;
+        final Integer graceOnInterestPayment = null;
+        final Integer graceOnInterestCharged = null;
+        final LocalDate interestChargedFromDate = null;
+        final BigDecimal emiAmount = null;
+        final BigDecimal maxOutstandingBalance = null;
+        final Integer graceOnArrearsAgeing = null;
+        final RecalculationFrequencyType recalculationFrequencyType = null;
+        final CalendarInstance restCalendarInstance = null;
+        final CalendarInstance compoundingCalendarInstance = null;
+        final RecalculationFrequencyType compoundingFrequencyType = null;
+        final Integer installmentAmountInMultiplesOf = null;
+        final Calendar loanCalendar = null;
+        final BigDecimal principal = BigDecimal.valueOf(100000);
+
+        return LoanApplicationTerms.assembleFrom(this.applicationCurrency, this.numberOfRepayments, PeriodFrequencyType.MONTHS,
+                this.numberOfRepayments, 1, PeriodFrequencyType.MONTHS, nthDay, weekDayType, AmortizationMethod.EQUAL_INSTALLMENTS,
+                InterestMethod.valueOf(this.interestMethod), BigDecimal.valueOf(2), PeriodFrequencyType.MONTHS, BigDecimal.valueOf(24),
+                InterestCalculationPeriodMethod.SAME_AS_REPAYMENT_PERIOD, Money.of(this.currency, principal), this.disbursementDate,
+                repaymentsStartingFromDate, calculatedRepaymentsStartingFromDate, graceOnPrincipalPayment, graceOnInterestPayment,
+                graceOnInterestCharged, interestChargedFromDate, Money.zero(this.currency), false, emiAmount,
+                new ArrayList<DisbursementData>(), maxOutstandingBalance, new ArrayList<LoanTermVariationsData>(), graceOnArrearsAgeing,
+                DaysInMonthType.ACTUAL, DaysInYearType.ACTUAL, false, recalculationFrequencyType, restCalendarInstance,
+                compoundingCalendarInstance, compoundingFrequencyType, BigDecimal.valueOf(50), installmentAmountInMultiplesOf,
+                LoanPreClosureInterestCalculationStrategy.NONE, loanCalendar, principal, new ArrayList<LoanTermVariationsData>());
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.savings.domain;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.mifosplatform.organisation.monetary.domain.MonetaryCurrency;
+import org.mifosplatform.organisation.monetary.domain.Money;
+import org.mifosplatform.organisation.monetary.domain.MoneyHelper;
+import org.mifosplatform.portfolio.account.service.AccountTransfersReadPlatformService;
+import org.mifosplatform.portfolio.accountdetails.domain.AccountType;
+import org.mifosplatform.portfolio.savings.SavingsCompoundingInterestPeriodType;
+import org.mifosplatform.portfolio.savings.SavingsInterestCalculationDaysInYearType;
+import org.mifosplatform.portfolio.savings.SavingsInterestCalculationType;
+import org.mifosplatform.portfolio.savings.SavingsPostingInterestPeriodType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Calculates the interest of a savings account with daily compounding and
+ * monthly posting over its whole transaction history, as done by the interest
+ * posting job and on every back dated savings transaction. The account is
+ * assembled in memory, with no interest posted yet through account
+ * transfers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SavingsAccountInterestBenchmark {
+
+    @Param({ "DAILY_BALANCE", "AVERAGE_DAILY_BALANCE" })
+    private String interestCalculationType;
+
+    @Param({ "200" })
+    private int numberOfTransactions;
+
+    private final LocalDate activationDate = new LocalDate(2013, 1, 1);
+    private final MonetaryCurrency currency = new MonetaryCurrency("USD", 2, null);
+
+    private SavingsAccount account;
+    private MathContext mc;
+    private LocalDate upToInterestCalculationDate;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Field roundingMode = MoneyHelper.class.getDeclaredField("roundingMode");
+        roundingMode.setAccessible(true);
+        roundingMode.set(null, RoundingMode.HALF_EVEN);
+        this.mc = new MathContext(10, RoundingMode.HALF_EVEN);
+
+        final BigDecimal interestRate = BigDecimal.valueOf(5);
+        final SavingsCompoundingInterestPeriodType compoundingType = SavingsCompoundingInterestPeriodType.DAILY;
+        final SavingsPostingInterestPeriodType postingType = SavingsPostingInterestPeriodType.MONTHLY;
+        final SavingsInterestCalculationType calculationType = SavingsInterestCalculationType.valueOf(this.interestCalculationType);
+        final SavingsInterestCalculationDaysInYearType daysInYearType = SavingsInterestCalculationDaysInYearType.DAYS_365;
+
+        final SavingsProduct product = SavingsProduct.createNew("Savings", "SAV", null, this.currency, interestRate, compoundingType,
+                postingType, calculationType, daysInYearType, null, null, null, false, null, null, false, null, false, null, null);
+        this.account = SavingsAccount.createNewApplicationForSubmittal(null, null, product, null, "000000001", null,
+                AccountType.INDIVIDUAL, this.activationDate, null, interestRate, compoundingType, postingType, calculationType,
+                daysInYearType, null, null, null, false, new HashSet<SavingsAccountCharge>(), false, null, false, null);
+        this.account.activatedOnDate = this.activationDate.toDate();
+
+        final AccountTransfersReadPlatformService accountTransfersReadPlatformService = mock(AccountTransfersReadPlatformService.class);
+        when(accountTransfersReadPlatformService.fetchPostInterestTransactionIds(anyLong())).thenReturn(new ArrayList<Long>());
+        this.account.setHelpers(new SavingsAccountTransactionSummaryWrapper(), new SavingsHelper(accountTransfersReadPlatformService));
+
+        // a deposit every third day with a smaller withdrawal after every
+        // second deposit, so the balance never goes into overdraft
+        LocalDate transactionDate = this.activationDate;
+        for (int transactionNumber = 1; transactionNumber <= this.numberOfTransactions; transactionNumber++) {
+            final SavingsAccountTransaction transaction;
+            if (transactionNumber % 3 == 0) {
+                transaction = SavingsAccountTransaction.withdrawal(this.account, null, null, transactionDate,
+                        Money.of(this.currency, BigDecimal.valueOf(150)), transactionDate.toDate(), null);
+            } else {
+                transaction = SavingsAccountTransaction.deposit(this.account, null, null, transactionDate,
+                        Money.of(this.currency, BigDecimal.valueOf(100 + transactionNumber)), transactionDate.toDate(), null);
+            }
+            this.account.transactions.add(transaction);
+            transactionDate = transactionDate.plusDays(3);
+        }
+        this.upToInterestCalculationDate = transactionDate;
+    }
+
+    /**
+     * The same account is reused by every invocation; as none of its
+     * transactions change, the daily balances are recalculated from the
+     * balance checkpoint and only the interest itself is calculated again.
+     */
+    @Benchmark
+    public void calculateInterest(final Blackhole blackhole) {
+        final boolean isInterestTransfer = false;
+        final boolean isSavingsInterestPostingAtCurrentPeriodEnd = false;
+        final Integer financialYearBeginningMonth = 1;
+        blackhole.consume(this.account.calculateInterestUsing(this.mc, this.upToInterestCalculationDate, isInterestTransfer,
+                isSavingsInterestPostingAtCurrentPeriodEnd, financialYearBeginningMonth));
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.useradministration.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * The permission check done for every API request, against the per-role scan
+ * it replaced, for a user whose roles do not grant the permission (the worst
+ * case of the scan).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AppUserPermissionBenchmark {
+
+    private static final String MISSING_PERMISSION = "DELETE_UNKNOWN";
+
+    @Param({ "5", "50" })
+    private int numberOfRoles;
+
+    @Param({ "200" })
+    private int permissionsPerRole;
+
+    private Set<Role> roles;
+    private AppUser user;
+
+    @Setup
+    public void setUp() {
+        this.roles = new HashSet<>();
+        for (int r = 0; r < this.numberOfRoles; r++) {
+            final Role role = new Role("Role " + r, "Role " + r);
+            for (int p = 0; p < this.permissionsPerRole; p++) {
+                role.updatePermission(new Permission("portfolio", "ENTITY" + r, "ACTION" + p), true);
+            }
+            this.roles.add(role);
+        }
+        final User springUser = new User("mifos", "password", true, true, true, true, new ArrayList<SimpleGrantedAuthority>());
+        this.user = new AppUser(null, springUser, this.roles, "mifos@example.com", "App", "User", null, false);
+    }
+
+    @Benchmark
+    public boolean permissionLookup() {
+        return this.user.hasNotPermissionForAnyOf(MISSING_PERMISSION);
+    }
+
+    @Benchmark
+    public boolean roleScan() {
+        for (final Role role : this.roles) {
+            if (role.hasPermissionTo("ALL_FUNCTIONS") || role.hasPermissionTo(MISSING_PERMISSION)) { return false; }
+        }
+        return true;
+    }
+}
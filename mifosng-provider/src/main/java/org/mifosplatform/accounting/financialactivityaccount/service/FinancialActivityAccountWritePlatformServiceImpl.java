@@ -24,6 +24,7 @@ import org.mifosplatform.infrastructure.core.exception.PlatformDataIntegrityExce
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -45,6 +46,7 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
     }
 
     @Override
+    @CacheEvict(value = "accounting_mappings", allEntries = true)
     public CommandProcessingResult createFinancialActivityAccountMapping(JsonCommand command) {
         try {
 
@@ -80,6 +82,7 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
     }
 
     @Override
+    @CacheEvict(value = "accounting_mappings", allEntries = true)
     public CommandProcessingResult updateGLAccountActivityMapping(Long financialActivityAccountId, JsonCommand command) {
         try {
             this.fromApiJsonDeserializer.validateForUpdate(command.json());
@@ -115,6 +118,7 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
     }
 
     @Override
+    @CacheEvict(value = "accounting_mappings", allEntries = true)
     public CommandProcessingResult deleteGLAccountActivityMapping(Long financialActivityAccountId, JsonCommand command) {
         final FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
                 .findOneWithNotFoundDetection(financialActivityAccountId);
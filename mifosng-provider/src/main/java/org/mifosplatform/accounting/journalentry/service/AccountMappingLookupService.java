@@ -0,0 +1,39 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.accounting.journalentry.service;
+
+/**
+ * Resolves the GL accounts that journal entries for portfolio transactions are
+ * posted to. Lookups are cached per tenant and evicted whenever product to GL
+ * account mappings or financial activity mappings are written.
+ */
+public interface AccountMappingLookupService {
+
+    /**
+     * @return id of the GL account mapped to the product for the account type,
+     *         ignoring payment type and charge specific mappings, or
+     *         <code>null</code> when there is no such mapping
+     */
+    Long findProductGLAccountId(Long productId, int productType, int financialAccountType);
+
+    /**
+     * @return id of the GL account mapped to the product for the account type
+     *         and payment type, or <code>null</code> when there is no such
+     *         mapping
+     */
+    Long findPaymentTypeGLAccountId(Long productId, int productType, int financialAccountType, Long paymentTypeId);
+
+    /**
+     * @return id of the GL account mapped to the product for the account type
+     *         and charge, or <code>null</code> when there is no such mapping
+     */
+    Long findChargeGLAccountId(Long productId, int productType, int financialAccountType, Long chargeId);
+
+    /**
+     * @return id of the GL account mapped to the financial activity
+     */
+    Long findFinancialActivityGLAccountId(int financialActivityType);
+}
@@ -0,0 +1,66 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.accounting.journalentry.service;
+
+import org.mifosplatform.accounting.financialactivityaccount.domain.FinancialActivityAccount;
+import org.mifosplatform.accounting.financialactivityaccount.domain.FinancialActivityAccountRepositoryWrapper;
+import org.mifosplatform.accounting.producttoaccountmapping.domain.ProductToGLAccountMapping;
+import org.mifosplatform.accounting.producttoaccountmapping.domain.ProductToGLAccountMappingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AccountMappingLookupServiceImpl implements AccountMappingLookupService {
+
+    private final ProductToGLAccountMappingRepository accountMappingRepository;
+    private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository;
+
+    @Autowired
+    public AccountMappingLookupServiceImpl(final ProductToGLAccountMappingRepository accountMappingRepository,
+            final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository) {
+        this.accountMappingRepository = accountMappingRepository;
+        this.financialActivityAccountRepository = financialActivityAccountRepository;
+    }
+
+    @Override
+    @Cacheable(value = "accounting_mappings", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('PM').concat(#productId+':'+#productType+':'+#financialAccountType)")
+    public Long findProductGLAccountId(final Long productId, final int productType, final int financialAccountType) {
+        return glAccountIdOf(this.accountMappingRepository.findCoreProductToFinAccountMapping(productId, productType,
+                financialAccountType));
+    }
+
+    @Override
+    @Cacheable(value = "accounting_mappings", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('PT').concat(#productId+':'+#productType+':'+#financialAccountType+':'+#paymentTypeId)")
+    public Long findPaymentTypeGLAccountId(final Long productId, final int productType, final int financialAccountType,
+            final Long paymentTypeId) {
+        return glAccountIdOf(this.accountMappingRepository.findByProductIdAndProductTypeAndFinancialAccountTypeAndPaymentTypeId(
+                productId, productType, financialAccountType, paymentTypeId));
+    }
+
+    @Override
+    @Cacheable(value = "accounting_mappings", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('CH').concat(#productId+':'+#productType+':'+#financialAccountType+':'+#chargeId)")
+    public Long findChargeGLAccountId(final Long productId, final int productType, final int financialAccountType, final Long chargeId) {
+        return glAccountIdOf(this.accountMappingRepository.findByProductIdAndProductTypeAndFinancialAccountTypeAndChargeId(productId,
+                productType, financialAccountType, chargeId));
+    }
+
+    @Override
+    @Cacheable(value = "accounting_mappings", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('FA').concat(#financialActivityType+'')")
+    public Long findFinancialActivityGLAccountId(final int financialActivityType) {
+        final FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
+                .findByFinancialActivityTypeWithNotFoundDetection(financialActivityType);
+        return financialActivityAccount.getGlAccount().getId();
+    }
+
+    private static Long glAccountIdOf(final ProductToGLAccountMapping accountMapping) {
+        Long glAccountId = null;
+        if (accountMapping != null) {
+            glAccountId = accountMapping.getGlAccount().getId();
+        }
+        return glAccountId;
+    }
+}
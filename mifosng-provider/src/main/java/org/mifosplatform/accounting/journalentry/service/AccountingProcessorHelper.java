@@ -20,10 +20,7 @@ import org.mifosplatform.accounting.common.AccountingConstants.ACCRUAL_ACCOUNTS_
 import org.mifosplatform.accounting.common.AccountingConstants.CASH_ACCOUNTS_FOR_LOAN;
 import org.mifosplatform.accounting.common.AccountingConstants.CASH_ACCOUNTS_FOR_SAVINGS;
 import org.mifosplatform.accounting.common.AccountingConstants.FINANCIAL_ACTIVITY;
-import org.mifosplatform.accounting.financialactivityaccount.domain.FinancialActivityAccount;
-import org.mifosplatform.accounting.financialactivityaccount.domain.FinancialActivityAccountRepositoryWrapper;
 import org.mifosplatform.accounting.glaccount.domain.GLAccount;
-import org.mifosplatform.accounting.glaccount.domain.GLAccountRepositoryWrapper;
 import org.mifosplatform.accounting.journalentry.data.ChargePaymentDTO;
 import org.mifosplatform.accounting.journalentry.data.ClientChargePaymentDTO;
 import org.mifosplatform.accounting.journalentry.data.ClientTransactionDTO;
@@ -31,14 +28,10 @@ import org.mifosplatform.accounting.journalentry.data.LoanDTO;
 import org.mifosplatform.accounting.journalentry.data.LoanTransactionDTO;
 import org.mifosplatform.accounting.journalentry.data.SavingsDTO;
 import org.mifosplatform.accounting.journalentry.data.SavingsTransactionDTO;
-import org.mifosplatform.accounting.journalentry.domain.JournalEntry;
-import org.mifosplatform.accounting.journalentry.domain.JournalEntryRepository;
 import org.mifosplatform.accounting.journalentry.domain.JournalEntryType;
 import org.mifosplatform.accounting.journalentry.exception.JournalEntryInvalidException;
 import org.mifosplatform.accounting.journalentry.exception.JournalEntryInvalidException.GL_JOURNAL_ENTRY_INVALID_REASON;
 import org.mifosplatform.accounting.producttoaccountmapping.domain.PortfolioProductType;
-import org.mifosplatform.accounting.producttoaccountmapping.domain.ProductToGLAccountMapping;
-import org.mifosplatform.accounting.producttoaccountmapping.domain.ProductToGLAccountMappingRepository;
 import org.mifosplatform.accounting.producttoaccountmapping.exception.ProductToGLAccountMappingNotFoundException;
 import org.mifosplatform.infrastructure.core.data.EnumOptionData;
 import org.mifosplatform.infrastructure.core.exception.PlatformDataIntegrityException;
@@ -47,12 +40,9 @@ import org.mifosplatform.organisation.office.domain.Office;
 import org.mifosplatform.organisation.office.domain.OfficeRepository;
 import org.mifosplatform.portfolio.account.PortfolioAccountType;
 import org.mifosplatform.portfolio.account.service.AccountTransfersReadPlatformService;
-import org.mifosplatform.portfolio.client.domain.ClientTransaction;
-import org.mifosplatform.portfolio.client.domain.ClientTransactionRepositoryWrapper;
 import org.mifosplatform.portfolio.loanaccount.data.LoanTransactionEnumData;
 import org.mifosplatform.portfolio.loanaccount.domain.LoanTransaction;
 import org.mifosplatform.portfolio.loanaccount.domain.LoanTransactionRepository;
-import org.mifosplatform.portfolio.paymentdetail.domain.PaymentDetail;
 import org.mifosplatform.portfolio.savings.data.SavingsAccountTransactionEnumData;
 import org.mifosplatform.portfolio.savings.domain.SavingsAccountTransaction;
 import org.mifosplatform.portfolio.savings.domain.SavingsAccountTransactionRepository;
@@ -66,36 +56,27 @@ public class AccountingProcessorHelper {
     public static final String SAVINGS_TRANSACTION_IDENTIFIER = "S";
     public static final String CLIENT_TRANSACTION_IDENTIFIER = "C";
     public static final String PROVISIONING_TRANSACTION_IDENTIFIER = "P" ;
-    private final JournalEntryRepository glJournalEntryRepository;
-    private final ProductToGLAccountMappingRepository accountMappingRepository;
-    private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository;
+    private final JournalEntryBatchWriter journalEntryWriter;
+    private final AccountMappingLookupService accountMappingLookupService;
     private final GLClosureRepository closureRepository;
-    private final GLAccountRepositoryWrapper accountRepositoryWrapper;
     private final OfficeRepository officeRepository;
     private final LoanTransactionRepository loanTransactionRepository;
-    private final ClientTransactionRepositoryWrapper clientTransactionRepository;
     private final SavingsAccountTransactionRepository savingsAccountTransactionRepository;
     private final AccountTransfersReadPlatformService accountTransfersReadPlatformService;
 
     @Autowired
-    public AccountingProcessorHelper(final JournalEntryRepository glJournalEntryRepository,
-            final ProductToGLAccountMappingRepository accountMappingRepository, final GLClosureRepository closureRepository,
+    public AccountingProcessorHelper(final JournalEntryBatchWriter journalEntryWriter,
+            final AccountMappingLookupService accountMappingLookupService, final GLClosureRepository closureRepository,
             final OfficeRepository officeRepository, final LoanTransactionRepository loanTransactionRepository,
             final SavingsAccountTransactionRepository savingsAccountTransactionRepository,
-            final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository,
-            final AccountTransfersReadPlatformService accountTransfersReadPlatformService,
-            final GLAccountRepositoryWrapper accountRepositoryWrapper,
-            final ClientTransactionRepositoryWrapper clientTransactionRepositoryWrapper) {
-        this.glJournalEntryRepository = glJournalEntryRepository;
-        this.accountMappingRepository = accountMappingRepository;
+            final AccountTransfersReadPlatformService accountTransfersReadPlatformService) {
+        this.journalEntryWriter = journalEntryWriter;
+        this.accountMappingLookupService = accountMappingLookupService;
         this.closureRepository = closureRepository;
         this.officeRepository = officeRepository;
         this.loanTransactionRepository = loanTransactionRepository;
         this.savingsAccountTransactionRepository = savingsAccountTransactionRepository;
-        this.financialActivityAccountRepository = financialActivityAccountRepository;
         this.accountTransfersReadPlatformService = accountTransfersReadPlatformService;
-        this.accountRepositoryWrapper = accountRepositoryWrapper;
-        this.clientTransactionRepository = clientTransactionRepositoryWrapper;
     }
 
     public LoanDTO populateLoanDtoFromMap(final Map<String, Object> accountingBridgeData, final boolean cashBasedAccountingEnabled,
@@ -314,33 +295,33 @@ public class AccountingProcessorHelper {
             final String transactionId, final Date transactionDate, final BigDecimal totalAmount, final Boolean isReversal,
             final List<ChargePaymentDTO> chargePaymentDTOs) {
 
-        GLAccount receivableAccount = getLinkedGLAccountForLoanCharges(loanProductId, accountTypeToBeDebited, null);
-        final Map<GLAccount, BigDecimal> creditDetailsMap = new LinkedHashMap<>();
+        final Long receivableAccountId = getLinkedGLAccountIdForLoanCharges(loanProductId, accountTypeToBeDebited, null);
+        final Map<Long, BigDecimal> creditDetailsMap = new LinkedHashMap<>();
         for (final ChargePaymentDTO chargePaymentDTO : chargePaymentDTOs) {
             final Long chargeId = chargePaymentDTO.getChargeId();
-            final GLAccount chargeSpecificAccount = getLinkedGLAccountForLoanCharges(loanProductId, accountTypeToBeCredited, chargeId);
+            final Long chargeSpecificAccountId = getLinkedGLAccountIdForLoanCharges(loanProductId, accountTypeToBeCredited, chargeId);
             BigDecimal chargeSpecificAmount = chargePaymentDTO.getAmount();
 
             // adjust net credit amount if the account is already present in the
             // map
-            if (creditDetailsMap.containsKey(chargeSpecificAccount)) {
-                final BigDecimal existingAmount = creditDetailsMap.get(chargeSpecificAccount);
+            if (creditDetailsMap.containsKey(chargeSpecificAccountId)) {
+                final BigDecimal existingAmount = creditDetailsMap.get(chargeSpecificAccountId);
                 chargeSpecificAmount = chargeSpecificAmount.add(existingAmount);
             }
-            creditDetailsMap.put(chargeSpecificAccount, chargeSpecificAmount);
+            creditDetailsMap.put(chargeSpecificAccountId, chargeSpecificAmount);
         }
 
         BigDecimal totalCreditedAmount = BigDecimal.ZERO;
-        for (final Map.Entry<GLAccount, BigDecimal> entry : creditDetailsMap.entrySet()) {
-            final GLAccount account = entry.getKey();
+        for (final Map.Entry<Long, BigDecimal> entry : creditDetailsMap.entrySet()) {
+            final Long accountId = entry.getKey();
             final BigDecimal amount = entry.getValue();
             totalCreditedAmount = totalCreditedAmount.add(amount);
             if (isReversal) {
-                createDebitJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
-                createCreditJournalEntryForLoan(office, currencyCode, receivableAccount, loanId, transactionId, transactionDate, amount);
+                createDebitJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
+                createCreditJournalEntryForLoan(office, currencyCode, receivableAccountId, loanId, transactionId, transactionDate, amount);
             } else {
-                createDebitJournalEntryForLoan(office, currencyCode, receivableAccount, loanId, transactionId, transactionDate, amount);
-                createCreditJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+                createDebitJournalEntryForLoan(office, currencyCode, receivableAccountId, loanId, transactionId, transactionDate, amount);
+                createCreditJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
             }
         }
 
@@ -462,29 +443,29 @@ public class AccountingProcessorHelper {
     private void createJournalEntriesForLoan(final Office office, final String currencyCode, final int accountTypeToDebitId,
             final int accountTypeToCreditId, final Long loanProductId, final Long paymentTypeId, final Long loanId,
             final String transactionId, final Date transactionDate, final BigDecimal amount) {
-        final GLAccount debitAccount = getLinkedGLAccountForLoanProduct(loanProductId, accountTypeToDebitId, paymentTypeId);
-        final GLAccount creditAccount = getLinkedGLAccountForLoanProduct(loanProductId, accountTypeToCreditId, paymentTypeId);
-        createDebitJournalEntryForLoan(office, currencyCode, debitAccount, loanId, transactionId, transactionDate, amount);
-        createCreditJournalEntryForLoan(office, currencyCode, creditAccount, loanId, transactionId, transactionDate, amount);
+        final Long debitAccountId = getLinkedGLAccountIdForLoanProduct(loanProductId, accountTypeToDebitId, paymentTypeId);
+        final Long creditAccountId = getLinkedGLAccountIdForLoanProduct(loanProductId, accountTypeToCreditId, paymentTypeId);
+        createDebitJournalEntryForLoan(office, currencyCode, debitAccountId, loanId, transactionId, transactionDate, amount);
+        createCreditJournalEntryForLoan(office, currencyCode, creditAccountId, loanId, transactionId, transactionDate, amount);
     }
 
     private void createJournalEntriesForSavings(final Office office, final String currencyCode, final int accountTypeToDebitId,
             final int accountTypeToCreditId, final Long savingsProductId, final Long paymentTypeId, final Long savingsId,
             final String transactionId, final Date transactionDate, final BigDecimal amount) {
-        final GLAccount debitAccount = getLinkedGLAccountForSavingsProduct(savingsProductId, accountTypeToDebitId, paymentTypeId);
-        final GLAccount creditAccount = getLinkedGLAccountForSavingsProduct(savingsProductId, accountTypeToCreditId, paymentTypeId);
-        createDebitJournalEntryForSavings(office, currencyCode, debitAccount, savingsId, transactionId, transactionDate, amount);
-        createCreditJournalEntryForSavings(office, currencyCode, creditAccount, savingsId, transactionId, transactionDate, amount);
+        final Long debitAccountId = getLinkedGLAccountIdForSavingsProduct(savingsProductId, accountTypeToDebitId, paymentTypeId);
+        final Long creditAccountId = getLinkedGLAccountIdForSavingsProduct(savingsProductId, accountTypeToCreditId, paymentTypeId);
+        createDebitJournalEntryForSavings(office, currencyCode, debitAccountId, savingsId, transactionId, transactionDate, amount);
+        createCreditJournalEntryForSavings(office, currencyCode, creditAccountId, savingsId, transactionId, transactionDate, amount);
     }
 
     public void createDebitJournalEntryOrReversalForLoan(final Office office, final String currencyCode, final int accountMappingTypeId,
             final Long loanProductId, final Long paymentTypeId, final Long loanId, final String transactionId, final Date transactionDate,
             final BigDecimal amount, final Boolean isReversal) {
-        final GLAccount account = getLinkedGLAccountForLoanProduct(loanProductId, accountMappingTypeId, paymentTypeId);
+        final Long accountId = getLinkedGLAccountIdForLoanProduct(loanProductId, accountMappingTypeId, paymentTypeId);
         if (isReversal) {
-            createCreditJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+            createCreditJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
         } else {
-            createDebitJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+            createDebitJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
         }
     }
 
@@ -496,30 +477,30 @@ public class AccountingProcessorHelper {
          * Map to track each account and the net credit to be made for a
          * particular account
          ***/
-        final Map<GLAccount, BigDecimal> creditDetailsMap = new LinkedHashMap<>();
+        final Map<Long, BigDecimal> creditDetailsMap = new LinkedHashMap<>();
         for (final ChargePaymentDTO chargePaymentDTO : chargePaymentDTOs) {
             final Long chargeId = chargePaymentDTO.getChargeId();
-            final GLAccount chargeSpecificAccount = getLinkedGLAccountForLoanCharges(loanProductId, accountMappingTypeId, chargeId);
+            final Long chargeSpecificAccountId = getLinkedGLAccountIdForLoanCharges(loanProductId, accountMappingTypeId, chargeId);
             BigDecimal chargeSpecificAmount = chargePaymentDTO.getAmount();
 
             // adjust net credit amount if the account is already present in the
             // map
-            if (creditDetailsMap.containsKey(chargeSpecificAccount)) {
-                final BigDecimal existingAmount = creditDetailsMap.get(chargeSpecificAccount);
+            if (creditDetailsMap.containsKey(chargeSpecificAccountId)) {
+                final BigDecimal existingAmount = creditDetailsMap.get(chargeSpecificAccountId);
                 chargeSpecificAmount = chargeSpecificAmount.add(existingAmount);
             }
-            creditDetailsMap.put(chargeSpecificAccount, chargeSpecificAmount);
+            creditDetailsMap.put(chargeSpecificAccountId, chargeSpecificAmount);
         }
 
         BigDecimal totalCreditedAmount = BigDecimal.ZERO;
-        for (final Map.Entry<GLAccount, BigDecimal> entry : creditDetailsMap.entrySet()) {
-            final GLAccount account = entry.getKey();
+        for (final Map.Entry<Long, BigDecimal> entry : creditDetailsMap.entrySet()) {
+            final Long accountId = entry.getKey();
             final BigDecimal amount = entry.getValue();
             totalCreditedAmount = totalCreditedAmount.add(amount);
             if (isReversal) {
-                createDebitJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+                createDebitJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
             } else {
-                createCreditJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+                createCreditJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
             }
         }
 
@@ -569,19 +550,19 @@ public class AccountingProcessorHelper {
                 "Recent Portfolio changes w.r.t Charges for Savings have Broken the accounting code"); }
         ChargePaymentDTO chargePaymentDTO = chargePaymentDTOs.get(0);
 
-        final GLAccount chargeSpecificAccount = getLinkedGLAccountForSavingsCharges(savingsProductId, accountTypeToBeCredited.getValue(),
-                chargePaymentDTO.getChargeId());
-        final GLAccount savingsControlAccount = getLinkedGLAccountForSavingsProduct(savingsProductId, accountTypeToBeDebited.getValue(),
+        final Long chargeSpecificAccountId = getLinkedGLAccountIdForSavingsCharges(savingsProductId,
+                accountTypeToBeCredited.getValue(), chargePaymentDTO.getChargeId());
+        final Long savingsControlAccountId = getLinkedGLAccountIdForSavingsProduct(savingsProductId, accountTypeToBeDebited.getValue(),
                 paymentTypeId);
         if (isReversal) {
-            createDebitJournalEntryForSavings(office, currencyCode, chargeSpecificAccount, loanId, transactionId, transactionDate,
+            createDebitJournalEntryForSavings(office, currencyCode, chargeSpecificAccountId, loanId, transactionId, transactionDate,
                     totalAmount);
-            createCreditJournalEntryForSavings(office, currencyCode, savingsControlAccount, loanId, transactionId, transactionDate,
+            createCreditJournalEntryForSavings(office, currencyCode, savingsControlAccountId, loanId, transactionId, transactionDate,
                     totalAmount);
         } else {
-            createDebitJournalEntryForSavings(office, currencyCode, savingsControlAccount, loanId, transactionId, transactionDate,
+            createDebitJournalEntryForSavings(office, currencyCode, savingsControlAccountId, loanId, transactionId, transactionDate,
                     totalAmount);
-            createCreditJournalEntryForSavings(office, currencyCode, chargeSpecificAccount, loanId, transactionId, transactionDate,
+            createCreditJournalEntryForSavings(office, currencyCode, chargeSpecificAccountId, loanId, transactionId, transactionDate,
                     totalAmount);
         }
     }
@@ -597,162 +578,104 @@ public class AccountingProcessorHelper {
     private void createCreditJournalEntryOrReversalForLoan(final Office office, final String currencyCode, final int accountMappingTypeId,
             final Long loanProductId, final Long paymentTypeId, final Long loanId, final String transactionId, final Date transactionDate,
             final BigDecimal amount, final Boolean isReversal) {
-        final GLAccount account = getLinkedGLAccountForLoanProduct(loanProductId, accountMappingTypeId, paymentTypeId);
+        final Long accountId = getLinkedGLAccountIdForLoanProduct(loanProductId, accountMappingTypeId, paymentTypeId);
         if (isReversal) {
-            createDebitJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+            createDebitJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
         } else {
-            createCreditJournalEntryForLoan(office, currencyCode, account, loanId, transactionId, transactionDate, amount);
+            createCreditJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, amount);
         }
     }
 
-    private void createCreditJournalEntryForClientPayments(final Office office, final String currencyCode, final GLAccount account,
+    private void createCreditJournalEntryForClientPayments(final Office office, final String currencyCode, final Long accountId,
             final Long clientId, final Long transactionId, final Date transactionDate, final BigDecimal amount) {
-        final boolean manualEntry = false;
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        final PaymentDetail paymentDetail = null;
-
-        clientTransaction = this.clientTransactionRepository.findOneWithNotFoundDetection(clientId, transactionId);
-
-        String modifiedTransactionId = transactionId.toString();
-        modifiedTransactionId = CLIENT_TRANSACTION_IDENTIFIER + transactionId;
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.CLIENT.getValue(), clientId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        createJournalEntryForClientPayments(office, currencyCode, accountId, clientId, transactionId, transactionDate,
+                JournalEntryType.CREDIT, amount);
     }
 
-    private void createCreditJournalEntryForSavings(final Office office, final String currencyCode, final GLAccount account,
+    private void createCreditJournalEntryForSavings(final Office office, final String currencyCode, final Long accountId,
             final Long savingsId, final String transactionId, final Date transactionDate, final BigDecimal amount) {
-        final boolean manualEntry = false;
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        final PaymentDetail paymentDetail = null;
-        String modifiedTransactionId = transactionId;
-        if (StringUtils.isNumeric(transactionId)) {
-            long id = Long.parseLong(transactionId);
-            savingsAccountTransaction = this.savingsAccountTransactionRepository.findOne(id);
-            modifiedTransactionId = SAVINGS_TRANSACTION_IDENTIFIER + transactionId;
-        }
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.SAVING.getValue(), savingsId,
-                null, loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        createJournalEntryForSavings(office, currencyCode, accountId, savingsId, transactionId, transactionDate, JournalEntryType.CREDIT,
+                amount);
     }
 
-    private void createCreditJournalEntryForLoan(final Office office, final String currencyCode, final GLAccount account, final Long loanId,
+    private void createCreditJournalEntryForLoan(final Office office, final String currencyCode, final Long accountId, final Long loanId,
             final String transactionId, final Date transactionDate, final BigDecimal amount) {
-        final boolean manualEntry = false;
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        final PaymentDetail paymentDetail = null;
-        String modifiedTransactionId = transactionId;
-        if (StringUtils.isNumeric(transactionId)) {
-            long id = Long.parseLong(transactionId);
-            loanTransaction = this.loanTransactionRepository.findOne(id);
-            modifiedTransactionId = LOAN_TRANSACTION_IDENTIFIER + transactionId;
-        }
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.LOAN.getValue(), loanId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        createJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, JournalEntryType.CREDIT, amount);
     }
 
     public void createProvisioningDebitJournalEntry(Date transactionDate, Long provisioningentryId, Office office, String currencyCode, GLAccount account,BigDecimal amount) {
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        PaymentDetail paymentDetail = null ;
-        final boolean manualEntry = false;
-        String modifiedTransactionId = PROVISIONING_TRANSACTION_IDENTIFIER + provisioningentryId;
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.PROVISIONING.getValue(), provisioningentryId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        createJournalEntryForProvisioning(transactionDate, provisioningentryId, office, currencyCode, account, JournalEntryType.DEBIT,
+                amount);
     }
     
     public void createProvisioningCreditJournalEntry(Date transactionDate, Long provisioningentryId, Office office, String currencyCode, GLAccount account, BigDecimal amount) {
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        PaymentDetail paymentDetail = null ;
-        final boolean manualEntry = false;
-        String modifiedTransactionId = PROVISIONING_TRANSACTION_IDENTIFIER + provisioningentryId;
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.PROVISIONING.getValue(), provisioningentryId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        createJournalEntryForProvisioning(transactionDate, provisioningentryId, office, currencyCode, account, JournalEntryType.CREDIT,
+                amount);
     }
     
-    private void createDebitJournalEntryForLoan(final Office office, final String currencyCode, final GLAccount account, final Long loanId,
+    private void createDebitJournalEntryForLoan(final Office office, final String currencyCode, final Long accountId, final Long loanId,
             final String transactionId, final Date transactionDate, final BigDecimal amount) {
-        final boolean manualEntry = false;
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        final PaymentDetail paymentDetail = null;
+        createJournalEntryForLoan(office, currencyCode, accountId, loanId, transactionId, transactionDate, JournalEntryType.DEBIT, amount);
+    }
+
+    private void createDebitJournalEntryForSavings(final Office office, final String currencyCode, final Long accountId,
+            final Long savingsId, final String transactionId, final Date transactionDate, final BigDecimal amount) {
+        createJournalEntryForSavings(office, currencyCode, accountId, savingsId, transactionId, transactionDate, JournalEntryType.DEBIT,
+                amount);
+    }
+
+    private void createDebitJournalEntryForClientPayments(final Office office, final String currencyCode, final Long accountId,
+            final Long clientId, final Long transactionId, final Date transactionDate, final BigDecimal amount) {
+        createJournalEntryForClientPayments(office, currencyCode, accountId, clientId, transactionId, transactionDate,
+                JournalEntryType.DEBIT, amount);
+    }
+
+    private void createJournalEntryForLoan(final Office office, final String currencyCode, final Long accountId, final Long loanId,
+            final String transactionId, final Date transactionDate, final JournalEntryType journalEntryType, final BigDecimal amount) {
+        Long loanTransactionId = null;
         String modifiedTransactionId = transactionId;
         if (StringUtils.isNumeric(transactionId)) {
-            long id = Long.parseLong(transactionId);
-            loanTransaction = this.loanTransactionRepository.findOne(id);
+            loanTransactionId = Long.parseLong(transactionId);
             modifiedTransactionId = LOAN_TRANSACTION_IDENTIFIER + transactionId;
         }
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.LOAN.getValue(), loanId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryWriter.createJournalEntry(office.getId(), accountId, currencyCode, modifiedTransactionId, loanTransactionId, null,
+                null, transactionDate, journalEntryType, amount, PortfolioProductType.LOAN.getValue(), loanId);
     }
 
-    private void createDebitJournalEntryForSavings(final Office office, final String currencyCode, final GLAccount account,
-            final Long savingsId, final String transactionId, final Date transactionDate, final BigDecimal amount) {
-        final boolean manualEntry = false;
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        ClientTransaction clientTransaction = null;
-        final PaymentDetail paymentDetail = null;
+    private void createJournalEntryForSavings(final Office office, final String currencyCode, final Long accountId, final Long savingsId,
+            final String transactionId, final Date transactionDate, final JournalEntryType journalEntryType, final BigDecimal amount) {
+        Long savingsTransactionId = null;
         String modifiedTransactionId = transactionId;
         if (StringUtils.isNumeric(transactionId)) {
-            long id = Long.parseLong(transactionId);
-            savingsAccountTransaction = this.savingsAccountTransactionRepository.findOne(id);
+            savingsTransactionId = Long.parseLong(transactionId);
             modifiedTransactionId = SAVINGS_TRANSACTION_IDENTIFIER + transactionId;
         }
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.SAVING.getValue(), savingsId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryWriter.createJournalEntry(office.getId(), accountId, currencyCode, modifiedTransactionId, null,
+                savingsTransactionId, null, transactionDate, journalEntryType, amount, PortfolioProductType.SAVING.getValue(), savingsId);
     }
 
-    private void createDebitJournalEntryForClientPayments(final Office office, final String currencyCode, final GLAccount account,
-            final Long clientId, final Long transactionId, final Date transactionDate, final BigDecimal amount) {
-        final boolean manualEntry = false;
-        ClientTransaction clientTransaction = null;
-        LoanTransaction loanTransaction = null;
-        SavingsAccountTransaction savingsAccountTransaction = null;
-        final PaymentDetail paymentDetail = null;
-
-        clientTransaction = this.clientTransactionRepository.findOneWithNotFoundDetection(clientId, transactionId);
-        String modifiedTransactionId = transactionId.toString();
-        modifiedTransactionId = CLIENT_TRANSACTION_IDENTIFIER + transactionId;
+    private void createJournalEntryForClientPayments(final Office office, final String currencyCode, final Long accountId,
+            final Long clientId, final Long transactionId, final Date transactionDate, final JournalEntryType journalEntryType,
+            final BigDecimal amount) {
+        final String modifiedTransactionId = CLIENT_TRANSACTION_IDENTIFIER + transactionId;
+        this.journalEntryWriter.createJournalEntry(office.getId(), accountId, currencyCode, modifiedTransactionId, null, null,
+                transactionId, transactionDate, journalEntryType, amount, PortfolioProductType.CLIENT.getValue(), clientId);
+    }
 
-        final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
-                manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.CLIENT.getValue(), clientId, null,
-                loanTransaction, savingsAccountTransaction, clientTransaction);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+    private void createJournalEntryForProvisioning(final Date transactionDate, final Long provisioningEntryId, final Office office,
+            final String currencyCode, final GLAccount account, final JournalEntryType journalEntryType, final BigDecimal amount) {
+        final String modifiedTransactionId = PROVISIONING_TRANSACTION_IDENTIFIER + provisioningEntryId;
+        this.journalEntryWriter.createJournalEntry(office.getId(), account.getId(), currencyCode, modifiedTransactionId, null, null,
+                null, transactionDate, journalEntryType, amount, PortfolioProductType.PROVISIONING.getValue(), provisioningEntryId);
     }
 
-    private GLAccount getLinkedGLAccountForLoanProduct(final Long loanProductId, final int accountMappingTypeId, final Long paymentTypeId) {
-        GLAccount glAccount = null;
+    private Long getLinkedGLAccountIdForLoanProduct(final Long loanProductId, final int accountMappingTypeId, final Long paymentTypeId) {
+        Long glAccountId = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
-            FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
-                    .findByFinancialActivityTypeWithNotFoundDetection(accountMappingTypeId);
-            glAccount = financialActivityAccount.getGlAccount();
+            glAccountId = this.accountMappingLookupService.findFinancialActivityGLAccountId(accountMappingTypeId);
         } else {
-            ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(loanProductId,
-                    PortfolioProductType.LOAN.getValue(), accountMappingTypeId);
+            glAccountId = this.accountMappingLookupService.findProductGLAccountId(loanProductId, PortfolioProductType.LOAN.getValue(),
+                    accountMappingTypeId);
 
             /****
              * Get more specific mapping for FUND source accounts (based on
@@ -760,24 +683,22 @@ public class AccountingProcessorHelper {
              * same for both cash and accrual accounts
              ***/
             if (accountMappingTypeId == CASH_ACCOUNTS_FOR_LOAN.FUND_SOURCE.getValue()) {
-                final ProductToGLAccountMapping paymentChannelSpecificAccountMapping = this.accountMappingRepository
-                        .findByProductIdAndProductTypeAndFinancialAccountTypeAndPaymentTypeId(loanProductId,
-                                PortfolioProductType.LOAN.getValue(), accountMappingTypeId, paymentTypeId);
-                if (paymentChannelSpecificAccountMapping != null) {
-                    accountMapping = paymentChannelSpecificAccountMapping;
+                final Long paymentChannelSpecificGLAccountId = this.accountMappingLookupService.findPaymentTypeGLAccountId(
+                        loanProductId, PortfolioProductType.LOAN.getValue(), accountMappingTypeId, paymentTypeId);
+                if (paymentChannelSpecificGLAccountId != null) {
+                    glAccountId = paymentChannelSpecificGLAccountId;
                 }
             }
 
-            if (accountMapping == null) { throw new ProductToGLAccountMappingNotFoundException(PortfolioProductType.LOAN, loanProductId,
+            if (glAccountId == null) { throw new ProductToGLAccountMappingNotFoundException(PortfolioProductType.LOAN, loanProductId,
                     ACCRUAL_ACCOUNTS_FOR_LOAN.OVERPAYMENT.toString()); }
-            glAccount = accountMapping.getGlAccount();
         }
-        return glAccount;
+        return glAccountId;
     }
 
-    private GLAccount getLinkedGLAccountForLoanCharges(final Long loanProductId, final int accountMappingTypeId, final Long chargeId) {
-        ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(loanProductId,
-                PortfolioProductType.LOAN.getValue(), accountMappingTypeId);
+    private Long getLinkedGLAccountIdForLoanCharges(final Long loanProductId, final int accountMappingTypeId, final Long chargeId) {
+        Long glAccountId = this.accountMappingLookupService.findProductGLAccountId(loanProductId, PortfolioProductType.LOAN.getValue(),
+                accountMappingTypeId);
                 /*****
                  * Get more specific mappings for Charges and penalties (based
                  * on the actual charge /penalty coupled with the loan product).
@@ -789,19 +710,18 @@ public class AccountingProcessorHelper {
         // Vishwas TODO: remove this condition as it should always be true
         if (accountMappingTypeId == CASH_ACCOUNTS_FOR_LOAN.INCOME_FROM_FEES.getValue()
                 || accountMappingTypeId == CASH_ACCOUNTS_FOR_LOAN.INCOME_FROM_PENALTIES.getValue()) {
-            final ProductToGLAccountMapping chargeSpecificIncomeAccountMapping = this.accountMappingRepository
-                    .findByProductIdAndProductTypeAndFinancialAccountTypeAndChargeId(loanProductId, PortfolioProductType.LOAN.getValue(),
-                            accountMappingTypeId, chargeId);
-            if (chargeSpecificIncomeAccountMapping != null) {
-                accountMapping = chargeSpecificIncomeAccountMapping;
+            final Long chargeSpecificIncomeGLAccountId = this.accountMappingLookupService.findChargeGLAccountId(loanProductId,
+                    PortfolioProductType.LOAN.getValue(), accountMappingTypeId, chargeId);
+            if (chargeSpecificIncomeGLAccountId != null) {
+                glAccountId = chargeSpecificIncomeGLAccountId;
             }
         }
-        return accountMapping.getGlAccount();
+        return glAccountId;
     }
 
-    private GLAccount getLinkedGLAccountForSavingsCharges(final Long savingsProductId, final int accountMappingTypeId,
+    private Long getLinkedGLAccountIdForSavingsCharges(final Long savingsProductId, final int accountMappingTypeId,
             final Long chargeId) {
-        ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(savingsProductId,
+        Long glAccountId = this.accountMappingLookupService.findProductGLAccountId(savingsProductId,
                 PortfolioProductType.SAVING.getValue(), accountMappingTypeId);
                 /*****
                  * Get more specific mappings for Charges and penalties (based
@@ -814,25 +734,22 @@ public class AccountingProcessorHelper {
         // Vishwas TODO: remove this condition as it should always be true
         if (accountMappingTypeId == CASH_ACCOUNTS_FOR_SAVINGS.INCOME_FROM_FEES.getValue()
                 || accountMappingTypeId == CASH_ACCOUNTS_FOR_LOAN.INCOME_FROM_PENALTIES.getValue()) {
-            final ProductToGLAccountMapping chargeSpecificIncomeAccountMapping = this.accountMappingRepository
-                    .findByProductIdAndProductTypeAndFinancialAccountTypeAndChargeId(savingsProductId,
-                            PortfolioProductType.SAVING.getValue(), accountMappingTypeId, chargeId);
-            if (chargeSpecificIncomeAccountMapping != null) {
-                accountMapping = chargeSpecificIncomeAccountMapping;
+            final Long chargeSpecificIncomeGLAccountId = this.accountMappingLookupService.findChargeGLAccountId(savingsProductId,
+                    PortfolioProductType.SAVING.getValue(), accountMappingTypeId, chargeId);
+            if (chargeSpecificIncomeGLAccountId != null) {
+                glAccountId = chargeSpecificIncomeGLAccountId;
             }
         }
-        return accountMapping.getGlAccount();
+        return glAccountId;
     }
 
-    private GLAccount getLinkedGLAccountForSavingsProduct(final Long savingsProductId, final int accountMappingTypeId,
+    private Long getLinkedGLAccountIdForSavingsProduct(final Long savingsProductId, final int accountMappingTypeId,
             final Long paymentTypeId) {
-        GLAccount glAccount = null;
+        Long glAccountId = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
-            FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
-                    .findByFinancialActivityTypeWithNotFoundDetection(accountMappingTypeId);
-            glAccount = financialActivityAccount.getGlAccount();
+            glAccountId = this.accountMappingLookupService.findFinancialActivityGLAccountId(accountMappingTypeId);
         } else {
-            ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(savingsProductId,
+            glAccountId = this.accountMappingLookupService.findProductGLAccountId(savingsProductId,
                     PortfolioProductType.SAVING.getValue(), accountMappingTypeId);
             /****
              * Get more specific mapping for FUND source accounts (based on
@@ -840,16 +757,14 @@ public class AccountingProcessorHelper {
              * same for both cash and accrual accounts
              ***/
             if (accountMappingTypeId == CASH_ACCOUNTS_FOR_SAVINGS.SAVINGS_REFERENCE.getValue()) {
-                final ProductToGLAccountMapping paymentChannelSpecificAccountMapping = this.accountMappingRepository
-                        .findByProductIdAndProductTypeAndFinancialAccountTypeAndPaymentTypeId(savingsProductId,
-                                PortfolioProductType.SAVING.getValue(), accountMappingTypeId, paymentTypeId);
-                if (paymentChannelSpecificAccountMapping != null) {
-                    accountMapping = paymentChannelSpecificAccountMapping;
+                final Long paymentChannelSpecificGLAccountId = this.accountMappingLookupService.findPaymentTypeGLAccountId(
+                        savingsProductId, PortfolioProductType.SAVING.getValue(), accountMappingTypeId, paymentTypeId);
+                if (paymentChannelSpecificGLAccountId != null) {
+                    glAccountId = paymentChannelSpecificGLAccountId;
                 }
             }
-            glAccount = accountMapping.getGlAccount();
         }
-        return glAccount;
+        return glAccountId;
     }
 
     private boolean isOrganizationAccount(final int accountMappingTypeId) {
@@ -867,31 +782,31 @@ public class AccountingProcessorHelper {
          * Map to track each account affected and the net credit to be made for
          * a particular account
          ***/
-        final Map<GLAccount, BigDecimal> creditDetailsMap = new LinkedHashMap<>();
+        final Map<Long, BigDecimal> creditDetailsMap = new LinkedHashMap<>();
         for (final ClientChargePaymentDTO clientChargePaymentDTO : clientChargePaymentDTOs) {
             if (clientChargePaymentDTO.getIncomeAccountId() != null) {
-                final GLAccount chargeSpecificAccount = getGLAccountById(clientChargePaymentDTO.getIncomeAccountId());
+                final Long chargeSpecificAccountId = clientChargePaymentDTO.getIncomeAccountId();
                 BigDecimal chargeSpecificAmount = clientChargePaymentDTO.getAmount();
 
                 // adjust net credit amount if the account is already present in
                 // the map
-                if (creditDetailsMap.containsKey(chargeSpecificAccount)) {
-                    final BigDecimal existingAmount = creditDetailsMap.get(chargeSpecificAccount);
+                if (creditDetailsMap.containsKey(chargeSpecificAccountId)) {
+                    final BigDecimal existingAmount = creditDetailsMap.get(chargeSpecificAccountId);
                     chargeSpecificAmount = chargeSpecificAmount.add(existingAmount);
                 }
-                creditDetailsMap.put(chargeSpecificAccount, chargeSpecificAmount);
+                creditDetailsMap.put(chargeSpecificAccountId, chargeSpecificAmount);
             }
         }
 
         BigDecimal totalCreditedAmount = BigDecimal.ZERO;
-        for (final Map.Entry<GLAccount, BigDecimal> entry : creditDetailsMap.entrySet()) {
-            final GLAccount account = entry.getKey();
+        for (final Map.Entry<Long, BigDecimal> entry : creditDetailsMap.entrySet()) {
+            final Long accountId = entry.getKey();
             final BigDecimal amount = entry.getValue();
             totalCreditedAmount = totalCreditedAmount.add(amount);
             if (isReversal) {
-                createDebitJournalEntryForClientPayments(office, currencyCode, account, clientId, transactionId, transactionDate, amount);
+                createDebitJournalEntryForClientPayments(office, currencyCode, accountId, clientId, transactionId, transactionDate, amount);
             } else {
-                createCreditJournalEntryForClientPayments(office, currencyCode, account, clientId, transactionId, transactionDate, amount);
+                createCreditJournalEntryForClientPayments(office, currencyCode, accountId, clientId, transactionId, transactionDate, amount);
             }
         }
         return totalCreditedAmount;
@@ -899,16 +814,12 @@ public class AccountingProcessorHelper {
 
     public void createDebitJournalEntryOrReversalForClientChargePayments(final Office office, final String currencyCode,
             final Long clientId, final Long transactionId, final Date transactionDate, final BigDecimal amount, final Boolean isReversal) {
-        final GLAccount account = financialActivityAccountRepository
-                .findByFinancialActivityTypeWithNotFoundDetection(FINANCIAL_ACTIVITY.ASSET_FUND_SOURCE.getValue()).getGlAccount();
+        final Long accountId = this.accountMappingLookupService.findFinancialActivityGLAccountId(FINANCIAL_ACTIVITY.ASSET_FUND_SOURCE
+                .getValue());
         if (isReversal) {
-            createCreditJournalEntryForClientPayments(office, currencyCode, account, clientId, transactionId, transactionDate, amount);
+            createCreditJournalEntryForClientPayments(office, currencyCode, accountId, clientId, transactionId, transactionDate, amount);
         } else {
-            createDebitJournalEntryForClientPayments(office, currencyCode, account, clientId, transactionId, transactionDate, amount);
+            createDebitJournalEntryForClientPayments(office, currencyCode, accountId, clientId, transactionId, transactionDate, amount);
         }
     }
-
-    private GLAccount getGLAccountById(final Long accountId) {
-        return this.accountRepositoryWrapper.findOneWithNotFoundDetection(accountId);
-    }
 }
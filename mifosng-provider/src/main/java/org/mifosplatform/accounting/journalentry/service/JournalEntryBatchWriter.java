@@ -0,0 +1,116 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.accounting.journalentry.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.mifosplatform.accounting.journalentry.domain.JournalEntryRepository;
+import org.mifosplatform.accounting.journalentry.domain.JournalEntryType;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.useradministration.domain.AppUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the journal entries of portfolio transactions straight to
+ * <code>acc_gl_journal_entry</code>.
+ *
+ * Entries created between {@link #startBatch()} and {@link #writeBatch()} on
+ * the same thread are held back and inserted together in one JDBC batch, so
+ * all the legs of a business transaction cost a single round trip. Entries
+ * created outside of a batch are inserted right away.
+ */
+@Component
+public class JournalEntryBatchWriter {
+
+    private static final String INSERT_SQL = "insert into acc_gl_journal_entry (office_id, account_id, currency_code, transaction_id, "
+            + "loan_transaction_id, savings_transaction_id, client_transaction_id, entry_date, type_enum, amount, entity_type_enum, "
+            + "entity_id, createdby_id, lastmodifiedby_id, created_date, lastmodified_date) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JournalEntryRepository journalEntryRepository;
+    private final AuditorAware<AppUser> auditorAware;
+
+    private final ThreadLocal<Batch> batches = new ThreadLocal<>();
+
+    @Autowired
+    public JournalEntryBatchWriter(final RoutingDataSource dataSource, final JournalEntryRepository journalEntryRepository,
+            final AuditorAware<AppUser> auditorAware) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.journalEntryRepository = journalEntryRepository;
+        this.auditorAware = auditorAware;
+    }
+
+    /**
+     * Starts holding back the journal entries created on this thread. Batches
+     * may be nested, in which case the entries are only written by the
+     * outermost {@link #writeBatch()}.
+     */
+    public void startBatch() {
+        Batch batch = this.batches.get();
+        if (batch == null) {
+            batch = new Batch();
+            this.batches.set(batch);
+        }
+        batch.depth++;
+    }
+
+    /**
+     * Inserts the journal entries held back since the outermost
+     * {@link #startBatch()}.
+     */
+    public void writeBatch() {
+        final Batch batch = this.batches.get();
+        if (batch != null && batch.depth == 1 && !batch.entries.isEmpty()) {
+            // the transactions the entries refer to may not have been flushed
+            // yet
+            this.journalEntryRepository.flush();
+            this.jdbcTemplate.batchUpdate(INSERT_SQL, batch.entries);
+            batch.entries.clear();
+        }
+    }
+
+    /**
+     * Ends the batch started by the matching {@link #startBatch()}, discarding
+     * any entries that were not written. Always call from a finally block.
+     */
+    public void endBatch() {
+        final Batch batch = this.batches.get();
+        if (batch != null && --batch.depth == 0) {
+            this.batches.remove();
+        }
+    }
+
+    public void createJournalEntry(final Long officeId, final Long glAccountId, final String currencyCode, final String transactionId,
+            final Long loanTransactionId, final Long savingsTransactionId, final Long clientTransactionId, final Date transactionDate,
+            final JournalEntryType journalEntryType, final BigDecimal amount, final Integer entityType, final Long entityId) {
+        final AppUser currentUser = this.auditorAware.getCurrentAuditor();
+        final Long currentUserId = currentUser == null ? null : currentUser.getId();
+        final Date now = new Date();
+        final Object[] entry = new Object[] { officeId, glAccountId, currencyCode, transactionId, loanTransactionId,
+                savingsTransactionId, clientTransactionId, transactionDate, journalEntryType.getValue(), amount, entityType, entityId,
+                currentUserId, currentUserId, now, now };
+
+        final Batch batch = this.batches.get();
+        if (batch == null) {
+            this.journalEntryRepository.flush();
+            this.jdbcTemplate.update(INSERT_SQL, entry);
+        } else {
+            batch.entries.add(entry);
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<Object[]> entries = new ArrayList<>();
+        private int depth;
+    }
+}
@@ -235,7 +235,7 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
 
         GLJournalEntryMapper rm = new GLJournalEntryMapper(associationParametersData);
         final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(searchParameters.isKeysetPaged() ? "select " : "select SQL_CALC_FOUND_ROWS ");
         sqlBuilder.append(rm.schema());
 
         final Object[] objectArray = new Object[15];
@@ -341,6 +341,9 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
             whereClose = " and ";
         }
 
+        if (searchParameters.isKeysetPaged()) { return this.paginationHelper.fetchKeysetPage(this.jdbcTemplate, sqlBuilder.toString(),
+                whereClose, "journalEntry.id", Arrays.copyOf(objectArray, arrayPos), searchParameters, rm); }
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -7,10 +7,11 @@ package org.mifosplatform.accounting.journalentry.service;
 
 import org.mifosplatform.infrastructure.core.api.JsonCommand;
 import org.mifosplatform.infrastructure.core.data.CommandProcessingResult;
+import org.mifosplatform.infrastructure.jobs.exception.JobExecutionException;
 
 public interface JournalEntryRunningBalanceUpdateService {
 
-    void updateRunningBalance();
+    void updateRunningBalance() throws JobExecutionException;
 
     CommandProcessingResult updateOfficeRunningBalance(JsonCommand command);
 
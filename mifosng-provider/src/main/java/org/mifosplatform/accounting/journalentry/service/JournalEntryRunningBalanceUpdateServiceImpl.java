@@ -8,25 +8,32 @@ package org.mifosplatform.accounting.journalentry.service;
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import org.mifosplatform.accounting.common.AccountingEnumerations;
 import org.mifosplatform.accounting.glaccount.domain.GLAccountType;
 import org.mifosplatform.accounting.journalentry.api.JournalEntryJsonInputParams;
-import org.mifosplatform.accounting.journalentry.data.JournalEntryData;
 import org.mifosplatform.accounting.journalentry.data.JournalEntryDataValidator;
 import org.mifosplatform.accounting.journalentry.domain.JournalEntryType;
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.mifosplatform.infrastructure.core.api.JsonCommand;
 import org.mifosplatform.infrastructure.core.data.CommandProcessingResult;
 import org.mifosplatform.infrastructure.core.data.CommandProcessingResultBuilder;
-import org.mifosplatform.infrastructure.core.data.EnumOptionData;
 import org.mifosplatform.infrastructure.core.domain.JdbcSupport;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
 import org.mifosplatform.infrastructure.core.serialization.FromJsonHelper;
 import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
 import org.mifosplatform.infrastructure.jobs.annotation.CronTarget;
+import org.mifosplatform.infrastructure.jobs.exception.JobExecutionException;
 import org.mifosplatform.infrastructure.jobs.service.JobName;
 import org.mifosplatform.organisation.office.domain.Office;
 import org.mifosplatform.organisation.office.domain.OfficeRepository;
@@ -34,68 +41,81 @@ import org.mifosplatform.organisation.office.exception.OfficeNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Maintains the office and organization running balances of journal entries
+ * incrementally.
+ *
+ * The balance of every office and GL account after its last calculated entry
+ * is kept in <code>acc_gl_running_balance_snapshot</code>, so a run only reads
+ * the entries that are not calculated yet. The organization balance of an
+ * account is the sum of its office balances. Entries backdated before a
+ * snapshot rewind that account to the last calculated entry before the
+ * backdated date.
+ *
+ * The scheduled job processes accounts in parallel and commits every chunk of
+ * entries on its own. Work is partitioned by GL account rather than by office:
+ * every <code>(office, GL account)</code> snapshot belongs to exactly one
+ * account, so account partitions update each office balance once, as office
+ * partitions would. The organization balance of an account however follows
+ * the entries of all its offices in date order, which only a single pass over
+ * the account yields; office partitions would need a second, sequential pass
+ * per account for it. The update running balance command processes them on the
+ * calling thread, where every chunk joins the command transaction, so the
+ * command is applied or rolled back as a whole.
+ */
 @Service
 public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntryRunningBalanceUpdateService {
 
     private final static Logger logger = LoggerFactory.getLogger(JournalEntryRunningBalanceUpdateServiceImpl.class);
 
+    // number of entries read, balanced and committed together
+    private final static int ENTRY_CHUNK_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
 
+    private final TransactionTemplate transactionTemplate;
+
     private final OfficeRepository officeRepository;
 
     private final JournalEntryDataValidator dataValidator;
 
     private final FromJsonHelper fromApiJsonHelper;
 
-    private final GLJournalEntryMapper entryMapper = new GLJournalEntryMapper();
-    
-    // if a limit is not added to the running balance select statements below and the resultset is more than 400,000, 
-    // the script will eat up all of the server memory
-    private final String selectRunningBalanceSqlLimit = "limit 0, 10000";
-    
-    private final String officeRunningBalanceSql = "select je.office_running_balance as runningBalance,je.account_id as accountId from acc_gl_journal_entry je "
-            + "inner join (select max(id) as id from acc_gl_journal_entry where office_id=?  and entry_date < ? group by account_id,entry_date) je2 "
-            + "inner join (select max(entry_date) as date from acc_gl_journal_entry where office_id=? and entry_date < ? group by account_id) je3 "
-            + "where je2.id = je.id and je.entry_date = je3.date group by je.id order by je.entry_date DESC " + selectRunningBalanceSqlLimit;
-
-    private final String organizationRunningBalanceSql = "select je.organization_running_balance as runningBalance,je.account_id as accountId from acc_gl_journal_entry je "
-            + "inner join (select max(id) as id from acc_gl_journal_entry where entry_date < ? group by account_id,entry_date) je2 "
-            + "inner join (select max(entry_date) as date from acc_gl_journal_entry where entry_date < ? group by account_id) je3 "
-            + "where je2.id = je.id and je.entry_date = je3.date group by je.id order by je.entry_date DESC " + selectRunningBalanceSqlLimit;
-
-    private final String officesRunningBalanceSql = "select je.office_running_balance as runningBalance,je.account_id as accountId,je.office_id as officeId "
-            + "from acc_gl_journal_entry je "
-            + "inner join (select max(id) as id from acc_gl_journal_entry where entry_date < ? group by office_id,account_id,entry_date) je2 "
-            + "inner join (select max(entry_date) as date from acc_gl_journal_entry where entry_date < ? group by office_id,account_id) je3 "
-            + "where je2.id = je.id and je.entry_date = je3.date group by je.id order by je.entry_date DESC " + selectRunningBalanceSqlLimit;
+    private final ConfigurationDomainService configurationDomainService;
+
+    private final RunningBalanceEntryMapper entryMapper = new RunningBalanceEntryMapper();
+
+    private final SnapshotMapper snapshotMapper = new SnapshotMapper();
 
     @Autowired
-    public JournalEntryRunningBalanceUpdateServiceImpl(final RoutingDataSource dataSource, final OfficeRepository officeRepository,
-            final JournalEntryDataValidator dataValidator, final FromJsonHelper fromApiJsonHelper) {
+    public JournalEntryRunningBalanceUpdateServiceImpl(final RoutingDataSource dataSource, final TransactionTemplate transactionTemplate,
+            final OfficeRepository officeRepository, final JournalEntryDataValidator dataValidator,
+            final FromJsonHelper fromApiJsonHelper, final ConfigurationDomainService configurationDomainService) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
         this.officeRepository = officeRepository;
         this.dataValidator = dataValidator;
         this.fromApiJsonHelper = fromApiJsonHelper;
+        this.configurationDomainService = configurationDomainService;
     }
 
     @Override
     @CronTarget(jobName = JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE)
-    public void updateRunningBalance() {
-        String dateFinder = "select MIN(je.entry_date) as entityDate from acc_gl_journal_entry  je "
-                + "where je.is_running_balance_calculated=0 ";
-        try {
-            Date entityDate = this.jdbcTemplate.queryForObject(dateFinder, Date.class);
-            updateOrganizationRunningBalance(entityDate);
-        } catch (EmptyResultDataAccessException e) {
-            logger.debug("No results found for updation of running balance ");
-        }
+    public void updateRunningBalance() throws JobExecutionException {
+        final List<Long> accountIds = this.jdbcTemplate.queryForList("select gl.id from acc_gl_account gl order by gl.id", Long.class);
+        final List<String> errors = updateRunningBalance(accountIds);
+        if (!errors.isEmpty()) { throw new JobExecutionException(joinErrors(errors)); }
     }
 
+    @Transactional
     @Override
     public CommandProcessingResult updateOfficeRunningBalance(JsonCommand command) {
         this.dataValidator.validateForUpdateRunningbalance(command);
@@ -103,119 +123,199 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                 command.parsedJson());
         CommandProcessingResultBuilder commandProcessingResultBuilder = new CommandProcessingResultBuilder().withCommandId(command
                 .commandId());
+        final List<Long> accountIds;
         if (officeId == null) {
-            updateRunningBalance();
+            accountIds = this.jdbcTemplate.queryForList("select gl.id from acc_gl_account gl order by gl.id", Long.class);
         } else {
             final Office office = this.officeRepository.findOne(officeId);
             if (office == null) { throw new OfficeNotFoundException(officeId); }
 
-            String dateFinder = "select MIN(je.entry_date) as entityDate " + "from acc_gl_journal_entry  je "
-                    + "where je.is_running_balance_calculated=0  and je.office_id=?";
-            try {
-                Date entityDate = this.jdbcTemplate.queryForObject(dateFinder, Date.class, officeId);
-                updateRunningBalance(officeId, entityDate);
-            } catch (EmptyResultDataAccessException e) {
-                logger.debug("No results found for updation of office running balance with office id:" + officeId);
-            }
+            // the organization balance of an account depends on all offices,
+            // so every account with new entries in the office is brought up to
+            // date as a whole
+            accountIds = this.jdbcTemplate.queryForList("select distinct je.account_id from acc_gl_journal_entry je "
+                    + "where je.office_id = ? and je.is_running_balance_calculated = 0", Long.class, officeId);
             commandProcessingResultBuilder.withOfficeId(officeId);
         }
+
+        for (final Long accountId : accountIds) {
+            updateAccountRunningBalance(accountId);
+        }
         return commandProcessingResultBuilder.build();
     }
 
-    private void updateOrganizationRunningBalance(Date entityDate) {
-        Map<Long, BigDecimal> runningBalanceMap = new HashMap<>(5);
-        Map<Long, Map<Long, BigDecimal>> officesRunningBalance = new HashMap<>();
+    private List<String> updateRunningBalance(final List<Long> accountIds) {
+        int threadCount = 1;
+        if (this.configurationDomainService.isJobPartitioningEnabled()) {
+            threadCount = this.configurationDomainService.retrieveJobPartitionThreadCount();
+        }
 
-        List<Map<String, Object>> list = jdbcTemplate.queryForList(organizationRunningBalanceSql, entityDate, entityDate);
-        for (Map<String, Object> entries : list) {
-            Long accountId = (Long) entries.get("accountId");
-            if (!runningBalanceMap.containsKey(accountId)) {
-                runningBalanceMap.put(accountId, (BigDecimal) entries.get("runningBalance"));
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (final Long accountId : accountIds) {
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        ThreadLocalContextUtil.setTenant(tenant);
+                        try {
+                            updateAccountRunningBalance(accountId);
+                        } catch (final RuntimeException e) {
+                            logger.warn("Running balance update of GL account " + accountId + " failed", e);
+                            errors.add("failed to update running balance of GL account " + accountId + " with message " + e.getMessage());
+                        } finally {
+                            ThreadLocalContextUtil.clearTenant();
+                        }
+                    }
+                });
             }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.add("running balance update was interrupted before all GL accounts were processed");
+        } finally {
+            executor.shutdownNow();
+        }
+        return errors;
+    }
+
+    private void updateAccountRunningBalance(final Long accountId) {
+        final List<RunningBalanceEntry> firstEntry = this.jdbcTemplate.query(this.entryMapper.uncalculatedSchema(), this.entryMapper,
+                accountId, 1);
+        if (firstEntry.isEmpty()) { return; }
+
+        final RunningBalanceEntry start = firstEntry.get(0);
+        List<Snapshot> snapshots = this.jdbcTemplate.query(this.snapshotMapper.schema(), this.snapshotMapper, accountId);
+        if (snapshots.isEmpty() || isBackdated(start, snapshots)) {
+            snapshots = rewind(accountId, start.entryDate);
         }
 
-        List<Map<String, Object>> officesRunningBalanceList = jdbcTemplate.queryForList(officesRunningBalanceSql, entityDate, entityDate);
-        for (Map<String, Object> entries : officesRunningBalanceList) {
-            Long accountId = (Long) entries.get("accountId");
-            Long officeId = (Long) entries.get("officeId");
-            Map<Long, BigDecimal> runningBalance = null;
-            if (officesRunningBalance.containsKey(officeId)) {
-                runningBalance = officesRunningBalance.get(officeId);
-            } else {
-                runningBalance = new HashMap<>();
-                officesRunningBalance.put(officeId, runningBalance);
-            }
-            if (!runningBalance.containsKey(accountId)) {
-                runningBalance.put(accountId, (BigDecimal) entries.get("runningBalance"));
+        final Map<Long, BigDecimal> officeBalances = new HashMap<>();
+        BigDecimal organizationBalance = BigDecimal.ZERO;
+        for (final Snapshot snapshot : snapshots) {
+            officeBalances.put(snapshot.officeId, snapshot.runningBalance);
+            organizationBalance = organizationBalance.add(snapshot.runningBalance);
+        }
+
+        List<RunningBalanceEntry> entries = this.jdbcTemplate.query(this.entryMapper.uncalculatedSchema(), this.entryMapper, accountId,
+                ENTRY_CHUNK_SIZE);
+        while (!entries.isEmpty()) {
+            organizationBalance = applyEntries(accountId, entries, officeBalances, organizationBalance);
+            if (entries.size() < ENTRY_CHUNK_SIZE) {
+                break;
             }
+            entries = this.jdbcTemplate.query(this.entryMapper.uncalculatedSchema(), this.entryMapper, accountId, ENTRY_CHUNK_SIZE);
         }
+    }
+
+    /**
+     * Updates the balances of one chunk of entries and moves the snapshots of
+     * their offices past them in the same transaction, or as part of the
+     * current transaction when there is one.
+     */
+    private BigDecimal applyEntries(final Long accountId, final List<RunningBalanceEntry> entries,
+            final Map<Long, BigDecimal> officeBalances, final BigDecimal organizationBalance) {
+        return this.transactionTemplate.execute(new TransactionCallback<BigDecimal>() {
 
-        List<JournalEntryData> entryDatas = jdbcTemplate.query(entryMapper.organizationRunningBalanceSchema(), entryMapper,
-                new Object[] { entityDate });
-        if (entryDatas.size() > 0) {
-            // run a batch update of 1000 SQL statements at a time
-            final Integer batchUpdateSize = 1000;
-            final Integer batchUpdateSizeMinusOne = batchUpdateSize - 1;
-            String[] updateSql = new String[batchUpdateSize];
-            int i = 0;
-            for (JournalEntryData entryData : entryDatas) {
-                Map<Long, BigDecimal> officeRunningBalanceMap = null;
-                if (officesRunningBalance.containsKey(entryData.getOfficeId())) {
-                    officeRunningBalanceMap = officesRunningBalance.get(entryData.getOfficeId());
-                } else {
-                    officeRunningBalanceMap = new HashMap<>();
-                    officesRunningBalance.put(entryData.getOfficeId(), officeRunningBalanceMap);
+            @Override
+            public BigDecimal doInTransaction(@SuppressWarnings("unused") final TransactionStatus status) {
+                BigDecimal runningBalance = organizationBalance;
+                final List<Object[]> entryUpdates = new ArrayList<>(entries.size());
+                final Map<Long, RunningBalanceEntry> lastEntryOfOffice = new LinkedHashMap<>();
+                for (final RunningBalanceEntry entry : entries) {
+                    BigDecimal officeBalance = officeBalances.get(entry.officeId);
+                    if (officeBalance == null) {
+                        officeBalance = BigDecimal.ZERO;
+                    }
+                    officeBalance = officeBalance.add(entry.amount);
+                    officeBalances.put(entry.officeId, officeBalance);
+                    runningBalance = runningBalance.add(entry.amount);
+                    entryUpdates.add(new Object[] { runningBalance, officeBalance, entry.id });
+                    lastEntryOfOffice.put(entry.officeId, entry);
                 }
-                BigDecimal officeRunningBalance = calculateRunningBalance(entryData, officeRunningBalanceMap);
-                BigDecimal runningBalance = calculateRunningBalance(entryData, runningBalanceMap);
-                String sql = "UPDATE acc_gl_journal_entry je SET je.is_running_balance_calculated=1, je.organization_running_balance="
-                        + runningBalance + ",je.office_running_balance=" + officeRunningBalance + " WHERE  je.id=" + entryData.getId();
-                updateSql[i++] = sql;
-                
-                if (i == batchUpdateSizeMinusOne) {
-                    // run a batch update of the 1000 update SQL statements
-                    this.jdbcTemplate.batchUpdate(updateSql);
-                    
-                    // reset counter and string array
-                    i = 0;
-                    updateSql = new String[batchUpdateSize];
+                JournalEntryRunningBalanceUpdateServiceImpl.this.jdbcTemplate.batchUpdate("update acc_gl_journal_entry "
+                        + "set is_running_balance_calculated = 1, organization_running_balance = ?, office_running_balance = ? where id = ?",
+                        entryUpdates);
+
+                final List<Object[]> snapshotUpdates = new ArrayList<>(lastEntryOfOffice.size());
+                for (final RunningBalanceEntry entry : lastEntryOfOffice.values()) {
+                    snapshotUpdates.add(new Object[] { entry.officeId, accountId, entry.entryDate, entry.id,
+                            officeBalances.get(entry.officeId) });
                 }
+                saveSnapshots(snapshotUpdates);
+                return runningBalance;
             }
-            this.jdbcTemplate.batchUpdate(updateSql);
-        }
-
+        });
     }
 
-    private void updateRunningBalance(Long officeId, Date entityDate) {
-        Map<Long, BigDecimal> runningBalanceMap = new HashMap<>(5);
+    /**
+     * Resets the snapshots of an account to the last calculated entry of each
+     * office before <code>entryDate</code> and marks all later entries for
+     * recalculation.
+     */
+    private List<Snapshot> rewind(final Long accountId, final Date entryDate) {
+        return this.transactionTemplate.execute(new TransactionCallback<List<Snapshot>>() {
+
+            @Override
+            public List<Snapshot> doInTransaction(@SuppressWarnings("unused") final TransactionStatus status) {
+                final JdbcTemplate jdbcTemplate = JournalEntryRunningBalanceUpdateServiceImpl.this.jdbcTemplate;
+                final SnapshotMapper mapper = JournalEntryRunningBalanceUpdateServiceImpl.this.snapshotMapper;
 
-        List<Map<String, Object>> list = jdbcTemplate.queryForList(officeRunningBalanceSql, officeId, entityDate, officeId, entityDate);
-        for (Map<String, Object> entries : list) {
-            Long accountId = (Long) entries.get("accountId");
-            if (!runningBalanceMap.containsKey(accountId)) {
-                runningBalanceMap.put(accountId, (BigDecimal) entries.get("runningBalance"));
+                // rows are ordered so that the first row of each office is its
+                // last entry before the date
+                final Map<Long, Snapshot> lastEntryOfOffice = new LinkedHashMap<>();
+                for (final Snapshot snapshot : jdbcTemplate.query(mapper.ledgerSchema(), mapper, accountId, entryDate, accountId)) {
+                    if (!lastEntryOfOffice.containsKey(snapshot.officeId)) {
+                        lastEntryOfOffice.put(snapshot.officeId, snapshot);
+                    }
+                }
+
+                jdbcTemplate.update("delete from acc_gl_running_balance_snapshot where account_id = ?", accountId);
+                final List<Object[]> snapshotUpdates = new ArrayList<>(lastEntryOfOffice.size());
+                for (final Snapshot snapshot : lastEntryOfOffice.values()) {
+                    snapshotUpdates.add(new Object[] { snapshot.officeId, accountId, snapshot.entryDate, snapshot.journalEntryId,
+                            snapshot.runningBalance });
+                }
+                saveSnapshots(snapshotUpdates);
+                jdbcTemplate.update("update acc_gl_journal_entry set is_running_balance_calculated = 0 "
+                        + "where account_id = ? and entry_date >= ? and is_running_balance_calculated = 1", accountId, entryDate);
+                return new ArrayList<>(lastEntryOfOffice.values());
             }
+        });
+    }
+
+    private void saveSnapshots(final List<Object[]> snapshotUpdates) {
+        if (snapshotUpdates.isEmpty()) { return; }
+        this.jdbcTemplate.batchUpdate("insert into acc_gl_running_balance_snapshot "
+                + "(office_id, account_id, entry_date, journal_entry_id, running_balance) values (?, ?, ?, ?, ?) "
+                + "on duplicate key update entry_date = values(entry_date), journal_entry_id = values(journal_entry_id), "
+                + "running_balance = values(running_balance)", snapshotUpdates);
+    }
+
+    /**
+     * Entries are balanced in (entry date, id) order; an uncalculated entry
+     * positioned before a snapshot invalidates the balances after it.
+     */
+    private static boolean isBackdated(final RunningBalanceEntry entry, final List<Snapshot> snapshots) {
+        for (final Snapshot snapshot : snapshots) {
+            final int dateComparison = entry.entryDate.compareTo(snapshot.entryDate);
+            if (dateComparison < 0 || (dateComparison == 0 && entry.id.compareTo(snapshot.journalEntryId) < 0)) { return true; }
         }
-        List<JournalEntryData> entryDatas = jdbcTemplate.query(entryMapper.officeRunningBalanceSchema(), entryMapper, new Object[] {
-                officeId, entityDate });
-        String[] updateSql = new String[entryDatas.size()];
-        int i = 0;
-        for (JournalEntryData entryData : entryDatas) {
-            BigDecimal runningBalance = calculateRunningBalance(entryData, runningBalanceMap);
-            String sql = "UPDATE acc_gl_journal_entry je SET je.office_running_balance=" + runningBalance + " WHERE  je.id="
-                    + entryData.getId();
-            updateSql[i++] = sql;
-        }
-        this.jdbcTemplate.batchUpdate(updateSql);
+        return false;
     }
 
-    private BigDecimal calculateRunningBalance(JournalEntryData entry, Map<Long, BigDecimal> runningBalanceMap) {
-        BigDecimal runningBalance = BigDecimal.ZERO;
-        if (runningBalanceMap.containsKey(entry.getGlAccountId())) {
-            runningBalance = runningBalanceMap.get(entry.getGlAccountId());
+    private static String joinErrors(final List<String> errors) {
+        final StringBuilder sb = new StringBuilder();
+        for (final String error : errors) {
+            sb.append(error);
         }
-        GLAccountType accounttype = GLAccountType.fromInt(entry.getGlAccountType().getId().intValue());
-        JournalEntryType entryType = JournalEntryType.fromInt(entry.getEntryType().getId().intValue());
+        return sb.toString();
+    }
+
+    private static BigDecimal signedAmount(final GLAccountType accounttype, final JournalEntryType entryType, final BigDecimal amount) {
         boolean isIncrease = false;
         switch (accounttype) {
             case ASSET:
@@ -244,45 +344,87 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                 }
             break;
         }
-        if (isIncrease) {
-            runningBalance = runningBalance.add(entry.getAmount());
-        } else {
-            runningBalance = runningBalance.subtract(entry.getAmount());
-        }
-        runningBalanceMap.put(entry.getGlAccountId(), runningBalance);
-        return runningBalance;
+        return isIncrease ? amount : amount.negate();
     }
 
-    private static final class GLJournalEntryMapper implements RowMapper<JournalEntryData> {
+    private static final class RunningBalanceEntry {
+
+        private final Long id;
+        private final Long officeId;
+        private final Date entryDate;
+        private final BigDecimal amount;
 
-        public String officeRunningBalanceSchema() {
-            return "select je.id as id,je.account_id as glAccountId,je.type_enum as entryType,je.amount as amount, "
-                    + "glAccount.classification_enum as classification,je.office_id as officeId "
-                    + "from acc_gl_journal_entry je , acc_gl_account glAccount " + "where je.account_id = glAccount.id "
-                    + "and je.office_id=? and je.entry_date >= ? order by je.entry_date,je.id";
+        public RunningBalanceEntry(final Long id, final Long officeId, final Date entryDate, final BigDecimal amount) {
+            this.id = id;
+            this.officeId = officeId;
+            this.entryDate = entryDate;
+            this.amount = amount;
         }
+    }
+
+    private static final class RunningBalanceEntryMapper implements RowMapper<RunningBalanceEntry> {
 
-        public String organizationRunningBalanceSchema() {
-            return "select je.id as id,je.account_id as glAccountId," + "je.type_enum as entryType,je.amount as amount, "
-                    + "glAccount.classification_enum as classification,je.office_id as officeId  "
-                    + "from acc_gl_journal_entry je , acc_gl_account glAccount " + "where je.account_id = glAccount.id "
-                    + "and je.entry_date >= ? order by je.entry_date,je.id";
+        public String uncalculatedSchema() {
+            return "select je.id as id, je.office_id as officeId, je.entry_date as entryDate, je.type_enum as entryType, je.amount as amount, "
+                    + "glAccount.classification_enum as classification "
+                    + "from acc_gl_journal_entry je inner join acc_gl_account glAccount on glAccount.id = je.account_id "
+                    + "where je.account_id = ? and je.is_running_balance_calculated = 0 order by je.entry_date, je.id limit ?";
         }
 
         @Override
-        public JournalEntryData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+        public RunningBalanceEntry mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
 
             final Long id = rs.getLong("id");
-            final Long glAccountId = rs.getLong("glAccountId");
             final Long officeId = rs.getLong("officeId");
-            final int accountTypeId = JdbcSupport.getInteger(rs, "classification");
-            final EnumOptionData accountType = AccountingEnumerations.gLAccountType(accountTypeId);
-            final BigDecimal amount = rs.getBigDecimal("amount");
-            final int entryTypeId = JdbcSupport.getInteger(rs, "entryType");
-            final EnumOptionData entryType = AccountingEnumerations.journalEntryType(entryTypeId);
-
-            return new JournalEntryData(id, officeId, null, null, glAccountId, null, accountType, null, entryType, amount, null, null,
-                    null, null, null, null, null, null, null, null, null, null, null, null, null);
+            final Date entryDate = rs.getDate("entryDate");
+            final GLAccountType accountType = GLAccountType.fromInt(JdbcSupport.getInteger(rs, "classification"));
+            final JournalEntryType entryType = JournalEntryType.fromInt(JdbcSupport.getInteger(rs, "entryType"));
+            final BigDecimal amount = signedAmount(accountType, entryType, rs.getBigDecimal("amount"));
+
+            return new RunningBalanceEntry(id, officeId, entryDate, amount);
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Long officeId;
+        private final Date entryDate;
+        private final Long journalEntryId;
+        private final BigDecimal runningBalance;
+
+        public Snapshot(final Long officeId, final Date entryDate, final Long journalEntryId, final BigDecimal runningBalance) {
+            this.officeId = officeId;
+            this.entryDate = entryDate;
+            this.journalEntryId = journalEntryId;
+            this.runningBalance = runningBalance;
+        }
+    }
+
+    private static final class SnapshotMapper implements RowMapper<Snapshot> {
+
+        public String schema() {
+            return "select s.office_id as officeId, s.entry_date as entryDate, s.journal_entry_id as journalEntryId, "
+                    + "s.running_balance as runningBalance from acc_gl_running_balance_snapshot s where s.account_id = ?";
+        }
+
+        public String ledgerSchema() {
+            return "select je.office_id as officeId, je.entry_date as entryDate, je.id as journalEntryId, "
+                    + "je.office_running_balance as runningBalance from acc_gl_journal_entry je "
+                    + "inner join (select office_id, max(entry_date) as entry_date from acc_gl_journal_entry "
+                    + "where account_id = ? and entry_date < ? group by office_id) lastDate "
+                    + "on lastDate.office_id = je.office_id and lastDate.entry_date = je.entry_date "
+                    + "where je.account_id = ? order by je.office_id, je.id desc";
+        }
+
+        @Override
+        public Snapshot mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+
+            final Long officeId = rs.getLong("officeId");
+            final Date entryDate = rs.getDate("entryDate");
+            final Long journalEntryId = rs.getLong("journalEntryId");
+            final BigDecimal runningBalance = rs.getBigDecimal("runningBalance");
+
+            return new Snapshot(officeId, entryDate, journalEntryId, runningBalance);
         }
     }
 
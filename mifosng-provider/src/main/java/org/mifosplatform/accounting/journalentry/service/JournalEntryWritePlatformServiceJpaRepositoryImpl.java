@@ -90,6 +90,7 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
     private final PaymentDetailWritePlatformService paymentDetailWritePlatformService;
     private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepositoryWrapper;
     private final CashBasedAccountingProcessorForClientTransactions accountingProcessorForClientTransactions;
+    private final JournalEntryBatchWriter journalEntryWriter;
 
     @Autowired
     public JournalEntryWritePlatformServiceJpaRepositoryImpl(final GLClosureRepository glClosureRepository,
@@ -102,7 +103,8 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
             final OrganisationCurrencyRepositoryWrapper organisationCurrencyRepository, final PlatformSecurityContext context,
             final PaymentDetailWritePlatformService paymentDetailWritePlatformService,
             final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepositoryWrapper,
-            final CashBasedAccountingProcessorForClientTransactions accountingProcessorForClientTransactions) {
+            final CashBasedAccountingProcessorForClientTransactions accountingProcessorForClientTransactions,
+            final JournalEntryBatchWriter journalEntryWriter) {
         this.glClosureRepository = glClosureRepository;
         this.officeRepository = officeRepository;
         this.glJournalEntryRepository = glJournalEntryRepository;
@@ -118,6 +120,7 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
         this.paymentDetailWritePlatformService = paymentDetailWritePlatformService;
         this.financialActivityAccountRepositoryWrapper = financialActivityAccountRepositoryWrapper;
         this.accountingProcessorForClientTransactions = accountingProcessorForClientTransactions;
+        this.journalEntryWriter = journalEntryWriter;
     }
 
     @Transactional
@@ -422,15 +425,21 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
     
     private void createJournalEnry(Date transactionDate, Long entryId, Office office, String currencyCode, Map<GLAccount, BigDecimal> liabilityMap,
             Map<GLAccount, BigDecimal> expenseMap) {
-        Set<GLAccount> liabilityAccounts = liabilityMap.keySet();
-        for (GLAccount account : liabilityAccounts) {
-            this.helper.createProvisioningCreditJournalEntry(transactionDate,entryId, office, currencyCode, account,
-                    liabilityMap.get(account));
-        }
-        Set<GLAccount> expenseAccounts = expenseMap.keySet();
-        for (GLAccount account : expenseAccounts) {
-            this.helper.createProvisioningDebitJournalEntry(transactionDate,entryId, office, currencyCode, account,
-                    expenseMap.get(account));
+        this.journalEntryWriter.startBatch();
+        try {
+            Set<GLAccount> liabilityAccounts = liabilityMap.keySet();
+            for (GLAccount account : liabilityAccounts) {
+                this.helper.createProvisioningCreditJournalEntry(transactionDate,entryId, office, currencyCode, account,
+                        liabilityMap.get(account));
+            }
+            Set<GLAccount> expenseAccounts = expenseMap.keySet();
+            for (GLAccount account : expenseAccounts) {
+                this.helper.createProvisioningDebitJournalEntry(transactionDate,entryId, office, currencyCode, account,
+                        expenseMap.get(account));
+            }
+            this.journalEntryWriter.writeBatch();
+        } finally {
+            this.journalEntryWriter.endBatch();
         }
     }
     
@@ -459,7 +468,13 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
                     upfrontAccrualBasedAccountingEnabled, periodicAccrualBasedAccountingEnabled);
             final AccountingProcessorForLoan accountingProcessorForLoan = this.accountingProcessorForLoanFactory
                     .determineProcessor(loanDTO);
-            accountingProcessorForLoan.createJournalEntriesForLoan(loanDTO);
+            this.journalEntryWriter.startBatch();
+            try {
+                accountingProcessorForLoan.createJournalEntriesForLoan(loanDTO);
+                this.journalEntryWriter.writeBatch();
+            } finally {
+                this.journalEntryWriter.endBatch();
+            }
         }
     }
 
@@ -475,7 +490,13 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
                     accrualBasedAccountingEnabled);
             final AccountingProcessorForSavings accountingProcessorForSavings = this.accountingProcessorForSavingsFactory
                     .determineProcessor(savingsDTO);
-            accountingProcessorForSavings.createJournalEntriesForSavings(savingsDTO);
+            this.journalEntryWriter.startBatch();
+            try {
+                accountingProcessorForSavings.createJournalEntriesForSavings(savingsDTO);
+                this.journalEntryWriter.writeBatch();
+            } finally {
+                this.journalEntryWriter.endBatch();
+            }
         }
 
     }
@@ -667,7 +688,13 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
     @Override
     public void createJournalEntriesForClientTransactions(Map<String, Object> accountingBridgeData) {
         final ClientTransactionDTO clientTransactionDTO = this.helper.populateClientTransactionDtoFromMap(accountingBridgeData);
-        accountingProcessorForClientTransactions.createJournalEntriesForClientTransaction(clientTransactionDTO);
+        this.journalEntryWriter.startBatch();
+        try {
+            this.accountingProcessorForClientTransactions.createJournalEntriesForClientTransaction(clientTransactionDTO);
+            this.journalEntryWriter.writeBatch();
+        } finally {
+            this.journalEntryWriter.endBatch();
+        }
     }
     
     private class OfficeCurrencyKey {
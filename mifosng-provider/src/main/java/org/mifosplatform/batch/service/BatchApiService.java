@@ -36,6 +36,20 @@ public interface BatchApiService {
      */
     List<BatchResponse> handleBatchRequestsWithoutEnclosingTransaction(List<BatchRequest> requestList, UriInfo uriInfo);
 
+    /**
+     * Same as
+     * {@link #handleBatchRequestsWithoutEnclosingTransaction(List, UriInfo)},
+     * but requests that do not depend on each other are executed concurrently
+     * on a bounded pool. A request still only runs after the request it
+     * references has answered. It will be used when the Query Parameter
+     * "parallel" is set to 'true' and "enclosingTransaction" is 'false'.
+     * 
+     * @param requestList
+     * @param uriInfo
+     * @return List<BatchResponse> ordered by request id
+     */
+    List<BatchResponse> handleBatchRequestsWithoutEnclosingTransactionInParallel(List<BatchRequest> requestList, UriInfo uriInfo);
+
     /**
      * returns a list of {@link org.mifosplatform.batch.domain.BatchResponse}s
      * by getting the appropriate CommandStrategy for every
@@ -8,7 +8,18 @@ package org.mifosplatform.batch.service;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
@@ -21,7 +32,12 @@ import org.mifosplatform.batch.domain.BatchResponse;
 import org.mifosplatform.batch.exception.ErrorHandler;
 import org.mifosplatform.batch.exception.ErrorInfo;
 import org.mifosplatform.batch.service.ResolutionHelper.BatchRequestNode;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionStatus;
@@ -46,10 +62,16 @@ import edu.emory.mathcs.backport.java.util.Collections;
 @Service
 public class BatchApiServiceImpl implements BatchApiService {
 
+    public final static String PARALLEL_THREADS = "mifos.batch.parallel.threads";
+
     private final CommandStrategyProvider strategyProvider;
     private final ResolutionHelper resolutionHelper;
     private final TransactionTemplate transactionTemplate;
-    private List<BatchResponse> checkList = new ArrayList<>();
+
+    @Value("${" + PARALLEL_THREADS + ":8}")
+    private int parallelThreads;
+
+    private ThreadPoolExecutor executor;
 
     /**
      * Constructs a 'BatchApiServiceImpl' with an argument of
@@ -67,6 +89,26 @@ public class BatchApiServiceImpl implements BatchApiService {
         this.transactionTemplate = transactionTemplate;
     }
 
+    @PostConstruct
+    public void start() {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(this.parallelThreads, this.parallelThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "batch-request-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.executor.shutdownNow();
+    }
+
     /**
      * Returns the response list by getting a proper
      * {@link org.mifosplatform.batch.command.CommandStrategy}. execute() method
@@ -81,7 +123,6 @@ public class BatchApiServiceImpl implements BatchApiService {
         final List<BatchResponse> responseList = new ArrayList<>(requestList.size());
 
         final List<BatchRequestNode> batchRequestNodes = this.resolutionHelper.getDependingRequests(requestList);
-        checkList.clear();
 
         for (BatchRequestNode rootNode : batchRequestNodes) {
             final BatchRequest rootRequest = rootNode.getRequest();
@@ -93,6 +134,12 @@ public class BatchApiServiceImpl implements BatchApiService {
             responseList.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
         }
 
+        sortByRequestId(responseList);
+        return responseList;
+
+    }
+
+    private static void sortByRequestId(final List<BatchResponse> responseList) {
         Collections.sort(responseList, new Comparator<BatchResponse>() {
 
             @Override
@@ -100,10 +147,106 @@ public class BatchApiServiceImpl implements BatchApiService {
                 return source.getRequestId().compareTo(testee.getRequestId());
             }
         });
+    }
+
+    /**
+     * Same dependency handling as
+     * {@link #handleBatchRequests(List, UriInfo)}, but every request is
+     * submitted to the pool as soon as its parent has answered, so independent
+     * subtrees and siblings run concurrently. Workers never wait on each
+     * other; the calling thread waits until no request is pending.
+     */
+    private List<BatchResponse> handleBatchRequestsInParallel(final List<BatchRequest> requestList, final UriInfo uriInfo) {
 
-        checkList = responseList;
+        final List<BatchRequestNode> batchRequestNodes = this.resolutionHelper.getDependingRequests(requestList);
+        final ParallelBatch batch = new ParallelBatch(uriInfo, batchRequestNodes.size());
+
+        for (final BatchRequestNode rootNode : batchRequestNodes) {
+            submit(batch, rootNode, null);
+        }
+
+        try {
+            batch.done.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        final List<BatchResponse> responseList = new ArrayList<>(batch.responses);
+        sortByRequestId(responseList);
         return responseList;
+    }
+
+    private void submit(final ParallelBatch batch, final BatchRequestNode node, final BatchResponse parentResponse) {
+        try {
+            this.executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    batch.bindContext();
+                    try {
+                        process(batch, node, parentResponse);
+                    } finally {
+                        batch.clearContext();
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            batch.responses.add(errorResponse(node.getRequest(), e));
+            batch.finishOne();
+        }
+    }
+
+    private void process(final ParallelBatch batch, final BatchRequestNode node, final BatchResponse parentResponse) {
+        BatchRequest request = node.getRequest();
+        BatchResponse response;
+        boolean executed = false;
+
+        try {
+            if (parentResponse == null || parentResponse.getStatusCode().equals(200)) {
+                if (parentResponse != null) {
+                    request = this.resolutionHelper.resoluteRequest(request, parentResponse);
+                }
+                final CommandStrategy commandStrategy = this.strategyProvider.getCommandStrategy(CommandContext
+                        .resource(request.getRelativeUrl()).method(request.getMethod()).build());
+                response = commandStrategy.execute(request, batch.uriInfo);
+            } else {
+                response = conflictResponse(request, parentResponse);
+            }
+            executed = true;
+        } catch (final Throwable ex) {
+            response = errorResponse(request, ex);
+        }
+
+        batch.responses.add(response);
 
+        // like the sequential mode, requests depending on one that failed with
+        // an exception get no response
+        if (executed) {
+            for (final BatchRequestNode childNode : node.getChildRequests()) {
+                batch.pending.incrementAndGet();
+                submit(batch, childNode, response);
+            }
+        }
+        batch.finishOne();
+    }
+
+    private static BatchResponse conflictResponse(final BatchRequest request, final BatchResponse parentResponse) {
+        final BatchResponse response = new BatchResponse();
+        response.setRequestId(request.getRequestId());
+        response.setStatusCode(Status.CONFLICT.getStatusCode());
+
+        final ErrorInfo conflictError = new ErrorInfo(Status.CONFLICT.getStatusCode(), 8001, "Parent request with id "
+                + parentResponse.getRequestId() + " was erroneous!");
+        response.setBody(conflictError.getMessage());
+        return response;
+    }
+
+    private static BatchResponse errorResponse(final BatchRequest request, final Throwable ex) {
+        final BatchResponse response = new BatchResponse();
+        response.setRequestId(request.getRequestId());
+        response.setStatusCode(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        response.setBody(ex.getMessage());
+        return response;
     }
 
     private List<BatchResponse> processChildRequests(final BatchRequestNode rootRequest, BatchResponse rootResponse, UriInfo uriInfo) {
@@ -128,23 +271,13 @@ public class BatchApiServiceImpl implements BatchApiService {
                     } else {
                         // Something went wrong with the parent request, create
                         // a response with status code 409
-                        childResponse = new BatchResponse();
-                        childResponse.setRequestId(childRequest.getRequestId());
-                        childResponse.setStatusCode(Status.CONFLICT.getStatusCode());
-
-                        // Some detail information about the error
-                        final ErrorInfo conflictError = new ErrorInfo(Status.CONFLICT.getStatusCode(), 8001, "Parent request with id "
-                                + rootResponse.getRequestId() + " was erroneous!");
-                        childResponse.setBody(conflictError.getMessage());
+                        childResponse = conflictResponse(childRequest, rootResponse);
                     }
                     childResponses.addAll(this.processChildRequests(childNode, childResponse, uriInfo));
 
                 } catch (Throwable ex) {
 
-                    childResponse = new BatchResponse();
-                    childResponse.setRequestId(childRequest.getRequestId());
-                    childResponse.setStatusCode(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
-                    childResponse.setBody(ex.getMessage());
+                    childResponse = errorResponse(childRequest, ex);
                 }
 
                 childResponses.add(childResponse);
@@ -160,16 +293,28 @@ public class BatchApiServiceImpl implements BatchApiService {
         return handleBatchRequests(requestList, uriInfo);
     }
 
+    @Override
+    public List<BatchResponse> handleBatchRequestsWithoutEnclosingTransactionInParallel(final List<BatchRequest> requestList,
+            final UriInfo uriInfo) {
+
+        return handleBatchRequestsInParallel(requestList, uriInfo);
+    }
+
     @Override
     public List<BatchResponse> handleBatchRequestsWithEnclosingTransaction(final List<BatchRequest> requestList, final UriInfo uriInfo) {
 
+        // responses of this call, kept to report the first erroneous request
+        // if the commit fails
+        final List<BatchResponse> checkList = new ArrayList<>();
         try {
             return this.transactionTemplate.execute(new TransactionCallback<List<BatchResponse>>() {
 
                 @Override
                 public List<BatchResponse> doInTransaction(TransactionStatus status) {
                     try {
-                        return handleBatchRequests(requestList, uriInfo);
+                        final List<BatchResponse> responseList = handleBatchRequests(requestList, uriInfo);
+                        checkList.addAll(responseList);
+                        return responseList;
                     } catch (RuntimeException ex) {
 
                         ErrorInfo e = ErrorHandler.handler(ex);
@@ -198,7 +343,6 @@ public class BatchApiServiceImpl implements BatchApiService {
                 }
             }
 
-            checkList.clear();
             List<BatchResponse> errResponseList = new ArrayList<>();
             errResponseList.add(errResponse);
 
@@ -206,4 +350,52 @@ public class BatchApiServiceImpl implements BatchApiService {
         }
 
     }
+
+    /**
+     * State of one parallel batch call, shared by the workers processing its
+     * requests.
+     */
+    private static final class ParallelBatch {
+
+        private final UriInfo uriInfo;
+        private final Queue<BatchResponse> responses = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final MifosPlatformTenant tenant;
+        private final String authToken;
+        private final SecurityContext securityContext;
+
+        ParallelBatch(final UriInfo uriInfo, final int rootRequests) {
+            this.uriInfo = uriInfo;
+            this.pending = new AtomicInteger(rootRequests);
+            this.tenant = ThreadLocalContextUtil.getTenant();
+            this.authToken = ThreadLocalContextUtil.getAuthToken();
+            this.securityContext = SecurityContextHolder.getContext();
+            if (rootRequests == 0) {
+                this.done.countDown();
+            }
+        }
+
+        void bindContext() {
+            ThreadLocalContextUtil.setTenant(this.tenant);
+            ThreadLocalContextUtil.setAuthToken(this.authToken);
+            SecurityContextHolder.setContext(this.securityContext);
+        }
+
+        void clearContext() {
+            SecurityContextHolder.clearContext();
+            ThreadLocalContextUtil.setAuthToken(null);
+            ThreadLocalContextUtil.clearTenant();
+        }
+
+        /**
+         * Children are counted before their parent finishes, so the count only
+         * reaches zero once the last request of the batch is done.
+         */
+        void finishOne() {
+            if (this.pending.decrementAndGet() == 0) {
+                this.done.countDown();
+            }
+        }
+    }
 }
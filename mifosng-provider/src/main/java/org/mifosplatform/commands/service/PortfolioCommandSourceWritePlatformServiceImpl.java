@@ -76,41 +76,45 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
         Integer numberOfRetries = 0;
         Integer maxNumberOfRetries = ThreadLocalContextUtil.getTenant().getConnection().getMaxRetriesOnDeadlock();
         Integer maxIntervalBetweenRetries = ThreadLocalContextUtil.getTenant().getConnection().getMaxIntervalBetweenRetries();
-        final JsonElement parsedCommand = this.fromApiJsonHelper.parse(json);
-        command = JsonCommand.from(json, parsedCommand, this.fromApiJsonHelper, wrapper.getEntityName(), wrapper.getEntityId(),
-                wrapper.getSubentityId(), wrapper.getGroupId(), wrapper.getClientId(), wrapper.getLoanId(), wrapper.getSavingsId(),
-                wrapper.getTransactionId(), wrapper.getHref(), wrapper.getProductId());
-        while (numberOfRetries <= maxNumberOfRetries) {
-            try {
-                result = this.processAndLogCommandService.processAndLogCommand(wrapper, command, isApprovedByChecker);
-                numberOfRetries = maxNumberOfRetries + 1;
-            } catch (CannotAcquireLockException | ObjectOptimisticLockingFailureException exception) {
-                logger.info("The following command " + command.json() + " has been retried  " + numberOfRetries + " time(s)");
-                /***
-                 * Fail if the transaction has been retired for
-                 * maxNumberOfRetries
-                 **/
-                if (numberOfRetries >= maxNumberOfRetries) {
-                    logger.warn("The following command " + command.json() + " has been retried for the max allowed attempts of "
-                            + numberOfRetries + " and will be rolled back");
-                    throw (exception);
-                }
-                /***
-                 * Else sleep for a random time (between 1 to 10 seconds) and
-                 * continue
-                 **/
+        final JsonElement parsedCommand = this.fromApiJsonHelper.parseCommand(json);
+        try {
+            command = JsonCommand.from(json, parsedCommand, this.fromApiJsonHelper, wrapper.getEntityName(), wrapper.getEntityId(),
+                    wrapper.getSubentityId(), wrapper.getGroupId(), wrapper.getClientId(), wrapper.getLoanId(), wrapper.getSavingsId(),
+                    wrapper.getTransactionId(), wrapper.getHref(), wrapper.getProductId());
+            while (numberOfRetries <= maxNumberOfRetries) {
                 try {
-                    Random random = new Random();
-                    int randomNum = random.nextInt(maxIntervalBetweenRetries + 1);
-                    Thread.sleep(1000 + (randomNum * 1000));
-                    numberOfRetries = numberOfRetries + 1;
-                } catch (InterruptedException e) {
-                    throw (exception);
+                    result = this.processAndLogCommandService.processAndLogCommand(wrapper, command, isApprovedByChecker);
+                    numberOfRetries = maxNumberOfRetries + 1;
+                } catch (CannotAcquireLockException | ObjectOptimisticLockingFailureException exception) {
+                    logger.info("The following command " + command.json() + " has been retried  " + numberOfRetries + " time(s)");
+                    /***
+                     * Fail if the transaction has been retired for
+                     * maxNumberOfRetries
+                     **/
+                    if (numberOfRetries >= maxNumberOfRetries) {
+                        logger.warn("The following command " + command.json() + " has been retried for the max allowed attempts of "
+                                + numberOfRetries + " and will be rolled back");
+                        throw (exception);
+                    }
+                    /***
+                     * Else sleep for a random time (between 1 to 10 seconds) and
+                     * continue
+                     **/
+                    try {
+                        Random random = new Random();
+                        int randomNum = random.nextInt(maxIntervalBetweenRetries + 1);
+                        Thread.sleep(1000 + (randomNum * 1000));
+                        numberOfRetries = numberOfRetries + 1;
+                    } catch (InterruptedException e) {
+                        throw (exception);
+                    }
+                } catch (final RollbackTransactionAsCommandIsNotApprovedByCheckerException e) {
+                    numberOfRetries = maxNumberOfRetries + 1;
+                    result = this.processAndLogCommandService.logCommand(e.getCommandSourceResult());
                 }
-            } catch (final RollbackTransactionAsCommandIsNotApprovedByCheckerException e) {
-                numberOfRetries = maxNumberOfRetries + 1;
-                result = this.processAndLogCommandService.logCommand(e.getCommandSourceResult());
             }
+        } finally {
+            this.fromApiJsonHelper.releaseCommand();
         }
 
         return result;
@@ -127,15 +131,19 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
                 commandSourceInput.getResourceGetUrl(), commandSourceInput.getProductId(), commandSourceInput.getOfficeId(),
                 commandSourceInput.getGroupId(), commandSourceInput.getClientId(), commandSourceInput.getLoanId(),
                 commandSourceInput.getSavingsId(), commandSourceInput.getTransactionId());
-        final JsonElement parsedCommand = this.fromApiJsonHelper.parse(commandSourceInput.json());
-        final JsonCommand command = JsonCommand.fromExistingCommand(makerCheckerId, commandSourceInput.json(), parsedCommand,
-                this.fromApiJsonHelper, commandSourceInput.getEntityName(), commandSourceInput.resourceId(),
-                commandSourceInput.subresourceId(), commandSourceInput.getGroupId(), commandSourceInput.getClientId(),
-                commandSourceInput.getLoanId(), commandSourceInput.getSavingsId(), commandSourceInput.getTransactionId(),
-                commandSourceInput.getResourceGetUrl(), commandSourceInput.getProductId());
-
-        final boolean makerCheckerApproval = true;
-        return this.processAndLogCommandService.processAndLogCommand(wrapper, command, makerCheckerApproval);
+        final JsonElement parsedCommand = this.fromApiJsonHelper.parseCommand(commandSourceInput.json());
+        try {
+            final JsonCommand command = JsonCommand.fromExistingCommand(makerCheckerId, commandSourceInput.json(), parsedCommand,
+                    this.fromApiJsonHelper, commandSourceInput.getEntityName(), commandSourceInput.resourceId(),
+                    commandSourceInput.subresourceId(), commandSourceInput.getGroupId(), commandSourceInput.getClientId(),
+                    commandSourceInput.getLoanId(), commandSourceInput.getSavingsId(), commandSourceInput.getTransactionId(),
+                    commandSourceInput.getResourceGetUrl(), commandSourceInput.getProductId());
+
+            final boolean makerCheckerApproval = true;
+            return this.processAndLogCommandService.processAndLogCommand(wrapper, command, makerCheckerApproval);
+        } finally {
+            this.fromApiJsonHelper.releaseCommand();
+        }
     }
 
     @Transactional
@@ -23,7 +23,9 @@ import org.mifosplatform.infrastructure.core.serialization.ToApiJsonSerializer;
 import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
 import org.mifosplatform.infrastructure.hooks.event.HookEvent;
 import org.mifosplatform.infrastructure.hooks.event.HookEventSource;
+import org.mifosplatform.infrastructure.hooks.service.HookDeliveryService;
 import org.mifosplatform.infrastructure.security.service.PlatformSecurityContext;
+import org.mifosplatform.portfolio.search.service.SearchIndexUpdateService;
 import org.mifosplatform.useradministration.domain.AppUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
@@ -40,13 +42,16 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
     private CommandSourceRepository commandSourceRepository;
     private final ConfigurationDomainService configurationDomainService;
     private final CommandHandlerProvider commandHandlerProvider;
+    private final HookDeliveryService hookDeliveryService;
+    private final SearchIndexUpdateService searchIndexUpdateService;
 
     @Autowired
     public SynchronousCommandProcessingService(final PlatformSecurityContext context, final ApplicationContext applicationContext,
             final ToApiJsonSerializer<Map<String, Object>> toApiJsonSerializer,
             final ToApiJsonSerializer<CommandProcessingResult> toApiResultJsonSerializer,
             final CommandSourceRepository commandSourceRepository, final ConfigurationDomainService configurationDomainService,
-            final CommandHandlerProvider commandHandlerProvider) {
+            final CommandHandlerProvider commandHandlerProvider, final HookDeliveryService hookDeliveryService,
+            final SearchIndexUpdateService searchIndexUpdateService) {
         this.context = context;
         this.context = context;
         this.applicationContext = applicationContext;
@@ -56,6 +61,8 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
         this.commandSourceRepository = commandSourceRepository;
         this.configurationDomainService = configurationDomainService;
         this.commandHandlerProvider = commandHandlerProvider;
+        this.hookDeliveryService = hookDeliveryService;
+        this.searchIndexUpdateService = searchIndexUpdateService;
     }
 
     @Transactional
@@ -204,6 +211,11 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
 
         final String serializedResult = this.toApiResultJsonSerializer.serialize(result);
 
+        // web hook deliveries and search index updates are bound to the
+        // command transaction, the published event is handled asynchronously
+        this.hookDeliveryService.enqueueWebHooks(entityName, actionName, serializedResult);
+        this.searchIndexUpdateService.scheduleReindex(entityName, actionName, serializedResult);
+
         final HookEvent applicationEvent = new HookEvent(hookEventSource, serializedResult, tenantIdentifier, appUser, authToken);
 
         applicationContext.publishEvent(applicationEvent);
@@ -0,0 +1,47 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.data;
+
+/**
+ * Statistics of one cache on the node that served the request.
+ */
+public class CacheStatisticsData {
+
+    @SuppressWarnings("unused")
+    private final String cacheName;
+    @SuppressWarnings("unused")
+    private final long size;
+    @SuppressWarnings("unused")
+    private final long hitCount;
+    @SuppressWarnings("unused")
+    private final long missCount;
+    @SuppressWarnings("unused")
+    private final long evictionCount;
+    @SuppressWarnings("unused")
+    private final long removalCount;
+    @SuppressWarnings("unused")
+    private final long publishedInvalidationCount;
+    @SuppressWarnings("unused")
+    private final long receivedInvalidationCount;
+
+    public static CacheStatisticsData instance(final String cacheName, final long size, final long hitCount, final long missCount,
+            final long evictionCount, final long removalCount, final long publishedInvalidationCount, final long receivedInvalidationCount) {
+        return new CacheStatisticsData(cacheName, size, hitCount, missCount, evictionCount, removalCount, publishedInvalidationCount,
+                receivedInvalidationCount);
+    }
+
+    private CacheStatisticsData(final String cacheName, final long size, final long hitCount, final long missCount,
+            final long evictionCount, final long removalCount, final long publishedInvalidationCount, final long receivedInvalidationCount) {
+        this.cacheName = cacheName;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.removalCount = removalCount;
+        this.publishedInvalidationCount = publishedInvalidationCount;
+        this.receivedInvalidationCount = receivedInvalidationCount;
+    }
+}
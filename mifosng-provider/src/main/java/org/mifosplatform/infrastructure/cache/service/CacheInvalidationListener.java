@@ -0,0 +1,16 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.service;
+
+public interface CacheInvalidationListener {
+
+    /**
+     * @param key
+     *            the evicted key, or <code>null</code> when the whole cache
+     *            was cleared
+     */
+    void invalidate(String cacheName, String key);
+}
@@ -0,0 +1,31 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.service;
+
+import org.mifosplatform.infrastructure.cache.domain.CacheType;
+
+/**
+ * Carries cache invalidations between the nodes of a cluster running with
+ * {@link CacheType#MULTI_NODE}. Chosen through the
+ * <code>mifos.cache.invalidation.transport</code> property.
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * Starts passing the invalidations published by other nodes to the
+     * listener.
+     */
+    void start(CacheInvalidationListener listener);
+
+    void stop();
+
+    /**
+     * @param key
+     *            the evicted key, or <code>null</code> when the whole cache
+     *            was cleared
+     */
+    void publish(String cacheName, String key);
+}
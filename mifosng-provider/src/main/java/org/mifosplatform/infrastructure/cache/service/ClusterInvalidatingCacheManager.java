@@ -0,0 +1,168 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.service;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mifosplatform.infrastructure.cache.domain.CacheType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.ehcache.EhCacheCacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link CacheManager} used for {@link CacheType#MULTI_NODE}: the local
+ * ehcache caches, with every eviction also published to the other nodes once
+ * the surrounding transaction has committed, so they do not reload the old
+ * values in the meantime.
+ * 
+ * Only {@link String} keys are published as such, evicting any other key
+ * clears the whole cache on the other nodes.
+ */
+public class ClusterInvalidatingCacheManager implements CacheManager, CacheInvalidationListener {
+
+    private final static Logger logger = LoggerFactory.getLogger(ClusterInvalidatingCacheManager.class);
+
+    private final EhCacheCacheManager ehcacheCacheManager;
+    private final CacheInvalidationTransport transport;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> publishedInvalidations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> receivedInvalidations = new ConcurrentHashMap<>();
+
+    public ClusterInvalidatingCacheManager(final EhCacheCacheManager ehcacheCacheManager, final CacheInvalidationTransport transport) {
+        this.ehcacheCacheManager = ehcacheCacheManager;
+        this.transport = transport;
+    }
+
+    public void start() {
+        this.transport.start(this);
+    }
+
+    public void stop() {
+        this.transport.stop();
+    }
+
+    @Override
+    public Cache getCache(final String name) {
+        Cache cache = this.caches.get(name);
+        if (cache == null) {
+            final Cache localCache = this.ehcacheCacheManager.getCache(name);
+            if (localCache == null) { return null; }
+            this.caches.putIfAbsent(name, new ClusterInvalidatingCache(localCache));
+            cache = this.caches.get(name);
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.ehcacheCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void invalidate(final String cacheName, final String key) {
+        final Cache localCache = this.ehcacheCacheManager.getCache(cacheName);
+        if (localCache == null) { return; }
+        if (key == null) {
+            localCache.clear();
+        } else {
+            localCache.evict(key);
+        }
+        counter(this.receivedInvalidations, cacheName).incrementAndGet();
+    }
+
+    public long publishedInvalidations(final String cacheName) {
+        return counter(this.publishedInvalidations, cacheName).get();
+    }
+
+    public long receivedInvalidations(final String cacheName) {
+        return counter(this.receivedInvalidations, cacheName).get();
+    }
+
+    private void publishAfterCommit(final String cacheName, final String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    publish(cacheName, key);
+                }
+            });
+        } else {
+            publish(cacheName, key);
+        }
+    }
+
+    private void publish(final String cacheName, final String key) {
+        try {
+            this.transport.publish(cacheName, key);
+            counter(this.publishedInvalidations, cacheName).incrementAndGet();
+        } catch (final RuntimeException e) {
+            logger.warn("Could not publish invalidation of cache " + cacheName, e);
+        }
+    }
+
+    private static AtomicLong counter(final ConcurrentMap<String, AtomicLong> counters, final String cacheName) {
+        AtomicLong counter = counters.get(cacheName);
+        if (counter == null) {
+            counters.putIfAbsent(cacheName, new AtomicLong());
+            counter = counters.get(cacheName);
+        }
+        return counter;
+    }
+
+    private final class ClusterInvalidatingCache implements Cache {
+
+        private final Cache localCache;
+
+        ClusterInvalidatingCache(final Cache localCache) {
+            this.localCache = localCache;
+        }
+
+        @Override
+        public String getName() {
+            return this.localCache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return this.localCache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(final Object key) {
+            return this.localCache.get(key);
+        }
+
+        @Override
+        public <T> T get(final Object key, final Class<T> type) {
+            return this.localCache.get(key, type);
+        }
+
+        @Override
+        public void put(final Object key, final Object value) {
+            this.localCache.put(key, value);
+        }
+
+        @Override
+        public void evict(final Object key) {
+            this.localCache.evict(key);
+            publishAfterCommit(getName(), key instanceof String ? (String) key : null);
+        }
+
+        @Override
+        public void clear() {
+            this.localCache.clear();
+            publishAfterCommit(getName(), null);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation log in the tenants database, which all nodes share anyway, so
+ * it needs no extra infrastructure.
+ * 
+ * Every node polls the entries of the last minute rather than the entries
+ * after the highest id it has seen, as auto increment ids may become visible
+ * out of order. Entries are applied once and purged after an hour.
+ */
+@Component
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final static Logger logger = LoggerFactory.getLogger(JdbcCacheInvalidationTransport.class);
+
+    public final static String POLL_INTERVAL_MILLIS = "mifos.cache.invalidation.pollIntervalMillis";
+
+    private final static int POLL_WINDOW_SECONDS = 60;
+    private final static int RETENTION_MINUTES = 60;
+
+    @Value("${" + POLL_INTERVAL_MILLIS + ":1000}")
+    private long pollIntervalMillis;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private ScheduledExecutorService poller;
+    private Set<Long> appliedIds = new HashSet<>();
+
+    @Autowired
+    public JdbcCacheInvalidationTransport(@Qualifier("tenantDataSourceJndi") final DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public synchronized void start(final CacheInvalidationListener listener) {
+        if (this.poller != null) { return; }
+
+        // what was logged before this node started is not applied
+        this.appliedIds = new HashSet<>();
+        for (final Invalidation invalidation : recentInvalidations()) {
+            this.appliedIds.add(invalidation.id);
+        }
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "cache-invalidation-poller");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.poller.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    poll(listener);
+                } catch (final RuntimeException e) {
+                    logger.warn("Polling cache invalidations failed", e);
+                }
+            }
+        }, this.pollIntervalMillis, this.pollIntervalMillis, TimeUnit.MILLISECONDS);
+        this.poller.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    JdbcCacheInvalidationTransport.this.jdbcTemplate.update(
+                            "delete from c_cache_invalidation where created_date < now() - interval ? minute", RETENTION_MINUTES);
+                } catch (final RuntimeException e) {
+                    logger.warn("Purging cache invalidations failed", e);
+                }
+            }
+        }, 1, 10, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized void stop() {
+        if (this.poller != null) {
+            this.poller.shutdownNow();
+            this.poller = null;
+        }
+    }
+
+    @Override
+    public void publish(final String cacheName, final String key) {
+        this.jdbcTemplate.update("insert into c_cache_invalidation (node_id, cache_name, cache_key, created_date) values (?, ?, ?, now())",
+                this.nodeId, cacheName, key);
+    }
+
+    private void poll(final CacheInvalidationListener listener) {
+        final Set<Long> idsInWindow = new HashSet<>();
+        for (final Invalidation invalidation : recentInvalidations()) {
+            idsInWindow.add(invalidation.id);
+            if (!this.appliedIds.contains(invalidation.id) && !this.nodeId.equals(invalidation.nodeId)) {
+                listener.invalidate(invalidation.cacheName, invalidation.cacheKey);
+            }
+        }
+        // older entries are no longer read
+        this.appliedIds = idsInWindow;
+    }
+
+    private List<Invalidation> recentInvalidations() {
+        final String sql = "select ci.id as id, ci.node_id as nodeId, ci.cache_name as cacheName, ci.cache_key as cacheKey "
+                + "from c_cache_invalidation ci where ci.created_date >= now() - interval ? second order by ci.id";
+        return this.jdbcTemplate.query(sql, new InvalidationMapper(), POLL_WINDOW_SECONDS);
+    }
+
+    private static final class Invalidation {
+
+        private final Long id;
+        private final String nodeId;
+        private final String cacheName;
+        private final String cacheKey;
+
+        Invalidation(final Long id, final String nodeId, final String cacheName, final String cacheKey) {
+            this.id = id;
+            this.nodeId = nodeId;
+            this.cacheName = cacheName;
+            this.cacheKey = cacheKey;
+        }
+    }
+
+    private static final class InvalidationMapper implements RowMapper<Invalidation> {
+
+        @Override
+        public Invalidation mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            return new Invalidation(rs.getLong("id"), rs.getString("nodeId"), rs.getString("cacheName"), rs.getString("cacheKey"));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.util.UUID;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends invalidations to the other nodes as UDP multicast datagrams, which
+ * reaches them right away but needs a network that routes multicast between
+ * the nodes. Lost datagrams are not resent.
+ */
+@Component
+public class MulticastCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final static Logger logger = LoggerFactory.getLogger(MulticastCacheInvalidationTransport.class);
+
+    public final static String GROUP = "mifos.cache.invalidation.multicast.group";
+    public final static String PORT = "mifos.cache.invalidation.multicast.port";
+    public final static String TIME_TO_LIVE = "mifos.cache.invalidation.multicast.timeToLive";
+
+    private final static int MAX_DATAGRAM_SIZE = 8192;
+
+    @Value("${" + GROUP + ":239.255.27.1}")
+    private String group;
+
+    @Value("${" + PORT + ":45588}")
+    private int port;
+
+    @Value("${" + TIME_TO_LIVE + ":1}")
+    private int timeToLive;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile MulticastSocket socket;
+    private InetAddress groupAddress;
+
+    @Override
+    public synchronized void start(final CacheInvalidationListener listener) {
+        if (this.socket != null) { return; }
+        try {
+            this.groupAddress = InetAddress.getByName(this.group);
+            final MulticastSocket multicastSocket = new MulticastSocket(this.port);
+            multicastSocket.setTimeToLive(this.timeToLive);
+            multicastSocket.joinGroup(this.groupAddress);
+            this.socket = multicastSocket;
+
+            final Thread receiver = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    receive(multicastSocket, listener);
+                }
+            }, "cache-invalidation-receiver");
+            receiver.setDaemon(true);
+            receiver.start();
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not join multicast group " + this.group + ":" + this.port, e);
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized void stop() {
+        if (this.socket != null) {
+            // unblocks the receiver
+            this.socket.close();
+            this.socket = null;
+        }
+    }
+
+    @Override
+    public void publish(final String cacheName, final String key) {
+        final MulticastSocket multicastSocket = this.socket;
+        if (multicastSocket == null) { return; }
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(this.nodeId);
+            out.writeUTF(cacheName);
+            out.writeBoolean(key != null);
+            if (key != null) {
+                out.writeUTF(key);
+            }
+            out.flush();
+            final byte[] data = bytes.toByteArray();
+            multicastSocket.send(new DatagramPacket(data, data.length, this.groupAddress, this.port));
+        } catch (final IOException e) {
+            logger.warn("Could not publish invalidation of cache " + cacheName, e);
+        }
+    }
+
+    private void receive(final MulticastSocket multicastSocket, final CacheInvalidationListener listener) {
+        final byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        while (!multicastSocket.isClosed()) {
+            try {
+                final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                multicastSocket.receive(packet);
+                final DataInputStream in = new DataInputStream(new ByteArrayInputStream(packet.getData(), packet.getOffset(),
+                        packet.getLength()));
+                final String senderNodeId = in.readUTF();
+                final String cacheName = in.readUTF();
+                final String key = in.readBoolean() ? in.readUTF() : null;
+                if (!this.nodeId.equals(senderNodeId)) {
+                    listener.invalidate(cacheName, key);
+                }
+            } catch (final IOException e) {
+                if (!multicastSocket.isClosed()) {
+                    logger.warn("Could not receive cache invalidation", e);
+                }
+            } catch (final RuntimeException e) {
+                logger.warn("Could not apply cache invalidation", e);
+            }
+        }
+    }
+}
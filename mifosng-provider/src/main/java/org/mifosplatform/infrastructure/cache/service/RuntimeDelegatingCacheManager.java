@@ -5,17 +5,23 @@
  */
 package org.mifosplatform.infrastructure.cache.service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import net.sf.ehcache.statistics.StatisticsGateway;
+
 import org.mifosplatform.infrastructure.cache.CacheApiConstants;
 import org.mifosplatform.infrastructure.cache.CacheEnumerations;
 import org.mifosplatform.infrastructure.cache.data.CacheData;
+import org.mifosplatform.infrastructure.cache.data.CacheStatisticsData;
 import org.mifosplatform.infrastructure.cache.domain.CacheType;
 import org.mifosplatform.infrastructure.core.data.EnumOptionData;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
@@ -29,17 +35,32 @@ import org.springframework.stereotype.Component;
  * By default it is {@link NoOpCacheManager} but we can change that by checking
  * some persisted configuration in the database on startup and allow user to
  * switch implementation through UI/API
+ * 
+ * {@link CacheType#MULTI_NODE} uses the same ehcache caches, but publishes
+ * their evictions to the other nodes through the
+ * {@link CacheInvalidationTransport} chosen with the
+ * <code>mifos.cache.invalidation.transport</code> property: <code>jdbc</code>
+ * (the default) or <code>multicast</code>.
  */
 @Component(value = "runtimeDelegatingCacheManager")
 public class RuntimeDelegatingCacheManager implements CacheManager {
 
+    public final static String INVALIDATION_TRANSPORT = "mifos.cache.invalidation.transport";
+
     private final EhCacheCacheManager ehcacheCacheManager;
     private final CacheManager noOpCacheManager = new NoOpCacheManager();
+    private final ClusterInvalidatingCacheManager clusterCacheManager;
     private CacheManager currentCacheManager;
 
     @Autowired
-    public RuntimeDelegatingCacheManager(final EhCacheCacheManager ehCacheCacheManager) {
+    public RuntimeDelegatingCacheManager(final EhCacheCacheManager ehCacheCacheManager,
+            final JdbcCacheInvalidationTransport jdbcInvalidationTransport,
+            final MulticastCacheInvalidationTransport multicastInvalidationTransport,
+            @Value("${" + INVALIDATION_TRANSPORT + ":jdbc}") final String invalidationTransport) {
         this.ehcacheCacheManager = ehCacheCacheManager;
+        final CacheInvalidationTransport transport = "multicast".equalsIgnoreCase(invalidationTransport) ? multicastInvalidationTransport
+                : jdbcInvalidationTransport;
+        this.clusterCacheManager = new ClusterInvalidatingCacheManager(ehCacheCacheManager, transport);
         this.currentCacheManager = this.noOpCacheManager;
     }
 
@@ -53,33 +74,59 @@ public class RuntimeDelegatingCacheManager implements CacheManager {
         return this.currentCacheManager.getCacheNames();
     }
 
+    /**
+     * @return <code>false</code> when caching is off and every cache lookup
+     *         misses
+     */
+    public boolean isCacheEnabled() {
+        return !(this.currentCacheManager instanceof NoOpCacheManager);
+    }
+
     public Collection<CacheData> retrieveAll() {
 
         final boolean noCacheEnabled = this.currentCacheManager instanceof NoOpCacheManager;
         final boolean ehcacheEnabled = this.currentCacheManager instanceof EhCacheCacheManager;
-
-        // final boolean distributedCacheEnabled = false;
+        final boolean distributedCacheEnabled = this.currentCacheManager instanceof ClusterInvalidatingCacheManager;
 
         final EnumOptionData noCacheType = CacheEnumerations.cacheType(CacheType.NO_CACHE);
         final EnumOptionData singleNodeCacheType = CacheEnumerations.cacheType(CacheType.SINGLE_NODE);
-        // final EnumOptionData multiNodeCacheType =
-        // CacheEnumerations.cacheType(CacheType.MULTI_NODE);
+        final EnumOptionData multiNodeCacheType = CacheEnumerations.cacheType(CacheType.MULTI_NODE);
 
         final CacheData noCache = CacheData.instance(noCacheType, noCacheEnabled);
         final CacheData singleNodeCache = CacheData.instance(singleNodeCacheType, ehcacheEnabled);
-        // final CacheData distributedCache =
-        // CacheData.instance(multiNodeCacheType, distributedCacheEnabled);
+        final CacheData distributedCache = CacheData.instance(multiNodeCacheType, distributedCacheEnabled);
 
-        final Collection<CacheData> caches = Arrays.asList(noCache, singleNodeCache);
+        final Collection<CacheData> caches = Arrays.asList(noCache, singleNodeCache, distributedCache);
         return caches;
     }
 
-    public Map<String, Object> switchToCache(final boolean ehcacheEnabled, final CacheType toCacheType) {
+    /**
+     * Statistics of the ehcache caches of this node, empty when caching is
+     * off.
+     */
+    public Collection<CacheStatisticsData> retrieveStatistics() {
+
+        final List<CacheStatisticsData> statistics = new ArrayList<>();
+        if (this.currentCacheManager instanceof NoOpCacheManager) { return statistics; }
+
+        final net.sf.ehcache.CacheManager cacheManager = this.ehcacheCacheManager.getCacheManager();
+        final String[] cacheNames = cacheManager.getCacheNames();
+        Arrays.sort(cacheNames);
+        for (final String cacheName : cacheNames) {
+            final StatisticsGateway cacheStatistics = cacheManager.getEhcache(cacheName).getStatistics();
+            statistics.add(CacheStatisticsData.instance(cacheName, cacheStatistics.getSize(), cacheStatistics.cacheHitCount(),
+                    cacheStatistics.cacheMissCount(), cacheStatistics.cacheEvictedCount(), cacheStatistics.cacheRemoveCount(),
+                    this.clusterCacheManager.publishedInvalidations(cacheName), this.clusterCacheManager.receivedInvalidations(cacheName)));
+        }
+        return statistics;
+    }
+
+    public Map<String, Object> switchToCache(final boolean ehcacheEnabled, final boolean distributedCacheEnabled,
+            final CacheType toCacheType) {
 
         final Map<String, Object> changes = new HashMap<>();
 
-        final boolean noCacheEnabled = !ehcacheEnabled;
-        final boolean distributedCacheEnabled = !ehcacheEnabled;
+        final boolean noCacheEnabled = !ehcacheEnabled && !distributedCacheEnabled;
 
         switch (toCacheType) {
             case INVALID:
@@ -88,6 +135,7 @@ public class RuntimeDelegatingCacheManager implements CacheManager {
                 if (!noCacheEnabled) {
                     changes.put(CacheApiConstants.cacheTypeParameter, toCacheType.getValue());
                 }
+                this.clusterCacheManager.stop();
                 this.currentCacheManager = this.noOpCacheManager;
             break;
             case SINGLE_NODE:
@@ -95,12 +143,19 @@ public class RuntimeDelegatingCacheManager implements CacheManager {
                     changes.put(CacheApiConstants.cacheTypeParameter, toCacheType.getValue());
                     clearEhCache();
                 }
+                this.clusterCacheManager.stop();
                 this.currentCacheManager = this.ehcacheCacheManager;
             break;
             case MULTI_NODE:
                 if (!distributedCacheEnabled) {
                     changes.put(CacheApiConstants.cacheTypeParameter, toCacheType.getValue());
                 }
+                if (this.currentCacheManager != this.clusterCacheManager) {
+                    // evictions on other nodes were missed while not listening
+                    clearEhCache();
+                    this.clusterCacheManager.start();
+                }
+                this.currentCacheManager = this.clusterCacheManager;
             break;
         }
 
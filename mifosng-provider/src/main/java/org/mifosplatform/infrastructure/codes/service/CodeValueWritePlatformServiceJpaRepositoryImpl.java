@@ -51,7 +51,7 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
 
     @Transactional
     @Override
-    @CacheEvict(value = "code_values", allEntries = true)
+    @CacheEvict(value = { "code_values", "datatable_metadata" }, allEntries = true)
     public CommandProcessingResult createCodeValue(final JsonCommand command) {
 
         try {
@@ -99,7 +99,7 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
 
     @Transactional
     @Override
-    @CacheEvict(value = "code_values", allEntries = true)
+    @CacheEvict(value = { "code_values", "datatable_metadata" }, allEntries = true)
     public CommandProcessingResult updateCodeValue(final Long codeValueId, final JsonCommand command) {
 
         try {
@@ -130,7 +130,7 @@ public class CodeValueWritePlatformServiceJpaRepositoryImpl implements CodeValue
 
     @Transactional
     @Override
-    @CacheEvict(value = "code_values", allEntries = true)
+    @CacheEvict(value = { "code_values", "datatable_metadata" }, allEntries = true)
     public CommandProcessingResult deleteCodeValue(final Long codeId, final Long codeValueId) {
 
         try {
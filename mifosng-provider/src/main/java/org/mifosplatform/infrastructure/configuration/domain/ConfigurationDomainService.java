@@ -25,6 +25,8 @@ public interface ConfigurationDomainService {
 
     boolean isEhcacheEnabled();
 
+    boolean isDistributedCacheEnabled();
+
     void updateCache(CacheType cacheType);
 
     Long retrievePenaltyWaitPeriod();
@@ -49,4 +51,20 @@ public interface ConfigurationDomainService {
 
     int getRoundingMode();
 
+    boolean isJobPartitioningEnabled();
+
+    int retrieveJobPartitionThreadCount();
+
+    int retrieveJobPartitionChunkSize();
+
+    boolean isIncrementalArrearsAgeingEnabled();
+
+    /**
+     * Replaces the current tenant's configuration snapshot once the ongoing
+     * transaction commits (immediately when there is none), on the other nodes
+     * too with the multi node cache type. To be called by every write to
+     * <code>c_configuration</code> or <code>m_permission</code>.
+     */
+    void refreshConfigurationSnapshot();
+
 }
\ No newline at end of file
@@ -5,56 +5,88 @@
  */
 package org.mifosplatform.infrastructure.configuration.domain;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.apache.commons.lang.StringUtils;
 import org.mifosplatform.infrastructure.cache.domain.CacheType;
 import org.mifosplatform.infrastructure.cache.domain.PlatformCache;
 import org.mifosplatform.infrastructure.cache.domain.PlatformCacheRepository;
+import org.mifosplatform.infrastructure.cache.service.RuntimeDelegatingCacheManager;
+import org.mifosplatform.infrastructure.configuration.domain.GlobalConfigurationSnapshot.Property;
+import org.mifosplatform.infrastructure.configuration.exception.GlobalConfigurationPropertyNotFoundException;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
 import org.mifosplatform.useradministration.domain.Permission;
 import org.mifosplatform.useradministration.domain.PermissionRepository;
 import org.mifosplatform.useradministration.exception.PermissionNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Serves the global configuration and maker-checker flags of a tenant from a
+ * {@link GlobalConfigurationSnapshot} held per tenant on this node, whatever
+ * the cache type. Writes replace it after commit.
+ *
+ * The managed <code>configuration_snapshot</code> cache only holds a marker
+ * per tenant identifier. Writes evict it, which with the
+ * {@link CacheType#MULTI_NODE} cache type evicts it on the other nodes too,
+ * and a node that finds the marker gone reads its snapshot again.
+ */
 @Service
 public class ConfigurationDomainServiceJpa implements ConfigurationDomainService {
 
+    public final static String SNAPSHOT_CACHE = "configuration_snapshot";
+
     private final PermissionRepository permissionRepository;
     private final GlobalConfigurationRepositoryWrapper globalConfigurationRepository;
     private final PlatformCacheRepository cacheTypeRepository;
+    private final RuntimeDelegatingCacheManager cacheManager;
+    private final ConcurrentMap<String, AtomicReference<SnapshotHolder>> snapshots = new ConcurrentHashMap<>();
 
     @Autowired
     public ConfigurationDomainServiceJpa(final PermissionRepository permissionRepository,
-            final GlobalConfigurationRepositoryWrapper globalConfigurationRepository, final PlatformCacheRepository cacheTypeRepository) {
+            final GlobalConfigurationRepositoryWrapper globalConfigurationRepository, final PlatformCacheRepository cacheTypeRepository,
+            final RuntimeDelegatingCacheManager cacheManager) {
         this.permissionRepository = permissionRepository;
         this.globalConfigurationRepository = globalConfigurationRepository;
         this.cacheTypeRepository = cacheTypeRepository;
+        this.cacheManager = cacheManager;
     }
 
     @Override
     public boolean isMakerCheckerEnabledForTask(final String taskPermissionCode) {
         if (StringUtils.isBlank(taskPermissionCode)) { throw new PermissionNotFoundException(taskPermissionCode); }
 
-        final Permission thisTask = this.permissionRepository.findOneByCode(taskPermissionCode);
-        if (thisTask == null) { throw new PermissionNotFoundException(taskPermissionCode); }
+        final GlobalConfigurationSnapshot snapshot = snapshot();
+        Boolean taskHasMakerCheckerEnabled = snapshot == null ? null : snapshot.makerCheckerEnabledFor(taskPermissionCode);
+        if (taskHasMakerCheckerEnabled == null) {
+            final Permission thisTask = this.permissionRepository.findOneByCode(taskPermissionCode);
+            if (thisTask == null) { throw new PermissionNotFoundException(taskPermissionCode); }
+            taskHasMakerCheckerEnabled = thisTask.hasMakerCheckerEnabled();
+        }
 
         final String makerCheckerConfigurationProperty = "maker-checker";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(makerCheckerConfigurationProperty);
+        final Property property = property(makerCheckerConfigurationProperty);
 
-        return thisTask.hasMakerCheckerEnabled() && property.isEnabled();
+        return taskHasMakerCheckerEnabled && property.isEnabled();
     }
 
     @Override
     public boolean isAmazonS3Enabled() {
-        return this.globalConfigurationRepository.findOneByNameWithNotFoundDetection("amazon-S3").isEnabled();
+        return property("amazon-S3").isEnabled();
     }
 
     @Override
     public boolean isRescheduleFutureRepaymentsEnabled() {
         final String rescheduleRepaymentsConfigurationProperty = "reschedule-future-repayments";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(rescheduleRepaymentsConfigurationProperty);
+        final Property property = property(rescheduleRepaymentsConfigurationProperty);
         return property.isEnabled();
     }
 
@@ -67,30 +99,28 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public boolean isRescheduleRepaymentsOnHolidaysEnabled() {
         final String holidaysConfigurationProperty = "reschedule-repayments-on-holidays";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(holidaysConfigurationProperty);
+        final Property property = property(holidaysConfigurationProperty);
         return property.isEnabled();
     }
 
     @Override
     public boolean allowTransactionsOnHolidayEnabled() {
         final String allowTransactionsOnHolidayProperty = "allow-transactions-on-holiday";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository
-                .findOneByNameWithNotFoundDetection(allowTransactionsOnHolidayProperty);
+        final Property property = property(allowTransactionsOnHolidayProperty);
         return property.isEnabled();
     }
 
     @Override
     public boolean allowTransactionsOnNonWorkingDayEnabled() {
         final String propertyName = "allow-transactions-on-non_workingday";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.isEnabled();
     }
 
     @Override
     public boolean isConstraintApproachEnabledForDatatables() {
         final String propertyName = "constraint_approach_for_datatables";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.isEnabled();
     }
 
@@ -99,6 +129,11 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
         return this.cacheTypeRepository.findOne(Long.valueOf(1)).isEhcacheEnabled();
     }
 
+    @Override
+    public boolean isDistributedCacheEnabled() {
+        return this.cacheTypeRepository.findOne(Long.valueOf(1)).isDistributedCacheEnabled();
+    }
+
     @Transactional
     @Override
     public void updateCache(final CacheType cacheType) {
@@ -110,49 +145,49 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public Long retrievePenaltyWaitPeriod() {
         final String propertyName = "penalty-wait-period";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.getValue();
     }
 
     @Override
     public Long retrieveGraceOnPenaltyPostingPeriod() {
         final String propertyName = "grace-on-penalty-posting";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.getValue();
     }
 
     @Override
     public boolean isPasswordForcedResetEnable() {
         final String propertyName = "force-password-reset-days";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.isEnabled();
     }
 
     @Override
     public Long retrievePasswordLiveTime() {
         final String propertyName = "force-password-reset-days";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.getValue();
     }
 
     @Override
     public Long retrieveOpeningBalancesContraAccount() {
         final String propertyName = "office-opening-balances-contra-account";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.getValue();
     }
 
     @Override
     public boolean isSavingsInterestPostingAtCurrentPeriodEnd() {
         final String propertyName = "savings-interest-posting-current-period-end";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.isEnabled();
     }
 
     @Override
     public Integer retrieveFinancialYearBeginningMonth() {
         final String propertyName = "financial-year-beginning-month";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         if (property.isEnabled()) return property.getValue().intValue();
         return 1;
     }
@@ -160,7 +195,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public Integer retrieveMinAllowedClientsInGroup() {
         final String propertyName = "min-clients-in-group";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         if (property.isEnabled()) { return property.getValue().intValue(); }
         return null;
     }
@@ -168,7 +203,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public Integer retrieveMaxAllowedClientsInGroup() {
         final String propertyName = "max-clients-in-group";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         if (property.isEnabled()) { return property.getValue().intValue(); }
         return null;
     }
@@ -176,7 +211,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     @Override
     public boolean isMeetingMandatoryForJLGLoans() {
         final String propertyName = "meetings-mandatory-for-jlg-loans";
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         return property.isEnabled();
     }
 
@@ -184,7 +219,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     public int getRoundingMode() {
         final String propertyName = "rounding-mode";
         int defaultValue = 6; // 6 Stands for HALF-EVEN
-        final GlobalConfigurationProperty property = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
+        final Property property = property(propertyName);
         if (property.isEnabled()) {
             int value = property.getValue().intValue();
             if (value < 0 || value > 6) { return defaultValue; }
@@ -193,4 +228,139 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
         return defaultValue;
     }
 
-}
\ No newline at end of file
+    @Override
+    public boolean isJobPartitioningEnabled() {
+        final String propertyName = "job-partition-thread-count";
+        final Property property = property(propertyName);
+        return property.isEnabled();
+    }
+
+    @Override
+    public int retrieveJobPartitionThreadCount() {
+        final String propertyName = "job-partition-thread-count";
+        int defaultValue = 1;
+        final Property property = property(propertyName);
+        if (property.isEnabled() && property.getValue() != null && property.getValue() > 0) { return property.getValue().intValue(); }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean isIncrementalArrearsAgeingEnabled() {
+        final String propertyName = "incremental-arrears-ageing";
+        final Property property = property(propertyName);
+        return property.isEnabled();
+    }
+
+    @Override
+    public int retrieveJobPartitionChunkSize() {
+        final String propertyName = "job-partition-chunk-size";
+        int defaultValue = 500;
+        final Property property = property(propertyName);
+        if (property.isEnabled() && property.getValue() != null && property.getValue() > 0) { return property.getValue().intValue(); }
+        return defaultValue;
+    }
+
+    @Override
+    public void refreshConfigurationSnapshot() {
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        if (tenant == null) { return; }
+
+        final String key = tenant.getTenantIdentifier();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    invalidateSnapshot(key);
+                }
+            });
+        } else {
+            invalidateSnapshot(key);
+        }
+    }
+
+    private void invalidateSnapshot(final String tenantIdentifier) {
+        snapshotReference(tenantIdentifier).set(new SnapshotHolder(null));
+        final Cache cache = this.cacheManager.getCache(SNAPSHOT_CACHE);
+        if (cache != null) {
+            cache.evict(tenantIdentifier);
+        }
+    }
+
+    /**
+     * Returns the configuration snapshot of the current tenant, reading it on
+     * first use and again after a write on this or, through the managed cache,
+     * another node. A snapshot read while a write commits is returned but not
+     * kept, as the write has replaced the holder it was read for.
+     */
+    private GlobalConfigurationSnapshot snapshot() {
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        if (tenant == null) { return null; }
+
+        final String key = tenant.getTenantIdentifier();
+        final AtomicReference<SnapshotHolder> reference = snapshotReference(key);
+        final SnapshotHolder current = reference.get();
+        final boolean markerValid = isMarkerValid(key);
+        if (current.snapshot != null && markerValid) { return current.snapshot; }
+
+        final GlobalConfigurationSnapshot snapshot = GlobalConfigurationSnapshot.from(this.globalConfigurationRepository.findAll(),
+                this.permissionRepository.findAll());
+        reference.compareAndSet(current, new SnapshotHolder(snapshot));
+        return snapshot;
+    }
+
+    private AtomicReference<SnapshotHolder> snapshotReference(final String tenantIdentifier) {
+        AtomicReference<SnapshotHolder> reference = this.snapshots.get(tenantIdentifier);
+        if (reference == null) {
+            final AtomicReference<SnapshotHolder> newReference = new AtomicReference<>(new SnapshotHolder(null));
+            reference = this.snapshots.putIfAbsent(tenantIdentifier, newReference);
+            if (reference == null) {
+                reference = newReference;
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * Checks the marker of the tenant in the managed cache, setting it when it
+     * is gone. It is set before the snapshot is read so an eviction while
+     * reading leads to another read. With caching off there is no marker and
+     * only writes on this node replace the snapshot.
+     */
+    private boolean isMarkerValid(final String tenantIdentifier) {
+        if (!this.cacheManager.isCacheEnabled()) { return true; }
+        final Cache cache = this.cacheManager.getCache(SNAPSHOT_CACHE);
+        if (cache == null) { return true; }
+
+        final ValueWrapper marker = cache.get(tenantIdentifier);
+        if (marker != null) { return true; }
+        cache.put(tenantIdentifier, Boolean.TRUE);
+        return false;
+    }
+
+    private Property property(final String propertyName) {
+        final GlobalConfigurationSnapshot snapshot = snapshot();
+        if (snapshot == null) {
+            final GlobalConfigurationProperty property = this.globalConfigurationRepository
+                    .findOneByNameWithNotFoundDetection(propertyName);
+            return new Property(property.isEnabled(), property.getValue());
+        }
+        final Property property = snapshot.property(propertyName);
+        if (property == null) { throw new GlobalConfigurationPropertyNotFoundException(propertyName); }
+        return property;
+    }
+
+    /**
+     * Holds the snapshot of a tenant, <code>null</code> until it is read. Every
+     * write sets a new empty holder, so reads started before the write cannot
+     * replace it.
+     */
+    private static final class SnapshotHolder {
+
+        private final GlobalConfigurationSnapshot snapshot;
+
+        SnapshotHolder(final GlobalConfigurationSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -53,6 +53,10 @@ public class GlobalConfigurationProperty extends AbstractPersistable<Long> {
         this.isTrapDoor = isTrapDoor;
     }
 
+    public String getName() {
+        return this.name;
+    }
+
     public boolean isEnabled() {
         return this.enabled;
     }
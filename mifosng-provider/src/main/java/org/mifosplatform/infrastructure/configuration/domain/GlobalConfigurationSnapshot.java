@@ -0,0 +1,79 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.configuration.domain;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mifosplatform.useradministration.domain.Permission;
+
+/**
+ * Immutable copy of a tenant's global configuration properties and the
+ * maker-checker flag of each permission, read once so configuration lookups
+ * on the command path do not go to the database.
+ */
+public final class GlobalConfigurationSnapshot {
+
+    private final Map<String, Property> properties;
+    private final Map<String, Boolean> makerCheckerByPermissionCode;
+
+    public static GlobalConfigurationSnapshot from(final Collection<GlobalConfigurationProperty> configurationProperties,
+            final Collection<Permission> permissions) {
+        final Map<String, Property> properties = new HashMap<>();
+        for (final GlobalConfigurationProperty property : configurationProperties) {
+            properties.put(property.getName(), new Property(property.isEnabled(), property.getValue()));
+        }
+
+        final Map<String, Boolean> makerCheckerByPermissionCode = new HashMap<>();
+        for (final Permission permission : permissions) {
+            makerCheckerByPermissionCode.put(permission.getCode(), Boolean.valueOf(permission.hasMakerCheckerEnabled()));
+        }
+
+        return new GlobalConfigurationSnapshot(properties, makerCheckerByPermissionCode);
+    }
+
+    private GlobalConfigurationSnapshot(final Map<String, Property> properties, final Map<String, Boolean> makerCheckerByPermissionCode) {
+        this.properties = Collections.unmodifiableMap(properties);
+        this.makerCheckerByPermissionCode = Collections.unmodifiableMap(makerCheckerByPermissionCode);
+    }
+
+    /**
+     * @return the property or <code>null</code> when the snapshot does not
+     *         contain it
+     */
+    public Property property(final String propertyName) {
+        return this.properties.get(propertyName);
+    }
+
+    /**
+     * @return the maker-checker flag of the permission or <code>null</code>
+     *         when the snapshot does not contain it
+     */
+    public Boolean makerCheckerEnabledFor(final String permissionCode) {
+        return this.makerCheckerByPermissionCode.get(permissionCode);
+    }
+
+    public static final class Property {
+
+        private final boolean enabled;
+        private final Long value;
+
+        public Property(final boolean enabled, final Long value) {
+            this.enabled = enabled;
+            this.value = value;
+        }
+
+        public boolean isEnabled() {
+            return this.enabled;
+        }
+
+        public Long getValue() {
+            return this.value;
+        }
+    }
+}
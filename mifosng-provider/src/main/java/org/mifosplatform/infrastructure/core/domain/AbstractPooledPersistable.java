@@ -0,0 +1,84 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.domain;
+
+import java.io.Serializable;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Transient;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.jpa.domain.AbstractPersistable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A copy of {@link AbstractPersistable} whose identifiers are handed out by the
+ * {@link PooledTableIdGenerator} instead of the table's identity column, which
+ * allows Hibernate to batch the inserts of new entities.
+ * 
+ * Only for entities whose tables are never inserted into outside of
+ * Hibernate.
+ * 
+ * @param <PK>
+ *            the type of the identifier.
+ */
+@MappedSuperclass
+public abstract class AbstractPooledPersistable<PK extends Serializable> implements Persistable<PK> {
+
+    private static final long serialVersionUID = -2453181373536186262L;
+
+    @Id
+    @GeneratedValue(generator = "pooled")
+    @GenericGenerator(name = "pooled", strategy = "org.mifosplatform.infrastructure.core.domain.PooledTableIdGenerator")
+    private PK id;
+
+    @Override
+    public PK getId() {
+        return this.id;
+    }
+
+    protected void setId(final PK id) {
+        this.id = id;
+    }
+
+    @Override
+    @Transient
+    public boolean isNew() {
+        return null == getId();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Entity of type %s with id: %s", this.getClass().getName(), getId());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+
+        if (null == obj) { return false; }
+
+        if (this == obj) { return true; }
+
+        if (!getClass().equals(ClassUtils.getUserClass(obj))) { return false; }
+
+        final AbstractPooledPersistable<?> that = (AbstractPooledPersistable<?>) obj;
+
+        return null == this.getId() ? false : this.getId().equals(that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+
+        int hashCode = 17;
+
+        hashCode += null == getId() ? 0 : getId().hashCode() * 31;
+
+        return hashCode;
+    }
+}
@@ -235,6 +235,26 @@ public class MifosPlatformTenantConnection {
     public String getSchemaName() {
         return schemaName;
     }
+
+    /**
+     * @return true if a connection pool created from the other connection
+     *         details would be configured identically to one created from
+     *         these.
+     */
+    public boolean hasSamePoolConfigurationAs(final MifosPlatformTenantConnection other) {
+        return other != null && this.connectionId.equals(other.connectionId) && databaseURL().equals(other.databaseURL())
+                && equalsNullSafe(this.schemaUsername, other.schemaUsername) && equalsNullSafe(this.schemaPassword, other.schemaPassword)
+                && this.initialSize == other.initialSize && this.validationInterval == other.validationInterval
+                && this.removeAbandoned == other.removeAbandoned && this.removeAbandonedTimeout == other.removeAbandonedTimeout
+                && this.logAbandoned == other.logAbandoned && this.abandonWhenPercentageFull == other.abandonWhenPercentageFull
+                && this.maxActive == other.maxActive && this.minIdle == other.minIdle && this.maxIdle == other.maxIdle
+                && this.suspectTimeout == other.suspectTimeout && this.timeBetweenEvictionRunsMillis == other.timeBetweenEvictionRunsMillis
+                && this.minEvictableIdleTimeMillis == other.minEvictableIdleTimeMillis && this.testOnBorrow == other.testOnBorrow;
+    }
+
+    private static boolean equalsNullSafe(final String first, final String second) {
+        return first == null ? second == null : first.equals(second);
+    }
     @Override
     public String toString() {
         return this.schemaName+":"+this.schemaServer+":"+this.schemaServerPort;
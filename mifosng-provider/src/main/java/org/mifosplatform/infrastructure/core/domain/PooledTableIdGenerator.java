@@ -0,0 +1,78 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.domain;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.type.Type;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+
+/**
+ * Hands out identifiers from blocks reserved in the <code>m_id_generator</code>
+ * table, one row per entity table. Unlike identity columns this lets Hibernate
+ * batch the inserts of new entities.
+ *
+ * Hibernate keeps a single generator per entity for all tenants, so the
+ * reserved block of each tenant database is tracked by its own
+ * {@link TableGenerator}.
+ *
+ * Used through {@link AbstractPooledPersistable}; every insert into a table of
+ * such an entity has to take its id from this generator.
+ */
+public class PooledTableIdGenerator implements IdentifierGenerator, Configurable {
+
+    public static final int DEFAULT_INCREMENT_SIZE = 50;
+
+    private final ConcurrentMap<String, TableGenerator> tenantGenerators = new ConcurrentHashMap<>();
+
+    private Type type;
+    private Properties params;
+    private Dialect dialect;
+
+    @Override
+    public void configure(final Type type, final Properties params, final Dialect dialect) throws MappingException {
+        this.type = type;
+        this.params = new Properties();
+        this.params.putAll(params);
+        this.params.setProperty(TableGenerator.TABLE_PARAM, "m_id_generator");
+        this.params.setProperty(TableGenerator.SEGMENT_COLUMN_PARAM, "table_name");
+        this.params.setProperty(TableGenerator.VALUE_COLUMN_PARAM, "next_val");
+        this.params.setProperty(TableGenerator.CONFIG_PREFER_SEGMENT_PER_ENTITY, "true");
+        this.params.setProperty(TableGenerator.OPT_PARAM, "pooled-lo");
+        if (!this.params.containsKey(TableGenerator.INCREMENT_PARAM)) {
+            this.params.setProperty(TableGenerator.INCREMENT_PARAM, Integer.toString(DEFAULT_INCREMENT_SIZE));
+        }
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Serializable generate(final SessionImplementor session, final Object object) throws HibernateException {
+        return generatorForTenant(ThreadLocalContextUtil.getTenant().getTenantIdentifier()).generate(session, object);
+    }
+
+    private TableGenerator generatorForTenant(final String tenantIdentifier) {
+        TableGenerator generator = this.tenantGenerators.get(tenantIdentifier);
+        if (generator == null) {
+            final TableGenerator newGenerator = new TableGenerator();
+            newGenerator.configure(this.type, this.params, this.dialect);
+            generator = this.tenantGenerators.putIfAbsent(tenantIdentifier, newGenerator);
+            if (generator == null) {
+                generator = newGenerator;
+            }
+        }
+        return generator;
+    }
+}
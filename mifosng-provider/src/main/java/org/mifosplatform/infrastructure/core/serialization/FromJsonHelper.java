@@ -8,7 +8,9 @@ package org.mifosplatform.infrastructure.core.serialization;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.security.InvalidParameterException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -34,6 +36,22 @@ import com.google.gson.JsonParser;
 @Component
 public class FromJsonHelper {
 
+    /**
+     * Commands being processed on the current thread, innermost first.
+     * Validators are handed the raw json of the command, so
+     * {@link #parse(String)} and
+     * {@link #checkForUnsupportedParameters(Type, String, Set)} reuse the tree
+     * parsed for the {@link org.mifosplatform.infrastructure.core.api.JsonCommand}
+     * rather than parsing the same string again.
+     */
+    private static final ThreadLocal<Deque<ParsedJson>> commandsInProgress = new ThreadLocal<Deque<ParsedJson>>() {
+
+        @Override
+        protected Deque<ParsedJson> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
     private final Gson gsonConverter;
     private final JsonParserHelper helperDelegator;
     private final JsonParser parser;
@@ -71,6 +89,12 @@ public class FromJsonHelper {
     public void checkForUnsupportedParameters(final Type typeOfMap, final String json, final Set<String> supportedParams) {
         if (StringUtils.isBlank(json)) { throw new InvalidJsonException(); }
 
+        final JsonElement parsedCommand = parsedCommandFor(json);
+        if (parsedCommand != null && parsedCommand.isJsonObject()) {
+            checkForUnsupportedParameters(parsedCommand.getAsJsonObject(), supportedParams);
+            return;
+        }
+
         final Map<String, Object> requestMap = this.gsonConverter.fromJson(json, typeOfMap);
 
         final List<String> unsupportedParameterList = new ArrayList<>();
@@ -127,11 +151,42 @@ public class FromJsonHelper {
 
         JsonElement parsedElement = null;
         if (StringUtils.isNotBlank(json)) {
-            parsedElement = this.parser.parse(json);
+            parsedElement = parsedCommandFor(json);
+            if (parsedElement == null) {
+                parsedElement = this.parser.parse(json);
+            }
         }
         return parsedElement;
     }
 
+    /**
+     * Parses the json of a command about to be processed on this thread and
+     * keeps the tree until {@link #releaseCommand()}, so every later
+     * {@link #parse(String)} of the same json returns it.
+     */
+    public JsonElement parseCommand(final String json) {
+        final JsonElement parsedElement = parse(json);
+        commandsInProgress.get().push(new ParsedJson(json, parsedElement));
+        return parsedElement;
+    }
+
+    /**
+     * Forgets the tree kept by the matching {@link #parseCommand(String)}.
+     */
+    public void releaseCommand() {
+        final Deque<ParsedJson> commands = commandsInProgress.get();
+        commands.poll();
+        if (commands.isEmpty()) {
+            commandsInProgress.remove();
+        }
+    }
+
+    private static JsonElement parsedCommandFor(final String json) {
+        final ParsedJson command = commandsInProgress.get().peek();
+        if (command == null || command.element == null || !json.equals(command.json)) { return null; }
+        return command.element;
+    }
+
     public boolean parameterExists(final String parameterName, final JsonElement element) {
         return this.helperDelegator.parameterExists(parameterName, element);
     }
@@ -256,4 +311,14 @@ public class FromJsonHelper {
         return this.gsonConverter;
     }
 
-}
\ No newline at end of file
+    private static final class ParsedJson {
+
+        private final String json;
+        private final JsonElement element;
+
+        ParsedJson(final String json, final JsonElement element) {
+            this.json = json;
+            this.element = element;
+        }
+    }
+}
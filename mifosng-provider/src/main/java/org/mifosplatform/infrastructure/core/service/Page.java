@@ -9,19 +9,39 @@ import java.util.List;
 
 public class Page<E> {
 
-    private final int totalFilteredRecords;
+    private final Integer totalFilteredRecords;
     private final List<E> pageItems;
+    /**
+     * Keyset pagination only: the <code>after</code> token for the following
+     * page, <code>null</code> on the last page.
+     */
+    private final String next;
 
     public Page(final List<E> pageItems, final int totalFilteredRecords) {
         this.pageItems = pageItems;
         this.totalFilteredRecords = totalFilteredRecords;
+        this.next = null;
     }
 
-    public int getTotalFilteredRecords() {
+    public Page(final List<E> pageItems, final Integer totalFilteredRecords, final String next) {
+        this.pageItems = pageItems;
+        this.totalFilteredRecords = totalFilteredRecords;
+        this.next = next;
+    }
+
+    /**
+     * @return <code>null</code> for keyset pages where the total was not
+     *         requested
+     */
+    public Integer getTotalFilteredRecords() {
         return this.totalFilteredRecords;
     }
 
     public List<E> getPageItems() {
         return this.pageItems;
     }
-}
\ No newline at end of file
+
+    public String getNext() {
+        return this.next;
+    }
+}
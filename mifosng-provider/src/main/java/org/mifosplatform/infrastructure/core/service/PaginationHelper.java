@@ -5,13 +5,37 @@
  */
 package org.mifosplatform.infrastructure.core.service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import javax.xml.bind.DatatypeConverter;
+
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.exception.UnrecognizedQueryParamException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 
 public class PaginationHelper<E> {
 
+    private static final String KEYSET_TOKEN_PREFIX = "id:";
+    private static final String KEY_COLUMN_LABEL = "id";
+    private static final long TOTAL_COUNT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final int TOTAL_COUNT_CACHE_SIZE = 1000;
+
+    /**
+     * Totals of keyset paged queries, shared by all helpers so walking the
+     * pages of one listing counts its rows once per minute at most.
+     */
+    private static final Map<String, CachedCount> totalCounts = new ConcurrentHashMap<>();
+
     public Page<E> fetchPage(final JdbcTemplate jt, final String sqlCountRows, final String sqlFetchRows, final Object args[],
             final RowMapper<E> rowMapper) {
 
@@ -23,4 +47,122 @@ public class PaginationHelper<E> {
 
         return new Page<>(items, totalFilteredRecords);
     }
-}
\ No newline at end of file
+
+    /**
+     * Fetches the page following the {@link SearchParameters#getAfter()} token
+     * by seeking on an indexed unique key instead of counting and skipping
+     * rows, so every page costs the same no matter how deep it is.
+     *
+     * @param sqlFilteredRows
+     *            select with all filters applied, without
+     *            <code>SQL_CALC_FOUND_ROWS</code>, ordering or limit. The key
+     *            column must be selected as <code>id</code>.
+     * @param keyConnector
+     *            <code>" where "</code> or <code>" and "</code>, whichever
+     *            continues the filters of <code>sqlFilteredRows</code>
+     * @param keyColumn
+     *            the key to seek on, e.g. <code>l.id</code>
+     */
+    public Page<E> fetchKeysetPage(final JdbcTemplate jt, final String sqlFilteredRows, final String keyConnector, final String keyColumn,
+            final Object args[], final SearchParameters searchParameters, final RowMapper<E> rowMapper) {
+
+        if (searchParameters.isOrderByRequested() && !KEY_COLUMN_LABEL.equalsIgnoreCase(searchParameters.getOrderBy())) { throw new UnrecognizedQueryParamException(
+                "orderBy", searchParameters.getOrderBy(), KEY_COLUMN_LABEL); }
+        final boolean descending = "desc".equalsIgnoreCase(searchParameters.getSortOrder());
+        final Long afterKey = decodeKeysetToken(searchParameters.getAfter());
+
+        final StringBuilder sqlBuilder = new StringBuilder(sqlFilteredRows);
+        final List<Object> fetchArgs = new ArrayList<>(Arrays.asList(args));
+        if (afterKey != null) {
+            sqlBuilder.append(keyConnector).append(keyColumn).append(descending ? " < ?" : " > ?");
+            fetchArgs.add(afterKey);
+        }
+        sqlBuilder.append(" order by ").append(keyColumn).append(descending ? " desc" : " asc");
+        if (searchParameters.isLimited()) {
+            // one extra row tells whether there is a following page
+            sqlBuilder.append(" limit ").append(searchParameters.getLimit() + 1);
+        }
+
+        final List<Long> keys = new ArrayList<>();
+        final List<E> items = jt.query(sqlBuilder.toString(), fetchArgs.toArray(), new RowMapper<E>() {
+
+            @Override
+            public E mapRow(final ResultSet rs, final int rowNum) throws SQLException {
+                keys.add(rs.getLong(KEY_COLUMN_LABEL));
+                return rowMapper.mapRow(rs, rowNum);
+            }
+        });
+
+        String next = null;
+        if (searchParameters.isLimited() && items.size() > searchParameters.getLimit()) {
+            items.remove(items.size() - 1);
+            next = encodeKeysetToken(keys.get(items.size() - 1));
+        }
+
+        Integer totalFilteredRecords = null;
+        if (searchParameters.isTotalRequested()) {
+            totalFilteredRecords = countRows(jt, "select count(*) from (" + sqlFilteredRows + ") keyset_count", args);
+        }
+
+        return new Page<>(items, totalFilteredRecords, next);
+    }
+
+    private static Integer countRows(final JdbcTemplate jt, final String sqlCountRows, final Object args[]) {
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final String tenantIdentifier = tenant == null ? "" : tenant.getTenantIdentifier();
+        final String cacheKey = tenantIdentifier + "|" + sqlCountRows + "|" + Arrays.toString(args);
+        final long now = System.currentTimeMillis();
+
+        final CachedCount cached = totalCounts.get(cacheKey);
+        if (cached != null && cached.expiresAt > now) { return cached.count; }
+
+        final Integer count = jt.queryForObject(sqlCountRows, args, Integer.class);
+        if (totalCounts.size() >= TOTAL_COUNT_CACHE_SIZE) {
+            evictExpiredCounts(now);
+        }
+        totalCounts.put(cacheKey, new CachedCount(count, now + TOTAL_COUNT_TTL_MILLIS));
+        return count;
+    }
+
+    private static void evictExpiredCounts(final long now) {
+        final Iterator<CachedCount> counts = totalCounts.values().iterator();
+        while (counts.hasNext()) {
+            if (counts.next().expiresAt <= now) {
+                counts.remove();
+            }
+        }
+        if (totalCounts.size() >= TOTAL_COUNT_CACHE_SIZE) {
+            totalCounts.clear();
+        }
+    }
+
+    public static String encodeKeysetToken(final Long key) {
+        return DatatypeConverter.printBase64Binary((KEYSET_TOKEN_PREFIX + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return <code>null</code> for the empty token that asks for the first
+     *         page
+     */
+    public static Long decodeKeysetToken(final String token) {
+        if (token == null || token.trim().isEmpty()) { return null; }
+        try {
+            final String decoded = new String(DatatypeConverter.parseBase64Binary(token.trim()), StandardCharsets.UTF_8);
+            if (decoded.startsWith(KEYSET_TOKEN_PREFIX)) { return Long.valueOf(decoded.substring(KEYSET_TOKEN_PREFIX.length())); }
+        } catch (final IllegalArgumentException e) {
+            // falls through to the exception below
+        }
+        throw new UnrecognizedQueryParamException("after", token);
+    }
+
+    private static final class CachedCount {
+
+        private final Integer count;
+        private final long expiresAt;
+
+        CachedCount(final Integer count, final long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -34,7 +34,11 @@ public final class SearchParameters {
     private final Long provisioningEntryId ;
     private final Long productId ;
     private final Long categoryId ;
-    
+
+    // Keyset pagination: token of the last row already read
+    private final String after;
+    private final boolean totalRequested;
+
     public static SearchParameters from(final String sqlSearch, final Long officeId, final String externalId, final String name,
             final String hierarchy) {
         final Long staffId = null;
@@ -196,6 +200,8 @@ public final class SearchParameters {
         this.provisioningEntryId = null ;
         this.productId = null ;
         this.categoryId = null ;
+        this.after = null;
+        this.totalRequested = false;
       
     }
 
@@ -221,6 +227,8 @@ public final class SearchParameters {
         this.provisioningEntryId = provisioningEntryId ;
         this.productId = productId ;
         this.categoryId = categoryId ;
+        this.after = null;
+        this.totalRequested = false;
         
     }
     
@@ -248,6 +256,56 @@ public final class SearchParameters {
         this.provisioningEntryId = null ;
         this.productId = null ;
         this.categoryId = null ;
+        this.after = null;
+        this.totalRequested = false;
+    }
+
+    private SearchParameters(final SearchParameters source, final String after, final boolean totalRequested) {
+        this.sqlSearch = source.sqlSearch;
+        this.officeId = source.officeId;
+        this.externalId = source.externalId;
+        this.name = source.name;
+        this.hierarchy = source.hierarchy;
+        this.firstname = source.firstname;
+        this.lastname = source.lastname;
+        this.offset = null;
+        this.limit = source.limit;
+        this.orderBy = source.orderBy;
+        this.sortOrder = source.sortOrder;
+        this.staffId = source.staffId;
+        this.accountNo = source.accountNo;
+        this.loanId = source.loanId;
+        this.savingsId = source.savingsId;
+        this.orphansOnly = source.orphansOnly;
+        this.currencyCode = source.currencyCode;
+        this.provisioningEntryId = source.provisioningEntryId;
+        this.productId = source.productId;
+        this.categoryId = source.categoryId;
+        this.after = after;
+        this.totalRequested = totalRequested;
+    }
+
+    /**
+     * Switches to keyset pagination when an <code>after</code> token is
+     * passed: an empty token asks for the first page, any other token is the
+     * <code>next</code> value of the previous {@link Page}. The offset is
+     * ignored and the total is only counted when requested.
+     */
+    public SearchParameters withKeyset(final String after, final Boolean totalRequested) {
+        if (after == null) { return this; }
+        return new SearchParameters(this, after, totalRequested != null && totalRequested);
+    }
+
+    public boolean isKeysetPaged() {
+        return this.after != null;
+    }
+
+    public String getAfter() {
+        return this.after;
+    }
+
+    public boolean isTotalRequested() {
+        return this.totalRequested;
     }
 
     public boolean isOrderByRequested() {
@@ -0,0 +1,125 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenantConnection;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * The tomcat jdbc connection pool of one tenant database together with the
+ * connection details it was created from, its last access time and the time
+ * callers spent waiting to borrow a connection from it.
+ */
+public class TenantConnectionPool extends DelegatingDataSource implements TenantConnectionPoolMBean {
+
+    private final MifosPlatformTenantConnection tenantConnection;
+    private final DataSource pool;
+    private volatile long lastAccessed;
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalBorrowWaitNanos = new AtomicLong();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+
+    public TenantConnectionPool(final MifosPlatformTenantConnection tenantConnection, final DataSource pool) {
+        super(pool);
+        this.tenantConnection = tenantConnection;
+        this.pool = pool;
+        this.lastAccessed = System.currentTimeMillis();
+    }
+
+    public MifosPlatformTenantConnection getTenantConnection() {
+        return this.tenantConnection;
+    }
+
+    public void touch() {
+        this.lastAccessed = System.currentTimeMillis();
+    }
+
+    public boolean isIdleSince(final long timeInMillis) {
+        return this.lastAccessed < timeInMillis && this.pool.getActive() == 0;
+    }
+
+    public void close() {
+        this.pool.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final long start = System.nanoTime();
+        final Connection connection = super.getConnection();
+        recordBorrow(System.nanoTime() - start);
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        final long start = System.nanoTime();
+        final Connection connection = super.getConnection(username, password);
+        recordBorrow(System.nanoTime() - start);
+        return connection;
+    }
+
+    private void recordBorrow(final long waitNanos) {
+        this.borrowCount.incrementAndGet();
+        this.totalBorrowWaitNanos.addAndGet(waitNanos);
+        long currentMax = this.maxBorrowWaitNanos.get();
+        while (waitNanos > currentMax && !this.maxBorrowWaitNanos.compareAndSet(currentMax, waitNanos)) {
+            currentMax = this.maxBorrowWaitNanos.get();
+        }
+    }
+
+    @Override
+    public String getSchemaName() {
+        return this.tenantConnection.getSchemaName();
+    }
+
+    @Override
+    public int getMaxActive() {
+        return this.pool.getMaxActive();
+    }
+
+    @Override
+    public int getActive() {
+        return this.pool.getActive();
+    }
+
+    @Override
+    public int getIdle() {
+        return this.pool.getIdle();
+    }
+
+    @Override
+    public int getWaitCount() {
+        return this.pool.getWaitCount();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return this.borrowCount.get();
+    }
+
+    @Override
+    public double getAverageBorrowWaitMillis() {
+        final long borrows = this.borrowCount.get();
+        if (borrows == 0) { return 0; }
+        return (double) this.totalBorrowWaitNanos.get() / borrows / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public double getMaxBorrowWaitMillis() {
+        return (double) this.maxBorrowWaitNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getMillisSinceLastAccess() {
+        return System.currentTimeMillis() - this.lastAccessed;
+    }
+}
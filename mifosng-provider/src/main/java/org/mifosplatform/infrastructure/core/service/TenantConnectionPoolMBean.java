@@ -0,0 +1,30 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.service;
+
+/**
+ * JMX view of the connection pool of one tenant database.
+ */
+public interface TenantConnectionPoolMBean {
+
+    String getSchemaName();
+
+    int getMaxActive();
+
+    int getActive();
+
+    int getIdle();
+
+    int getWaitCount();
+
+    long getBorrowCount();
+
+    double getAverageBorrowWaitMillis();
+
+    double getMaxBorrowWaitMillis();
+
+    long getMillisSinceLastAccess();
+}
@@ -5,36 +5,120 @@
  */
 package org.mifosplatform.infrastructure.core.service;
 
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import org.apache.tomcat.jdbc.pool.PoolConfiguration;
 import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.mifosplatform.infrastructure.cache.service.RuntimeDelegatingCacheManager;
 import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
 import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenantConnection;
+import org.mifosplatform.infrastructure.security.service.TenantServerConnectionMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 /**
  * Implementation that returns a new or existing tomcat 7 jdbc connection pool
  * datasource based on the tenant details stored in a {@link ThreadLocal}
  * variable for this request.
- * 
+ *
  * {@link ThreadLocalContextUtil} is used to retrieve the
  * {@link MifosPlatformTenant} for the request.
+ *
+ * Pools are looked up without locking. A background task retires pools of
+ * tenants that have not been accessed for a while and pools whose row in
+ * <code>tenant_server_connections</code> has changed. Retired pools are closed
+ * on the following run, so a caller that looked one up just before it was
+ * retired can still borrow from it. New pools are always created from the
+ * current row, not from the connection details of a possibly stale cached
+ * tenant. Every pool is registered as a {@link TenantConnectionPoolMBean} for
+ * monitoring.
  */
 @Service
 public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceService {
 
-    private final Map<Long, DataSource> tenantToDataSourceMap = new HashMap<>(1);
+    private final static Logger logger = LoggerFactory.getLogger(TomcatJdbcDataSourcePerTenantService.class);
+
+    public final static String IDLE_EVICTION_MINUTES = "mifos.tenantdb.pool.idleEvictionMinutes";
+    public final static String MAINTENANCE_INTERVAL_SECONDS = "mifos.tenantdb.pool.maintenanceIntervalSeconds";
+
+    @Value("${" + IDLE_EVICTION_MINUTES + ":30}")
+    private long idleEvictionMinutes;
+
+    @Value("${" + MAINTENANCE_INTERVAL_SECONDS + ":60}")
+    private long maintenanceIntervalSeconds;
+
+    private final ConcurrentMap<Long, TenantConnectionPool> tenantToDataSourceMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TenantConnectionPool, Boolean> retiredPools = new ConcurrentHashMap<>();
+    private final TenantServerConnectionMapper connectionMapper = new TenantServerConnectionMapper();
     private final DataSource tenantDataSource;
+    private final JdbcTemplate tenantsJdbcTemplate;
+    private final RuntimeDelegatingCacheManager cacheManager;
+    private ScheduledExecutorService maintenanceExecutor;
 
     @Autowired
-    public TomcatJdbcDataSourcePerTenantService(final @Qualifier("tenantDataSourceJndi") DataSource tenantDataSource) {
+    public TomcatJdbcDataSourcePerTenantService(final @Qualifier("tenantDataSourceJndi") DataSource tenantDataSource,
+            final RuntimeDelegatingCacheManager cacheManager) {
         this.tenantDataSource = tenantDataSource;
+        this.tenantsJdbcTemplate = new JdbcTemplate(tenantDataSource);
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    public void startPoolMaintenance() {
+        this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "tenant-datasource-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.maintenanceExecutor.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    closeRetiredPools();
+                    reloadChangedPools();
+                    evictIdlePools();
+                } catch (final RuntimeException e) {
+                    logger.warn("Tenant connection pool maintenance failed", e);
+                }
+            }
+        }, this.maintenanceIntervalSeconds, this.maintenanceIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        if (this.maintenanceExecutor != null) {
+            this.maintenanceExecutor.shutdownNow();
+        }
+        for (final Map.Entry<Long, TenantConnectionPool> entry : this.tenantToDataSourceMap.entrySet()) {
+            retirePool(entry.getKey(), entry.getValue());
+        }
+        closeRetiredPools();
     }
 
     @Override
@@ -43,29 +127,141 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         // default to tenant database datasource
         DataSource tenantDataSource = this.tenantDataSource;
 
-        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant(); 
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
         if (tenant != null) {
             final MifosPlatformTenantConnection tenantConnection = tenant.getConnection();
 
-            synchronized (this.tenantToDataSourceMap) {
-                // if tenantConnection information available switch to
-                // appropriate
-                // datasource
-                // for that tenant.
-                if (this.tenantToDataSourceMap.containsKey(tenantConnection.getConnectionId())) {
-                    tenantDataSource = this.tenantToDataSourceMap.get(tenantConnection.getConnectionId());
-                } else {
-                    tenantDataSource = createNewDataSourceFor(tenantConnection);
-                    this.tenantToDataSourceMap.put(tenantConnection.getConnectionId(), tenantDataSource);
+            // if tenantConnection information available switch to appropriate
+            // datasource for that tenant.
+            final Long connectionId = tenantConnection.getConnectionId();
+            TenantConnectionPool pool;
+            do {
+                pool = this.tenantToDataSourceMap.get(connectionId);
+                if (pool == null) {
+                    pool = createPoolIfAbsent(tenantConnection);
                 }
-            }
+                pool.touch();
+                // a pool retired before it was touched is not handed out, one
+                // retired afterwards stays open until the next maintenance run
+            } while (this.tenantToDataSourceMap.get(connectionId) != pool);
+            tenantDataSource = pool;
         }
 
         return tenantDataSource;
     }
 
+    private TenantConnectionPool createPoolIfAbsent(final MifosPlatformTenantConnection tenantConnection) {
+        // the tenant may come from a cache that still holds the connection
+        // details of a pool replaced since
+        final MifosPlatformTenantConnection currentConnection = retrieveCurrentConnection(tenantConnection);
+        // tomcat jdbc pools open no connections until first used, so losing
+        // the race below only discards an empty pool
+        final TenantConnectionPool pool = new TenantConnectionPool(currentConnection, createNewDataSourceFor(currentConnection));
+        final TenantConnectionPool existingPool = this.tenantToDataSourceMap.putIfAbsent(tenantConnection.getConnectionId(), pool);
+        if (existingPool != null) {
+            pool.close();
+            return existingPool;
+        }
+        registerMBean(pool);
+        return pool;
+    }
+
+    private MifosPlatformTenantConnection retrieveCurrentConnection(final MifosPlatformTenantConnection tenantConnection) {
+        final List<MifosPlatformTenantConnection> connections = this.tenantsJdbcTemplate.query("select " + this.connectionMapper.schema()
+                + " where ts.id = ?", this.connectionMapper, tenantConnection.getConnectionId());
+        if (connections.isEmpty()) { return tenantConnection; }
+        return connections.get(0);
+    }
+
+    /**
+     * Stops handing out the pool. It is closed by the next maintenance run,
+     * connections in use then are closed when they are returned.
+     */
+    private void retirePool(final Long connectionId, final TenantConnectionPool pool) {
+        if (this.tenantToDataSourceMap.remove(connectionId, pool)) {
+            unregisterMBean(pool);
+            this.retiredPools.put(pool, Boolean.TRUE);
+        }
+    }
+
+    private void closeRetiredPools() {
+        for (final TenantConnectionPool pool : this.retiredPools.keySet()) {
+            if (this.retiredPools.remove(pool) != null) {
+                pool.close();
+            }
+        }
+    }
+
+    private void evictIdlePools() {
+        final long idleSince = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(this.idleEvictionMinutes);
+        for (final Map.Entry<Long, TenantConnectionPool> entry : this.tenantToDataSourceMap.entrySet()) {
+            if (entry.getValue().isIdleSince(idleSince)) {
+                logger.info("Retiring idle connection pool of " + entry.getValue().getSchemaName());
+                retirePool(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void reloadChangedPools() {
+        if (this.tenantToDataSourceMap.isEmpty()) { return; }
+
+        final List<MifosPlatformTenantConnection> connections = this.tenantsJdbcTemplate.query("select " + this.connectionMapper.schema(),
+                this.connectionMapper);
+        final Map<Long, MifosPlatformTenantConnection> connectionsById = new HashMap<>(connections.size());
+        for (final MifosPlatformTenantConnection connection : connections) {
+            connectionsById.put(connection.getConnectionId(), connection);
+        }
+
+        boolean changed = false;
+        for (final Map.Entry<Long, TenantConnectionPool> entry : this.tenantToDataSourceMap.entrySet()) {
+            final MifosPlatformTenantConnection current = connectionsById.get(entry.getKey());
+            if (!entry.getValue().getTenantConnection().hasSamePoolConfigurationAs(current)) {
+                logger.info("Connection details of " + entry.getValue().getSchemaName() + " changed, replacing its connection pool");
+                retirePool(entry.getKey(), entry.getValue());
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            // tenants are cached together with their connection details
+            final Cache tenantsCache = this.cacheManager.getCache("tenantsById");
+            if (tenantsCache != null) {
+                tenantsCache.clear();
+            }
+        }
+    }
+
+    private void registerMBean(final TenantConnectionPool pool) {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = objectNameFor(pool);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(pool, objectName);
+            }
+        } catch (final Exception e) {
+            logger.warn("Could not register connection pool metrics of " + pool.getSchemaName(), e);
+        }
+    }
+
+    private void unregisterMBean(final TenantConnectionPool pool) {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = objectNameFor(pool);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (final Exception e) {
+            logger.warn("Could not unregister connection pool metrics of " + pool.getSchemaName(), e);
+        }
+    }
+
+    private static ObjectName objectNameFor(final TenantConnectionPool pool) throws Exception {
+        return new ObjectName("org.mifosplatform:type=TenantConnectionPool,connectionId="
+                + pool.getTenantConnection().getConnectionId() + ",name=" + ObjectName.quote(pool.getSchemaName()));
+    }
+
     // creates the data source oltp and report databases
-    private DataSource createNewDataSourceFor(final MifosPlatformTenantConnection tenantConnectionObj) {
+    private org.apache.tomcat.jdbc.pool.DataSource createNewDataSourceFor(final MifosPlatformTenantConnection tenantConnectionObj) {
         // see
         // http://www.tomcatexpert.com/blog/2010/04/01/configuring-jdbc-pool-high-concurrency
 
@@ -78,6 +274,8 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         poolConfiguration.setUrl(jdbcUrl);
         poolConfiguration.setUsername(tenantConnectionObj.getSchemaUsername());
         poolConfiguration.setPassword(tenantConnectionObj.getSchemaPassword());
+        // send JDBC (and hibernate) insert batches as multi-row inserts
+        poolConfiguration.setConnectionProperties("rewriteBatchedStatements=true");
 
         poolConfiguration.setInitialSize(tenantConnectionObj.getInitialSize());
 
@@ -90,21 +288,29 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         poolConfiguration.setLogAbandoned(tenantConnectionObj.isLogAbandoned());
         poolConfiguration.setAbandonWhenPercentageFull(tenantConnectionObj.getAbandonWhenPercentageFull());
 
-        /**
-         * Vishwas- Do we need to enable the below properties and add
-         * ResetAbandonedTimer for long running batch Jobs?
-         **/
-        // poolConfiguration.setMaxActive(tenant.getMaxActive());
-        // poolConfiguration.setMinIdle(tenant.getMinIdle());
-        // poolConfiguration.setMaxIdle(tenant.getMaxIdle());
-
-        // poolConfiguration.setSuspectTimeout(tenant.getSuspectTimeout());
-        // poolConfiguration.setTimeBetweenEvictionRunsMillis(tenant.getTimeBetweenEvictionRunsMillis());
-        // poolConfiguration.setMinEvictableIdleTimeMillis(tenant.getMinEvictableIdleTimeMillis());
+        // unset (zero) sizing columns keep the tomcat jdbc defaults
+        if (tenantConnectionObj.getMaxActive() > 0) {
+            poolConfiguration.setMaxActive(tenantConnectionObj.getMaxActive());
+        }
+        if (tenantConnectionObj.getMinIdle() > 0) {
+            poolConfiguration.setMinIdle(tenantConnectionObj.getMinIdle());
+        }
+        if (tenantConnectionObj.getMaxIdle() > 0) {
+            poolConfiguration.setMaxIdle(tenantConnectionObj.getMaxIdle());
+        }
+        if (tenantConnectionObj.getSuspectTimeout() > 0) {
+            poolConfiguration.setSuspectTimeout(tenantConnectionObj.getSuspectTimeout());
+        }
+        if (tenantConnectionObj.getTimeBetweenEvictionRunsMillis() > 0) {
+            poolConfiguration.setTimeBetweenEvictionRunsMillis(tenantConnectionObj.getTimeBetweenEvictionRunsMillis());
+        }
+        if (tenantConnectionObj.getMinEvictableIdleTimeMillis() > 0) {
+            poolConfiguration.setMinEvictableIdleTimeMillis(tenantConnectionObj.getMinEvictableIdleTimeMillis());
+        }
 
         poolConfiguration.setJdbcInterceptors("org.apache.tomcat.jdbc.pool.interceptor.ConnectionState;"
                 + "org.apache.tomcat.jdbc.pool.interceptor.StatementFinalizer;org.apache.tomcat.jdbc.pool.interceptor.SlowQueryReport");
 
         return new org.apache.tomcat.jdbc.pool.DataSource(poolConfiguration);
     }
-}
\ No newline at end of file
+}
@@ -25,10 +25,6 @@ import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.mifosplatform.infrastructure.core.api.ApiParameterHelper;
-import org.mifosplatform.infrastructure.core.serialization.ToApiJsonSerializer;
-import org.mifosplatform.infrastructure.dataqueries.data.GenericResultsetData;
-import org.mifosplatform.infrastructure.dataqueries.data.ReportData;
-import org.mifosplatform.infrastructure.dataqueries.service.GenericDataService;
 import org.mifosplatform.infrastructure.dataqueries.service.ReadReportingService;
 import org.mifosplatform.infrastructure.security.exception.NoAuthorizationException;
 import org.mifosplatform.infrastructure.security.service.PlatformSecurityContext;
@@ -43,17 +39,12 @@ import org.springframework.stereotype.Component;
 public class RunreportsApiResource {
 
     private final PlatformSecurityContext context;
-    private final ToApiJsonSerializer<ReportData> toApiJsonSerializer;
     private final ReadReportingService readExtraDataAndReportingService;
-    private final GenericDataService genericDataService;
 
     @Autowired
-    public RunreportsApiResource(final PlatformSecurityContext context, final ReadReportingService readExtraDataAndReportingService,
-            final GenericDataService genericDataService, final ToApiJsonSerializer<ReportData> toApiJsonSerializer) {
+    public RunreportsApiResource(final PlatformSecurityContext context, final ReadReportingService readExtraDataAndReportingService) {
         this.context = context;
         this.readExtraDataAndReportingService = readExtraDataAndReportingService;
-        this.genericDataService = genericDataService;
-        this.toApiJsonSerializer = toApiJsonSerializer;
     }
 
     @GET
@@ -104,23 +95,13 @@ public class RunreportsApiResource {
         if (!exportCsv) {
             final Map<String, String> reportParams = getReportParams(queryParams, false);
 
-            final GenericResultsetData result = this.readExtraDataAndReportingService.retrieveGenericResultset(reportName,
-                    parameterTypeValue, reportParams);
-
-            String json = "";
             final boolean genericResultSetIsPassed = ApiParameterHelper.genericResultSetPassed(uriInfo.getQueryParameters());
-            final boolean genericResultSet = ApiParameterHelper.genericResultSet(uriInfo.getQueryParameters());
-            if (genericResultSetIsPassed) {
-                if (genericResultSet) {
-                    json = this.toApiJsonSerializer.serializePretty(prettyPrint, result);
-                } else {
-                    json = this.genericDataService.generateJsonFromGenericResultsetData(result);
-                }
-            } else {
-                json = this.toApiJsonSerializer.serializePretty(prettyPrint, result);
-            }
+            final boolean genericResultSet = !genericResultSetIsPassed || ApiParameterHelper.genericResultSet(uriInfo.getQueryParameters());
+
+            final StreamingOutput result = this.readExtraDataAndReportingService.retrieveReportJSON(reportName, parameterTypeValue,
+                    reportParams, genericResultSet, prettyPrint);
 
-            return Response.ok().entity(json).type(MediaType.APPLICATION_JSON).build();
+            return Response.ok().entity(result).type(MediaType.APPLICATION_JSON).build();
         }
 
         // CSV Export
@@ -14,11 +14,21 @@ public interface GenericDataService {
 
     GenericResultsetData fillGenericResultSet(final String sql);
 
+    /**
+     * Runs the query on a forward-only streaming cursor and hands each row to
+     * the writer as it is read, so the result is never held in memory.
+     */
+    void streamGenericResultSet(String sql, GenericResultsetWriter writer);
+
     String generateJsonFromGenericResultsetData(GenericResultsetData grs);
 
     String replace(String str, String pattern, String replace);
 
     String wrapSQL(String sql);
 
+    /**
+     * Column definitions and allowed code values of a datatable, cached per
+     * tenant until the datatable or a code value is changed.
+     */
     List<ResultsetColumnHeaderData> fillResultsetColumnHeaders(String datatable);
 }
\ No newline at end of file
@@ -5,13 +5,19 @@
  */
 package org.mifosplatform.infrastructure.dataqueries.service;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 import javax.sql.DataSource;
 
-import org.joda.time.LocalDate;
-import org.joda.time.LocalDateTime;
+import org.mifosplatform.infrastructure.core.exception.PlatformDataIntegrityException;
 import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
 import org.mifosplatform.infrastructure.dataqueries.data.GenericResultsetData;
 import org.mifosplatform.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
@@ -21,7 +27,10 @@ import org.mifosplatform.infrastructure.dataqueries.exception.DatatableNotFoundE
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSetMetaData;
 import org.springframework.stereotype.Service;
@@ -104,81 +113,69 @@ public class GenericDataServiceImpl implements GenericDataService {
     }
 
     @Override
-    public String generateJsonFromGenericResultsetData(final GenericResultsetData grs) {
-
-        final StringBuffer writer = new StringBuffer();
-
-        writer.append("[");
-
-        final List<ResultsetColumnHeaderData> columnHeaders = grs.getColumnHeaders();
-
-        final List<ResultsetRowData> data = grs.getData();
-        List<String> row;
-        Integer rSize;
-        final String doubleQuote = "\"";
-        final String slashDoubleQuote = "\\\"";
-        String currColType;
-        String currVal;
-
-        for (int i = 0; i < data.size(); i++) {
-            writer.append("\n{");
+    public void streamGenericResultSet(final String sql, final GenericResultsetWriter writer) {
+
+        this.jdbcTemplate.query(new PreparedStatementCreator() {
+
+            @Override
+            public PreparedStatement createPreparedStatement(final Connection connection) throws SQLException {
+                final PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                // makes the MySQL driver hand rows over one at a time instead
+                // of reading the whole result into memory
+                statement.setFetchSize(Integer.MIN_VALUE);
+                return statement;
+            }
+        }, new ResultSetExtractor<Void>() {
 
-            row = data.get(i).getRow();
-            rSize = row.size();
-            for (int j = 0; j < rSize; j++) {
+            @Override
+            public Void extractData(final ResultSet rs) throws SQLException {
+                final ResultSetMetaData rsmd = rs.getMetaData();
+                final int columnCount = rsmd.getColumnCount();
 
-                writer.append(doubleQuote + columnHeaders.get(j).getColumnName() + doubleQuote + ": ");
-                currColType = columnHeaders.get(j).getColumnDisplayType();
-                final String colType = columnHeaders.get(j).getColumnType();
-                if (currColType == null && colType.equalsIgnoreCase("INT")) {
-                    currColType = "INTEGER";
-                }
-                if (currColType == null && colType.equalsIgnoreCase("VARCHAR")) {
-                    currColType = "VARCHAR";
-                }
-                if (currColType == null && colType.equalsIgnoreCase("DATE")) {
-                    currColType = "DATE";
+                final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>(columnCount);
+                for (int i = 0; i < columnCount; i++) {
+                    columnHeaders.add(ResultsetColumnHeaderData.basic(rsmd.getColumnName(i + 1), rsmd.getColumnTypeName(i + 1)));
                 }
-                currVal = row.get(j);
-                if (currVal != null && currColType != null) {
-                    if (currColType.equals("DECIMAL") || currColType.equals("INTEGER")) {
-                        writer.append(currVal);
-                    } else {
-                        if (currColType.equals("DATE")) {
-                            final LocalDate localDate = new LocalDate(currVal);
-                            writer.append("[" + localDate.getYear() + ", " + localDate.getMonthOfYear() + ", " + localDate.getDayOfMonth()
-                                    + "]");
-                        } else if (currColType.equals("DATETIME")) {
-                            final LocalDateTime localDateTime = new LocalDateTime(currVal);
-                            writer.append("[" + localDateTime.getYear() + ", " + localDateTime.getMonthOfYear() + ", "
-                                    + localDateTime.getDayOfMonth() + " " + localDateTime.getHourOfDay() + ", "
-                                    + localDateTime.getMinuteOfHour() + ", " + localDateTime.getSecondOfMinute() + ", "
-                                    + localDateTime.getMillisOfSecond() + "]");
-                        } else {
-                            writer.append(doubleQuote + replace(currVal, doubleQuote, slashDoubleQuote) + doubleQuote);
+
+                try {
+                    writer.writeColumnHeaders(columnHeaders);
+                    while (rs.next()) {
+                        final List<String> columnValues = new ArrayList<>(columnCount);
+                        for (int i = 0; i < columnCount; i++) {
+                            columnValues.add(rs.getString(i + 1));
                         }
+                        writer.writeRow(columnValues);
                     }
-                } else {
-                    writer.append("null");
-                }
-                if (j < (rSize - 1)) {
-                    writer.append(",\n");
+                    writer.finish();
+                } catch (final IOException e) {
+                    throw new PlatformDataIntegrityException("error.msg.resultset.write.failed", e.getMessage());
                 }
+                return null;
             }
+        });
+    }
+
+    @Override
+    public String generateJsonFromGenericResultsetData(final GenericResultsetData grs) {
 
-            if (i < (data.size() - 1)) {
-                writer.append("},");
-            } else {
-                writer.append("}");
+        final StringWriter json = new StringWriter();
+        final GenericResultsetWriter writer = new JsonGenericResultsetWriter(json);
+        try {
+            writer.writeColumnHeaders(grs.getColumnHeaders());
+            for (final ResultsetRowData row : grs.getData()) {
+                writer.writeRow(row.getRow());
             }
+            writer.finish();
+        } catch (final IOException e) {
+            // not thrown by a StringWriter
+            throw new IllegalStateException(e);
         }
-
-        writer.append("\n]");
-        return writer.toString();
-
+        return json.toString();
     }
 
     @Override
+    @Cacheable(value = "datatable_metadata", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('DT').concat(#datatable)")
     public List<ResultsetColumnHeaderData> fillResultsetColumnHeaders(final String datatable) {
 
         logger.debug("::3 Was inside the fill ResultSetColumnHeader");
@@ -238,17 +235,17 @@ public class GenericDataServiceImpl implements GenericDataService {
     }
 
     /*
-     * Candidate for using caching there to get allowed 'column values' from
-     * code/codevalue tables
+     * The allowed 'column values' are cached along with the rest of the column
+     * headers, see the code value write services for their eviction
      */
     private List<ResultsetColumnValueData> retreiveColumnValues(final String codeName) {
 
         final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
 
         final String sql = "select v.id, v.code_score, v.code_value from m_code m " + " join m_code_value v on v.code_id = m.id "
-                + " where m.code_name = '" + codeName + "' order by v.order_position, v.id";
+                + " where m.code_name = ? order by v.order_position, v.id";
 
-        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
+        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql, codeName);
 
         rsValues.beforeFirst();
         while (rsValues.next()) {
@@ -266,9 +263,8 @@ public class GenericDataServiceImpl implements GenericDataService {
 
         final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
         if (codeId != null) {
-            final String sql = "select v.id, v.code_value from m_code_value v where v.code_id =" + codeId
-                    + " order by v.order_position, v.id";
-            final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
+            final String sql = "select v.id, v.code_value from m_code_value v where v.code_id = ? order by v.order_position, v.id";
+            final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql, codeId);
             rsValues.beforeFirst();
             while (rsValues.next()) {
                 final Integer id = rsValues.getInt("id");
@@ -283,10 +279,9 @@ public class GenericDataServiceImpl implements GenericDataService {
     private SqlRowSet getDatatableMetaData(final String datatable) {
 
         final String sql = "select COLUMN_NAME, IS_NULLABLE, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, COLUMN_KEY"
-                + " from INFORMATION_SCHEMA.COLUMNS " + " where TABLE_SCHEMA = schema() and TABLE_NAME = '" + datatable
-                + "'order by ORDINAL_POSITION";
+                + " from INFORMATION_SCHEMA.COLUMNS " + " where TABLE_SCHEMA = schema() and TABLE_NAME = ? order by ORDINAL_POSITION";
 
-        final SqlRowSet columnDefinitions = this.jdbcTemplate.queryForRowSet(sql);
+        final SqlRowSet columnDefinitions = this.jdbcTemplate.queryForRowSet(sql, datatable);
         if (columnDefinitions.next()) { return columnDefinitions; }
 
         throw new DatatableNotFoundException(datatable);
@@ -294,9 +289,8 @@ public class GenericDataServiceImpl implements GenericDataService {
 
     private SqlRowSet getDatatableCodeData(final String datatable, final String columnName) {
 
-        final String sql = "select mc.id,mc.code_name from m_code mc join x_table_column_code_mappings xcc on xcc.code_id = mc.id where xcc.column_alias_name='"
-                + datatable.toLowerCase().replaceAll("\\s", "_") + "_" + columnName + "'";
-        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql);
+        final String sql = "select mc.id,mc.code_name from m_code mc join x_table_column_code_mappings xcc on xcc.code_id = mc.id where xcc.column_alias_name = ?";
+        final SqlRowSet rsValues = this.jdbcTemplate.queryForRowSet(sql, datatable.toLowerCase().replaceAll("\\s", "_") + "_" + columnName);
 
         return rsValues;
     }
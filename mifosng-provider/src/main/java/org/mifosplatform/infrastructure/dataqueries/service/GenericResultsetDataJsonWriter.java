@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.dataqueries.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.mifosplatform.infrastructure.dataqueries.data.GenericResultsetData;
+import org.mifosplatform.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a generic result set in the same shape Gson gives a
+ * {@link GenericResultsetData}: the column headers followed by a
+ * <code>data</code> array of <code>{"row": [...]}</code> entries.
+ */
+public class GenericResultsetDataJsonWriter implements GenericResultsetWriter {
+
+    private final Gson gson;
+    private final JsonWriter jsonWriter;
+
+    public GenericResultsetDataJsonWriter(final Gson gson, final Writer writer, final boolean prettyPrint) {
+        this.gson = gson;
+        this.jsonWriter = new JsonWriter(writer);
+        this.jsonWriter.setHtmlSafe(true);
+        if (prettyPrint) {
+            this.jsonWriter.setIndent("  ");
+        }
+    }
+
+    @Override
+    public void writeColumnHeaders(final List<ResultsetColumnHeaderData> columnHeaders) throws IOException {
+        this.jsonWriter.beginObject();
+        this.jsonWriter.name("columnHeaders");
+        this.gson.toJson(columnHeaders, new TypeToken<List<ResultsetColumnHeaderData>>() {}.getType(), this.jsonWriter);
+        this.jsonWriter.name("data");
+        this.jsonWriter.beginArray();
+    }
+
+    @Override
+    public void writeRow(final List<String> row) throws IOException {
+        this.jsonWriter.beginObject();
+        this.jsonWriter.name("row");
+        this.jsonWriter.beginArray();
+        for (final String value : row) {
+            if (value == null) {
+                this.jsonWriter.nullValue();
+            } else {
+                this.jsonWriter.value(value);
+            }
+        }
+        this.jsonWriter.endArray();
+        this.jsonWriter.endObject();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.jsonWriter.endArray();
+        this.jsonWriter.endObject();
+        this.jsonWriter.flush();
+    }
+}
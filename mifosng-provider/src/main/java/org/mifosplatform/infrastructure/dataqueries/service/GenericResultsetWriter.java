@@ -0,0 +1,27 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.dataqueries.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.mifosplatform.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+
+/**
+ * Receives a generic result set one row at a time so it can be written out
+ * without holding all rows in memory.
+ * 
+ * @see GenericDataService#streamGenericResultSet(String,
+ *      GenericResultsetWriter)
+ */
+public interface GenericResultsetWriter {
+
+    void writeColumnHeaders(List<ResultsetColumnHeaderData> columnHeaders) throws IOException;
+
+    void writeRow(List<String> row) throws IOException;
+
+    void finish() throws IOException;
+}
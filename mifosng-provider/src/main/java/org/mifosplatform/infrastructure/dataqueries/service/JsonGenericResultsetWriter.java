@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.dataqueries.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.mifosplatform.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+
+/**
+ * Writes a generic result set as a JSON array with one object per row, keyed
+ * by column name (the <code>genericResultSet=false</code> format).
+ */
+public class JsonGenericResultsetWriter implements GenericResultsetWriter {
+
+    private static final String DOUBLE_QUOTE = "\"";
+    private static final String SLASH_DOUBLE_QUOTE = "\\\"";
+
+    private final Writer writer;
+    private List<ResultsetColumnHeaderData> columnHeaders;
+    private boolean firstRow = true;
+
+    public JsonGenericResultsetWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void writeColumnHeaders(final List<ResultsetColumnHeaderData> columnHeaders) throws IOException {
+        this.columnHeaders = columnHeaders;
+        this.writer.write("[");
+    }
+
+    @Override
+    public void writeRow(final List<String> row) throws IOException {
+        if (!this.firstRow) {
+            this.writer.write(",");
+        }
+        this.firstRow = false;
+        this.writer.write("\n{");
+
+        final int rSize = row.size();
+        for (int j = 0; j < rSize; j++) {
+
+            this.writer.write(DOUBLE_QUOTE + this.columnHeaders.get(j).getColumnName() + DOUBLE_QUOTE + ": ");
+            String currColType = this.columnHeaders.get(j).getColumnDisplayType();
+            final String colType = this.columnHeaders.get(j).getColumnType();
+            if (currColType == null && colType.equalsIgnoreCase("INT")) {
+                currColType = "INTEGER";
+            }
+            if (currColType == null && colType.equalsIgnoreCase("VARCHAR")) {
+                currColType = "VARCHAR";
+            }
+            if (currColType == null && colType.equalsIgnoreCase("DATE")) {
+                currColType = "DATE";
+            }
+            final String currVal = row.get(j);
+            if (currVal != null && currColType != null) {
+                if (currColType.equals("DECIMAL") || currColType.equals("INTEGER")) {
+                    this.writer.write(currVal);
+                } else {
+                    if (currColType.equals("DATE")) {
+                        final LocalDate localDate = new LocalDate(currVal);
+                        this.writer.write("[" + localDate.getYear() + ", " + localDate.getMonthOfYear() + ", " + localDate.getDayOfMonth()
+                                + "]");
+                    } else if (currColType.equals("DATETIME")) {
+                        final LocalDateTime localDateTime = new LocalDateTime(currVal);
+                        this.writer.write("[" + localDateTime.getYear() + ", " + localDateTime.getMonthOfYear() + ", "
+                                + localDateTime.getDayOfMonth() + " " + localDateTime.getHourOfDay() + ", "
+                                + localDateTime.getMinuteOfHour() + ", " + localDateTime.getSecondOfMinute() + ", "
+                                + localDateTime.getMillisOfSecond() + "]");
+                    } else {
+                        this.writer.write(DOUBLE_QUOTE + StringUtils.replace(currVal, DOUBLE_QUOTE, SLASH_DOUBLE_QUOTE) + DOUBLE_QUOTE);
+                    }
+                }
+            } else {
+                this.writer.write("null");
+            }
+            if (j < (rSize - 1)) {
+                this.writer.write(",\n");
+            }
+        }
+
+        this.writer.write("}");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.write("\n]");
+        this.writer.flush();
+    }
+}
@@ -20,6 +20,9 @@ public interface ReadReportingService {
 
     StreamingOutput retrieveReportCSV(String name, String type, Map<String, String> extractedQueryParams);
 
+    StreamingOutput retrieveReportJSON(String name, String type, Map<String, String> extractedQueryParams, boolean genericResultSet,
+            boolean prettyPrint);
+
     GenericResultsetData retrieveGenericResultset(String name, String type, Map<String, String> extractedQueryParams);
 
     Response processPentahoRequest(String reportName, String outputType, Map<String, String> queryParams, Locale locale);
@@ -5,13 +5,15 @@
  */
 package org.mifosplatform.infrastructure.dataqueries.service;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.ResultSet;
@@ -32,6 +34,7 @@ import org.mifosplatform.infrastructure.core.domain.JdbcSupport;
 import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
 import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenantConnection;
 import org.mifosplatform.infrastructure.core.exception.PlatformDataIntegrityException;
+import org.mifosplatform.infrastructure.core.serialization.GoogleGsonSerializerHelper;
 import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
 import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
 import org.mifosplatform.infrastructure.dataqueries.data.GenericResultsetData;
@@ -66,6 +69,7 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Service;
 
+import com.google.gson.Gson;
 import com.lowagie.text.Document;
 import com.lowagie.text.PageSize;
 import com.lowagie.text.pdf.PdfPTable;
@@ -80,11 +84,12 @@ public class ReadReportingServiceImpl implements ReadReportingService {
     private final DataSource dataSource;
     private final PlatformSecurityContext context;
     private final GenericDataService genericDataService;
+    private final GoogleGsonSerializerHelper gsonSerializerHelper;
     private boolean noPentaho = false;
 
     @Autowired
     public ReadReportingServiceImpl(final PlatformSecurityContext context, final RoutingDataSource dataSource,
-            final GenericDataService genericDataService) {
+            final GenericDataService genericDataService, final GoogleGsonSerializerHelper gsonSerializerHelper) {
         // kick off pentaho reports server
         ClassicEngineBoot.getInstance().start();
         this.noPentaho = false;
@@ -93,87 +98,56 @@ public class ReadReportingServiceImpl implements ReadReportingService {
         this.dataSource = dataSource;
         this.jdbcTemplate = new JdbcTemplate(this.dataSource);
         this.genericDataService = genericDataService;
+        this.gsonSerializerHelper = gsonSerializerHelper;
     }
 
     @Override
     public StreamingOutput retrieveReportCSV(final String name, final String type, final Map<String, String> queryParams) {
 
+        // resolved up front so unknown reports are reported before the
+        // response has started
+        final String sql = getSQLtoRun(name, type, queryParams);
+
         return new StreamingOutput() {
 
             @Override
             public void write(final OutputStream out) {
-                try {
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                streamReport(name, type, sql, new CsvGenericResultsetWriter(writer));
+            }
+        };
+    }
 
-                    final GenericResultsetData result = retrieveGenericResultset(name, type, queryParams);
-                    final StringBuffer sb = generateCsvFileBuffer(result);
+    @Override
+    public StreamingOutput retrieveReportJSON(final String name, final String type, final Map<String, String> queryParams,
+            final boolean genericResultSet, final boolean prettyPrint) {
 
-                    final InputStream in = new ByteArrayInputStream(sb.toString().getBytes("UTF-8"));
+        final String sql = getSQLtoRun(name, type, queryParams);
 
-                    final byte[] outputByte = new byte[4096];
-                    Integer readLen = in.read(outputByte, 0, 4096);
+        return new StreamingOutput() {
 
-                    while (readLen != -1) {
-                        out.write(outputByte, 0, readLen);
-                        readLen = in.read(outputByte, 0, 4096);
-                    }
-                    // in.close();
-                    // out.flush();
-                    // out.close();
-                } catch (final Exception e) {
-                    throw new PlatformDataIntegrityException("error.msg.exception.error", e.getMessage());
+            @Override
+            public void write(final OutputStream out) {
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (genericResultSet) {
+                    final Gson gson = ReadReportingServiceImpl.this.gsonSerializerHelper.createGsonBuilder(prettyPrint);
+                    streamReport(name, type, sql, new GenericResultsetDataJsonWriter(gson, writer, prettyPrint));
+                } else {
+                    streamReport(name, type, sql, new JsonGenericResultsetWriter(writer));
                 }
             }
         };
-
     }
 
-    private StringBuffer generateCsvFileBuffer(final GenericResultsetData result) {
-        final StringBuffer writer = new StringBuffer();
+    private void streamReport(final String name, final String type, final String sql, final GenericResultsetWriter writer) {
 
-        final List<ResultsetColumnHeaderData> columnHeaders = result.getColumnHeaders();
-        logger.info("NO. of Columns: " + columnHeaders.size());
-        final Integer chSize = columnHeaders.size();
-        for (int i = 0; i < chSize; i++) {
-            writer.append('"' + columnHeaders.get(i).getColumnName() + '"');
-            if (i < (chSize - 1)) {
-                writer.append(",");
-            }
-        }
-        writer.append('\n');
-
-        final List<ResultsetRowData> data = result.getData();
-        List<String> row;
-        Integer rSize;
-        // String currCol;
-        String currColType;
-        String currVal;
-        final String doubleQuote = "\"";
-        final String twoDoubleQuotes = doubleQuote + doubleQuote;
-        logger.info("NO. of Rows: " + data.size());
-        for (int i = 0; i < data.size(); i++) {
-            row = data.get(i).getRow();
-            rSize = row.size();
-            for (int j = 0; j < rSize; j++) {
-                // currCol = columnHeaders.get(j).getColumnName();
-                currColType = columnHeaders.get(j).getColumnType();
-                currVal = row.get(j);
-                if (currVal != null) {
-                    if (currColType.equals("DECIMAL") || currColType.equals("DOUBLE") || currColType.equals("BIGINT")
-                            || currColType.equals("SMALLINT") || currColType.equals("INT")) {
-                        writer.append(currVal);
-                    } else {
-                        writer.append('"' + this.genericDataService.replace(currVal, doubleQuote, twoDoubleQuotes) + '"');
-                    }
+        final long startTime = System.currentTimeMillis();
+        logger.info("STARTING STREAMED REPORT: " + name + "   Type: " + type);
 
-                }
-                if (j < (rSize - 1)) {
-                    writer.append(",");
-                }
-            }
-            writer.append('\n');
-        }
+        this.genericDataService.streamGenericResultSet(sql, writer);
 
-        return writer;
+        final long elapsed = System.currentTimeMillis() - startTime;
+        logger.info("FINISHING Streamed Report/Request Name: " + name + " - " + type + "     Elapsed Time: " + elapsed);
     }
 
     @Override
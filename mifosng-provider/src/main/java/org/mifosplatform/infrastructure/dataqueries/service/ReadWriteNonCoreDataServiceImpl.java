@@ -52,6 +52,7 @@ import org.mifosplatform.useradministration.domain.AppUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -245,6 +246,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
             if (this.isSurveyCategory(category)) {
                 this.jdbcTemplate.execute("insert into c_configuration (name, value, enabled ) values('" + dataTableName + "', '0','0')");
             }
+            this.configurationDomainService.refreshConfigurationSnapshot();
 
         }
         /***
@@ -339,6 +341,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
         sqlArray[3] = deleteFromConfigurationSql;
 
         this.jdbcTemplate.batchUpdate(sqlArray);
+        this.configurationDomainService.refreshConfigurationSnapshot();
     }
 
     @Transactional
@@ -511,6 +514,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
 
     @Transactional
     @Override
+    @CacheEvict(value = "datatable_metadata", allEntries = true)
     public CommandProcessingResult createDatatable(final JsonCommand command) {
 
         String datatableName = null;
@@ -817,6 +821,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
 
     @Transactional
     @Override
+    @CacheEvict(value = "datatable_metadata", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('DT').concat(#datatableName)")
     public void updateDatatable(final String datatableName, final JsonCommand command) {
 
         try {
@@ -971,6 +976,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
 
     @Transactional
     @Override
+    @CacheEvict(value = "datatable_metadata", key = "T(org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('DT').concat(#datatableName)")
     public void deleteDatatable(final String datatableName) {
 
         try {
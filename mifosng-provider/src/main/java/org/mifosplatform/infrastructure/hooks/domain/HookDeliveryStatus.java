@@ -0,0 +1,27 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.hooks.domain;
+
+/**
+ * States of a row in the <code>m_hook_delivery</code> outbox.
+ */
+public enum HookDeliveryStatus {
+
+    PENDING(100), //
+    IN_PROGRESS(200), //
+    DELIVERED(300), //
+    FAILED(400);
+
+    private final Integer value;
+
+    private HookDeliveryStatus(final Integer value) {
+        this.value = value;
+    }
+
+    public Integer getValue() {
+        return this.value;
+    }
+}
@@ -59,6 +59,10 @@ public class MifosHookListener implements HookListener {
         for (final Hook hook : hooks) {
             final HookProcessor processor = this.hookProcessorProvider
                     .getProcessor(hook);
+            if (processor == null) {
+                // web hooks were written to the outbox by the command
+                continue;
+            }
             processor.process(hook, appUser, payload, entityName, actionName,
                     tenantIdentifier, authToken);
         }
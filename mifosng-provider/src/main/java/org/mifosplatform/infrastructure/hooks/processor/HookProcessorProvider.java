@@ -6,7 +6,6 @@
 package org.mifosplatform.infrastructure.hooks.processor;
 
 import static org.mifosplatform.infrastructure.hooks.api.HookApiConstants.smsTemplateName;
-import static org.mifosplatform.infrastructure.hooks.api.HookApiConstants.webTemplateName;
 
 import org.mifosplatform.infrastructure.hooks.domain.Hook;
 import org.springframework.beans.BeansException;
@@ -25,15 +24,16 @@ public class HookProcessorProvider implements ApplicationContextAware {
 		this.applicationContext = applicationContext;
 	}
 
+	/**
+	 * Returns the processor of the hook, or <code>null</code> for web hooks,
+	 * which are written to the delivery outbox by the command transaction.
+	 */
 	public HookProcessor getProcessor(final Hook hook) {
 		HookProcessor processor;
 		final String templateName = hook.getHookTemplate().getName();
 		if (templateName.equalsIgnoreCase(smsTemplateName)) {
 			processor = this.applicationContext.getBean("twilioHookProcessor",
 					TwilioHookProcessor.class);
-		} else if (templateName.equals(webTemplateName)) {
-			processor = this.applicationContext.getBean("webHookProcessor",
-					WebHookProcessor.class);
 		} else {
 			processor = null;
 		}
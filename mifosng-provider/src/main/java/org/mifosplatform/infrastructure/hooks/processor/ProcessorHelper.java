@@ -8,6 +8,9 @@ package org.mifosplatform.infrastructure.hooks.processor;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -32,6 +35,26 @@ public class ProcessorHelper {
 	private final static Logger logger = LoggerFactory
 			.getLogger(ProcessorHelper.class);
 
+	/**
+	 * Subscriber urls are configured by users, so only the most recently used
+	 * ones keep their {@link WebHookService}.
+	 */
+	private final static int MAX_WEB_HOOK_SERVICES = 500;
+
+	// access ordered, guarded by its own lock
+	@SuppressWarnings("serial")
+	private final static Map<String, WebHookService> webHookServices = new LinkedHashMap<String, WebHookService>(
+			16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(
+				final Map.Entry<String, WebHookService> eldest) {
+			return size() > MAX_WEB_HOOK_SERVICES;
+		}
+	};
+
+	private static volatile OkHttpClient sharedClient;
+
 	@SuppressWarnings("null")
 	public static OkHttpClient configureClient(final OkHttpClient client) {
 		final TrustManager[] certs = new TrustManager[] { new X509TrustManager() {
@@ -107,4 +130,37 @@ public class ProcessorHelper {
 		return restAdapter.create(WebHookService.class);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Returns a {@link WebHookService} for the url that is reused by the
+	 * deliveries to it, sharing one connection pool across urls. Services of
+	 * the least recently used urls are dropped and created again when needed.
+	 */
+	public static WebHookService getWebHookService(final String url) {
+		synchronized (webHookServices) {
+			WebHookService service = webHookServices.get(url);
+			if (service == null) {
+				final RestAdapter restAdapter = new RestAdapter.Builder()
+						.setEndpoint(url)
+						.setClient(new OkClient(sharedClient())).build();
+				service = restAdapter.create(WebHookService.class);
+				webHookServices.put(url, service);
+			}
+			return service;
+		}
+	}
+
+	private static OkHttpClient sharedClient() {
+		if (sharedClient == null) {
+			synchronized (ProcessorHelper.class) {
+				if (sharedClient == null) {
+					final OkHttpClient client = createClient();
+					client.setConnectTimeout(10, TimeUnit.SECONDS);
+					client.setReadTimeout(30, TimeUnit.SECONDS);
+					sharedClient = client;
+				}
+			}
+		}
+		return sharedClient;
+	}
+
+}
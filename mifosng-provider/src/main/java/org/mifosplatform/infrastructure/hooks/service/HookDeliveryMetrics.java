@@ -0,0 +1,96 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.hooks.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HookDeliveryMetrics implements HookDeliveryMetricsMBean {
+
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, Long> pendingDeliveriesByTenant = new ConcurrentHashMap<>();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong abandonedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public HookDeliveryMetrics(final ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    public void recordPendingDeliveries(final String tenantIdentifier, final long pending) {
+        this.pendingDeliveriesByTenant.put(tenantIdentifier, pending);
+    }
+
+    public void recordDelivered(final long latencyNanos) {
+        this.deliveredCount.incrementAndGet();
+        this.totalLatencyNanos.addAndGet(latencyNanos);
+        long currentMax = this.maxLatencyNanos.get();
+        while (latencyNanos > currentMax && !this.maxLatencyNanos.compareAndSet(currentMax, latencyNanos)) {
+            currentMax = this.maxLatencyNanos.get();
+        }
+    }
+
+    public void recordFailedAttempt(final boolean abandoned) {
+        this.failedAttemptCount.incrementAndGet();
+        if (abandoned) {
+            this.abandonedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public long getPendingDeliveries() {
+        long pending = 0;
+        for (final Long tenantPending : this.pendingDeliveriesByTenant.values()) {
+            pending += tenantPending;
+        }
+        return pending;
+    }
+
+    @Override
+    public int getQueuedDeliveries() {
+        return this.executor.getQueue().size() + this.executor.getActiveCount();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return this.deliveredCount.get();
+    }
+
+    @Override
+    public long getFailedAttemptCount() {
+        return this.failedAttemptCount.get();
+    }
+
+    @Override
+    public long getAbandonedCount() {
+        return this.abandonedCount.get();
+    }
+
+    @Override
+    public double getFailureRate() {
+        final long failed = this.failedAttemptCount.get();
+        final long attempts = failed + this.deliveredCount.get();
+        if (attempts == 0) { return 0; }
+        return (double) failed / attempts;
+    }
+
+    @Override
+    public double getAverageLatencyMillis() {
+        final long delivered = this.deliveredCount.get();
+        if (delivered == 0) { return 0; }
+        return (double) this.totalLatencyNanos.get() / delivered / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return (double) this.maxLatencyNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
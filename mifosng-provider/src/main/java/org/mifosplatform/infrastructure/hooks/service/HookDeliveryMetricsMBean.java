@@ -0,0 +1,28 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.hooks.service;
+
+/**
+ * JMX view of web hook delivery.
+ */
+public interface HookDeliveryMetricsMBean {
+
+    long getPendingDeliveries();
+
+    int getQueuedDeliveries();
+
+    long getDeliveredCount();
+
+    long getFailedAttemptCount();
+
+    long getAbandonedCount();
+
+    double getFailureRate();
+
+    double getAverageLatencyMillis();
+
+    double getMaxLatencyMillis();
+}
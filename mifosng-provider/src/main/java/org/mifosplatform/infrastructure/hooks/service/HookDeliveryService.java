@@ -0,0 +1,28 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.hooks.service;
+
+public interface HookDeliveryService {
+
+    /**
+     * Writes a delivery to the outbox as part of the current transaction. It
+     * is dispatched once the transaction commits.
+     */
+    void enqueue(Long hookId, String url, String contentType, String entityName, String actionName, String payload);
+
+    /**
+     * Writes a delivery for every active web hook listening to the event as
+     * part of the current transaction, so that a rolled back command leaves
+     * no deliveries behind.
+     */
+    void enqueueWebHooks(String entityName, String actionName, String payload);
+
+    /**
+     * Schedules the due deliveries of the current tenant for dispatch without
+     * waiting for them to be sent.
+     */
+    void scheduleDispatch();
+}
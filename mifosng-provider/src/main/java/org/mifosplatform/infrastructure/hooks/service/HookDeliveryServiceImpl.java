@@ -0,0 +1,438 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.hooks.service;
+
+import static org.mifosplatform.infrastructure.hooks.api.HookApiConstants.contentTypeName;
+import static org.mifosplatform.infrastructure.hooks.api.HookApiConstants.payloadURLName;
+import static org.mifosplatform.infrastructure.hooks.api.HookApiConstants.webTemplateName;
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang.StringUtils;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.infrastructure.hooks.domain.Hook;
+import org.mifosplatform.infrastructure.hooks.domain.HookConfiguration;
+import org.mifosplatform.infrastructure.hooks.domain.HookDeliveryStatus;
+import org.mifosplatform.infrastructure.hooks.domain.HookRepository;
+import org.mifosplatform.infrastructure.hooks.processor.ProcessorHelper;
+import org.mifosplatform.infrastructure.hooks.processor.WebHookService;
+import org.mifosplatform.infrastructure.security.service.TenantDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Outbox based web hook delivery.
+ *
+ * Deliveries are inserted into <code>m_hook_delivery</code> by the command
+ * transaction and dispatched after commit on a bounded pool. Each endpoint may
+ * only have a limited number of requests in flight, failed deliveries are
+ * retried with exponential backoff and a poller picks up retries, deliveries
+ * left behind by a full pool and claims of nodes that stopped while sending.
+ */
+@Service
+public class HookDeliveryServiceImpl implements HookDeliveryService {
+
+    private final static Logger logger = LoggerFactory.getLogger(HookDeliveryServiceImpl.class);
+
+    public final static String THREADS = "mifos.hooks.delivery.threads";
+    public final static String QUEUE_CAPACITY = "mifos.hooks.delivery.queueCapacity";
+    public final static String CONCURRENCY_PER_ENDPOINT = "mifos.hooks.delivery.concurrencyPerEndpoint";
+    public final static String MAX_ATTEMPTS = "mifos.hooks.delivery.maxAttempts";
+    public final static String POLL_INTERVAL_SECONDS = "mifos.hooks.delivery.pollIntervalSeconds";
+
+    private final static int DISPATCH_BATCH_SIZE = 100;
+    private final static int INITIAL_BACKOFF_SECONDS = 30;
+    private final static int MAX_BACKOFF_SECONDS = 3600;
+    private final static int STALE_CLAIM_MINUTES = 10;
+    private final static int DELIVERED_RETENTION_DAYS = 7;
+
+    @Value("${" + THREADS + ":8}")
+    private int threads;
+
+    @Value("${" + QUEUE_CAPACITY + ":1000}")
+    private int queueCapacity;
+
+    @Value("${" + CONCURRENCY_PER_ENDPOINT + ":4}")
+    private int concurrencyPerEndpoint;
+
+    @Value("${" + MAX_ATTEMPTS + ":10}")
+    private int maxAttempts;
+
+    @Value("${" + POLL_INTERVAL_SECONDS + ":15}")
+    private int pollIntervalSeconds;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantDetailsService tenantDetailsService;
+    private final HookRepository hookRepository;
+    private final Gson gson = new Gson();
+    private final JsonParser jsonParser = new JsonParser();
+    private final ConcurrentMap<String, Semaphore> endpointPermits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicBoolean> dispatchScheduled = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicBoolean> backlogged = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService poller;
+    private HookDeliveryMetrics metrics;
+
+    @Autowired
+    public HookDeliveryServiceImpl(final RoutingDataSource dataSource, final TenantDetailsService tenantDetailsService,
+            final HookRepository hookRepository) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.tenantDetailsService = tenantDetailsService;
+        this.hookRepository = hookRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(
+                this.queueCapacity), daemonThreadFactory("hook-delivery"));
+        this.metrics = new HookDeliveryMetrics(this.executor);
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName("org.mifosplatform:type=HookDelivery");
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this.metrics, objectName);
+            }
+        } catch (final Exception e) {
+            logger.warn("Could not register hook delivery metrics", e);
+        }
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("hook-delivery-poller"));
+        this.poller.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                pollAllTenants();
+            }
+        }, this.pollIntervalSeconds, this.pollIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.poller.shutdownNow();
+        this.executor.shutdownNow();
+    }
+
+    @Override
+    public void enqueue(final Long hookId, final String url, final String contentType, final String entityName, final String actionName,
+            final String payload) {
+        final String sql = "insert into m_hook_delivery (hook_id, payload_url, content_type, entity_name, action_name, payload, status_enum, attempt_count, next_attempt_time, created_date) "
+                + "values (?, ?, ?, ?, ?, ?, ?, 0, now(), now())";
+        this.jdbcTemplate.update(sql, hookId, url, contentType, entityName, actionName, payload, HookDeliveryStatus.PENDING.getValue());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    scheduleDispatch();
+                }
+            });
+        } else {
+            scheduleDispatch();
+        }
+    }
+
+    @Override
+    public void enqueueWebHooks(final String entityName, final String actionName, final String payload) {
+        final List<Hook> hooks = this.hookRepository.findAllHooksListeningToEvent(entityName, actionName);
+        for (final Hook hook : hooks) {
+            if (!webTemplateName.equals(hook.getHookTemplate().getName())) {
+                continue;
+            }
+
+            String url = "";
+            String contentType = "";
+            for (final HookConfiguration conf : hook.getHookConfig()) {
+                final String fieldName = conf.getFieldName();
+                if (fieldName.equals(payloadURLName)) {
+                    url = conf.getFieldValue();
+                }
+                if (fieldName.equals(contentTypeName)) {
+                    contentType = conf.getFieldValue();
+                }
+            }
+
+            enqueue(hook.getId(), url, contentType, entityName, actionName, payload);
+        }
+    }
+
+    @Override
+    public void scheduleDispatch() {
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final AtomicBoolean scheduled = flagFor(this.dispatchScheduled, tenant.getTenantIdentifier());
+
+        // one dispatch pass per tenant is enough to pick up everything that is
+        // due by the time it runs
+        if (!scheduled.compareAndSet(false, true)) { return; }
+        try {
+            this.executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    scheduled.set(false);
+                    ThreadLocalContextUtil.setTenant(tenant);
+                    try {
+                        dispatchDueDeliveries(tenant);
+                    } catch (final RuntimeException e) {
+                        logger.warn("Dispatching hook deliveries of " + tenant.getTenantIdentifier() + " failed", e);
+                    } finally {
+                        ThreadLocalContextUtil.clearTenant();
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // pool is saturated, the poller dispatches once it drains
+            scheduled.set(false);
+        }
+    }
+
+    private void dispatchDueDeliveries(final MifosPlatformTenant tenant) {
+        final HookDeliveryMapper mapper = new HookDeliveryMapper();
+        final String sql = "select " + mapper.schema()
+                + " where hd.status_enum = ? and hd.next_attempt_time <= now() order by hd.id limit ?";
+        final List<HookDelivery> deliveries = this.jdbcTemplate.query(sql, mapper, HookDeliveryStatus.PENDING.getValue(),
+                DISPATCH_BATCH_SIZE);
+
+        boolean leftBehind = deliveries.size() == DISPATCH_BATCH_SIZE;
+        for (final HookDelivery delivery : deliveries) {
+            if (this.executor.getQueue().remainingCapacity() == 0) {
+                leftBehind = true;
+                break;
+            }
+            final Semaphore permits = permitsFor(delivery.url);
+            if (!permits.tryAcquire()) {
+                leftBehind = true;
+                continue;
+            }
+            if (!claim(delivery.id)) {
+                permits.release();
+                continue;
+            }
+            try {
+                this.executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        ThreadLocalContextUtil.setTenant(tenant);
+                        try {
+                            deliver(tenant, delivery);
+                        } finally {
+                            permits.release();
+                            ThreadLocalContextUtil.clearTenant();
+                        }
+                        if (flagFor(HookDeliveryServiceImpl.this.backlogged, tenant.getTenantIdentifier()).get()) {
+                            ThreadLocalContextUtil.setTenant(tenant);
+                            try {
+                                scheduleDispatch();
+                            } finally {
+                                ThreadLocalContextUtil.clearTenant();
+                            }
+                        }
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                permits.release();
+                unclaim(delivery.id);
+                leftBehind = true;
+                break;
+            }
+        }
+        flagFor(this.backlogged, tenant.getTenantIdentifier()).set(leftBehind);
+    }
+
+    private void deliver(final MifosPlatformTenant tenant, final HookDelivery delivery) {
+        final long start = System.nanoTime();
+        try {
+            send(tenant.getTenantIdentifier(), delivery);
+            this.jdbcTemplate.update(
+                    "update m_hook_delivery set status_enum = ?, attempt_count = attempt_count + 1, delivered_time = now(), last_error = null where id = ?",
+                    HookDeliveryStatus.DELIVERED.getValue(), delivery.id);
+            this.metrics.recordDelivered(System.nanoTime() - start);
+        } catch (final RuntimeException e) {
+            final int attempts = delivery.attemptCount + 1;
+            final boolean abandoned = attempts >= this.maxAttempts;
+            final String error = StringUtils.abbreviate(String.valueOf(e.getMessage()), 500);
+            if (abandoned) {
+                logger.warn("Giving up delivery " + delivery.id + " to " + delivery.url + " after " + attempts + " attempts: " + error);
+                this.jdbcTemplate.update("update m_hook_delivery set status_enum = ?, attempt_count = ?, last_error = ? where id = ?",
+                        HookDeliveryStatus.FAILED.getValue(), attempts, error, delivery.id);
+            } else {
+                this.jdbcTemplate.update(
+                        "update m_hook_delivery set status_enum = ?, attempt_count = ?, last_error = ?, next_attempt_time = date_add(now(), interval ? second) where id = ?",
+                        HookDeliveryStatus.PENDING.getValue(), attempts, error, backoffSeconds(attempts), delivery.id);
+            }
+            this.metrics.recordFailedAttempt(abandoned);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void send(final String tenantIdentifier, final HookDelivery delivery) {
+        final String mifosEndpointUrl = System.getProperty("baseUrl");
+        final WebHookService service = ProcessorHelper.getWebHookService(delivery.url);
+
+        if (delivery.contentType.equalsIgnoreCase("json") || delivery.contentType.contains("json")) {
+            final JsonObject json = this.jsonParser.parse(delivery.payload).getAsJsonObject();
+            service.deliverJsonRequest(delivery.entityName, delivery.actionName, tenantIdentifier, mifosEndpointUrl, json);
+        } else {
+            final Map<String, String> map = this.gson.fromJson(delivery.payload, HashMap.class);
+            service.deliverFormRequest(delivery.entityName, delivery.actionName, tenantIdentifier, mifosEndpointUrl, map);
+        }
+    }
+
+    private static int backoffSeconds(final int attempts) {
+        final long backoff = (long) INITIAL_BACKOFF_SECONDS << Math.min(attempts - 1, 20);
+        return (int) Math.min(backoff, MAX_BACKOFF_SECONDS);
+    }
+
+    private boolean claim(final Long deliveryId) {
+        // the status check makes the claim safe across nodes
+        return this.jdbcTemplate.update("update m_hook_delivery set status_enum = ?, claimed_time = now() where id = ? and status_enum = ?",
+                HookDeliveryStatus.IN_PROGRESS.getValue(), deliveryId, HookDeliveryStatus.PENDING.getValue()) == 1;
+    }
+
+    private void unclaim(final Long deliveryId) {
+        this.jdbcTemplate.update("update m_hook_delivery set status_enum = ?, claimed_time = null where id = ?",
+                HookDeliveryStatus.PENDING.getValue(), deliveryId);
+    }
+
+    private void pollAllTenants() {
+        final List<MifosPlatformTenant> tenants;
+        try {
+            tenants = this.tenantDetailsService.findAllTenants();
+        } catch (final RuntimeException e) {
+            logger.warn("Could not load tenants for hook delivery", e);
+            return;
+        }
+        for (final MifosPlatformTenant tenant : tenants) {
+            ThreadLocalContextUtil.setTenant(tenant);
+            try {
+                this.jdbcTemplate.update("update m_hook_delivery set status_enum = ?, claimed_time = null where status_enum = ? "
+                        + "and claimed_time < date_sub(now(), interval " + STALE_CLAIM_MINUTES + " minute)",
+                        HookDeliveryStatus.PENDING.getValue(), HookDeliveryStatus.IN_PROGRESS.getValue());
+                this.jdbcTemplate.update("delete from m_hook_delivery where status_enum = ? and delivered_time < date_sub(now(), interval "
+                        + DELIVERED_RETENTION_DAYS + " day)", HookDeliveryStatus.DELIVERED.getValue());
+                final Long pending = this.jdbcTemplate.queryForObject("select count(*) from m_hook_delivery where status_enum = ?",
+                        Long.class, HookDeliveryStatus.PENDING.getValue());
+                this.metrics.recordPendingDeliveries(tenant.getTenantIdentifier(), pending);
+                if (pending > 0) {
+                    scheduleDispatch();
+                }
+            } catch (final RuntimeException e) {
+                logger.warn("Polling hook deliveries of " + tenant.getTenantIdentifier() + " failed", e);
+            } finally {
+                ThreadLocalContextUtil.clearTenant();
+            }
+        }
+    }
+
+    private Semaphore permitsFor(final String url) {
+        Semaphore permits = this.endpointPermits.get(url);
+        if (permits == null) {
+            final Semaphore newPermits = new Semaphore(this.concurrencyPerEndpoint);
+            permits = this.endpointPermits.putIfAbsent(url, newPermits);
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+        return permits;
+    }
+
+    private static AtomicBoolean flagFor(final ConcurrentMap<String, AtomicBoolean> flags, final String tenantIdentifier) {
+        AtomicBoolean flag = flags.get(tenantIdentifier);
+        if (flag == null) {
+            final AtomicBoolean newFlag = new AtomicBoolean(false);
+            flag = flags.putIfAbsent(tenantIdentifier, newFlag);
+            if (flag == null) {
+                flag = newFlag;
+            }
+        }
+        return flag;
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String namePrefix) {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        return new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, namePrefix + "-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private static final class HookDelivery {
+
+        private final Long id;
+        private final String url;
+        private final String contentType;
+        private final String entityName;
+        private final String actionName;
+        private final String payload;
+        private final int attemptCount;
+
+        public HookDelivery(final Long id, final String url, final String contentType, final String entityName, final String actionName,
+                final String payload, final int attemptCount) {
+            this.id = id;
+            this.url = url;
+            this.contentType = contentType;
+            this.entityName = entityName;
+            this.actionName = actionName;
+            this.payload = payload;
+            this.attemptCount = attemptCount;
+        }
+    }
+
+    private static final class HookDeliveryMapper implements RowMapper<HookDelivery> {
+
+        public String schema() {
+            return " hd.id as id, hd.payload_url as url, hd.content_type as contentType, hd.entity_name as entityName,"
+                    + " hd.action_name as actionName, hd.payload as payload, hd.attempt_count as attemptCount from m_hook_delivery hd";
+        }
+
+        @Override
+        public HookDelivery mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            return new HookDelivery(rs.getLong("id"), rs.getString("url"), rs.getString("contentType"), rs.getString("entityName"),
+                    rs.getString("actionName"), rs.getString("payload"), rs.getInt("attemptCount"));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.jobs.service;
+
+import java.util.List;
+
+/**
+ * Processes the records of one chunk of a partitioned job.
+ */
+public interface JobChunkProcessor {
+
+    /**
+     * Invoked on a worker thread with the tenant and security context of the
+     * job already set and inside a transaction that also records the chunk
+     * checkpoint.
+     */
+    void process(List<Long> ids);
+}
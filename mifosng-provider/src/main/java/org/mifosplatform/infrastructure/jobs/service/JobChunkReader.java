@@ -0,0 +1,20 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.jobs.service;
+
+import java.util.List;
+
+/**
+ * Supplies the ids processed by a partitioned job, one chunk at a time.
+ */
+public interface JobChunkReader {
+
+    /**
+     * Returns at most <code>limit</code> ids greater than <code>afterId</code>
+     * in ascending order, or an empty list once all ids have been read.
+     */
+    List<Long> readIdsAfter(Long afterId, int limit);
+}
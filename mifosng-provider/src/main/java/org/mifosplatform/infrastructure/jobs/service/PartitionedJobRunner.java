@@ -0,0 +1,22 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.jobs.service;
+
+import java.util.List;
+
+public interface PartitionedJobRunner {
+
+    /**
+     * Streams ids from the reader in chunks and hands each chunk to the
+     * processor on a bounded worker pool. Every chunk is committed in its own
+     * transaction together with a checkpoint, so a run that fails is resumed
+     * from the chunks that were not committed when the job runs again on the
+     * same business date.
+     * 
+     * @return failure messages, empty if every chunk was processed
+     */
+    List<String> run(JobName jobName, JobChunkReader reader, JobChunkProcessor processor);
+}
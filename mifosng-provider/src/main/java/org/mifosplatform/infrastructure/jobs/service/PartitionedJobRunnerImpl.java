@@ -0,0 +1,219 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.jobs.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.DateUtils;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class PartitionedJobRunnerImpl implements PartitionedJobRunner {
+
+    private final static Logger logger = LoggerFactory.getLogger(PartitionedJobRunnerImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigurationDomainService configurationDomainService;
+
+    @Autowired
+    public PartitionedJobRunnerImpl(final RoutingDataSource dataSource, final TransactionTemplate transactionTemplate,
+            final ConfigurationDomainService configurationDomainService) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.configurationDomainService = configurationDomainService;
+    }
+
+    @Override
+    public List<String> run(final JobName jobName, final JobChunkReader reader, final JobChunkProcessor processor) {
+
+        final int threadCount = this.configurationDomainService.retrieveJobPartitionThreadCount();
+        final int chunkSize = this.configurationDomainService.retrieveJobPartitionChunkSize();
+        final Date runDate = DateUtils.getLocalDateOfTenant().toDate();
+
+        final List<ChunkRange> completedChunks = retrieveCompletedChunks(jobName, runDate);
+        if (!completedChunks.isEmpty()) {
+            logger.info(jobName.name() + ": resuming run, skipping " + completedChunks.size() + " chunks already committed");
+        }
+
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+
+        // at most two chunks per worker are held in memory at any time
+        final Semaphore pendingChunks = new Semaphore(threadCount * 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            Long lastReadId = Long.valueOf(0);
+            List<Long> ids = reader.readIdsAfter(lastReadId, chunkSize);
+            while (!ids.isEmpty()) {
+                lastReadId = ids.get(ids.size() - 1);
+                final List<Long> chunk = removeCompletedIds(ids, completedChunks);
+                if (!chunk.isEmpty()) {
+                    pendingChunks.acquire();
+                    executor.execute(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            ThreadLocalContextUtil.setTenant(tenant);
+                            SecurityContextHolder.getContext().setAuthentication(authentication);
+                            try {
+                                processChunk(jobName, runDate, chunk, processor, errors);
+                            } finally {
+                                SecurityContextHolder.clearContext();
+                                ThreadLocalContextUtil.clearTenant();
+                                pendingChunks.release();
+                            }
+                        }
+                    });
+                }
+                ids = reader.readIdsAfter(lastReadId, chunkSize);
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.add(jobName.name() + " was interrupted before all chunks were processed");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (errors.isEmpty()) {
+            this.jdbcTemplate.update("delete from job_chunk_checkpoint where job_name = ?", jobName.name());
+        }
+        return errors;
+    }
+
+    private void processChunk(final JobName jobName, final Date runDate, final List<Long> ids, final JobChunkProcessor processor,
+            final List<String> errors) {
+        try {
+            this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+                @Override
+                protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                    processor.process(ids);
+                    recordCheckpoint(jobName, runDate, ids);
+                }
+            });
+        } catch (final RuntimeException chunkException) {
+            logger.warn(jobName.name() + ": chunk " + ids.get(0) + "-" + ids.get(ids.size() - 1)
+                    + " rolled back, processing its records individually", chunkException);
+
+            // one failing record must not hold back the rest of the chunk
+            boolean allProcessed = true;
+            for (final Long id : ids) {
+                try {
+                    this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+                        @Override
+                        protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                            processor.process(Collections.singletonList(id));
+                        }
+                    });
+                } catch (final RuntimeException e) {
+                    allProcessed = false;
+                    Throwable realCause = e;
+                    if (e.getCause() != null) {
+                        realCause = e.getCause();
+                    }
+                    errors.add("failed to process " + jobName + " for id " + id + " with message " + realCause.getMessage());
+                }
+            }
+            if (allProcessed) {
+                recordCheckpoint(jobName, runDate, ids);
+            }
+        }
+    }
+
+    private void recordCheckpoint(final JobName jobName, final Date runDate, final List<Long> ids) {
+        final String sql = "insert into job_chunk_checkpoint (job_name, run_date, chunk_start_id, chunk_end_id, processed_count, completed_time) values (?, ?, ?, ?, ?, ?)";
+        this.jdbcTemplate.update(sql, jobName.name(), runDate, ids.get(0), ids.get(ids.size() - 1), ids.size(), new Date());
+    }
+
+    private List<ChunkRange> retrieveCompletedChunks(final JobName jobName, final Date runDate) {
+        // checkpoints of an earlier business date belong to a run that will
+        // never be resumed
+        this.jdbcTemplate.update("delete from job_chunk_checkpoint where job_name = ? and run_date < ?", jobName.name(), runDate);
+
+        final String sql = "select chunk_start_id as startId, chunk_end_id as endId from job_chunk_checkpoint where job_name = ? and run_date = ? order by chunk_start_id";
+        return this.jdbcTemplate.query(sql, new ChunkRangeMapper(), jobName.name(), runDate);
+    }
+
+    /**
+     * Drops ids covered by a committed chunk; completed chunks are ordered by
+     * their start id and never overlap.
+     */
+    private static List<Long> removeCompletedIds(final List<Long> ids, final List<ChunkRange> completedChunks) {
+        if (completedChunks.isEmpty()) { return ids; }
+        final List<Long> remaining = new ArrayList<>(ids.size());
+        for (final Long id : ids) {
+            int low = 0;
+            int high = completedChunks.size() - 1;
+            boolean completed = false;
+            while (low <= high && !completed) {
+                final int middle = (low + high) >>> 1;
+                final ChunkRange range = completedChunks.get(middle);
+                if (range.contains(id)) {
+                    completed = true;
+                } else if (id.compareTo(range.startId) < 0) {
+                    high = middle - 1;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            if (!completed) {
+                remaining.add(id);
+            }
+        }
+        return remaining;
+    }
+
+    private static final class ChunkRange {
+
+        private final Long startId;
+        private final Long endId;
+
+        public ChunkRange(final Long startId, final Long endId) {
+            this.startId = startId;
+            this.endId = endId;
+        }
+
+        public boolean contains(final Long id) {
+            return id.compareTo(this.startId) >= 0 && id.compareTo(this.endId) <= 0;
+        }
+    }
+
+    private static final class ChunkRangeMapper implements RowMapper<ChunkRange> {
+
+        @Override
+        public ChunkRange mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            return new ChunkRange(rs.getLong("startId"), rs.getLong("endId"));
+        }
+    }
+}
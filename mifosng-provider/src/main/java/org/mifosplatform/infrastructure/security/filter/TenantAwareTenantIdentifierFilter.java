@@ -123,7 +123,9 @@ public class TenantAwareTenantIdentifierFilter extends GenericFilterBean {
                     System.setProperty("baseUrl", baseUrl);
 
                     final boolean ehcacheEnabled = this.configurationDomainService.isEhcacheEnabled();
-                    if (ehcacheEnabled) {
+                    if (this.configurationDomainService.isDistributedCacheEnabled()) {
+                        this.cacheWritePlatformService.switchToCache(CacheType.MULTI_NODE);
+                    } else if (ehcacheEnabled) {
                         this.cacheWritePlatformService.switchToCache(CacheType.SINGLE_NODE);
                     } else {
                         this.cacheWritePlatformService.switchToCache(CacheType.NO_CACHE);
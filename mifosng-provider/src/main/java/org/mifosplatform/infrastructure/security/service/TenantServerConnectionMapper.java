@@ -0,0 +1,84 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.security.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenantConnection;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Maps the columns of a <code>tenant_server_connections</code> row, aliased
+ * as <code>ts</code>, to a {@link MifosPlatformTenantConnection}.
+ */
+public final class TenantServerConnectionMapper implements RowMapper<MifosPlatformTenantConnection> {
+
+    private final static String COLUMNS = " ts.id as connectionId, ts.schema_name as schemaName, ts.schema_server as schemaServer,"
+            + " ts.schema_server_port as schemaServerPort, ts.auto_update as autoUpdate,"
+            + " ts.schema_username as schemaUsername, ts.schema_password as schemaPassword , ts.pool_initial_size as initialSize,"
+            + " ts.pool_validation_interval as validationInterval, ts.pool_remove_abandoned as removeAbandoned, ts.pool_remove_abandoned_timeout as removeAbandonedTimeout,"
+            + " ts.pool_log_abandoned as logAbandoned, ts.pool_abandon_when_percentage_full as abandonedWhenPercentageFull, ts.pool_test_on_borrow as testOnBorrow,"
+            + " ts.pool_max_active as poolMaxActive, ts.pool_min_idle as poolMinIdle, ts.pool_max_idle as poolMaxIdle,"
+            + " ts.pool_suspect_timeout as poolSuspectTimeout, ts.pool_time_between_eviction_runs_millis as poolTimeBetweenEvictionRunsMillis,"
+            + " ts.pool_min_evictable_idle_time_millis as poolMinEvictableIdleTimeMillis,"
+            + " ts.deadlock_max_retries as maxRetriesOnDeadlock,"
+            + " ts.deadlock_max_retry_interval as maxIntervalBetweenRetries ";
+
+    /**
+     * @return the select list of the connection columns, to be combined with
+     *         a from clause that names the table <code>ts</code>
+     */
+    public String columns() {
+        return COLUMNS;
+    }
+
+    public String schema() {
+        return COLUMNS + " from tenant_server_connections ts";
+    }
+
+    @Override
+    public MifosPlatformTenantConnection mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+
+        final Long connectionId = rs.getLong("connectionId");
+        final String schemaName = rs.getString("schemaName");
+        final String schemaServer = rs.getString("schemaServer");
+        final String schemaServerPort = rs.getString("schemaServerPort");
+        final String schemaUsername = rs.getString("schemaUsername");
+        final String schemaPassword = rs.getString("schemaPassword");
+        final boolean autoUpdateEnabled = rs.getBoolean("autoUpdate");
+        final int initialSize = rs.getInt("initialSize");
+        final boolean testOnBorrow = rs.getBoolean("testOnBorrow");
+        final long validationInterval = rs.getLong("validationInterval");
+        final boolean removeAbandoned = rs.getBoolean("removeAbandoned");
+        final int removeAbandonedTimeout = rs.getInt("removeAbandonedTimeout");
+        final boolean logAbandoned = rs.getBoolean("logAbandoned");
+        final int abandonWhenPercentageFull = rs.getInt("abandonedWhenPercentageFull");
+        final int maxActive = rs.getInt("poolMaxActive");
+        final int minIdle = rs.getInt("poolMinIdle");
+        final int maxIdle = rs.getInt("poolMaxIdle");
+        final int suspectTimeout = rs.getInt("poolSuspectTimeout");
+        final int timeBetweenEvictionRunsMillis = rs.getInt("poolTimeBetweenEvictionRunsMillis");
+        final int minEvictableIdleTimeMillis = rs.getInt("poolMinEvictableIdleTimeMillis");
+        int maxRetriesOnDeadlock = rs.getInt("maxRetriesOnDeadlock");
+        int maxIntervalBetweenRetries = rs.getInt("maxIntervalBetweenRetries");
+
+        maxRetriesOnDeadlock = bindValueInMinMaxRange(maxRetriesOnDeadlock, 0, 15);
+        maxIntervalBetweenRetries = bindValueInMinMaxRange(maxIntervalBetweenRetries, 1, 15);
+
+        return new MifosPlatformTenantConnection(connectionId, schemaName, schemaServer, schemaServerPort, schemaUsername, schemaPassword,
+                autoUpdateEnabled, initialSize, validationInterval, removeAbandoned, removeAbandonedTimeout, logAbandoned,
+                abandonWhenPercentageFull, maxActive, minIdle, maxIdle, suspectTimeout, timeBetweenEvictionRunsMillis,
+                minEvictableIdleTimeMillis, maxRetriesOnDeadlock, maxIntervalBetweenRetries, testOnBorrow);
+    }
+
+    private static int bindValueInMinMaxRange(final int value, final int min, final int max) {
+        if (value < min) {
+            return min;
+        } else if (value > max) { return max; }
+        return value;
+    }
+}
@@ -5,6 +5,10 @@
  */
 package org.mifosplatform.portfolio.charge.domain;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.mifosplatform.portfolio.charge.exception.ChargeIsNotActiveException;
 import org.mifosplatform.portfolio.charge.exception.ChargeNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,4 +44,20 @@ public class ChargeRepositoryWrapper {
 
         return chargeDefinition;
     }
+
+    /**
+     * Loads the charges with the given ids in one query and returns the ones
+     * that are active and not deleted, keyed by id.
+     */
+    public Map<Long, Charge> findActiveByIds(final Collection<Long> ids) {
+        final Map<Long, Charge> chargeDefinitions = new HashMap<>();
+        if (ids.isEmpty()) { return chargeDefinitions; }
+
+        for (final Charge chargeDefinition : this.repository.findAll(ids)) {
+            if (!chargeDefinition.isDeleted() && chargeDefinition.isActive()) {
+                chargeDefinitions.put(chargeDefinition.getId(), chargeDefinition);
+            }
+        }
+        return chargeDefinitions;
+    }
 }
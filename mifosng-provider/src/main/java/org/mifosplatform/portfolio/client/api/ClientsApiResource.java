@@ -115,12 +115,13 @@ public class ClientsApiResource {
             @QueryParam("lastName") final String lastname, @QueryParam("underHierarchy") final String hierarchy,
             @QueryParam("offset") final Integer offset, @QueryParam("limit") final Integer limit,
             @QueryParam("orderBy") final String orderBy, @QueryParam("sortOrder") final String sortOrder,
-            @QueryParam("orphansOnly") final Boolean orphansOnly) {
+            @QueryParam("orphansOnly") final Boolean orphansOnly, @QueryParam("after") final String after,
+            @QueryParam("includeTotal") final Boolean includeTotal) {
 
         this.context.authenticatedUser().validateHasReadPermission(ClientApiConstants.CLIENT_RESOURCE_NAME);
 
         final SearchParameters searchParameters = SearchParameters.forClients(sqlSearch, officeId, externalId, displayName, firstname,
-                lastname, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly);
+                lastname, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly).withKeyset(after, includeTotal);
 
         final Page<ClientData> clientData = this.clientReadPlatformService.retrieveAll(searchParameters);
 
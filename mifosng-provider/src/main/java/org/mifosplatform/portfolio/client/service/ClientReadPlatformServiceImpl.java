@@ -120,7 +120,7 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
         // }
 
         final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(searchParameters.isKeysetPaged() ? "select " : "select SQL_CALC_FOUND_ROWS ");
         sqlBuilder.append(this.clientMapper.schema());
         sqlBuilder.append(" where (o.hierarchy like ? or transferToOffice.hierarchy like ?) ");
 
@@ -130,6 +130,10 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
             sqlBuilder.append(" and (").append(extraCriteria).append(")");
         }
 
+        if (searchParameters.isKeysetPaged()) { return this.paginationHelper.fetchKeysetPage(this.jdbcTemplate, sqlBuilder.toString(),
+                " and ", "c.id", new Object[] { underHierarchySearchString, underHierarchySearchString }, searchParameters,
+                this.clientMapper); }
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
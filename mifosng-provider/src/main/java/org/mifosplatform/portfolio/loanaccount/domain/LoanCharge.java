@@ -29,6 +29,7 @@ import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.LazyCollection;
 import org.hibernate.annotations.LazyCollectionOption;
 import org.joda.time.LocalDate;
@@ -110,6 +111,7 @@ public class LoanCharge extends AbstractPersistable<Long> {
     private BigDecimal maxCap;
 
     @LazyCollection(LazyCollectionOption.FALSE)
+    @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "loancharge", orphanRemoval = true)
     private final Set<LoanInstallmentCharge> loanInstallmentCharge = new HashSet<>();
 
@@ -0,0 +1,28 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.domain;
+
+/**
+ * Which child collection of a {@link Loan} is fetched together with the loan.
+ * Collections that are not part of the profile are loaded on first access.
+ */
+public enum LoanFetchProfile {
+
+    /**
+     * Only the loan itself, for commands that check or change its state.
+     */
+    BASIC,
+
+    /**
+     * The loan and its repayment schedule installments.
+     */
+    REPAYMENT_SCHEDULE,
+
+    /**
+     * The loan and its transactions, for commands that reprocess them.
+     */
+    TRANSACTIONS;
+}
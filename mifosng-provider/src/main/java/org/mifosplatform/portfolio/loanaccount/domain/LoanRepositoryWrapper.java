@@ -35,6 +35,23 @@ public class LoanRepositoryWrapper {
         return loan;
     }
 
+    public Loan findOneWithNotFoundDetection(final Long id, final LoanFetchProfile fetchProfile) {
+        final Loan loan;
+        switch (fetchProfile) {
+            case REPAYMENT_SCHEDULE:
+                loan = this.repository.findOneWithRepaymentSchedule(id);
+            break;
+            case TRANSACTIONS:
+                loan = this.repository.findOneWithTransactions(id);
+            break;
+            default:
+                loan = this.repository.findOne(id);
+            break;
+        }
+        if (loan == null) { throw new LoanNotFoundException(id); }
+        return loan;
+    }
+
     public Collection<Loan> findActiveLoansByLoanIdAndGroupId(Long clientId, Long groupId) {
         final Collection<Integer> loanStatuses = new ArrayList<>(Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
                 LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue(), LoanStatus.OVERPAID.getValue()));
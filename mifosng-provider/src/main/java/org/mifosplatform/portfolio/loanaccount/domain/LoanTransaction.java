@@ -5,6 +5,7 @@
  */
 package org.mifosplatform.portfolio.loanaccount.domain;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.LazyCollection;
 import org.hibernate.annotations.LazyCollectionOption;
 import org.joda.time.LocalDate;
@@ -110,6 +111,7 @@ public final class LoanTransaction extends AbstractPersistable<Long> {
     private final AppUser appUser;
 
     @LazyCollection(LazyCollectionOption.FALSE)
+    @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "loanTransaction", orphanRemoval = true)
     private Set<LoanChargePaidBy> loanChargesPaid = new HashSet<>();
 
@@ -120,6 +122,7 @@ public final class LoanTransaction extends AbstractPersistable<Long> {
     private boolean manuallyAdjustedOrReversed;
 
     @LazyCollection(LazyCollectionOption.FALSE)
+    @BatchSize(size = 100)
     @OneToMany(cascade = CascadeType.ALL,  orphanRemoval = true)
     @JoinColumn(name = "loan_transaction_id", referencedColumnName= "id" , nullable = false)
     private Set<LoanTransactionToRepaymentScheduleMapping> loanTransactionToRepaymentScheduleMappings = new HashSet<>();
@@ -12,6 +12,7 @@ import org.joda.time.Weeks;
 import org.joda.time.Years;
 import org.mifosplatform.organisation.holiday.service.HolidayUtil;
 import org.mifosplatform.organisation.workingdays.domain.RepaymentRescheduleType;
+import org.mifosplatform.organisation.workingdays.domain.WorkingDays;
 import org.mifosplatform.organisation.workingdays.service.WorkingDaysUtil;
 import org.mifosplatform.portfolio.calendar.domain.Calendar;
 import org.mifosplatform.portfolio.calendar.domain.CalendarHistory;
@@ -21,10 +22,30 @@ import org.mifosplatform.portfolio.common.domain.DayOfWeekType;
 import org.mifosplatform.portfolio.common.domain.PeriodFrequencyType;
 import org.mifosplatform.portfolio.loanaccount.data.HolidayDetailDTO;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class DefaultScheduledDateGenerator implements ScheduledDateGenerator {
 
+    private static final int MEETING_DATE_CACHE_SIZE = 10000;
+
+    /**
+     * Next meeting dates already worked out from a calendar recurrence. Parsing
+     * and iterating the recurrence rule is the slowest step of generating a
+     * schedule for a loan synced with a meeting, and loans of one centre or
+     * group share their calendar, so their repayment dates are all the same.
+     */
+    private static final Map<String, LocalDate> meetingDates = new LinkedHashMap<String, LocalDate>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, LocalDate> eldest) {
+            return size() > MEETING_DATE_CACHE_SIZE;
+        }
+    };
+
     @Override
     public LocalDate getLastRepaymentDate(final LoanApplicationTerms loanApplicationTerms, final HolidayDetailDTO holidayDetailDTO) {
 
@@ -40,6 +61,30 @@ public class DefaultScheduledDateGenerator implements ScheduledDateGenerator {
         return lastRepaymentDate;
     }
 
+    private static LocalDate getNewRepaymentMeetingDate(final String recurringRule, final LocalDate seedDate,
+            final LocalDate oldRepaymentDate, final Integer loanRepaymentInterval, final String frequency, final WorkingDays workingDays) {
+        final StringBuilder key = new StringBuilder().append(recurringRule).append('|').append(seedDate).append('|').append(oldRepaymentDate)
+                .append('|').append(loanRepaymentInterval).append('|').append(frequency);
+        if (workingDays != null) {
+            key.append('|').append(workingDays.getRecurrence()).append('|').append(workingDays.getRepaymentReschedulingType())
+                    .append('|').append(workingDays.getExtendTermForDailyRepayments());
+        }
+        final String meetingDateKey = key.toString();
+
+        synchronized (meetingDates) {
+            final LocalDate meetingDate = meetingDates.get(meetingDateKey);
+            if (meetingDate != null) { return meetingDate; }
+        }
+        final LocalDate meetingDate = CalendarUtils.getNewRepaymentMeetingDate(recurringRule, seedDate, oldRepaymentDate,
+                loanRepaymentInterval, frequency, workingDays);
+        if (meetingDate != null) {
+            synchronized (meetingDates) {
+                meetingDates.put(meetingDateKey, meetingDate);
+            }
+        }
+        return meetingDate;
+    }
+
     @Override
     public LocalDate generateNextRepaymentDate(final LocalDate lastRepaymentDate, final LoanApplicationTerms loanApplicationTerms,
             boolean isFirstRepayment, final HolidayDetailDTO holidayDetailDTO) {
@@ -59,7 +104,7 @@ public class DefaultScheduledDateGenerator implements ScheduledDateGenerator {
                 // repayment
                 LocalDate seedDate = currentCalendar.getStartDateLocalDate();
                 String reccuringString = currentCalendar.getRecurrence();
-                dueRepaymentPeriodDate = CalendarUtils.getNewRepaymentMeetingDate(reccuringString, seedDate, dueRepaymentPeriodDate,
+                dueRepaymentPeriodDate = getNewRepaymentMeetingDate(reccuringString, seedDate, dueRepaymentPeriodDate,
                         loanApplicationTerms.getRepaymentEvery(),
                         CalendarUtils.getMeetingFrequencyFromPeriodFrequencyType(loanApplicationTerms.getLoanTermPeriodFrequencyType()),
                         holidayDetailDTO.getWorkingDays());
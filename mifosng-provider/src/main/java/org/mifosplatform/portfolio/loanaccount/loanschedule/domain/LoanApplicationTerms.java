@@ -1259,4 +1259,51 @@ public final class LoanApplicationTerms {
         return this.loanTermVariations;
     }
 
-}
\ No newline at end of file
+    /**
+     * Appends every term the schedule generators read, so two terms with the
+     * same canonical form generate the same schedule. Must be called before
+     * generating, which adjusts some of the terms.
+     */
+    void appendCanonicalForm(final LoanScheduleCacheKey.Builder key) {
+        key.append("currency", this.currency.getCode()).append(this.currency.getDecimalPlaces())
+                .append(this.currency.getCurrencyInMultiplesOf());
+        key.append("calendar", this.loanCalendar);
+        key.append("term", this.loanTermFrequency).append(this.loanTermPeriodFrequencyType);
+        key.append("repayments", this.numberOfRepayments).append(this.repaymentEvery).append(this.repaymentPeriodFrequencyType)
+                .append(this.nthDay).append(this.weekDayType);
+        key.append("methods", this.amortizationMethod).append(this.interestMethod).append(this.interestCalculationPeriodMethod);
+        key.append("rate", this.interestRatePerPeriod).append(this.interestRatePeriodFrequencyType).append(this.annualNominalInterestRate);
+        key.append("principal", this.principal).append(this.approvedPrincipal);
+        key.append("dates", this.expectedDisbursementDate).append(this.repaymentsStartingFromDate)
+                .append(this.calculatedRepaymentsStartingFromDate).append(this.interestChargedFromDate).append(this.loanEndDate);
+        key.append("grace", this.principalGrace).append(this.interestPaymentGrace).append(this.interestChargingGrace)
+                .append(this.graceOnArrearsAgeing);
+        key.append("arrears", this.inArrearsTolerance);
+        key.append("multiDisburse", this.multiDisburseLoan);
+        if (this.disbursementDatas != null) {
+            for (final DisbursementData disbursementData : this.disbursementDatas) {
+                key.append("disbursement", disbursementData.disbursementDate()).append(disbursementData.amount())
+                        .append(disbursementData.getChargeAmount()).append(disbursementData.isDisbursed());
+            }
+        }
+        key.append("emi", this.fixedEmiAmount).append(this.fixedPrincipalAmount).append(this.actualFixedEmiAmount)
+                .append(this.maxOutstandingBalance).append(this.totalInterestDue);
+        appendTermVariations(key, "emiVariation", this.emiAmountVariations);
+        appendTermVariations(key, "termVariation", this.loanTermVariations);
+        key.append("days", this.daysInMonthType).append(this.daysInYearType);
+        key.append("recalculation", this.interestRecalculationEnabled).append(this.rescheduleStrategyMethod)
+                .append(this.interestRecalculationCompoundingMethod).append(this.recalculationFrequencyType)
+                .append(this.compoundingFrequencyType).append(this.preClosureInterestCalculationStrategy);
+        key.append("restCalendar", this.restCalendarInstance == null ? null : this.restCalendarInstance.getCalendar());
+        key.append("compoundingCalendar", this.compoundingCalendarInstance == null ? null : this.compoundingCalendarInstance.getCalendar());
+        key.append("lastInstalment", this.principalThresholdForLastInstalment).append(this.installmentAmountInMultiplesOf);
+    }
+
+    private static void appendTermVariations(final LoanScheduleCacheKey.Builder key, final String name,
+            final Collection<LoanTermVariationsData> variations) {
+        if (variations == null) { return; }
+        for (final LoanTermVariationsData variation : variations) {
+            key.append(name, variation.getTermVariationType()).append(variation.getTermApplicableFrom()).append(variation.getTermValue());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.loanschedule.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.joda.time.LocalDate;
+import org.mifosplatform.infrastructure.core.service.DateUtils;
+import org.mifosplatform.organisation.holiday.domain.Holiday;
+import org.mifosplatform.organisation.monetary.domain.Money;
+import org.mifosplatform.organisation.workingdays.domain.WorkingDays;
+import org.mifosplatform.portfolio.calendar.domain.Calendar;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanCharge;
+
+/**
+ * Hash of everything a {@link LoanScheduleGenerator} reads when generating a
+ * schedule: the loan terms, charges, holidays, working days and the current
+ * date of the tenant. Two requests with the same key generate the same
+ * schedule, and any change to a holiday or to the working days changes the
+ * key, so cached schedules never need to be invalidated.
+ */
+public final class LoanScheduleCacheKey {
+
+    private static final char SEPARATOR = '|';
+
+    public static String of(final LoanApplicationTerms loanApplicationTerms, final Collection<LoanCharge> loanCharges,
+            final boolean isHolidayEnabled, final Collection<Holiday> holidays, final WorkingDays workingDays,
+            final RoundingMode roundingMode) {
+        final Builder key = new Builder();
+        loanApplicationTerms.appendCanonicalForm(key);
+        if (loanCharges != null) {
+            final List<String> charges = new ArrayList<>(loanCharges.size());
+            for (final LoanCharge loanCharge : loanCharges) {
+                charges.add(new Builder().append("charge", loanCharge.getCharge().getId()).append(loanCharge.isPenaltyCharge())
+                        .append(loanCharge.isDueAtDisbursement()).append(loanCharge.isSpecifiedDueDate())
+                        .append(loanCharge.isInstalmentFee()).append(loanCharge.isOverdueInstallmentCharge())
+                        .append(loanCharge.getChargeCalculation()).append(loanCharge.getChargePaymentMode())
+                        .append(loanCharge.amountOrPercentage()).append(loanCharge.amount()).append(loanCharge.getPercentage())
+                        .append(loanCharge.getDueLocalDate()).append(loanCharge.getMinCap()).append(loanCharge.getMaxCap())
+                        .append(loanCharge.getAmountPercentageAppliedTo()).toString());
+            }
+            key.appendUnordered(charges);
+        }
+        key.append("holidaysEnabled", isHolidayEnabled);
+        if (holidays != null) {
+            final List<String> holidayDates = new ArrayList<>(holidays.size());
+            for (final Holiday holiday : holidays) {
+                holidayDates.add(new Builder().append("holiday", holiday.getId()).append(holiday.getFromDateLocalDate())
+                        .append(holiday.getToDateLocalDate()).append(holiday.getRepaymentsRescheduledToLocalDate()).toString());
+            }
+            key.appendUnordered(holidayDates);
+        }
+        if (workingDays != null) {
+            key.append("workingDays", workingDays.getRecurrence()).append(workingDays.getRepaymentReschedulingType())
+                    .append(workingDays.getExtendTermForDailyRepayments());
+        }
+        key.append("rounding", roundingMode);
+        // generators compare disbursement and compounding dates with today
+        key.append("tenantDate", DateUtils.getLocalDateOfTenant());
+        return key.digest();
+    }
+
+    private LoanScheduleCacheKey() {
+        //
+    }
+
+    /**
+     * Writes values in a form that does not depend on object identity or
+     * scale, e.g. <code>100.00</code> and <code>100</code> are the same amount.
+     */
+    static final class Builder {
+
+        private final StringBuilder canonicalForm = new StringBuilder(512);
+
+        Builder append(final String name, final Object value) {
+            this.canonicalForm.append(SEPARATOR).append(name).append('=');
+            return append(value);
+        }
+
+        Builder append(final Object value) {
+            if (value == null) {
+                this.canonicalForm.append('~');
+            } else if (value instanceof BigDecimal) {
+                this.canonicalForm.append(((BigDecimal) value).stripTrailingZeros().toPlainString());
+            } else if (value instanceof Money) {
+                final Money money = (Money) value;
+                this.canonicalForm.append(money.getCurrencyCode()).append(' ');
+                append(money.getAmount());
+            } else if (value instanceof Calendar) {
+                final Calendar calendar = (Calendar) value;
+                this.canonicalForm.append(calendar.getId()).append(' ').append(calendar.getRecurrence()).append(' ')
+                        .append(calendar.getStartDateLocalDate());
+            } else if (value instanceof Date) {
+                this.canonicalForm.append(new LocalDate(value));
+            } else {
+                this.canonicalForm.append(value);
+            }
+            this.canonicalForm.append(',');
+            return this;
+        }
+
+        /**
+         * Appends parts whose order carries no meaning, such as the charges of
+         * a loan, sorted so the key does not depend on iteration order.
+         */
+        Builder appendUnordered(final List<String> parts) {
+            Collections.sort(parts);
+            for (final String part : parts) {
+                this.canonicalForm.append(part);
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return this.canonicalForm.toString();
+        }
+
+        String digest() {
+            try {
+                final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                return DatatypeConverter.printHexBinary(digest.digest(this.canonicalForm.toString().getBytes(StandardCharsets.UTF_8)));
+            } catch (final NoSuchAlgorithmException e) {
+                // every JVM is required to provide SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -66,6 +66,7 @@ import org.mifosplatform.portfolio.loanaccount.exception.LoanApplicationDateExce
 import org.mifosplatform.portfolio.loanaccount.exception.MinDaysBetweenDisbursalAndFirstRepaymentViolationException;
 import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.AprCalculator;
 import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanApplicationTerms;
+import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleCacheKey;
 import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleGenerator;
 import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleGeneratorFactory;
 import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleModel;
@@ -105,6 +106,7 @@ public class LoanScheduleAssembler {
     private final GroupRepositoryWrapper groupRepository;
     private final WorkingDaysRepositoryWrapper workingDaysRepository;
     private final FloatingRatesReadPlatformService floatingRatesReadPlatformService;
+    private final LoanSchedulePreviewCache loanSchedulePreviewCache;
 
     @Autowired
     public LoanScheduleAssembler(final FromJsonHelper fromApiJsonHelper, final LoanProductRepository loanProductRepository,
@@ -114,7 +116,8 @@ public class LoanScheduleAssembler {
             final HolidayRepository holidayRepository, final ConfigurationDomainService configurationDomainService,
             final ClientRepositoryWrapper clientRepository, final GroupRepositoryWrapper groupRepository,
             final WorkingDaysRepositoryWrapper workingDaysRepository,
-            final FloatingRatesReadPlatformService floatingRatesReadPlatformService) {
+            final FloatingRatesReadPlatformService floatingRatesReadPlatformService,
+            final LoanSchedulePreviewCache loanSchedulePreviewCache) {
         this.fromApiJsonHelper = fromApiJsonHelper;
         this.loanProductRepository = loanProductRepository;
         this.applicationCurrencyRepository = applicationCurrencyRepository;
@@ -128,6 +131,7 @@ public class LoanScheduleAssembler {
         this.groupRepository = groupRepository;
         this.workingDaysRepository = workingDaysRepository;
         this.floatingRatesReadPlatformService = floatingRatesReadPlatformService;
+        this.loanSchedulePreviewCache = loanSchedulePreviewCache;
     }
 
     public LoanApplicationTerms assembleLoanTerms(final JsonElement element) {
@@ -445,6 +449,19 @@ public class LoanScheduleAssembler {
     }
 
     public LoanScheduleModel assembleLoanScheduleFrom(final JsonElement element) {
+        return assembleLoanScheduleFrom(element, false);
+    }
+
+    /**
+     * Same as {@link #assembleLoanScheduleFrom(JsonElement)} but reuses a
+     * schedule generated earlier for identical terms, charges, holidays and
+     * working days. The returned model is shared so must only be read.
+     */
+    public LoanScheduleModel assembleLoanSchedulePreviewFrom(final JsonElement element) {
+        return assembleLoanScheduleFrom(element, true);
+    }
+
+    private LoanScheduleModel assembleLoanScheduleFrom(final JsonElement element, final boolean isPreview) {
         // This method is getting called from calculate loan schedule.
         final LoanApplicationTerms loanApplicationTerms = assembleLoanTerms(element);
         // Get holiday details
@@ -472,7 +489,18 @@ public class LoanScheduleAssembler {
         validateDisbursementDateIsOnNonWorkingDay(loanApplicationTerms.getExpectedDisbursementDate(), workingDays);
         validateDisbursementDateIsOnHoliday(loanApplicationTerms.getExpectedDisbursementDate(), isHolidayEnabled, holidays);
 
-        return assembleLoanScheduleFrom(loanApplicationTerms, isHolidayEnabled, holidays, workingDays, element, null);
+        if (!isPreview) { return assembleLoanScheduleFrom(loanApplicationTerms, isHolidayEnabled, holidays, workingDays, element, null); }
+
+        final Set<LoanCharge> loanCharges = this.loanChargeAssembler.fromParsedJson(element, null);
+        // generating adjusts the terms, so the key is taken first
+        final String scheduleKey = LoanScheduleCacheKey.of(loanApplicationTerms, loanCharges, isHolidayEnabled, holidays, workingDays,
+                MoneyHelper.getRoundingMode());
+        LoanScheduleModel loanScheduleModel = this.loanSchedulePreviewCache.get(scheduleKey);
+        if (loanScheduleModel == null) {
+            loanScheduleModel = generateLoanSchedule(loanApplicationTerms, loanCharges, isHolidayEnabled, holidays, workingDays);
+            this.loanSchedulePreviewCache.put(scheduleKey, loanScheduleModel);
+        }
+        return loanScheduleModel;
     }
 
     public LoanScheduleModel assembleLoanScheduleFrom(final LoanApplicationTerms loanApplicationTerms, final boolean isHolidayEnabled,
@@ -480,6 +508,11 @@ public class LoanScheduleAssembler {
             Set<LoanDisbursementDetails> disbursementDetails) {
 
         final Set<LoanCharge> loanCharges = this.loanChargeAssembler.fromParsedJson(element, disbursementDetails);
+        return generateLoanSchedule(loanApplicationTerms, loanCharges, isHolidayEnabled, holidays, workingDays);
+    }
+
+    private LoanScheduleModel generateLoanSchedule(final LoanApplicationTerms loanApplicationTerms, final Set<LoanCharge> loanCharges,
+            final boolean isHolidayEnabled, final List<Holiday> holidays, final WorkingDays workingDays) {
 
         final LoanScheduleGenerator loanScheduleGenerator = this.loanScheduleFactory.create(loanApplicationTerms.getInterestMethod());
 
@@ -13,5 +13,11 @@ public interface LoanScheduleCalculationPlatformService {
 
     LoanScheduleModel calculateLoanSchedule(JsonQuery query, Boolean validateParams);
 
+    /**
+     * Validates and calculates a schedule for display only; the model may be
+     * shared with other requests for the same terms.
+     */
+    LoanScheduleModel calculateLoanSchedulePreview(JsonQuery query);
+
     void updateFutureSchedule(LoanScheduleData loanScheduleData, Long loanId);
 }
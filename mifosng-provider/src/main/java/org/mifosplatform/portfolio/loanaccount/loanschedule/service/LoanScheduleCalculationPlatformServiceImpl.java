@@ -49,6 +49,7 @@ import org.mifosplatform.portfolio.loanproduct.exception.LoanProductNotFoundExce
 import org.mifosplatform.portfolio.loanproduct.serialization.LoanProductDataValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class LoanScheduleCalculationPlatformServiceImpl implements LoanScheduleCalculationPlatformService {
@@ -96,6 +97,17 @@ public class LoanScheduleCalculationPlatformServiceImpl implements LoanScheduleC
 
     @Override
     public LoanScheduleModel calculateLoanSchedule(final JsonQuery query, Boolean validateParams) {
+        validateScheduleQuery(query, validateParams);
+        return this.loanScheduleAssembler.assembleLoanScheduleFrom(query.parsedJson());
+    }
+
+    @Override
+    public LoanScheduleModel calculateLoanSchedulePreview(final JsonQuery query) {
+        validateScheduleQuery(query, true);
+        return this.loanScheduleAssembler.assembleLoanSchedulePreviewFrom(query.parsedJson());
+    }
+
+    private void validateScheduleQuery(final JsonQuery query, final Boolean validateParams) {
 
         /***
          * TODO: Vishwas, this is probably not required, test and remove the
@@ -129,10 +141,9 @@ public class LoanScheduleCalculationPlatformServiceImpl implements LoanScheduleC
             this.loanProductCommandFromApiJsonDeserializer.validateMinMaxConstraints(query.parsedJson(), baseDataValidator, loanProduct);
         }
         if (!dataValidationErrors.isEmpty()) { throw new PlatformApiDataValidationException(dataValidationErrors); }
-
-        return this.loanScheduleAssembler.assembleLoanScheduleFrom(query.parsedJson());
     }
 
+    @Transactional(readOnly = true)
     @Override
     public void updateFutureSchedule(LoanScheduleData loanScheduleData, final Long loanId) {
 
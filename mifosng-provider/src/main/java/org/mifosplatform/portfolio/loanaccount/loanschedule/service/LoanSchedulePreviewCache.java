@@ -0,0 +1,60 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.loanschedule.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleCacheKey;
+import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Least recently used schedules generated for the
+ * <code>calculateLoanSchedule</code> preview, keyed per tenant on
+ * {@link LoanScheduleCacheKey}. Loan officers tend to preview the same few
+ * product configurations over and over while filling in an application.
+ */
+@Component
+public class LoanSchedulePreviewCache {
+
+    private final Map<String, LoanScheduleModel> schedules;
+
+    @Autowired
+    public LoanSchedulePreviewCache(@Value("${mifos.loan.schedule.preview.cache.size:1000}") final int maximumSize) {
+        this.schedules = new LinkedHashMap<String, LoanScheduleModel>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, LoanScheduleModel> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    public LoanScheduleModel get(final String scheduleKey) {
+        synchronized (this.schedules) {
+            return this.schedules.get(tenantScoped(scheduleKey));
+        }
+    }
+
+    public void put(final String scheduleKey, final LoanScheduleModel loanScheduleModel) {
+        synchronized (this.schedules) {
+            this.schedules.put(tenantScoped(scheduleKey), loanScheduleModel);
+        }
+    }
+
+    private static String tenantScoped(final String scheduleKey) {
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final String tenantIdentifier = tenant == null ? "" : tenant.getTenantIdentifier();
+        return tenantIdentifier + ":" + scheduleKey;
+    }
+}
@@ -51,8 +51,10 @@ import org.mifosplatform.portfolio.loanaccount.rescheduleloan.RescheduleLoansApi
 import org.mifosplatform.portfolio.loanaccount.rescheduleloan.data.LoanRescheduleRequestDataValidator;
 import org.mifosplatform.portfolio.loanaccount.rescheduleloan.domain.*;
 import org.mifosplatform.portfolio.loanaccount.rescheduleloan.exception.LoanRescheduleRequestNotFoundException;
+import org.mifosplatform.portfolio.loanaccount.service.LoanArrearsAgingService;
 import org.mifosplatform.portfolio.loanaccount.service.LoanAssembler;
 import org.mifosplatform.portfolio.loanaccount.service.LoanChargeReadPlatformService;
+import org.mifosplatform.portfolio.loanaccount.service.LoanSummaryRefreshService;
 import org.mifosplatform.portfolio.loanproduct.domain.InterestMethod;
 import org.mifosplatform.portfolio.loanproduct.domain.LoanProductMinimumRepaymentScheduleRelatedDetail;
 import org.mifosplatform.useradministration.domain.AppUser;
@@ -88,6 +90,8 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
     private final LoanRepository loanRepository;
     private final LoanAssembler loanAssembler;
     private final FloatingRatesReadPlatformService floatingRatesReadPlatformService;
+    private final LoanSummaryRefreshService loanSummaryRefreshService;
+    private final LoanArrearsAgingService loanArrearsAgingService;
 
     /**
      * LoanRescheduleRequestWritePlatformServiceImpl constructor
@@ -107,7 +111,8 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
             final LoanChargeReadPlatformService loanChargeReadPlatformService, final LoanScheduleGeneratorFactory loanScheduleFactory,
             final LoanTransactionRepository loanTransactionRepository,
             final JournalEntryWritePlatformService journalEntryWritePlatformService, final LoanRepository loanRepository,
-            final LoanAssembler loanAssembler, final FloatingRatesReadPlatformService floatingRatesReadPlatformService) {
+            final LoanAssembler loanAssembler, final FloatingRatesReadPlatformService floatingRatesReadPlatformService,
+            final LoanSummaryRefreshService loanSummaryRefreshService, final LoanArrearsAgingService loanArrearsAgingService) {
         this.loanRepositoryWrapper = loanRepositoryWrapper;
         this.codeValueRepositoryWrapper = codeValueRepositoryWrapper;
         this.platformSecurityContext = platformSecurityContext;
@@ -128,6 +133,8 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
         this.loanRepository = loanRepository;
         this.loanAssembler = loanAssembler;
         this.floatingRatesReadPlatformService = floatingRatesReadPlatformService;
+        this.loanSummaryRefreshService = loanSummaryRefreshService;
+        this.loanArrearsAgingService = loanArrearsAgingService;
     }
 
     /**
@@ -402,6 +409,9 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
                 loan.updateLoanScheduleDependentDerivedFields();
                 // update the loan object
                 this.loanRepository.save(loan);
+                // rescheduling does not raise a business event
+                this.loanSummaryRefreshService.markLoanDirty(loan.getId());
+                this.loanArrearsAgingService.markLoanChanged(loan.getId());
             }
 
             return new CommandProcessingResultBuilder().withCommandId(jsonCommand.commandId()).withEntityId(loanRescheduleRequestId)
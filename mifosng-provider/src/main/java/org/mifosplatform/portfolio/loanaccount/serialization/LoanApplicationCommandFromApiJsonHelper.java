@@ -370,7 +370,6 @@ public final class LoanApplicationCommandFromApiJsonHelper {
             final Locale locale = this.fromApiJsonHelper.extractLocaleParameter(topLevelJsonElement);
 
             if (topLevelJsonElement.get(chargesParameterName).isJsonArray()) {
-                final Type arrayObjectParameterTypeOfMap = new TypeToken<Map<String, Object>>() {}.getType();
                 final Set<String> supportedParameters = new HashSet<>(Arrays.asList("id", "chargeId", "amount", "chargeTimeType",
                         "chargeCalculationType", "dueDate"));
 
@@ -378,9 +377,7 @@ public final class LoanApplicationCommandFromApiJsonHelper {
                 for (int i = 1; i <= array.size(); i++) {
 
                     final JsonObject loanChargeElement = array.get(i - 1).getAsJsonObject();
-                    final String arrayObjectJson = this.fromApiJsonHelper.toJson(loanChargeElement);
-                    this.fromApiJsonHelper.checkForUnsupportedParameters(arrayObjectParameterTypeOfMap, arrayObjectJson,
-                            supportedParameters);
+                    this.fromApiJsonHelper.checkForUnsupportedParameters(loanChargeElement, supportedParameters);
 
                     final Long chargeId = this.fromApiJsonHelper.extractLongNamed("chargeId", loanChargeElement);
                     baseDataValidator.reset().parameter("charges").parameterAtIndexArray("chargeId", i).value(chargeId).notNull()
@@ -402,14 +399,12 @@ public final class LoanApplicationCommandFromApiJsonHelper {
             final Locale locale = this.fromApiJsonHelper.extractLocaleParameter(topLevelJsonElement);
             if (topLevelJsonElement.get("collateral").isJsonArray()) {
 
-                final Type collateralParameterTypeOfMap = new TypeToken<Map<String, Object>>() {}.getType();
                 final Set<String> supportedParameters = new HashSet<>(Arrays.asList("id", "type", "value", "description"));
                 final JsonArray array = topLevelJsonElement.get("collateral").getAsJsonArray();
                 for (int i = 1; i <= array.size(); i++) {
                     final JsonObject collateralItemElement = array.get(i - 1).getAsJsonObject();
 
-                    final String collateralJson = this.fromApiJsonHelper.toJson(collateralItemElement);
-                    this.fromApiJsonHelper.checkForUnsupportedParameters(collateralParameterTypeOfMap, collateralJson, supportedParameters);
+                    this.fromApiJsonHelper.checkForUnsupportedParameters(collateralItemElement, supportedParameters);
 
                     final Long collateralTypeId = this.fromApiJsonHelper.extractLongNamed("type", collateralItemElement);
                     baseDataValidator.reset().parameter("collateral").parameterAtIndexArray("type", i).value(collateralTypeId).notNull()
@@ -765,7 +760,6 @@ public final class LoanApplicationCommandFromApiJsonHelper {
             final Locale locale = this.fromApiJsonHelper.extractLocaleParameter(topLevelJsonElement);
 
             if (topLevelJsonElement.get(chargesParameterName).isJsonArray()) {
-                final Type arrayObjectParameterTypeOfMap = new TypeToken<Map<String, Object>>() {}.getType();
                 final Set<String> supportedParameters = new HashSet<>(Arrays.asList("id", "chargeId", "amount", "chargeTimeType",
                         "chargeCalculationType", "dueDate"));
 
@@ -773,9 +767,7 @@ public final class LoanApplicationCommandFromApiJsonHelper {
                 for (int i = 1; i <= array.size(); i++) {
 
                     final JsonObject loanChargeElement = array.get(i - 1).getAsJsonObject();
-                    final String arrayObjectJson = this.fromApiJsonHelper.toJson(loanChargeElement);
-                    this.fromApiJsonHelper.checkForUnsupportedParameters(arrayObjectParameterTypeOfMap, arrayObjectJson,
-                            supportedParameters);
+                    this.fromApiJsonHelper.checkForUnsupportedParameters(loanChargeElement, supportedParameters);
 
                     final Long chargeId = this.fromApiJsonHelper.extractLongNamed("chargeId", loanChargeElement);
                     baseDataValidator.reset().parameter("charges").parameterAtIndexArray("chargeId", i).value(chargeId).notNull()
@@ -797,14 +789,12 @@ public final class LoanApplicationCommandFromApiJsonHelper {
             final Locale locale = this.fromApiJsonHelper.extractLocaleParameter(topLevelJsonElement);
             if (topLevelJsonElement.get("collateral").isJsonArray()) {
 
-                final Type collateralParameterTypeOfMap = new TypeToken<Map<String, Object>>() {}.getType();
                 final Set<String> supportedParameters = new HashSet<>(Arrays.asList("id", "type", "value", "description"));
                 final JsonArray array = topLevelJsonElement.get("collateral").getAsJsonArray();
                 for (int i = 1; i <= array.size(); i++) {
                     final JsonObject collateralItemElement = array.get(i - 1).getAsJsonObject();
 
-                    final String collateralJson = this.fromApiJsonHelper.toJson(collateralItemElement);
-                    this.fromApiJsonHelper.checkForUnsupportedParameters(collateralParameterTypeOfMap, collateralJson, supportedParameters);
+                    this.fromApiJsonHelper.checkForUnsupportedParameters(collateralItemElement, supportedParameters);
 
                     final Long collateralTypeId = this.fromApiJsonHelper.extractLongNamed("type", collateralItemElement);
                     baseDataValidator.reset().parameter("collateral").parameterAtIndexArray("type", i).value(collateralTypeId).notNull()
@@ -8,12 +8,17 @@ package org.mifosplatform.portfolio.loanaccount.service;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.joda.time.LocalDate;
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.mifosplatform.infrastructure.jobs.annotation.CronTarget;
 import org.mifosplatform.infrastructure.jobs.exception.JobExecutionException;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkProcessor;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkReader;
 import org.mifosplatform.infrastructure.jobs.service.JobName;
+import org.mifosplatform.infrastructure.jobs.service.PartitionedJobRunner;
 import org.mifosplatform.portfolio.loanaccount.data.LoanScheduleAccrualData;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -23,17 +28,26 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
 
     private final LoanReadPlatformService loanReadPlatformService;
     private final LoanAccrualWritePlatformService loanAccrualWritePlatformService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final PartitionedJobRunner partitionedJobRunner;
 
     @Autowired
     public LoanAccrualPlatformServiceImpl(final LoanReadPlatformService loanReadPlatformService,
-            final LoanAccrualWritePlatformService loanAccrualWritePlatformService) {
+            final LoanAccrualWritePlatformService loanAccrualWritePlatformService,
+            final ConfigurationDomainService configurationDomainService, final PartitionedJobRunner partitionedJobRunner) {
         this.loanReadPlatformService = loanReadPlatformService;
         this.loanAccrualWritePlatformService = loanAccrualWritePlatformService;
+        this.configurationDomainService = configurationDomainService;
+        this.partitionedJobRunner = partitionedJobRunner;
     }
 
     @Override
     @CronTarget(jobName = JobName.ADD_ACCRUAL_ENTRIES)
     public void addAccrualAccounting() throws JobExecutionException {
+        if (this.configurationDomainService.isJobPartitioningEnabled()) {
+            addAccrualAccountingInPartitions();
+            return;
+        }
         Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas = this.loanReadPlatformService.retriveScheduleAccrualData();
         StringBuilder sb = new StringBuilder();
         Map<Long, Collection<LoanScheduleAccrualData>> loanDataMap = new HashMap<>();
@@ -65,6 +79,10 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
     @Override
     @CronTarget(jobName = JobName.ADD_PERIODIC_ACCRUAL_ENTRIES)
     public void addPeriodicAccruals() throws JobExecutionException {
+        if (this.configurationDomainService.isJobPartitioningEnabled()) {
+            addPeriodicAccrualsInPartitions(LocalDate.now());
+            return;
+        }
         String errors = addPeriodicAccruals(LocalDate.now());
         if (errors.length() > 0) { throw new JobExecutionException(errors); }
     }
@@ -104,4 +122,101 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
         return sb.toString();
     }
 
+    /**
+     * Streams the ids of loans with accruable installments and hands each
+     * chunk to the partitioned job runner; accrual rows are only read for the
+     * loans of the chunk being processed.
+     */
+    private void addAccrualAccountingInPartitions() throws JobExecutionException {
+        final JobChunkReader reader = new JobChunkReader() {
+
+            @Override
+            public List<Long> readIdsAfter(final Long afterId, final int limit) {
+                return LoanAccrualPlatformServiceImpl.this.loanReadPlatformService.retrieveLoanIdsForScheduleAccrual(afterId, limit);
+            }
+        };
+
+        final JobChunkProcessor processor = new JobChunkProcessor() {
+
+            @Override
+            public void process(final List<Long> ids) {
+                final Collection<LoanScheduleAccrualData> accrualDatas = LoanAccrualPlatformServiceImpl.this.loanReadPlatformService
+                        .retriveScheduleAccrualData(ids);
+                for (final Collection<LoanScheduleAccrualData> loanAccrualDatas : groupByLoan(accrualDatas)) {
+                    try {
+                        LoanAccrualPlatformServiceImpl.this.loanAccrualWritePlatformService.addAccrualAccounting(loanAccrualDatas
+                                .iterator().next().getLoanId(), loanAccrualDatas);
+                    } catch (final RuntimeException e) {
+                        throw e;
+                    } catch (final Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        };
+
+        final List<String> errors = this.partitionedJobRunner.run(JobName.ADD_ACCRUAL_ENTRIES, reader, processor);
+        if (!errors.isEmpty()) { throw new JobExecutionException(joinErrors(errors)); }
+    }
+
+    private void addPeriodicAccrualsInPartitions(final LocalDate tilldate) throws JobExecutionException {
+        final JobChunkReader reader = new JobChunkReader() {
+
+            @Override
+            public List<Long> readIdsAfter(final Long afterId, final int limit) {
+                return LoanAccrualPlatformServiceImpl.this.loanReadPlatformService.retrieveLoanIdsForPeriodicAccrual(tilldate, afterId,
+                        limit);
+            }
+        };
+
+        final JobChunkProcessor processor = new JobChunkProcessor() {
+
+            @Override
+            public void process(final List<Long> ids) {
+                final Collection<LoanScheduleAccrualData> accrualDatas = LoanAccrualPlatformServiceImpl.this.loanReadPlatformService
+                        .retrivePeriodicAccrualData(tilldate, ids);
+                for (final Collection<LoanScheduleAccrualData> loanAccrualDatas : groupByLoan(accrualDatas)) {
+                    try {
+                        LoanAccrualPlatformServiceImpl.this.loanAccrualWritePlatformService.addPeriodicAccruals(tilldate, loanAccrualDatas
+                                .iterator().next().getLoanId(), loanAccrualDatas);
+                    } catch (final RuntimeException e) {
+                        throw e;
+                    } catch (final Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        };
+
+        final List<String> errors = this.partitionedJobRunner.run(JobName.ADD_PERIODIC_ACCRUAL_ENTRIES, reader, processor);
+        if (!errors.isEmpty()) { throw new JobExecutionException(joinErrors(errors)); }
+    }
+
+    /**
+     * Splits accrual rows ordered by loan id into one collection per loan
+     * without building an index over the whole result.
+     */
+    private static Collection<Collection<LoanScheduleAccrualData>> groupByLoan(final Collection<LoanScheduleAccrualData> accrualDatas) {
+        final Collection<Collection<LoanScheduleAccrualData>> loanAccrualDatas = new ArrayList<>();
+        Collection<LoanScheduleAccrualData> currentLoanAccrualDatas = null;
+        Long currentLoanId = null;
+        for (final LoanScheduleAccrualData accrualData : accrualDatas) {
+            if (currentLoanAccrualDatas == null || !accrualData.getLoanId().equals(currentLoanId)) {
+                currentLoanAccrualDatas = new ArrayList<>();
+                currentLoanId = accrualData.getLoanId();
+                loanAccrualDatas.add(currentLoanAccrualDatas);
+            }
+            currentLoanAccrualDatas.add(accrualData);
+        }
+        return loanAccrualDatas;
+    }
+
+    private static String joinErrors(final List<String> errors) {
+        final StringBuilder sb = new StringBuilder();
+        for (final String error : errors) {
+            sb.append(error);
+        }
+        return sb.toString();
+    }
+
 }
@@ -15,4 +15,10 @@ public interface LoanArrearsAgingService {
 
     void updateLoanArrearsAgeingDetails(Loan loan);
 
+    /**
+     * Records the loan for the next incremental arrears ageing run as part of
+     * the current transaction, for write paths that raise no business event.
+     */
+    void markLoanChanged(Long loanId);
+
 }
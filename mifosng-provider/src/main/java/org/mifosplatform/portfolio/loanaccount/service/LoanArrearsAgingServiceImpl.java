@@ -9,15 +9,20 @@ import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import javax.annotation.PostConstruct;
 
+import org.apache.commons.lang.StringUtils;
 import org.joda.time.LocalDate;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.mifosplatform.infrastructure.core.domain.JdbcSupport;
 import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
 import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
@@ -40,6 +45,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -47,14 +54,26 @@ import org.springframework.transaction.annotation.Transactional;
 public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, BusinessEventListner {
 
     private final static Logger logger = LoggerFactory.getLogger(ScheduledJobRunnerServiceImpl.class);
+    private final static int INCREMENTAL_CHUNK_SIZE = 500;
+    private final static String UPSERT_SQL = "INSERT INTO m_loan_arrears_aging(`loan_id`,`principal_overdue_derived`,`interest_overdue_derived`,"
+            + "`fee_charges_overdue_derived`,`penalty_charges_overdue_derived`,`total_overdue_derived`,`overdue_since_date_derived`) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE principal_overdue_derived = VALUES(principal_overdue_derived), "
+            + "interest_overdue_derived = VALUES(interest_overdue_derived), fee_charges_overdue_derived = VALUES(fee_charges_overdue_derived), "
+            + "penalty_charges_overdue_derived = VALUES(penalty_charges_overdue_derived), total_overdue_derived = VALUES(total_overdue_derived), "
+            + "overdue_since_date_derived = VALUES(overdue_since_date_derived)";
     private final BusinessEventNotifierService businessEventNotifierService;
+    private final ConfigurationDomainService configurationDomainService;
     private final DateTimeFormatter formatter = DateTimeFormat.forPattern("yyyy-MM-dd");
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     @Autowired
-    public LoanArrearsAgingServiceImpl(final RoutingDataSource dataSource, final BusinessEventNotifierService businessEventNotifierService) {
+    public LoanArrearsAgingServiceImpl(final RoutingDataSource dataSource, final BusinessEventNotifierService businessEventNotifierService,
+            final ConfigurationDomainService configurationDomainService) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
         this.businessEventNotifierService = businessEventNotifierService;
+        this.configurationDomainService = configurationDomainService;
     }
 
     @PostConstruct
@@ -69,19 +88,145 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_CHARGE_PAYMENT, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_APPLY_OVERDUE_CHARGE, this);
         this.businessEventNotifierService.addBusinessEventPostListners(BUSINESS_EVENTS.LOAN_DISBURSAL, new DisbursementEventListner());
+
+        final BusinessEventListner changeListner = new ArrearsChangeListner();
+        final BUSINESS_EVENTS[] changeEvents = { BUSINESS_EVENTS.LOAN_DISBURSAL, BUSINESS_EVENTS.LOAN_UNDO_DISBURSAL,
+                BUSINESS_EVENTS.LOAN_MAKE_REPAYMENT, BUSINESS_EVENTS.LOAN_UNDO_TRANSACTION, BUSINESS_EVENTS.LOAN_ADJUST_TRANSACTION,
+                BUSINESS_EVENTS.LOAN_REFUND, BUSINESS_EVENTS.LOAN_WAIVE_INTEREST, BUSINESS_EVENTS.LOAN_WRITTEN_OFF,
+                BUSINESS_EVENTS.LOAN_UNDO_WRITTEN_OFF, BUSINESS_EVENTS.LOAN_CLOSE, BUSINESS_EVENTS.LOAN_CLOSE_AS_RESCHEDULE,
+                BUSINESS_EVENTS.LOAN_ADD_CHARGE, BUSINESS_EVENTS.LOAN_UPDATE_CHARGE, BUSINESS_EVENTS.LOAN_DELETE_CHARGE,
+                BUSINESS_EVENTS.LOAN_WAIVE_CHARGE, BUSINESS_EVENTS.LOAN_CHARGE_PAYMENT, BUSINESS_EVENTS.LOAN_APPLY_OVERDUE_CHARGE,
+                BUSINESS_EVENTS.LOAN_INTEREST_RECALCULATION };
+        for (final BUSINESS_EVENTS changeEvent : changeEvents) {
+            this.businessEventNotifierService.addBusinessEventPostListners(changeEvent, changeListner);
+        }
     }
 
     @Transactional
     @Override
     @CronTarget(jobName = JobName.UPDATE_LOAN_ARREARS_AGEING)
     public void updateLoanArrearsAgeingDetails() {
+        if (this.configurationDomainService.isIncrementalArrearsAgeingEnabled()) {
+            updateChangedLoanArrearsAgeingDetails();
+            return;
+        }
 
+        // changes are not tracked while rebuilding, the next incremental run
+        // starts over from all loans
+        this.jdbcTemplate.update("delete from m_loan_arrears_aging_change");
+        this.jdbcTemplate.update("delete from m_loan_arrears_aging_run");
         this.jdbcTemplate.execute("truncate table m_loan_arrears_aging");
 
-        final StringBuilder updateSqlBuilder = new StringBuilder(900);
+        final String insertSql = "INSERT INTO m_loan_arrears_aging(`loan_id`,`principal_overdue_derived`,`interest_overdue_derived`,`fee_charges_overdue_derived`,`penalty_charges_overdue_derived`,`total_overdue_derived`,`overdue_since_date_derived`)"
+                + arrearsSql("");
 
-        updateSqlBuilder
-                .append("INSERT INTO m_loan_arrears_aging(`loan_id`,`principal_overdue_derived`,`interest_overdue_derived`,`fee_charges_overdue_derived`,`penalty_charges_overdue_derived`,`total_overdue_derived`,`overdue_since_date_derived`)");
+        List<String> insertStatements = updateLoanArrearsAgeingDetailsWithOriginalSchedule();
+        insertStatements.add(0, insertSql);
+        final int[] results = this.jdbcTemplate.batchUpdate(insertStatements.toArray(new String[0]));
+        int result = 0;
+        for (int i : results) {
+            result += i;
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Results affected by update: " + result);
+    }
+
+    /**
+     * Recomputes the loans changed since the last run and the loans with an
+     * installment that became overdue since then, upserting their rows so the
+     * table is never empty while the job runs. The first run covers every
+     * loan in arrears.
+     */
+    private void updateChangedLoanArrearsAgeingDetails() {
+        final Long lastChangeId = this.jdbcTemplate.queryForObject("select max(id) from m_loan_arrears_aging_change", Long.class);
+        final List<Date> lastRunDates = this.jdbcTemplate.queryForList("select last_run_date from m_loan_arrears_aging_run where id = 1",
+                Date.class);
+        final String overdueLoansSql = "select distinct mr.loan_id from m_loan ml INNER JOIN %s mr on mr.loan_id = ml.id "
+                + " WHERE ml.loan_status_id = 300 and mr.duedate < SUBDATE(CURDATE(),INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) ";
+
+        final Set<Long> loanIds = new TreeSet<>();
+        if (lastRunDates.isEmpty()) {
+            loanIds.addAll(this.jdbcTemplate.queryForList(String.format(overdueLoansSql, "m_loan_repayment_schedule")
+                    + " and mr.completed_derived is false ", Long.class));
+            loanIds.addAll(this.jdbcTemplate.queryForList(String.format(overdueLoansSql, "m_loan_repayment_schedule_history"), Long.class));
+            loanIds.addAll(this.jdbcTemplate.queryForList("select loan_id from m_loan_arrears_aging", Long.class));
+        } else {
+            final Date lastRunDate = lastRunDates.get(0);
+            if (lastChangeId != null) {
+                loanIds.addAll(this.jdbcTemplate.queryForList("select distinct loan_id from m_loan_arrears_aging_change where id <= ?",
+                        Long.class, lastChangeId));
+            }
+            // installments that were not yet past the grace period on the last
+            // run, for original schedules the history is checked as well
+            final String crossedDueDateSql = " and mr.duedate >= SUBDATE(?,INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) ";
+            loanIds.addAll(this.jdbcTemplate.queryForList(String.format(overdueLoansSql, "m_loan_repayment_schedule")
+                    + " and mr.completed_derived is false " + crossedDueDateSql, Long.class, lastRunDate));
+            loanIds.addAll(this.jdbcTemplate.queryForList(String.format(overdueLoansSql, "m_loan_repayment_schedule_history")
+                    + crossedDueDateSql, Long.class, lastRunDate));
+        }
+
+        int result = 0;
+        final List<Long> loanIdList = new ArrayList<>(loanIds);
+        for (int from = 0; from < loanIdList.size(); from += INCREMENTAL_CHUNK_SIZE) {
+            result += updateLoanArrearsAgeingDetails(loanIdList.subList(from, Math.min(from + INCREMENTAL_CHUNK_SIZE, loanIdList.size())));
+        }
+
+        if (lastChangeId != null) {
+            this.jdbcTemplate.update("delete from m_loan_arrears_aging_change where id <= ?", lastChangeId);
+        }
+        this.jdbcTemplate.update("INSERT INTO m_loan_arrears_aging_run(`id`,`last_run_date`) VALUES (1, CURDATE()) "
+                + "ON DUPLICATE KEY UPDATE last_run_date = CURDATE()");
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Loans recomputed by incremental update: " + loanIds.size()
+                + ", results affected: " + result);
+    }
+
+    private int updateLoanArrearsAgeingDetails(final List<Long> loanIds) {
+        final String loanCriteria = " and ml.id IN (" + StringUtils.join(loanIds, ',') + ") ";
+        final List<LoanArrears> arrears = this.jdbcTemplate.query(arrearsSql(loanCriteria), new RowMapper<LoanArrears>() {
+
+            @Override
+            public LoanArrears mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+                return new LoanArrears(rs.getLong("loanId"), rs.getBigDecimal("principal_overdue_derived"),
+                        rs.getBigDecimal("interest_overdue_derived"), rs.getBigDecimal("fee_charges_overdue_derived"),
+                        rs.getBigDecimal("penalty_charges_overdue_derived"), JdbcSupport.getLocalDate(rs, "overdue_since_date_derived"));
+            }
+        });
+        arrears.addAll(retrieveArrearsBasedOnOriginalSchedule(loanCriteria));
+
+        final List<Object[]> upserts = new ArrayList<>(arrears.size());
+        final List<Long> agedLoanIds = new ArrayList<>(arrears.size());
+        for (final LoanArrears loanArrears : arrears) {
+            upserts.add(new Object[] { loanArrears.loanId, loanArrears.principalOverdue, loanArrears.interestOverdue,
+                    loanArrears.feeOverdue, loanArrears.penaltyOverdue, loanArrears.totalOverdue(),
+                    this.formatter.print(loanArrears.overDueSince) });
+            agedLoanIds.add(loanArrears.loanId);
+        }
+
+        int result = 0;
+        if (!upserts.isEmpty()) {
+            for (final int updated : this.jdbcTemplate.batchUpdate(UPSERT_SQL, upserts)) {
+                result += updated;
+            }
+        }
+
+        final Map<String, Object> paramMap = new HashMap<>(2);
+        paramMap.put("loanIds", loanIds);
+        String deleteSql = "delete from m_loan_arrears_aging where loan_id in (:loanIds)";
+        if (!agedLoanIds.isEmpty()) {
+            paramMap.put("agedLoanIds", agedLoanIds);
+            deleteSql += " and loan_id not in (:agedLoanIds)";
+        }
+        result += this.namedParameterJdbcTemplate.update(deleteSql, paramMap);
+        return result;
+    }
+
+    /**
+     * Overdue amounts of active loans whose arrears are not based on the
+     * original schedule, one row per loan
+     */
+    private static String arrearsSql(final String loanCriteria) {
+        final StringBuilder updateSqlBuilder = new StringBuilder(900);
         updateSqlBuilder.append("select ml.id as loanId,");
         updateSqlBuilder
                 .append("SUM((ifnull(mr.principal_amount,0) - ifnull(mr.principal_completed_derived, 0))) as principal_overdue_derived,");
@@ -104,17 +249,9 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         updateSqlBuilder.append(" and mr.completed_derived is false ");
         updateSqlBuilder.append(" and mr.duedate < SUBDATE(CURDATE(),INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) ");
         updateSqlBuilder.append(" and (prd.arrears_based_on_original_schedule = 0 or prd.arrears_based_on_original_schedule is null) ");
+        updateSqlBuilder.append(loanCriteria);
         updateSqlBuilder.append(" GROUP BY ml.id");
-
-        List<String> insertStatements = updateLoanArrearsAgeingDetailsWithOriginalSchedule();
-        insertStatements.add(0, updateSqlBuilder.toString());
-        final int[] results = this.jdbcTemplate.batchUpdate(insertStatements.toArray(new String[0]));
-        int result = 0;
-        for (int i : results) {
-            result += i;
-        }
-
-        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Results affected by update: " + result);
+        return updateSqlBuilder.toString();
     }
 
     @Override
@@ -186,14 +323,22 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
 
     private List<String> updateLoanArrearsAgeingDetailsWithOriginalSchedule() {
         List<String> insertStatement = new ArrayList<>();
+        for (final LoanArrears loanArrears : retrieveArrearsBasedOnOriginalSchedule("")) {
+            insertStatement.add(constructInsertStatement(loanArrears.loanId, loanArrears.principalOverdue, loanArrears.interestOverdue,
+                    loanArrears.feeOverdue, loanArrears.penaltyOverdue, loanArrears.overDueSince));
+        }
+        return insertStatement;
+    }
 
+    private List<LoanArrears> retrieveArrearsBasedOnOriginalSchedule(final String loanCriteria) {
         final StringBuilder loanIdentifier = new StringBuilder();
         loanIdentifier.append("select ml.id as loanId FROM m_loan ml  ");
         loanIdentifier.append("INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
         loanIdentifier
                 .append("inner join m_product_loan_recalculation_details prd on prd.product_id = ml.product_id and prd.arrears_based_on_original_schedule = 1  ");
         loanIdentifier
-                .append("WHERE ml.loan_status_id = 300  and mr.completed_derived is false  and mr.duedate < SUBDATE(CURDATE(),INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) group by ml.id");
+                .append("WHERE ml.loan_status_id = 300  and mr.completed_derived is false  and mr.duedate < SUBDATE(CURDATE(),INTERVAL  ifnull(ml.grace_on_arrears_ageing,0) day) ");
+        loanIdentifier.append(loanCriteria).append(" group by ml.id");
         List<Long> loanIds = this.jdbcTemplate.queryForList(loanIdentifier.toString(), Long.class);
         if (!loanIds.isEmpty()) {
             String loanIdsAsString = loanIds.toString();
@@ -204,11 +349,10 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
 
             List<Map<String, Object>> loanSummary = getLoanSummary(loanIdsAsString);
             updateSchheduleWithPaidDetail(scheduleDate, loanSummary);
-            createInsertStatements(insertStatement, scheduleDate, true);
+            return arrearsOf(scheduleDate);
         }
 
-        return insertStatement;
-
+        return new ArrayList<>();
     }
 
     private List<Map<String, Object>> getLoanSummary(final String loanIdsAsString) {
@@ -247,6 +391,21 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
 
     private void createInsertStatements(List<String> insertStatement, Map<Long, List<LoanSchedulePeriodData>> scheduleDate,
             boolean isInsertStatement) {
+        for (final LoanArrears loanArrears : arrearsOf(scheduleDate)) {
+            String sqlStatement = null;
+            if (isInsertStatement) {
+                sqlStatement = constructInsertStatement(loanArrears.loanId, loanArrears.principalOverdue, loanArrears.interestOverdue,
+                        loanArrears.feeOverdue, loanArrears.penaltyOverdue, loanArrears.overDueSince);
+            } else {
+                sqlStatement = constructUpdateStatement(loanArrears.loanId, loanArrears.principalOverdue, loanArrears.interestOverdue,
+                        loanArrears.feeOverdue, loanArrears.penaltyOverdue, loanArrears.overDueSince);
+            }
+            insertStatement.add(sqlStatement);
+        }
+    }
+
+    private static List<LoanArrears> arrearsOf(final Map<Long, List<LoanSchedulePeriodData>> scheduleDate) {
+        final List<LoanArrears> arrears = new ArrayList<>(scheduleDate.size());
         for (Map.Entry<Long, List<LoanSchedulePeriodData>> entry : scheduleDate.entrySet()) {
             final Long loanId = entry.getKey();
             BigDecimal principalOverdue = BigDecimal.ZERO;
@@ -272,18 +431,10 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
                 }
             }
             if (principalOverdue.compareTo(BigDecimal.ZERO) == 1) {
-                String sqlStatement = null;
-                if (isInsertStatement) {
-                    sqlStatement = constructInsertStatement(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue,
-                            overDueSince);
-                } else {
-                    sqlStatement = constructUpdateStatement(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue,
-                            overDueSince);
-                }
-                insertStatement.add(sqlStatement);
+                arrears.add(new LoanArrears(loanId, principalOverdue, interestOverdue, feeOverdue, penaltyOverdue, overDueSince));
             }
-
         }
+        return arrears;
     }
 
     private String constructInsertStatement(final Long loanId, BigDecimal principalOverdue, BigDecimal interestOverdue,
@@ -455,6 +606,16 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
 
     @Override
     public void businessEventWasExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+        Loan loan = loanOf(businessEventEntity);
+        if (loan != null && loan.isOpen() && loan.repaymentScheduleDetail().isInterestRecalculationEnabled()
+                && loan.loanProduct().isArrearsBasedOnOriginalSchedule()) {
+            updateLoanArrearsAgeingDetailsWithOriginalSchedule(loan);
+        } else {
+            updateLoanArrearsAgeingDetails(loan);
+        }
+    }
+
+    private static Loan loanOf(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
         Loan loan = null;
         Object loanEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN);
         Object loanTransactionEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTION);
@@ -472,12 +633,7 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
             LoanCharge loanCharge = (LoanCharge) loanChargeEntity;
             loan = loanCharge.getLoan();
         }
-        if (loan != null && loan.isOpen() && loan.repaymentScheduleDetail().isInterestRecalculationEnabled()
-                && loan.loanProduct().isArrearsBasedOnOriginalSchedule()) {
-            updateLoanArrearsAgeingDetailsWithOriginalSchedule(loan);
-        } else {
-            updateLoanArrearsAgeingDetails(loan);
-        }
+        return loan;
     }
 
     private class DisbursementEventListner implements BusinessEventListner {
@@ -500,4 +656,56 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService, Bus
         }
 
     }
+
+    @Override
+    public void markLoanChanged(final Long loanId) {
+        if (this.configurationDomainService.isIncrementalArrearsAgeingEnabled()) {
+            this.jdbcTemplate.update("insert into m_loan_arrears_aging_change (loan_id) values (?)", loanId);
+        }
+    }
+
+    /**
+     * Records loans changed by a business event in the same transaction as the
+     * change, for the incremental run of the arrears ageing job.
+     */
+    private class ArrearsChangeListner implements BusinessEventListner {
+
+        @SuppressWarnings("unused")
+        @Override
+        public void businessEventToBeExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+            // nothing to record before the change
+        }
+
+        @Override
+        public void businessEventWasExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+            final Loan loan = loanOf(businessEventEntity);
+            if (loan != null) {
+                markLoanChanged(loan.getId());
+            }
+        }
+    }
+
+    private static final class LoanArrears {
+
+        private final Long loanId;
+        private final BigDecimal principalOverdue;
+        private final BigDecimal interestOverdue;
+        private final BigDecimal feeOverdue;
+        private final BigDecimal penaltyOverdue;
+        private final LocalDate overDueSince;
+
+        LoanArrears(final Long loanId, final BigDecimal principalOverdue, final BigDecimal interestOverdue, final BigDecimal feeOverdue,
+                final BigDecimal penaltyOverdue, final LocalDate overDueSince) {
+            this.loanId = loanId;
+            this.principalOverdue = principalOverdue;
+            this.interestOverdue = interestOverdue;
+            this.feeOverdue = feeOverdue;
+            this.penaltyOverdue = penaltyOverdue;
+            this.overDueSince = overDueSince;
+        }
+
+        BigDecimal totalOverdue() {
+            return this.principalOverdue.add(this.interestOverdue).add(this.feeOverdue).add(this.penaltyOverdue);
+        }
+    }
 }
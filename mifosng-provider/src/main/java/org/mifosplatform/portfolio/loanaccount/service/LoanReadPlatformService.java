@@ -8,6 +8,7 @@ package org.mifosplatform.portfolio.loanaccount.service;
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import org.joda.time.LocalDate;
 import org.mifosplatform.infrastructure.core.service.Page;
@@ -78,6 +79,14 @@ public interface LoanReadPlatformService {
      */
     Collection<OverdueLoanScheduleData> retrieveAllLoansWithOverdueInstallments(final Long penaltyWaitPeriod);
 
+    List<Long> retrieveLoanIdsWithOverdueInstallments(Long penaltyWaitPeriod, Long afterLoanId, int limit);
+
+    /**
+     * Same as {@link #retrieveAllLoansWithOverdueInstallments(Long)} for the
+     * given loans only, ordered by loan and installment.
+     */
+    Collection<OverdueLoanScheduleData> retrieveOverdueInstallments(Long penaltyWaitPeriod, Collection<Long> loanIds);
+
     Integer retriveLoanCounter(Long groupId, Integer loanType, Long productId);
 
     Integer retriveLoanCounter(Long clientId, Long productId);
@@ -96,6 +105,14 @@ public interface LoanReadPlatformService {
 
     Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(LocalDate tillDate);
 
+    List<Long> retrieveLoanIdsForScheduleAccrual(Long afterLoanId, int limit);
+
+    Collection<LoanScheduleAccrualData> retriveScheduleAccrualData(Collection<Long> loanIds);
+
+    List<Long> retrieveLoanIdsForPeriodicAccrual(LocalDate tillDate, Long afterLoanId, int limit);
+
+    Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(LocalDate tillDate, Collection<Long> loanIds);
+
     Collection<Long> fetchLoansForInterestRecalculation();
 
     LoanTransactionData retrieveLoanPrePaymentTemplate(Long loanId, LocalDate onDate);
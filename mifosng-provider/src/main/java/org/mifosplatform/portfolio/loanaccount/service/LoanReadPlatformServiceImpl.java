@@ -119,6 +119,7 @@ import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 @Service
@@ -263,7 +264,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         final String hierarchySearchString = hierarchy + "%";
 
         final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(searchParameters.isKeysetPaged() ? "select " : "select SQL_CALC_FOUND_ROWS ");
         sqlBuilder.append(this.loaanLoanMapper.loanSchema());
 
         // TODO - for time being this will data scope list of loans returned to
@@ -298,6 +299,9 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
             arrayPos = arrayPos + 1;
         }
 
+        if (searchParameters.isKeysetPaged()) { return this.paginationHelper.fetchKeysetPage(this.jdbcTemplate, sqlBuilder.toString(),
+                " and ", "l.id", Arrays.copyOf(extraCriterias.toArray(), arrayPos), searchParameters, this.loaanLoanMapper); }
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -383,6 +387,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         return loanDetails;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveLoanTransactionTemplate(final Long loanId) {
 
@@ -413,6 +418,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
                 paymentOptions, null, null, null, outstandingLoanBalance, false);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveLoanPrePaymentTemplate(final Long loanId, LocalDate onDate) {
 
@@ -459,6 +465,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
                 paymentOptions, null, null, null, outstandingLoanBalance, false);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveWaiveInterestDetails(final Long loanId) {
 
@@ -498,6 +505,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanApprovalData retrieveApprovalTemplate(final Long loanId) {
 
@@ -508,6 +516,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveDisbursalTemplate(final Long loanId, boolean paymentDetailsRequired) {
         final Loan loan = this.loanRepository.findOne(loanId);
@@ -525,6 +534,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveLoanTransaction(final Long loanId, final Long transactionId) {
 
@@ -1466,12 +1476,37 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
     @Override
     public Collection<OverdueLoanScheduleData> retrieveAllLoansWithOverdueInstallments(final Long penaltyWaitPeriod) {
         final MusoniOverdueLoanScheduleMapper rm = new MusoniOverdueLoanScheduleMapper();
-        final String sql = "select " + rm.schema() + " where DATE_SUB(CURDATE(),INTERVAL ? DAY) > ls.duedate "
-                + " and ls.completed_derived <> 1 and mc.charge_applies_to_enum =1 "
-                + " and mc.charge_time_enum = 9 and ml.loan_status_id = 300 ";
+        final String sql = "select " + rm.schema() + overdueInstallmentCriteria();
         return this.jdbcTemplate.query(sql, rm, new Object[] { penaltyWaitPeriod });
     }
 
+    @Override
+    public List<Long> retrieveLoanIdsWithOverdueInstallments(final Long penaltyWaitPeriod, final Long afterLoanId, final int limit) {
+        final String sql = "select distinct ls.loan_id from m_loan_repayment_schedule ls inner join m_loan ml on ml.id = ls.loan_id "
+                + " join m_product_loan_charge plc on plc.product_loan_id = ml.product_id join m_charge mc on mc.id = plc.charge_id "
+                + overdueInstallmentCriteria() + " and ls.loan_id > ? order by ls.loan_id limit ?";
+        return this.jdbcTemplate.queryForList(sql, Long.class, penaltyWaitPeriod, afterLoanId, limit);
+    }
+
+    @Override
+    public Collection<OverdueLoanScheduleData> retrieveOverdueInstallments(final Long penaltyWaitPeriod, final Collection<Long> loanIds) {
+        final MusoniOverdueLoanScheduleMapper rm = new MusoniOverdueLoanScheduleMapper();
+        final String sql = "select " + rm.schema() + overdueInstallmentCriteria().replace("?", ":penaltyWaitPeriod")
+                + " and ls.loan_id in (:loanIds) order by ls.loan_id, ls.installment";
+        final Map<String, Object> paramMap = new HashMap<>(2);
+        paramMap.put("penaltyWaitPeriod", penaltyWaitPeriod);
+        paramMap.put("loanIds", loanIds);
+        return this.namedParameterJdbcTemplate.query(sql, paramMap, rm);
+    }
+
+    /**
+     * Takes the penalty wait period in days as its only parameter
+     */
+    private static String overdueInstallmentCriteria() {
+        return " where DATE_SUB(CURDATE(),INTERVAL ? DAY) > ls.duedate " + " and ls.completed_derived <> 1 and mc.charge_applies_to_enum =1 "
+                + " and mc.charge_time_enum = 9 and ml.loan_status_id = 300 ";
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public Integer retriveLoanCounter(final Long groupId, final Integer loanType, Long productId) {
@@ -1556,16 +1591,54 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
     public Collection<LoanScheduleAccrualData> retriveScheduleAccrualData() {
 
         LoanScheduleAccrualMapper mapper = new LoanScheduleAccrualMapper();
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(mapper.schema()).append(scheduleAccrualCriteria()).append(" order by loan.id,ls.duedate");
+        Map<String, Object> paramMap = new HashMap<>(2);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+    }
+
+    @Override
+    public List<Long> retrieveLoanIdsForScheduleAccrual(final Long afterLoanId, final int limit) {
+
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select distinct loan.id from m_loan_repayment_schedule ls ").append(" join m_loan loan on loan.id=ls.loan_id ")
+                .append(" join m_product_loan mpl on mpl.id = loan.product_id").append(scheduleAccrualCriteria())
+                .append(" and loan.id > :afterLoanId order by loan.id limit :limit");
+        Map<String, Object> paramMap = new HashMap<>(4);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("afterLoanId", afterLoanId);
+        paramMap.put("limit", limit);
+
+        return this.namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), paramMap, Long.class);
+    }
+
+    @Override
+    public Collection<LoanScheduleAccrualData> retriveScheduleAccrualData(final Collection<Long> loanIds) {
+
+        LoanScheduleAccrualMapper mapper = new LoanScheduleAccrualMapper();
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(mapper.schema()).append(scheduleAccrualCriteria())
+                .append(" and loan.id in (:loanIds) order by loan.id,ls.duedate");
+        Map<String, Object> paramMap = new HashMap<>(3);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("loanIds", loanIds);
+
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+    }
+
+    private static String scheduleAccrualCriteria() {
         final StringBuilder sqlBuilder = new StringBuilder(400);
         sqlBuilder
-                .append("select ")
-                .append(mapper.schema())
                 .append(" where ((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))")
                 .append(" or ( ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))")
                 .append(" or ( ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))")
-                .append("  and loan.loan_status_id=? and mpl.accounting_type=? and loan.is_npa=0 and ls.duedate <= CURDATE() order by loan.id,ls.duedate");
-        return this.jdbcTemplate.query(sqlBuilder.toString(), mapper, new Object[] { LoanStatus.ACTIVE.getValue(),
-                AccountingRuleType.ACCRUAL_PERIODIC.getValue() });
+                .append("  and loan.loan_status_id=:active and mpl.accounting_type=:type and loan.is_npa=0 and ls.duedate <= CURDATE()");
+        return sqlBuilder.toString();
     }
 
     @Override
@@ -1573,13 +1646,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
         LoanSchedulePeriodicAccrualMapper mapper = new LoanSchedulePeriodicAccrualMapper();
         final StringBuilder sqlBuilder = new StringBuilder(400);
-        sqlBuilder
-                .append("select ")
-                .append(mapper.schema())
-                .append(" where ((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))")
-                .append(" or (ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))")
-                .append(" or (ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))")
-                .append("  and loan.loan_status_id=:active and mpl.accounting_type=:type and loan.is_npa=0 and (ls.duedate <= :tilldate or (ls.duedate > :tilldate and ls.fromdate < :tilldate)) order by loan.id,ls.duedate");
+        sqlBuilder.append("select ").append(mapper.schema()).append(periodicAccrualCriteria()).append(" order by loan.id,ls.duedate");
         Map<String, Object> paramMap = new HashMap<>(3);
         paramMap.put("active", LoanStatus.ACTIVE.getValue());
         paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
@@ -1588,6 +1655,49 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
     }
 
+    @Override
+    public List<Long> retrieveLoanIdsForPeriodicAccrual(final LocalDate tillDate, final Long afterLoanId, final int limit) {
+
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select distinct loan.id from m_loan_repayment_schedule ls ").append(" join m_loan loan on loan.id=ls.loan_id ")
+                .append(" join m_product_loan mpl on mpl.id = loan.product_id").append(periodicAccrualCriteria())
+                .append(" and loan.id > :afterLoanId order by loan.id limit :limit");
+        Map<String, Object> paramMap = new HashMap<>(5);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("tilldate", formatter.print(tillDate));
+        paramMap.put("afterLoanId", afterLoanId);
+        paramMap.put("limit", limit);
+
+        return this.namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), paramMap, Long.class);
+    }
+
+    @Override
+    public Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(final LocalDate tillDate, final Collection<Long> loanIds) {
+
+        LoanSchedulePeriodicAccrualMapper mapper = new LoanSchedulePeriodicAccrualMapper();
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(mapper.schema()).append(periodicAccrualCriteria())
+                .append(" and loan.id in (:loanIds) order by loan.id,ls.duedate");
+        Map<String, Object> paramMap = new HashMap<>(4);
+        paramMap.put("active", LoanStatus.ACTIVE.getValue());
+        paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
+        paramMap.put("tilldate", formatter.print(tillDate));
+        paramMap.put("loanIds", loanIds);
+
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+    }
+
+    private static String periodicAccrualCriteria() {
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder
+                .append(" where ((ls.fee_charges_amount <> if(ls.accrual_fee_charges_derived is null,0, ls.accrual_fee_charges_derived))")
+                .append(" or (ls.penalty_charges_amount <> if(ls.accrual_penalty_charges_derived is null,0,ls.accrual_penalty_charges_derived))")
+                .append(" or (ls.interest_amount <> if(ls.accrual_interest_derived is null,0,ls.accrual_interest_derived)))")
+                .append("  and loan.loan_status_id=:active and mpl.accounting_type=:type and loan.is_npa=0 and (ls.duedate <= :tilldate or (ls.duedate > :tilldate and ls.fromdate < :tilldate))");
+        return sqlBuilder.toString();
+    }
+
     private static final class LoanSchedulePeriodicAccrualMapper implements RowMapper<LoanScheduleAccrualData> {
 
         public String schema() {
@@ -1709,6 +1819,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveRecoveryPaymentTemplate(Long loanId) {
         final Loan loan = this.loanRepository.findOne(loanId);
@@ -1939,6 +2050,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         }
     }
 
+    @Transactional(readOnly = true)
     @Override
     public LoanTransactionData retrieveRefundByCashTemplate(Long loanId) {
         // TODO Auto-generated method stub
@@ -1977,6 +2089,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         return floatingRateDTO;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public Collection<InterestRatePeriodData> retrieveLoanInterestRatePeriodData(Long loanId) {
         this.context.authenticatedUser();
@@ -7,17 +7,26 @@ package org.mifosplatform.portfolio.loanaccount.service;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.mifosplatform.accounting.journalentry.service.JournalEntryBatchWriter;
 import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.mifosplatform.infrastructure.core.data.ApiParameterError;
 import org.mifosplatform.infrastructure.core.exception.AbstractPlatformDomainRuleException;
 import org.mifosplatform.infrastructure.core.exception.PlatformApiDataValidationException;
 import org.mifosplatform.infrastructure.jobs.annotation.CronTarget;
 import org.mifosplatform.infrastructure.jobs.exception.JobExecutionException;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkProcessor;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkReader;
 import org.mifosplatform.infrastructure.jobs.service.JobName;
+import org.mifosplatform.infrastructure.jobs.service.PartitionedJobRunner;
+import org.mifosplatform.portfolio.charge.domain.Charge;
+import org.mifosplatform.portfolio.charge.domain.ChargeRepositoryWrapper;
 import org.mifosplatform.portfolio.floatingrates.service.FloatingRatesReadPlatformService;
 import org.mifosplatform.portfolio.loanaccount.loanschedule.data.OverdueLoanScheduleData;
 import org.slf4j.Logger;
@@ -33,15 +42,22 @@ public class LoanSchedularServiceImpl implements LoanSchedularService {
     private final LoanReadPlatformService loanReadPlatformService;
     private final LoanWritePlatformService loanWritePlatformService;
     private final FloatingRatesReadPlatformService floatingRatesReadPlatformService;
+    private final PartitionedJobRunner partitionedJobRunner;
+    private final ChargeRepositoryWrapper chargeRepository;
+    private final JournalEntryBatchWriter journalEntryWriter;
 
     @Autowired
     public LoanSchedularServiceImpl(final ConfigurationDomainService configurationDomainService,
             final LoanReadPlatformService loanReadPlatformService, final LoanWritePlatformService loanWritePlatformService,
-            final FloatingRatesReadPlatformService floatingRatesReadPlatformService) {
+            final FloatingRatesReadPlatformService floatingRatesReadPlatformService, final PartitionedJobRunner partitionedJobRunner,
+            final ChargeRepositoryWrapper chargeRepository, final JournalEntryBatchWriter journalEntryWriter) {
         this.configurationDomainService = configurationDomainService;
         this.loanReadPlatformService = loanReadPlatformService;
         this.loanWritePlatformService = loanWritePlatformService;
         this.floatingRatesReadPlatformService = floatingRatesReadPlatformService;
+        this.partitionedJobRunner = partitionedJobRunner;
+        this.chargeRepository = chargeRepository;
+        this.journalEntryWriter = journalEntryWriter;
     }
 
     @Override
@@ -49,6 +65,10 @@ public class LoanSchedularServiceImpl implements LoanSchedularService {
     public void applyChargeForOverdueLoans() throws JobExecutionException {
 
         final Long penaltyWaitPeriodValue = this.configurationDomainService.retrievePenaltyWaitPeriod();
+        if (this.configurationDomainService.isJobPartitioningEnabled()) {
+            applyChargeForOverdueLoansInPartitions(penaltyWaitPeriodValue);
+            return;
+        }
         final Collection<OverdueLoanScheduleData> overdueLoanScheduledInstallments = this.loanReadPlatformService
                 .retrieveAllLoansWithOverdueInstallments(penaltyWaitPeriodValue);
 
@@ -67,7 +87,10 @@ public class LoanSchedularServiceImpl implements LoanSchedularService {
 
             for (final Long loanId : overdueScheduleData.keySet()) {
                 try {
-                    this.loanWritePlatformService.applyOverdueChargesForLoan(loanId, overdueScheduleData.get(loanId));
+                    // every loan commits on its own, so charge definitions are
+                    // loaded in its transaction
+                    this.loanWritePlatformService.applyOverdueChargesForLoan(loanId, overdueScheduleData.get(loanId),
+                            Collections.<Long, Charge> emptyMap());
 
                 } catch (final PlatformApiDataValidationException e) {
                     final List<ApiParameterError> errors = e.getErrors();
@@ -97,6 +120,86 @@ public class LoanSchedularServiceImpl implements LoanSchedularService {
         }
     }
 
+    /**
+     * Streams the ids of loans with overdue installments and hands each chunk
+     * to the partitioned job runner. The overdue installments and the charge
+     * definitions they refer to are read in one query each per chunk, and the
+     * journal entries of all loans of the chunk are inserted in one JDBC
+     * batch. Every loan still goes through
+     * {@link LoanWritePlatformService#applyOverdueChargesForLoan(Long, Collection, Map)}
+     * so penalties and journal entries are the same as for the loan by loan
+     * run.
+     */
+    private void applyChargeForOverdueLoansInPartitions(final Long penaltyWaitPeriod) throws JobExecutionException {
+        final JobChunkReader reader = new JobChunkReader() {
+
+            @Override
+            public List<Long> readIdsAfter(final Long afterId, final int limit) {
+                return LoanSchedularServiceImpl.this.loanReadPlatformService.retrieveLoanIdsWithOverdueInstallments(penaltyWaitPeriod,
+                        afterId, limit);
+            }
+        };
+
+        final JobChunkProcessor processor = new JobChunkProcessor() {
+
+            @Override
+            public void process(final List<Long> ids) {
+                final Collection<OverdueLoanScheduleData> overdueInstallments = LoanSchedularServiceImpl.this.loanReadPlatformService
+                        .retrieveOverdueInstallments(penaltyWaitPeriod, ids);
+                final Map<Long, Charge> chargeDefinitions = LoanSchedularServiceImpl.this.chargeRepository
+                        .findActiveByIds(chargeIdsOf(overdueInstallments));
+
+                final JournalEntryBatchWriter journalEntryWriter = LoanSchedularServiceImpl.this.journalEntryWriter;
+                journalEntryWriter.startBatch();
+                try {
+                    for (final Collection<OverdueLoanScheduleData> loanOverdueInstallments : groupByLoan(overdueInstallments)) {
+                        LoanSchedularServiceImpl.this.loanWritePlatformService.applyOverdueChargesForLoan(loanOverdueInstallments
+                                .iterator().next().getLoanId(), loanOverdueInstallments, chargeDefinitions);
+                    }
+                    journalEntryWriter.writeBatch();
+                } finally {
+                    journalEntryWriter.endBatch();
+                }
+            }
+        };
+
+        final List<String> errors = this.partitionedJobRunner.run(JobName.APPLY_CHARGE_TO_OVERDUE_LOAN_INSTALLMENT, reader, processor);
+        if (!errors.isEmpty()) {
+            final StringBuilder sb = new StringBuilder();
+            for (final String error : errors) {
+                sb.append(error);
+            }
+            throw new JobExecutionException(sb.toString());
+        }
+    }
+
+    private static Set<Long> chargeIdsOf(final Collection<OverdueLoanScheduleData> overdueInstallments) {
+        final Set<Long> chargeIds = new HashSet<>();
+        for (final OverdueLoanScheduleData overdueInstallment : overdueInstallments) {
+            chargeIds.add(overdueInstallment.getChargeId());
+        }
+        return chargeIds;
+    }
+
+    /**
+     * Splits installments ordered by loan id into one collection per loan.
+     */
+    private static Collection<Collection<OverdueLoanScheduleData>> groupByLoan(
+            final Collection<OverdueLoanScheduleData> overdueInstallments) {
+        final Collection<Collection<OverdueLoanScheduleData>> loanOverdueInstallments = new ArrayList<>();
+        Collection<OverdueLoanScheduleData> currentLoanOverdueInstallments = null;
+        Long currentLoanId = null;
+        for (final OverdueLoanScheduleData overdueInstallment : overdueInstallments) {
+            if (currentLoanOverdueInstallments == null || !overdueInstallment.getLoanId().equals(currentLoanId)) {
+                currentLoanOverdueInstallments = new ArrayList<>();
+                currentLoanId = overdueInstallment.getLoanId();
+                loanOverdueInstallments.add(currentLoanOverdueInstallments);
+            }
+            currentLoanOverdueInstallments.add(overdueInstallment);
+        }
+        return loanOverdueInstallments;
+    }
+
     @Override
     @CronTarget(jobName = JobName.RECALCULATE_INTEREST_FOR_LOAN)
     public void recalculateInterest() {
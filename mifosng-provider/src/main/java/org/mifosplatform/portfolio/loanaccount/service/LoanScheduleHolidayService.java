@@ -0,0 +1,25 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.service;
+
+/**
+ * Moves the repayment schedules of loans out of holidays without loading the
+ * loans. Only the installments falling due within a holiday are updated, one
+ * office of the holiday at a time.
+ */
+public interface LoanScheduleHolidayService {
+
+    /**
+     * Applies the active holidays that are not processed yet to the submitted,
+     * approved and active loans of their offices. Each office is committed in
+     * its own transaction and recorded in
+     * <code>m_holiday_office_applied</code>, so a run that fails carries on
+     * with the remaining offices the next time.
+     * 
+     * @return number of installments moved
+     */
+    int applyUnprocessedHolidays();
+}
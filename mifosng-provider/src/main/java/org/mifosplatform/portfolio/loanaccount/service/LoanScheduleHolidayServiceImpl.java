@@ -0,0 +1,169 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.organisation.holiday.domain.HolidayStatusType;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanStatus;
+import org.mifosplatform.useradministration.domain.AppUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class LoanScheduleHolidayServiceImpl implements LoanScheduleHolidayService {
+
+    private final static Logger logger = LoggerFactory.getLogger(LoanScheduleHolidayServiceImpl.class);
+
+    /**
+     * Loans of the office, group loans belong to the office of the group and
+     * JLG loans are matched through either.
+     */
+    private final static String OFFICE_LOANS_JOIN = " join m_loan l on l.id = rs.loan_id"
+            + " left join m_client c on c.id = l.client_id left join m_group g on g.id = l.group_id";
+
+    private final static String INSTALLMENTS_DUE_IN_HOLIDAY_WHERE = " where rs.duedate between :fromDate and :toDate"
+            + " and l.loan_status_id in (:loanStatuses) and (c.office_id = :officeId or g.office_id = :officeId)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigurationDomainService configurationDomainService;
+    private final AuditorAware<AppUser> auditorAware;
+
+    @Autowired
+    public LoanScheduleHolidayServiceImpl(final RoutingDataSource dataSource, final TransactionTemplate transactionTemplate,
+            final ConfigurationDomainService configurationDomainService, final AuditorAware<AppUser> auditorAware) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.configurationDomainService = configurationDomainService;
+        this.auditorAware = auditorAware;
+    }
+
+    @Override
+    public int applyUnprocessedHolidays() {
+        int installmentsMoved = 0;
+        final HolidayMapper holidayMapper = new HolidayMapper();
+        final List<HolidayDates> holidays = this.jdbcTemplate.query("select " + holidayMapper.schema()
+                + " where h.status_enum = ? and h.processed = 0 order by h.id", holidayMapper, HolidayStatusType.ACTIVE.getValue());
+
+        for (final HolidayDates holiday : holidays) {
+            // offices already applied by an earlier run that failed are skipped
+            final List<Long> officeIds = this.jdbcTemplate.queryForList("select ho.office_id from m_holiday_office ho "
+                    + "where ho.holiday_id = ? and not exists (select 1 from m_holiday_office_applied hoa "
+                    + "where hoa.holiday_id = ho.holiday_id and hoa.office_id = ho.office_id) order by ho.office_id", Long.class,
+                    holiday.id);
+            for (final Long officeId : officeIds) {
+                installmentsMoved += applyHolidayToOffice(holiday, officeId);
+            }
+            markProcessed(holiday);
+        }
+
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Holidays applied: " + holidays.size() + ", installments moved: "
+                + installmentsMoved);
+        return installmentsMoved;
+    }
+
+    private int applyHolidayToOffice(final HolidayDates holiday, final Long officeId) {
+        return this.transactionTemplate.execute(new TransactionCallback<Integer>() {
+
+            @Override
+            public Integer doInTransaction(@SuppressWarnings("unused") final TransactionStatus status) {
+                final AppUser currentUser = LoanScheduleHolidayServiceImpl.this.auditorAware.getCurrentAuditor();
+                final Map<String, Object> paramMap = new HashMap<>(9);
+                paramMap.put("fromDate", holiday.fromDate);
+                paramMap.put("toDate", holiday.toDate);
+                paramMap.put("repaymentsRescheduledTo", holiday.repaymentsRescheduledTo);
+                paramMap.put("officeId", officeId);
+                paramMap.put("loanStatuses", Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
+                        LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue()));
+                paramMap.put("now", new Date());
+                paramMap.put("userId", currentUser == null ? null : currentUser.getId());
+
+                final NamedParameterJdbcTemplate template = LoanScheduleHolidayServiceImpl.this.namedParameterJdbcTemplate;
+                if (LoanScheduleHolidayServiceImpl.this.configurationDomainService.isIncrementalArrearsAgeingEnabled()) {
+                    template.update("insert into m_loan_arrears_aging_change (loan_id) select distinct rs.loan_id "
+                            + "from m_loan_repayment_schedule rs" + OFFICE_LOANS_JOIN + INSTALLMENTS_DUE_IN_HOLIDAY_WHERE, paramMap);
+                }
+                // the installment after a moved one starts on the new due date,
+                // so this has to run while the due dates are unchanged
+                template.update("update m_loan_repayment_schedule nrs join m_loan_repayment_schedule rs "
+                        + "on rs.loan_id = nrs.loan_id and rs.installment = nrs.installment - 1" + OFFICE_LOANS_JOIN
+                        + " set nrs.fromdate = :repaymentsRescheduledTo, nrs.lastmodified_date = :now, nrs.lastmodifiedby_id = :userId"
+                        + INSTALLMENTS_DUE_IN_HOLIDAY_WHERE, paramMap);
+                final int installmentsMoved = template.update("update m_loan_repayment_schedule rs" + OFFICE_LOANS_JOIN
+                        + " set rs.duedate = :repaymentsRescheduledTo, rs.lastmodified_date = :now, rs.lastmodifiedby_id = :userId"
+                        + INSTALLMENTS_DUE_IN_HOLIDAY_WHERE, paramMap);
+
+                paramMap.put("holidayId", holiday.id);
+                paramMap.put("installmentsMoved", installmentsMoved);
+                template.update("insert into m_holiday_office_applied (holiday_id, office_id, installments_moved, applied_date) "
+                        + "values (:holidayId, :officeId, :installmentsMoved, :now)", paramMap);
+                return installmentsMoved;
+            }
+        });
+    }
+
+    private void markProcessed(final HolidayDates holiday) {
+        this.transactionTemplate.execute(new TransactionCallback<Void>() {
+
+            @Override
+            public Void doInTransaction(@SuppressWarnings("unused") final TransactionStatus status) {
+                LoanScheduleHolidayServiceImpl.this.jdbcTemplate.update("update m_holiday set processed = 1 where id = ?", holiday.id);
+                LoanScheduleHolidayServiceImpl.this.jdbcTemplate.update("delete from m_holiday_office_applied where holiday_id = ?",
+                        holiday.id);
+                return null;
+            }
+        });
+    }
+
+    private static final class HolidayDates {
+
+        private final Long id;
+        private final Date fromDate;
+        private final Date toDate;
+        private final Date repaymentsRescheduledTo;
+
+        HolidayDates(final Long id, final Date fromDate, final Date toDate, final Date repaymentsRescheduledTo) {
+            this.id = id;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.repaymentsRescheduledTo = repaymentsRescheduledTo;
+        }
+    }
+
+    private static final class HolidayMapper implements RowMapper<HolidayDates> {
+
+        public String schema() {
+            return " h.id as id, h.from_date as fromDate, h.to_date as toDate, h.repayments_rescheduled_to as repaymentsRescheduledTo"
+                    + " from m_holiday h";
+        }
+
+        @Override
+        public HolidayDates mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            return new HolidayDates(rs.getLong("id"), rs.getDate("fromDate"), rs.getDate("toDate"), rs.getDate("repaymentsRescheduledTo"));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoanSummaryRefreshMetrics implements LoanSummaryRefreshMetricsMBean {
+
+    private final AtomicLong refreshedLoanCount = new AtomicLong();
+    private final AtomicLong lastRunRefreshedLoanCount = new AtomicLong();
+    private final AtomicLong lastRunDurationNanos = new AtomicLong();
+
+    public void recordRun(final long refreshedLoans, final long durationNanos) {
+        this.refreshedLoanCount.addAndGet(refreshedLoans);
+        this.lastRunRefreshedLoanCount.set(refreshedLoans);
+        this.lastRunDurationNanos.set(durationNanos);
+    }
+
+    @Override
+    public long getRefreshedLoanCount() {
+        return this.refreshedLoanCount.get();
+    }
+
+    @Override
+    public long getLastRunRefreshedLoanCount() {
+        return this.lastRunRefreshedLoanCount.get();
+    }
+
+    @Override
+    public long getLastRunDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.lastRunDurationNanos.get());
+    }
+}
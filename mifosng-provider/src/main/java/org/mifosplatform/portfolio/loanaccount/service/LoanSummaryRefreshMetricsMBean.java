@@ -0,0 +1,18 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.service;
+
+/**
+ * JMX view of the loan summary refresh done by the Update loan Summary job.
+ */
+public interface LoanSummaryRefreshMetricsMBean {
+
+    long getRefreshedLoanCount();
+
+    long getLastRunRefreshedLoanCount();
+
+    long getLastRunDurationMillis();
+}
@@ -0,0 +1,29 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.service;
+
+/**
+ * Keeps the derived summary columns of <code>m_loan</code> in step with the
+ * repayment schedule. Loan write paths mark the loans they change in
+ * <code>m_loan_summary_dirty</code> and only those loans are recomputed.
+ * Changes announced by a business event are marked by the listener, write
+ * paths without one call {@link #markLoanDirty(Long)} themselves.
+ */
+public interface LoanSummaryRefreshService {
+
+    /**
+     * Recomputes the summaries of loans marked since the last refresh in
+     * batches, each committed in its own transaction.
+     * 
+     * @return number of loans refreshed
+     */
+    int refreshDirtyLoanSummaries();
+
+    /**
+     * Marks the loan for the next refresh as part of the current transaction.
+     */
+    void markLoanDirty(Long loanId);
+}
@@ -0,0 +1,232 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.portfolio.common.BusinessEventNotificationConstants.BUSINESS_ENTITY;
+import org.mifosplatform.portfolio.common.BusinessEventNotificationConstants.BUSINESS_EVENTS;
+import org.mifosplatform.portfolio.common.service.BusinessEventListner;
+import org.mifosplatform.portfolio.common.service.BusinessEventNotifierService;
+import org.mifosplatform.portfolio.loanaccount.domain.Loan;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanCharge;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class LoanSummaryRefreshServiceImpl implements LoanSummaryRefreshService, BusinessEventListner {
+
+    private final static Logger logger = LoggerFactory.getLogger(LoanSummaryRefreshServiceImpl.class);
+    private final static String UPDATE_SUMMARY_SQL = updateSummarySql();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BusinessEventNotifierService businessEventNotifierService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final LoanSummaryRefreshMetrics metrics = new LoanSummaryRefreshMetrics();
+
+    @Autowired
+    public LoanSummaryRefreshServiceImpl(final RoutingDataSource dataSource, final TransactionTemplate transactionTemplate,
+            final BusinessEventNotifierService businessEventNotifierService, final ConfigurationDomainService configurationDomainService) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+        this.businessEventNotifierService = businessEventNotifierService;
+        this.configurationDomainService = configurationDomainService;
+    }
+
+    @PostConstruct
+    public void registerForNotification() {
+        final BUSINESS_EVENTS[] changeEvents = { BUSINESS_EVENTS.LOAN_DISBURSAL, BUSINESS_EVENTS.LOAN_UNDO_DISBURSAL,
+                BUSINESS_EVENTS.LOAN_MAKE_REPAYMENT, BUSINESS_EVENTS.LOAN_UNDO_TRANSACTION, BUSINESS_EVENTS.LOAN_ADJUST_TRANSACTION,
+                BUSINESS_EVENTS.LOAN_REFUND, BUSINESS_EVENTS.LOAN_WAIVE_INTEREST, BUSINESS_EVENTS.LOAN_WRITTEN_OFF,
+                BUSINESS_EVENTS.LOAN_UNDO_WRITTEN_OFF, BUSINESS_EVENTS.LOAN_CLOSE, BUSINESS_EVENTS.LOAN_CLOSE_AS_RESCHEDULE,
+                BUSINESS_EVENTS.LOAN_ADD_CHARGE, BUSINESS_EVENTS.LOAN_UPDATE_CHARGE, BUSINESS_EVENTS.LOAN_DELETE_CHARGE,
+                BUSINESS_EVENTS.LOAN_WAIVE_CHARGE, BUSINESS_EVENTS.LOAN_CHARGE_PAYMENT, BUSINESS_EVENTS.LOAN_APPLY_OVERDUE_CHARGE,
+                BUSINESS_EVENTS.LOAN_INTEREST_RECALCULATION };
+        for (final BUSINESS_EVENTS changeEvent : changeEvents) {
+            this.businessEventNotifierService.addBusinessEventPostListners(changeEvent, this);
+        }
+
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName("org.mifosplatform:type=LoanSummaryRefresh");
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this.metrics, objectName);
+            }
+        } catch (final Exception e) {
+            logger.warn("Could not register loan summary refresh metrics", e);
+        }
+    }
+
+    @Override
+    public int refreshDirtyLoanSummaries() {
+        final long start = System.nanoTime();
+        // loans marked while the refresh runs are left for the next run
+        final Long lastDirtyId = this.jdbcTemplate.queryForObject("select max(id) from m_loan_summary_dirty", Long.class);
+        int refreshed = 0;
+        if (lastDirtyId != null) {
+            final int batchSize = this.configurationDomainService.retrieveJobPartitionChunkSize();
+            List<Long> loanIds = retrieveDirtyLoanIds(lastDirtyId, batchSize);
+            while (!loanIds.isEmpty()) {
+                refreshed += refreshLoanSummaries(lastDirtyId, loanIds);
+                loanIds = retrieveDirtyLoanIds(lastDirtyId, batchSize);
+            }
+        }
+
+        this.metrics.recordRun(refreshed, System.nanoTime() - start);
+        logger.info(ThreadLocalContextUtil.getTenant().getName() + ": Loan summaries refreshed: " + refreshed);
+        return refreshed;
+    }
+
+    private List<Long> retrieveDirtyLoanIds(final Long lastDirtyId, final int limit) {
+        return this.jdbcTemplate.queryForList(
+                "select distinct loan_id from m_loan_summary_dirty where id <= ? order by loan_id limit ?", Long.class, lastDirtyId,
+                limit);
+    }
+
+    private int refreshLoanSummaries(final Long lastDirtyId, final List<Long> loanIds) {
+        return this.transactionTemplate.execute(new TransactionCallback<Integer>() {
+
+            @Override
+            public Integer doInTransaction(@SuppressWarnings("unused") final TransactionStatus status) {
+                final Map<String, Object> paramMap = new HashMap<>(2);
+                paramMap.put("loanIds", loanIds);
+                paramMap.put("lastDirtyId", lastDirtyId);
+                LoanSummaryRefreshServiceImpl.this.namedParameterJdbcTemplate.update(UPDATE_SUMMARY_SQL, paramMap);
+                LoanSummaryRefreshServiceImpl.this.namedParameterJdbcTemplate.update(
+                        "delete from m_loan_summary_dirty where id <= :lastDirtyId and loan_id in (:loanIds)", paramMap);
+                return loanIds.size();
+            }
+        });
+    }
+
+    @SuppressWarnings("unused")
+    @Override
+    public void businessEventToBeExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+        // nothing to record before the change
+    }
+
+    @Override
+    public void businessEventWasExecuted(Map<BUSINESS_ENTITY, Object> businessEventEntity) {
+        Long loanId = null;
+        final Object loanEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN);
+        final Object loanTransactionEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_TRANSACTION);
+        final Object loanAdjustTransactionEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_ADJUSTED_TRANSACTION);
+        final Object loanChargeEntity = businessEventEntity.get(BUSINESS_ENTITY.LOAN_CHARGE);
+        if (loanEntity != null) {
+            loanId = ((Loan) loanEntity).getId();
+        } else if (loanTransactionEntity != null) {
+            loanId = ((LoanTransaction) loanTransactionEntity).getLoan().getId();
+        } else if (loanAdjustTransactionEntity != null) {
+            loanId = ((LoanTransaction) loanAdjustTransactionEntity).getLoan().getId();
+        } else if (loanChargeEntity != null) {
+            loanId = ((LoanCharge) loanChargeEntity).getLoan().getId();
+        }
+        if (loanId != null) {
+            markLoanDirty(loanId);
+        }
+    }
+
+    @Override
+    public void markLoanDirty(final Long loanId) {
+        this.jdbcTemplate.update("insert into m_loan_summary_dirty (loan_id) values (?)", loanId);
+    }
+
+    private static String updateSummarySql() {
+        final StringBuilder updateSqlBuilder = new StringBuilder(900);
+        updateSqlBuilder.append("update m_loan ");
+        updateSqlBuilder.append("join (");
+        updateSqlBuilder.append("SELECT ml.id AS loanId,");
+        updateSqlBuilder.append("SUM(mr.principal_amount) as principal_disbursed_derived, ");
+        updateSqlBuilder.append("SUM(IFNULL(mr.principal_completed_derived,0)) as principal_repaid_derived, ");
+        updateSqlBuilder.append("SUM(IFNULL(mr.principal_writtenoff_derived,0)) as principal_writtenoff_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_amount,0)) as interest_charged_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_completed_derived,0)) as interest_repaid_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_waived_derived,0)) as interest_waived_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.interest_writtenoff_derived,0)) as interest_writtenoff_derived,");
+        updateSqlBuilder
+                .append("SUM(IFNULL(mr.fee_charges_amount,0)) + IFNULL((select SUM(lc.amount) from  m_loan_charge lc where lc.loan_id=ml.id and lc.is_active=1 and lc.charge_id=1),0) as fee_charges_charged_derived,");
+        updateSqlBuilder
+                .append("SUM(IFNULL(mr.fee_charges_completed_derived,0)) + IFNULL((select SUM(lc.amount_paid_derived) from  m_loan_charge lc where lc.loan_id=ml.id and lc.is_active=1 and lc.charge_id=1),0) as fee_charges_repaid_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.fee_charges_waived_derived,0)) as fee_charges_waived_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.fee_charges_writtenoff_derived,0)) as fee_charges_writtenoff_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_amount,0)) as penalty_charges_charged_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_completed_derived,0)) as penalty_charges_repaid_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_waived_derived,0)) as penalty_charges_waived_derived,");
+        updateSqlBuilder.append("SUM(IFNULL(mr.penalty_charges_writtenoff_derived,0)) as penalty_charges_writtenoff_derived ");
+        updateSqlBuilder.append(" FROM m_loan ml ");
+        updateSqlBuilder.append("INNER JOIN m_loan_repayment_schedule mr on mr.loan_id = ml.id ");
+        updateSqlBuilder.append("WHERE ml.disbursedon_date is not null and ml.id IN (:loanIds) ");
+        updateSqlBuilder.append("GROUP BY ml.id ");
+        updateSqlBuilder.append(") x on x.loanId = m_loan.id ");
+
+        updateSqlBuilder.append("SET m_loan.principal_disbursed_derived = x.principal_disbursed_derived,");
+        updateSqlBuilder.append("m_loan.principal_repaid_derived = x.principal_repaid_derived,");
+        updateSqlBuilder.append("m_loan.principal_writtenoff_derived = x.principal_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.principal_outstanding_derived = (x.principal_disbursed_derived - (x.principal_repaid_derived + x.principal_writtenoff_derived)),");
+        updateSqlBuilder.append("m_loan.interest_charged_derived = x.interest_charged_derived,");
+        updateSqlBuilder.append("m_loan.interest_repaid_derived = x.interest_repaid_derived,");
+        updateSqlBuilder.append("m_loan.interest_waived_derived = x.interest_waived_derived,");
+        updateSqlBuilder.append("m_loan.interest_writtenoff_derived = x.interest_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.interest_outstanding_derived = (x.interest_charged_derived - (x.interest_repaid_derived + x.interest_waived_derived + x.interest_writtenoff_derived)),");
+        updateSqlBuilder.append("m_loan.fee_charges_charged_derived = x.fee_charges_charged_derived,");
+        updateSqlBuilder.append("m_loan.fee_charges_repaid_derived = x.fee_charges_repaid_derived,");
+        updateSqlBuilder.append("m_loan.fee_charges_waived_derived = x.fee_charges_waived_derived,");
+        updateSqlBuilder.append("m_loan.fee_charges_writtenoff_derived = x.fee_charges_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.fee_charges_outstanding_derived = (x.fee_charges_charged_derived - (x.fee_charges_repaid_derived + x.fee_charges_waived_derived + x.fee_charges_writtenoff_derived)),");
+        updateSqlBuilder.append("m_loan.penalty_charges_charged_derived = x.penalty_charges_charged_derived,");
+        updateSqlBuilder.append("m_loan.penalty_charges_repaid_derived = x.penalty_charges_repaid_derived,");
+        updateSqlBuilder.append("m_loan.penalty_charges_waived_derived = x.penalty_charges_waived_derived,");
+        updateSqlBuilder.append("m_loan.penalty_charges_writtenoff_derived = x.penalty_charges_writtenoff_derived,");
+        updateSqlBuilder
+                .append("m_loan.penalty_charges_outstanding_derived = (x.penalty_charges_charged_derived - (x.penalty_charges_repaid_derived + x.penalty_charges_waived_derived + x.penalty_charges_writtenoff_derived)),");
+        updateSqlBuilder
+                .append("m_loan.total_expected_repayment_derived = (x.principal_disbursed_derived + x.interest_charged_derived + x.fee_charges_charged_derived + x.penalty_charges_charged_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_repayment_derived = (x.principal_repaid_derived + x.interest_repaid_derived + x.fee_charges_repaid_derived + x.penalty_charges_repaid_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_expected_costofloan_derived = (x.interest_charged_derived + x.fee_charges_charged_derived + x.penalty_charges_charged_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_costofloan_derived = (x.interest_repaid_derived + x.fee_charges_repaid_derived + x.penalty_charges_repaid_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_waived_derived = (x.interest_waived_derived + x.fee_charges_waived_derived + x.penalty_charges_waived_derived),");
+        updateSqlBuilder
+                .append("m_loan.total_writtenoff_derived = (x.interest_writtenoff_derived +  x.fee_charges_writtenoff_derived + x.penalty_charges_writtenoff_derived),");
+        updateSqlBuilder.append("m_loan.total_outstanding_derived=");
+        updateSqlBuilder.append(" (x.principal_disbursed_derived - (x.principal_repaid_derived + x.principal_writtenoff_derived)) + ");
+        updateSqlBuilder
+                .append(" (x.interest_charged_derived - (x.interest_repaid_derived + x.interest_waived_derived + x.interest_writtenoff_derived)) +");
+        updateSqlBuilder
+                .append(" (x.fee_charges_charged_derived - (x.fee_charges_repaid_derived + x.fee_charges_waived_derived + x.fee_charges_writtenoff_derived)) +");
+        updateSqlBuilder
+                .append(" (x.penalty_charges_charged_derived - (x.penalty_charges_repaid_derived + x.penalty_charges_waived_derived + x.penalty_charges_writtenoff_derived))");
+
+        return updateSqlBuilder.toString();
+    }
+}
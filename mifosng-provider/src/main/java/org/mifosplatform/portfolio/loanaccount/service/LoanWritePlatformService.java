@@ -16,6 +16,7 @@ import org.mifosplatform.organisation.office.domain.Office;
 import org.mifosplatform.organisation.staff.domain.Staff;
 import org.mifosplatform.portfolio.calendar.domain.Calendar;
 import org.mifosplatform.portfolio.calendar.domain.CalendarInstance;
+import org.mifosplatform.portfolio.charge.domain.Charge;
 import org.mifosplatform.portfolio.collectionsheet.command.CollectionSheetBulkDisbursalCommand;
 import org.mifosplatform.portfolio.collectionsheet.command.CollectionSheetBulkRepaymentCommand;
 import org.mifosplatform.portfolio.loanaccount.domain.LoanTransaction;
@@ -87,7 +88,14 @@ public interface LoanWritePlatformService {
 
 	CommandProcessingResult addAndDeleteLoanDisburseDetails(Long loanId, JsonCommand command);
 
-    void applyOverdueChargesForLoan(Long loanId, Collection<OverdueLoanScheduleData> overdueLoanScheduleDatas);
+    /**
+     * @param chargeDefinitions
+     *            active charge definitions of the overdue installments keyed
+     *            by id, as loaded in bulk by the caller; charges missing from
+     *            it are loaded one by one
+     */
+    void applyOverdueChargesForLoan(Long loanId, Collection<OverdueLoanScheduleData> overdueLoanScheduleDatas,
+            Map<Long, Charge> chargeDefinitions);
 
     void recalculateInterest(long loanId);
 
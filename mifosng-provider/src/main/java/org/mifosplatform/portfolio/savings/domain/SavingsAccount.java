@@ -629,13 +629,23 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         return listOfTransactionsSorted;
     }
 
+    /**
+     * Replays the running balance from the last transaction whose derived
+     * balances are still valid (the balance checkpoint) rather than from the
+     * opening balance, so only transactions on or after the earliest new or
+     * reversed transaction are recalculated.
+     */
     protected void recalculateDailyBalances(final Money openingAccountBalance, final LocalDate interestPostingUpToDate) {
 
-        Money runningBalance = openingAccountBalance.copy();
-
         List<SavingsAccountTransaction> accountTransactionsSorted = retreiveListOfTransactions();
+
+        final int checkpoint = findBalanceCheckpoint(accountTransactionsSorted);
+        Money runningBalance = checkpoint < 0 ? openingAccountBalance.copy() : accountTransactionsSorted.get(checkpoint)
+                .getRunningBalance(this.currency);
+
         boolean isTransactionsModified = false;
-        for (final SavingsAccountTransaction transaction : accountTransactionsSorted) {
+        for (final SavingsAccountTransaction transaction : accountTransactionsSorted.subList(checkpoint + 1,
+                accountTransactionsSorted.size())) {
             if (transaction.isReversed()) {
                 transaction.zeroBalanceFields();
             } else {
@@ -680,13 +690,43 @@ public class SavingsAccount extends AbstractPersistable<Long> {
         }
 
         if (isTransactionsModified) {
+            // copies are dated after the checkpoint so it keeps its position
             accountTransactionsSorted = retreiveListOfTransactions();
         }
-        resetAccountTransactionsEndOfDayBalances(accountTransactionsSorted, interestPostingUpToDate);
+        resetAccountTransactionsEndOfDayBalances(accountTransactionsSorted, checkpoint, interestPostingUpToDate);
+    }
+
+    /**
+     * Index of the last transaction that is not reversed before the earliest
+     * transaction that needs its balances recalculated, or -1 when the whole
+     * history has to be replayed.
+     */
+    private int findBalanceCheckpoint(final List<SavingsAccountTransaction> accountTransactionsSorted) {
+        int firstAffected = accountTransactionsSorted.size();
+        for (int i = 0; i < accountTransactionsSorted.size(); i++) {
+            if (accountTransactionsSorted.get(i).isBalanceRecalculationRequired()) {
+                firstAffected = i;
+                break;
+            }
+        }
+        for (int i = firstAffected - 1; i >= 0; i--) {
+            if (accountTransactionsSorted.get(i).isNotReversed()) { return i; }
+        }
+        return -1;
     }
 
     protected void resetAccountTransactionsEndOfDayBalances(final List<SavingsAccountTransaction> accountTransactionsSorted,
             final LocalDate interestPostingUpToDate) {
+        resetAccountTransactionsEndOfDayBalances(accountTransactionsSorted, -1, interestPostingUpToDate);
+    }
+
+    /**
+     * End of day balances of transactions up to the checkpoint only change
+     * for the last one that has a daily balance, as its balance ends the day
+     * before the next transaction.
+     */
+    private void resetAccountTransactionsEndOfDayBalances(final List<SavingsAccountTransaction> accountTransactionsSorted,
+            final int checkpoint, final LocalDate interestPostingUpToDate) {
         // loop over transactions in reverse
         LocalDate endOfBalanceDate = interestPostingUpToDate;
         for (int i = accountTransactionsSorted.size() - 1; i >= 0; i--) {
@@ -696,6 +736,9 @@ public class SavingsAccount extends AbstractPersistable<Long> {
                 // this transactions transaction date is end of balance date for
                 // previous transaction.
                 endOfBalanceDate = transaction.transactionLocalDate().minusDays(1);
+                if (i <= checkpoint) {
+                    break;
+                }
             }
         }
     }
@@ -6,6 +6,7 @@
 package org.mifosplatform.portfolio.savings.domain;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.Column;
@@ -57,28 +58,114 @@ public final class SavingsAccountSummary {
     @Transient
     private BigDecimal totalPenaltyChargesWaived = BigDecimal.ZERO;
 
+    /**
+     * Transactions counted in the totals that were not reversed when counted,
+     * and the number of account transactions seen so far, -1 until the totals
+     * are first calculated after loading the account.
+     */
+    @Transient
+    private final List<SavingsAccountTransaction> summarisedTransactions = new ArrayList<>();
+
+    @Transient
+    private int summarisedTransactionCount = -1;
+
     protected SavingsAccountSummary() {
         //
     }
 
+    /**
+     * Transactions are only ever appended to an account or reversed, so after
+     * the first full calculation the totals are kept up to date by adding the
+     * transactions appended since and taking out the ones reversed since.
+     */
     public void updateSummary(final MonetaryCurrency currency, final SavingsAccountTransactionSummaryWrapper wrapper,
             final List<SavingsAccountTransaction> transactions) {
 
-        this.totalDeposits = wrapper.calculateTotalDeposits(currency, transactions);
-        this.totalWithdrawals = wrapper.calculateTotalWithdrawals(currency, transactions);
-        this.totalInterestPosted = wrapper.calculateTotalInterestPosted(currency, transactions);
-        this.totalWithdrawalFees = wrapper.calculateTotalWithdrawalFees(currency, transactions);
-        this.totalAnnualFees = wrapper.calculateTotalAnnualFees(currency, transactions);
-        this.totalFeeCharge = wrapper.calculateTotalFeesCharge(currency, transactions);
-        this.totalPenaltyCharge = wrapper.calculateTotalPenaltyCharge(currency, transactions);
-        this.totalFeeChargesWaived = wrapper.calculateTotalFeesChargeWaived(currency, transactions);
-        this.totalPenaltyChargesWaived = wrapper.calculateTotalPenaltyChargeWaived(currency, transactions);
+        if (this.summarisedTransactionCount < 0 || this.summarisedTransactionCount > transactions.size()) {
+            this.totalDeposits = wrapper.calculateTotalDeposits(currency, transactions);
+            this.totalWithdrawals = wrapper.calculateTotalWithdrawals(currency, transactions);
+            this.totalInterestPosted = wrapper.calculateTotalInterestPosted(currency, transactions);
+            this.totalWithdrawalFees = wrapper.calculateTotalWithdrawalFees(currency, transactions);
+            this.totalAnnualFees = wrapper.calculateTotalAnnualFees(currency, transactions);
+            this.totalFeeCharge = wrapper.calculateTotalFeesCharge(currency, transactions);
+            this.totalPenaltyCharge = wrapper.calculateTotalPenaltyCharge(currency, transactions);
+            this.totalFeeChargesWaived = wrapper.calculateTotalFeesChargeWaived(currency, transactions);
+            this.totalPenaltyChargesWaived = wrapper.calculateTotalPenaltyChargeWaived(currency, transactions);
+
+            this.summarisedTransactions.clear();
+            for (final SavingsAccountTransaction transaction : transactions) {
+                if (transaction.isNotReversed()) {
+                    this.summarisedTransactions.add(transaction);
+                }
+            }
+        } else {
+            final List<SavingsAccountTransaction> reversed = new ArrayList<>();
+            for (final SavingsAccountTransaction transaction : this.summarisedTransactions) {
+                if (transaction.isReversed()) {
+                    reversed.add(transaction);
+                }
+            }
+            if (!reversed.isEmpty()) {
+                this.summarisedTransactions.removeAll(reversed);
+                for (final SavingsAccountTransaction transaction : reversed) {
+                    applyTransaction(currency, transaction, false);
+                }
+            }
+
+            for (final SavingsAccountTransaction transaction : transactions.subList(this.summarisedTransactionCount, transactions.size())) {
+                if (transaction.isNotReversed()) {
+                    applyTransaction(currency, transaction, true);
+                    this.summarisedTransactions.add(transaction);
+                }
+            }
+        }
+        this.summarisedTransactionCount = transactions.size();
 
         this.accountBalance = Money.of(currency, this.totalDeposits).plus(this.totalInterestPosted).minus(this.totalWithdrawals)
                 .minus(this.totalWithdrawalFees).minus(this.totalAnnualFees).minus(this.totalFeeCharge).minus(this.totalPenaltyCharge)
                 .getAmount();
     }
 
+    /**
+     * Adds the amount of the transaction to, or takes it out of, each total it
+     * counts towards, classifying it as the wrapper does.
+     */
+    private void applyTransaction(final MonetaryCurrency currency, final SavingsAccountTransaction transaction, final boolean add) {
+        final Money amount = add ? transaction.getAmount(currency) : transaction.getAmount(currency).negated();
+
+        if (transaction.isDeposit()) {
+            this.totalDeposits = plus(currency, this.totalDeposits, amount);
+        }
+        if (transaction.isWithdrawal()) {
+            this.totalWithdrawals = plus(currency, this.totalWithdrawals, amount);
+        }
+        if (transaction.isInterestPosting()) {
+            this.totalInterestPosted = plus(currency, this.totalInterestPosted, amount);
+        }
+        if (transaction.isWithdrawalFee()) {
+            this.totalWithdrawalFees = plus(currency, this.totalWithdrawalFees, amount);
+        }
+        if (transaction.isAnnualFee()) {
+            this.totalAnnualFees = plus(currency, this.totalAnnualFees, amount);
+        }
+        if (transaction.isFeeCharge()) {
+            this.totalFeeCharge = plus(currency, this.totalFeeCharge, amount);
+        }
+        if (transaction.isPenaltyCharge()) {
+            this.totalPenaltyCharge = plus(currency, this.totalPenaltyCharge, amount);
+        }
+        if (transaction.isWaiveFeeCharge()) {
+            this.totalFeeChargesWaived = plus(currency, this.totalFeeChargesWaived, amount);
+        }
+        if (transaction.isWaivePenaltyCharge()) {
+            this.totalPenaltyChargesWaived = plus(currency, this.totalPenaltyChargesWaived, amount);
+        }
+    }
+
+    private static BigDecimal plus(final MonetaryCurrency currency, final BigDecimal total, final Money amount) {
+        return Money.of(currency, total).plus(amount).getAmountDefaultedToNullIfZero();
+    }
+
     public void updateFromInterestPeriodSummaries(final MonetaryCurrency currency, final List<PostingPeriod> allPostingPeriods) {
 
         Money totalEarned = Money.zero(currency);
@@ -27,6 +27,7 @@ import javax.persistence.TemporalType;
 import org.hibernate.annotations.LazyCollection;
 import org.hibernate.annotations.LazyCollectionOption;
 import org.joda.time.LocalDate;
+import org.mifosplatform.infrastructure.core.domain.AbstractPooledPersistable;
 import org.mifosplatform.infrastructure.core.domain.LocalDateInterval;
 import org.mifosplatform.organisation.monetary.data.CurrencyData;
 import org.mifosplatform.organisation.monetary.domain.MonetaryCurrency;
@@ -38,7 +39,6 @@ import org.mifosplatform.portfolio.savings.data.SavingsAccountTransactionEnumDat
 import org.mifosplatform.portfolio.savings.domain.interest.EndOfDayBalance;
 import org.mifosplatform.portfolio.savings.service.SavingsEnumerations;
 import org.mifosplatform.useradministration.domain.AppUser;
-import org.springframework.data.jpa.domain.AbstractPersistable;
 import org.springframework.util.CollectionUtils;
 
 /**
@@ -47,7 +47,7 @@ import org.springframework.util.CollectionUtils;
  */
 @Entity
 @Table(name = "m_savings_account_transaction")
-public final class SavingsAccountTransaction extends AbstractPersistable<Long> {
+public final class SavingsAccountTransaction extends AbstractPooledPersistable<Long> {
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "savings_account_id", nullable = false)
@@ -248,7 +248,11 @@ public final class SavingsAccountTransaction extends AbstractPersistable<Long> {
     }
 
     public boolean isInterestPostingAndNotReversed() {
-        return SavingsAccountTransactionType.fromInt(this.typeOf).isInterestPosting() && isNotReversed();
+        return isInterestPosting() && isNotReversed();
+    }
+
+    public boolean isInterestPosting() {
+        return SavingsAccountTransactionType.fromInt(this.typeOf).isInterestPosting();
     }
 
     public boolean isWithdrawalFeeAndNotReversed() {
@@ -306,6 +310,16 @@ public final class SavingsAccountTransaction extends AbstractPersistable<Long> {
         this.balanceNumberOfDays = null;
     }
 
+    /**
+     * Derived balances are cleared on reversed transactions and set on all
+     * others once the account balances are recalculated, so new and newly
+     * reversed transactions are the ones that do not match.
+     */
+    public boolean isBalanceRecalculationRequired() {
+        if (isReversed()) { return this.runningBalance != null; }
+        return this.runningBalance == null || (!isInterestPosting() && this.balanceNumberOfDays == null);
+    }
+
     public void updateRunningBalance(final Money balance) {
         this.runningBalance = balance.getAmount();
     }
@@ -126,7 +126,7 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
         final String hierarchySearchString = hierarchy + "%";
 
         final StringBuilder sqlBuilder = new StringBuilder(200);
-        sqlBuilder.append("select SQL_CALC_FOUND_ROWS ");
+        sqlBuilder.append(searchParameters.isKeysetPaged() ? "select " : "select SQL_CALC_FOUND_ROWS ");
         sqlBuilder.append(this.savingAccountMapper.schema());
 
         sqlBuilder.append(" join m_office o on o.id = c.office_id");
@@ -148,6 +148,9 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
             arrayPos = arrayPos + 1;
         }
 
+        if (searchParameters.isKeysetPaged()) { return this.paginationHelper.fetchKeysetPage(this.jdbcTemplate, sqlBuilder.toString(),
+                " and ", "sa.id", Arrays.copyOf(objectArray, arrayPos), searchParameters, this.savingAccountMapper); }
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
 
@@ -7,14 +7,20 @@ package org.mifosplatform.portfolio.savings.service;
 
 import java.util.List;
 
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
 import org.mifosplatform.infrastructure.jobs.annotation.CronTarget;
 import org.mifosplatform.infrastructure.jobs.exception.JobExecutionException;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkProcessor;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkReader;
 import org.mifosplatform.infrastructure.jobs.service.JobName;
+import org.mifosplatform.infrastructure.jobs.service.PartitionedJobRunner;
 import org.mifosplatform.portfolio.savings.domain.SavingsAccount;
 import org.mifosplatform.portfolio.savings.domain.SavingsAccountAssembler;
 import org.mifosplatform.portfolio.savings.domain.SavingsAccountRepository;
 import org.mifosplatform.portfolio.savings.domain.SavingsAccountStatusType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -23,19 +29,31 @@ public class SavingsSchedularServiceImpl implements SavingsSchedularService {
     private final SavingsAccountAssembler savingAccountAssembler;
     private final SavingsAccountWritePlatformService savingsAccountWritePlatformService;
     private final SavingsAccountRepository savingAccountRepository;
+    private final ConfigurationDomainService configurationDomainService;
+    private final PartitionedJobRunner partitionedJobRunner;
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
     public SavingsSchedularServiceImpl(final SavingsAccountAssembler savingAccountAssembler,
             final SavingsAccountWritePlatformService savingsAccountWritePlatformService,
-            final SavingsAccountRepository savingAccountRepository) {
+            final SavingsAccountRepository savingAccountRepository, final ConfigurationDomainService configurationDomainService,
+            final PartitionedJobRunner partitionedJobRunner, final RoutingDataSource dataSource) {
         this.savingAccountAssembler = savingAccountAssembler;
         this.savingsAccountWritePlatformService = savingsAccountWritePlatformService;
         this.savingAccountRepository = savingAccountRepository;
+        this.configurationDomainService = configurationDomainService;
+        this.partitionedJobRunner = partitionedJobRunner;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
     @CronTarget(jobName = JobName.POST_INTEREST_FOR_SAVINGS)
     @Override
     public void postInterestForAccounts() throws JobExecutionException {
+        if (this.configurationDomainService.isJobPartitioningEnabled()) {
+            postInterestForAccountsInPartitions();
+            return;
+        }
+
         final List<SavingsAccount> savingsAccounts = this.savingAccountRepository.findSavingAccountByStatus(SavingsAccountStatusType.ACTIVE
                 .getValue());
         StringBuffer sb = new StringBuffer();
@@ -52,7 +70,46 @@ public class SavingsSchedularServiceImpl implements SavingsSchedularService {
                         + realCause.getMessage());
             }
         }
-        
+
         if (sb.length() > 0) { throw new JobExecutionException(sb.toString()); }
     }
+
+    /**
+     * Streams the ids of active savings accounts and posts interest chunk by
+     * chunk on the partitioned job worker pool, so only one chunk of accounts
+     * per worker is held in the persistence context at any time.
+     */
+    private void postInterestForAccountsInPartitions() throws JobExecutionException {
+        final JobChunkReader reader = new JobChunkReader() {
+
+            @Override
+            public List<Long> readIdsAfter(final Long afterId, final int limit) {
+                final String sql = "select sa.id from m_savings_account sa where sa.status_enum = ? and sa.id > ? order by sa.id limit ?";
+                return SavingsSchedularServiceImpl.this.jdbcTemplate.queryForList(sql, Long.class,
+                        SavingsAccountStatusType.ACTIVE.getValue(), afterId, limit);
+            }
+        };
+
+        final JobChunkProcessor processor = new JobChunkProcessor() {
+
+            @Override
+            public void process(final List<Long> ids) {
+                for (final SavingsAccount savingsAccount : SavingsSchedularServiceImpl.this.savingAccountRepository.findAll(ids)) {
+                    if (savingsAccount.isActive()) {
+                        SavingsSchedularServiceImpl.this.savingAccountAssembler.assignSavingAccountHelpers(savingsAccount);
+                        SavingsSchedularServiceImpl.this.savingsAccountWritePlatformService.postInterest(savingsAccount);
+                    }
+                }
+            }
+        };
+
+        final List<String> errors = this.partitionedJobRunner.run(JobName.POST_INTEREST_FOR_SAVINGS, reader, processor);
+        if (!errors.isEmpty()) {
+            final StringBuilder sb = new StringBuilder();
+            for (final String error : errors) {
+                sb.append(error);
+            }
+            throw new JobExecutionException(sb.toString());
+        }
+    }
 }
@@ -71,6 +71,14 @@ public class SearchConstants {
         }
     }
 
+    /**
+     * Values of <code>m_search_index.entity_type</code>, centers are indexed as
+     * groups.
+     */
+    public static enum SEARCH_INDEX_ENTITY_TYPES {
+        CLIENT, LOAN, SAVING, CLIENTIDENTIFIER, GROUP;
+    }
+
     public static enum SEARCH_SUPPORTED_RESOURCES {
         CLIENTS("clients"), GROUPS("groups"), LOANS("loans"), SAVINGS("savings"), CLIENTIDENTIFIERS("clientIdentifiers");
 
@@ -0,0 +1,16 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+public interface SearchIndexUpdateService {
+
+    /**
+     * Schedules the reindex of the entity touched by a command to run once
+     * the current transaction commits. Has to be called from the thread
+     * processing the command.
+     */
+    void scheduleReindex(String entityName, String actionName, String commandResult);
+}
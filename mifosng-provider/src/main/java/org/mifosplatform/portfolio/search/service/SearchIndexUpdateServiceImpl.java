@@ -0,0 +1,264 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.infrastructure.security.service.TenantDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Updates the search index for every processed command. The entities touched
+ * by a command are reindexed on a small pool once the command has committed,
+ * so the index never sees uncommitted values and commands do not wait for it.
+ *
+ * When the pool is saturated the update is dropped and the index of the
+ * tenant is rebuilt by a periodic reconcile instead.
+ */
+@Service
+public class SearchIndexUpdateServiceImpl implements SearchIndexUpdateService {
+
+    private final static Logger logger = LoggerFactory.getLogger(SearchIndexUpdateServiceImpl.class);
+
+    /**
+     * Loan, savings and deposit account actions other than these do not
+     * change account numbers or external ids.
+     */
+    private final static Set<String> ACCOUNT_ACTIONS = new HashSet<>(Arrays.asList("CREATE", "UPDATE", "DELETE"));
+
+    @Value("${mifos.search.index.threads:2}")
+    private int threads;
+
+    @Value("${mifos.search.index.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${mifos.search.index.reconcileIntervalSeconds:300}")
+    private int reconcileIntervalSeconds;
+
+    private final SearchIndexWritePlatformService searchIndexWritePlatformService;
+    private final TenantDetailsService tenantDetailsService;
+    private final JsonParser jsonParser = new JsonParser();
+    private final Set<String> tenantsToRebuild = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService reconciler;
+
+    @Autowired
+    public SearchIndexUpdateServiceImpl(final SearchIndexWritePlatformService searchIndexWritePlatformService,
+            final TenantDetailsService tenantDetailsService) {
+        this.searchIndexWritePlatformService = searchIndexWritePlatformService;
+        this.tenantDetailsService = tenantDetailsService;
+    }
+
+    @PostConstruct
+    public void start() {
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(
+                this.queueCapacity), daemonThreadFactory("search-index"));
+
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("search-index-reconcile"));
+        this.reconciler.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                rebuildDroppedTenants();
+            }
+        }, this.reconcileIntervalSeconds, this.reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.reconciler.shutdownNow();
+        this.executor.shutdownNow();
+    }
+
+    @Override
+    public void scheduleReindex(final String entityName, final String actionName, final String commandResult) {
+        if (!isIndexed(entityName, actionName) || commandResult == null) { return; }
+
+        final JsonObject result = this.jsonParser.parse(commandResult).getAsJsonObject();
+        final Runnable reindex = reindexTaskFor(entityName, result);
+        if (reindex == null) { return; }
+
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    submit(tenant, reindex);
+                }
+            });
+        } else {
+            submit(tenant, reindex);
+        }
+    }
+
+    static boolean isIndexed(final String entityName, final String actionName) {
+        switch (entityName) {
+            case "CLIENT":
+            case "CLIENTIDENTIFIER":
+            case "GROUP":
+            case "CENTER":
+                return true;
+            case "LOAN":
+            case "SAVINGSACCOUNT":
+            case "FIXEDDEPOSITACCOUNT":
+            case "RECURRINGDEPOSITACCOUNT":
+                return ACCOUNT_ACTIONS.contains(actionName);
+            default:
+                return false;
+        }
+    }
+
+    private Runnable reindexTaskFor(final String entityName, final JsonObject result) {
+        final Long resourceId = longNamed("resourceId", result);
+        switch (entityName) {
+            case "CLIENT":
+                final Long clientId = firstNonNull(longNamed("clientId", result), resourceId);
+                if (clientId == null) { return null; }
+                return new Runnable() {
+
+                    @Override
+                    public void run() {
+                        SearchIndexUpdateServiceImpl.this.searchIndexWritePlatformService.reindexClient(clientId);
+                    }
+                };
+            case "CLIENTIDENTIFIER":
+                if (resourceId == null) { return null; }
+                return new Runnable() {
+
+                    @Override
+                    public void run() {
+                        SearchIndexUpdateServiceImpl.this.searchIndexWritePlatformService.reindexClientIdentifier(resourceId);
+                    }
+                };
+            case "GROUP":
+            case "CENTER":
+                final Long groupId = firstNonNull(longNamed("groupId", result), resourceId);
+                if (groupId == null) { return null; }
+                return new Runnable() {
+
+                    @Override
+                    public void run() {
+                        SearchIndexUpdateServiceImpl.this.searchIndexWritePlatformService.reindexGroup(groupId);
+                    }
+                };
+            case "LOAN":
+                final Long loanId = firstNonNull(longNamed("loanId", result), resourceId);
+                if (loanId == null) { return null; }
+                return new Runnable() {
+
+                    @Override
+                    public void run() {
+                        SearchIndexUpdateServiceImpl.this.searchIndexWritePlatformService.reindexLoan(loanId);
+                    }
+                };
+            case "SAVINGSACCOUNT":
+            case "FIXEDDEPOSITACCOUNT":
+            case "RECURRINGDEPOSITACCOUNT":
+                // deposit accounts are rows of m_savings_account
+                final Long savingsId = firstNonNull(longNamed("savingsId", result), resourceId);
+                if (savingsId == null) { return null; }
+                return new Runnable() {
+
+                    @Override
+                    public void run() {
+                        SearchIndexUpdateServiceImpl.this.searchIndexWritePlatformService.reindexSavingsAccount(savingsId);
+                    }
+                };
+            default:
+                return null;
+        }
+    }
+
+    private void submit(final MifosPlatformTenant tenant, final Runnable reindex) {
+        try {
+            this.executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    ThreadLocalContextUtil.setTenant(tenant);
+                    try {
+                        reindex.run();
+                    } catch (final RuntimeException e) {
+                        logger.warn("Updating the search index of " + tenant.getTenantIdentifier() + " failed", e);
+                    } finally {
+                        ThreadLocalContextUtil.clearTenant();
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            logger.warn("Search index update of " + tenant.getTenantIdentifier() + " dropped, the index is rebuilt by the next reconcile");
+            this.tenantsToRebuild.add(tenant.getTenantIdentifier());
+        }
+    }
+
+    private void rebuildDroppedTenants() {
+        for (final String tenantIdentifier : this.tenantsToRebuild) {
+            // updates dropped while rebuilding flag the tenant again
+            this.tenantsToRebuild.remove(tenantIdentifier);
+            try {
+                final MifosPlatformTenant tenant = this.tenantDetailsService.loadTenantById(tenantIdentifier);
+                ThreadLocalContextUtil.setTenant(tenant);
+                this.searchIndexWritePlatformService.rebuildIndex();
+            } catch (final RuntimeException e) {
+                logger.warn("Rebuilding the search index of " + tenantIdentifier + " failed", e);
+                this.tenantsToRebuild.add(tenantIdentifier);
+            } finally {
+                ThreadLocalContextUtil.clearTenant();
+            }
+        }
+    }
+
+    private static Long longNamed(final String name, final JsonObject result) {
+        final JsonElement value = result.get(name);
+        return value == null || value.isJsonNull() ? null : value.getAsLong();
+    }
+
+    private static Long firstNonNull(final Long first, final Long second) {
+        return first != null ? first : second;
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String name) {
+        return new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, name + "-" + this.count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+/**
+ * Keeps <code>m_search_index</code> in step with the searchable columns of
+ * clients, groups, loans, savings accounts and client identifiers. Each method
+ * replaces the index entries of one entity with its current values, or removes
+ * them when the entity no longer exists.
+ */
+public interface SearchIndexWritePlatformService {
+
+    /**
+     * Also reindexes the identifiers, loans and savings accounts of the client
+     * as they are scoped by the office of the client.
+     */
+    void reindexClient(Long clientId);
+
+    void reindexClientIdentifier(Long clientIdentifierId);
+
+    void reindexGroup(Long groupId);
+
+    void reindexLoan(Long loanId);
+
+    void reindexSavingsAccount(Long savingsId);
+
+    /**
+     * Reindexes every entity of the current tenant, a chunk of ids at a time
+     * in its own transaction. Used to reconcile the index after updates were
+     * lost.
+     */
+    void rebuildIndex();
+}
@@ -0,0 +1,217 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.mifosplatform.infrastructure.core.domain.JdbcSupport;
+import org.mifosplatform.infrastructure.core.service.RoutingDataSource;
+import org.mifosplatform.portfolio.search.SearchConstants.SEARCH_INDEX_ENTITY_TYPES;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class SearchIndexWritePlatformServiceImpl implements SearchIndexWritePlatformService {
+
+    private final static int MAX_TERM_LENGTH = 100;
+    private final static int REBUILD_CHUNK_SIZE = 1000;
+    private final static String ACCOUNT_NO_COLUMN = "account_no";
+
+    private final static IndexedEntity CLIENT = new IndexedEntity(SEARCH_INDEX_ENTITY_TYPES.CLIENT, "m_client", "c",
+            "select c.id as entityId, c.office_id as officeId, c.account_no, c.display_name, c.external_id, c.mobile_no from m_client c",
+            "display_name");
+    private final static IndexedEntity CLIENT_IDENTIFIER = new IndexedEntity(SEARCH_INDEX_ENTITY_TYPES.CLIENTIDENTIFIER,
+            "m_client_identifier", "ci", "select ci.id as entityId, c.office_id as officeId, ci.document_key from m_client_identifier ci "
+                    + "join m_client c on c.id = ci.client_id", null);
+    private final static IndexedEntity GROUP = new IndexedEntity(SEARCH_INDEX_ENTITY_TYPES.GROUP, "m_group", "g",
+            "select g.id as entityId, g.office_id as officeId, g.account_no, g.display_name, g.external_id, g.id as group_id from m_group g",
+            "display_name");
+    // loans and savings of groups are not scoped by office, as in the search
+    // without the index
+    private final static IndexedEntity LOAN = new IndexedEntity(SEARCH_INDEX_ENTITY_TYPES.LOAN, "m_loan", "l",
+            "select l.id as entityId, c.office_id as officeId, l.account_no, l.external_id from m_loan l "
+                    + "left join m_client c on c.id = l.client_id", null);
+    private final static IndexedEntity SAVING = new IndexedEntity(SEARCH_INDEX_ENTITY_TYPES.SAVING, "m_savings_account", "s",
+            "select s.id as entityId, c.office_id as officeId, s.account_no, s.external_id from m_savings_account s "
+                    + "left join m_client c on c.id = s.client_id", null);
+
+    private final static List<IndexedEntity> INDEXED_ENTITIES = Arrays.asList(CLIENT, CLIENT_IDENTIFIER, GROUP, LOAN, SAVING);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SearchIndexWritePlatformServiceImpl(final RoutingDataSource dataSource, final TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Transactional
+    @Override
+    public void reindexClient(final Long clientId) {
+        reindexById(CLIENT, clientId);
+        reindexByClient(CLIENT_IDENTIFIER, clientId);
+        reindexByClient(LOAN, clientId);
+        reindexByClient(SAVING, clientId);
+    }
+
+    @Transactional
+    @Override
+    public void reindexClientIdentifier(final Long clientIdentifierId) {
+        reindexById(CLIENT_IDENTIFIER, clientIdentifierId);
+    }
+
+    @Transactional
+    @Override
+    public void reindexGroup(final Long groupId) {
+        reindexById(GROUP, groupId);
+    }
+
+    @Transactional
+    @Override
+    public void reindexLoan(final Long loanId) {
+        reindexById(LOAN, loanId);
+    }
+
+    @Transactional
+    @Override
+    public void reindexSavingsAccount(final Long savingsId) {
+        reindexById(SAVING, savingsId);
+    }
+
+    @Override
+    public void rebuildIndex() {
+        for (final IndexedEntity entity : INDEXED_ENTITIES) {
+            final Long maxId = this.jdbcTemplate.queryForObject("select ifnull(max(id), 0) from " + entity.table, Long.class);
+            for (long fromId = 0; fromId < maxId; fromId += REBUILD_CHUNK_SIZE) {
+                rebuildChunk(entity, fromId, fromId + REBUILD_CHUNK_SIZE);
+            }
+            // entries of entities deleted after the maximum was read are
+            // removed by their own reindex
+            this.jdbcTemplate.update("delete from m_search_index where entity_type = ? and entity_id > ?", entity.type.name(), maxId);
+        }
+    }
+
+    private void rebuildChunk(final IndexedEntity entity, final long fromId, final long toId) {
+        this.transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+
+            @Override
+            protected void doInTransactionWithoutResult(@SuppressWarnings("unused") final TransactionStatus status) {
+                SearchIndexWritePlatformServiceImpl.this.jdbcTemplate.update(
+                        "delete from m_search_index where entity_type = ? and entity_id > ? and entity_id <= ?", entity.type.name(),
+                        fromId, toId);
+                insertTerms(entity, entity.alias + ".id > ? and " + entity.alias + ".id <= ?", fromId, toId);
+            }
+        });
+    }
+
+    private void reindexById(final IndexedEntity entity, final Long id) {
+        this.jdbcTemplate.update("delete from m_search_index where entity_type = ? and entity_id = ?", entity.type.name(), id);
+        insertTerms(entity, entity.alias + ".id = ?", id);
+    }
+
+    private void reindexByClient(final IndexedEntity entity, final Long clientId) {
+        final String clientColumn = entity.alias + ".client_id";
+        this.jdbcTemplate.update("delete si from m_search_index si join " + entity.table + " " + entity.alias + " on " + entity.alias
+                + ".id = si.entity_id where si.entity_type = ? and " + clientColumn + " = ?", entity.type.name(), clientId);
+        insertTerms(entity, clientColumn + " = ?", clientId);
+    }
+
+    private void insertTerms(final IndexedEntity entity, final String condition, final Object... args) {
+        final List<Object[]> terms = new ArrayList<>();
+        this.jdbcTemplate.query(entity.selectSql + " where " + condition, args, new RowCallbackHandler() {
+
+            @Override
+            public void processRow(final ResultSet rs) throws SQLException {
+                final Long entityId = JdbcSupport.getLong(rs, "entityId");
+                final Long officeId = JdbcSupport.getLong(rs, "officeId");
+                final ResultSetMetaData rsmd = rs.getMetaData();
+                for (int i = 3; i <= rsmd.getColumnCount(); i++) {
+                    final String columnLabel = rsmd.getColumnLabel(i);
+                    final boolean tokenized = columnLabel.equalsIgnoreCase(entity.tokenizedColumn);
+                    for (final Map.Entry<String, Boolean> term : termsOf(columnLabel, rs.getString(i), tokenized).entrySet()) {
+                        terms.add(new Object[] { entity.type.name(), entityId, officeId, term.getKey(), term.getValue() ? 1 : 0 });
+                    }
+                }
+            }
+        });
+
+        if (!terms.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(
+                    "insert into m_search_index (entity_type, entity_id, office_id, term, whole_value) values (?, ?, ?, ?, ?)", terms);
+        }
+    }
+
+    /**
+     * Indexes the whole value and, for names, what follows each space so a
+     * prefix search also finds a name by the start of any of its words.
+     * Account numbers are zero padded, so they are also indexed without their
+     * leading zeros to be found by the significant digits.
+     *
+     * @return the terms of the value, each mapped to whether it is the whole
+     *         value
+     */
+    static Map<String, Boolean> termsOf(final String columnLabel, final String value, final boolean tokenized) {
+        final Map<String, Boolean> terms = new LinkedHashMap<>();
+        if (StringUtils.isBlank(value)) { return terms; }
+
+        final String wholeValue = value.trim();
+        terms.put(StringUtils.left(wholeValue, MAX_TERM_LENGTH), Boolean.TRUE);
+        if (tokenized) {
+            final String[] words = StringUtils.split(wholeValue);
+            for (int i = 1; i < words.length; i++) {
+                final String suffix = StringUtils.join(words, ' ', i, words.length);
+                addPartialTerm(terms, suffix);
+            }
+        }
+        if (ACCOUNT_NO_COLUMN.equalsIgnoreCase(columnLabel)) {
+            addPartialTerm(terms, StringUtils.stripStart(wholeValue, "0"));
+        }
+        return terms;
+    }
+
+    private static void addPartialTerm(final Map<String, Boolean> terms, final String term) {
+        final String partialTerm = StringUtils.left(term, MAX_TERM_LENGTH);
+        if (StringUtils.isNotEmpty(partialTerm) && !terms.containsKey(partialTerm)) {
+            terms.put(partialTerm, Boolean.FALSE);
+        }
+    }
+
+    private static final class IndexedEntity {
+
+        private final SEARCH_INDEX_ENTITY_TYPES type;
+        private final String table;
+        private final String alias;
+        /**
+         * Selects the entity id, its office id and then the searchable columns
+         */
+        private final String selectSql;
+        private final String tokenizedColumn;
+
+        IndexedEntity(final SEARCH_INDEX_ENTITY_TYPES type, final String table, final String alias, final String selectSql,
+                final String tokenizedColumn) {
+            this.type = type;
+            this.table = table;
+            this.alias = alias;
+            this.selectSql = selectSql;
+            this.tokenizedColumn = tokenizedColumn;
+        }
+    }
+}
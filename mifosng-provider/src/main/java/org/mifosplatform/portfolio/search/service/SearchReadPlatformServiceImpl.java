@@ -9,7 +9,12 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.mifosplatform.infrastructure.core.data.EnumOptionData;
@@ -25,12 +30,14 @@ import org.mifosplatform.portfolio.loanproduct.data.LoanProductData;
 import org.mifosplatform.portfolio.loanproduct.service.LoanEnumerations;
 import org.mifosplatform.portfolio.loanproduct.service.LoanProductReadPlatformService;
 import org.mifosplatform.portfolio.search.SearchConstants;
+import org.mifosplatform.portfolio.search.SearchConstants.SEARCH_INDEX_ENTITY_TYPES;
 import org.mifosplatform.portfolio.search.data.AdHocQuerySearchConditions;
 import org.mifosplatform.portfolio.search.data.AdHocSearchQueryData;
 import org.mifosplatform.portfolio.search.data.SearchConditions;
 import org.mifosplatform.portfolio.search.data.SearchData;
 import org.mifosplatform.useradministration.domain.AppUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -44,6 +51,12 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
     private final LoanProductReadPlatformService loanProductReadPlatformService;
     private final OfficeReadPlatformService officeReadPlatformService;
 
+    /**
+     * Bounds the matches of short type-ahead searches that are a prefix of a
+     * large share of the index.
+     */
+    private final static int MAX_MATCHES = 1000;
+
     @Autowired
     public SearchReadPlatformServiceImpl(final PlatformSecurityContext context, final RoutingDataSource dataSource,
             final LoanProductReadPlatformService loanProductReadPlatformService, final OfficeReadPlatformService officeReadPlatformService) {
@@ -58,63 +71,137 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
         final AppUser currentUser = this.context.authenticatedUser();
         final String hierarchy = currentUser.getOffice().getHierarchy();
 
+        final Map<String, List<Long>> matches = retrieveIndexMatches(searchConditions, hierarchy);
+        if (matches.isEmpty()) { return new ArrayList<>(); }
+
         final SearchMapper rm = new SearchMapper();
 
         final MapSqlParameterSource params = new MapSqlParameterSource();
+        for (final Map.Entry<String, List<Long>> match : matches.entrySet()) {
+            params.addValue(match.getKey(), match.getValue());
+        }
+        return this.namedParameterjdbcTemplate.query(rm.searchSchema(matches.keySet()), params, rm);
+    }
+
+    /**
+     * Looks the search up in <code>m_search_index</code>, where the searchable
+     * columns are indexed by their whole value, by each word of names and
+     * account numbers also without leading zeros, and returns the matching
+     * ids by entity type.
+     */
+    private Map<String, List<Long>> retrieveIndexMatches(final SearchConditions searchConditions, final String hierarchy) {
+        final List<String> entityTypes = new ArrayList<>();
+        if (searchConditions.isClientSearch()) {
+            entityTypes.add(SEARCH_INDEX_ENTITY_TYPES.CLIENT.name());
+        }
+        if (searchConditions.isLoanSeach()) {
+            entityTypes.add(SEARCH_INDEX_ENTITY_TYPES.LOAN.name());
+        }
+        if (searchConditions.isSavingSeach()) {
+            entityTypes.add(SEARCH_INDEX_ENTITY_TYPES.SAVING.name());
+        }
+        if (searchConditions.isClientIdentifierSearch()) {
+            entityTypes.add(SEARCH_INDEX_ENTITY_TYPES.CLIENTIDENTIFIER.name());
+        }
+        if (searchConditions.isGroupSearch()) {
+            entityTypes.add(SEARCH_INDEX_ENTITY_TYPES.GROUP.name());
+        }
+        final Map<String, List<Long>> matches = new LinkedHashMap<>();
+        if (entityTypes.isEmpty()) { return matches; }
+
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        final String sql = indexMatchSql(searchConditions, entityTypes, hierarchy, params);
+        this.namedParameterjdbcTemplate.query(sql, params, new RowCallbackHandler() {
+
+            @Override
+            public void processRow(final ResultSet rs) throws SQLException {
+                final String entityType = rs.getString("entityType");
+                List<Long> ids = matches.get(entityType);
+                if (ids == null) {
+                    ids = new ArrayList<>();
+                    matches.put(entityType, ids);
+                }
+                ids.add(rs.getLong("entityId"));
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * Builds the lookup of the search in <code>m_search_index</code>, limited
+     * to entities of the offices under the hierarchy of the user. Entities
+     * without an office match in every office.
+     */
+    static String indexMatchSql(final SearchConditions searchConditions, final List<String> entityTypes, final String hierarchy,
+            final MapSqlParameterSource params) {
+        params.addValue("entityTypes", entityTypes);
         params.addValue("hierarchy", hierarchy + "%");
-        if(searchConditions.getExactMatch()){
-       	 params.addValue("search", searchConditions.getSearchQuery());
-       	}else{
-       	 params.addValue("search", "%" + searchConditions.getSearchQuery() + "%");
-       	}  
-        return this.namedParameterjdbcTemplate.query(rm.searchSchema(searchConditions), params, rm);
+        params.addValue("limit", MAX_MATCHES);
+
+        final StringBuilder sql = new StringBuilder("select distinct si.entity_type as entityType, si.entity_id as entityId ")
+                .append(" from m_search_index si left join m_office o on o.id = si.office_id ")
+                .append(" where si.entity_type in (:entityTypes) and (si.office_id is null or o.hierarchy like :hierarchy) ");
+        if (searchConditions.getExactMatch()) {
+            params.addValue("search", searchConditions.getSearchQuery());
+            sql.append(" and si.term = :search and si.whole_value = 1 ");
+        } else {
+            params.addValue("search", searchConditions.getSearchQuery() + "%");
+            sql.append(" and si.term like :search ");
+        }
+        sql.append(" limit :limit");
+        return sql.toString();
     }
 
     private static final class SearchMapper implements RowMapper<SearchData> {
 
-        public String searchSchema(final SearchConditions searchConditions) {
+        /**
+         * @param entityTypes
+         *            the entity types with matches, each bound as a parameter
+         *            holding the matching ids
+         */
+        public String searchSchema(final Set<String> entityTypes) {
 
             final String union = " union ";
             final String clientMatchSql = " (select 'CLIENT' as entityType, c.id as entityId, c.display_name as entityName, c.external_id as entityExternalId, c.account_no as entityAccountNo "
                     + " , c.office_id as parentId, o.name as parentName, c.mobile_no as entityMobileNo,c.status_enum as entityStatusEnum, null as parentType "
-                    + " from m_client c join m_office o on o.id = c.office_id where o.hierarchy like :hierarchy and (c.account_no like :search or c.display_name like :search or c.external_id like :search or c.mobile_no like :search)) ";
+                    + " from m_client c join m_office o on o.id = c.office_id where c.id in (:CLIENT)) ";
 
             final String loanMatchSql = " (select 'LOAN' as entityType, l.id as entityId, pl.name as entityName, l.external_id as entityExternalId, l.account_no as entityAccountNo "
                     + " , IFNULL(c.id,g.id) as parentId, IFNULL(c.display_name,g.display_name) as parentName, null as entityMobileNo, l.loan_status_id as entityStatusEnum, IF(g.id is null, 'client', 'group') as parentType "
-                    + " from m_loan l left join m_client c on l.client_id = c.id left join m_group g ON l.group_id = g.id left join m_office o on o.id = c.office_id left join m_product_loan pl on pl.id=l.product_id where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (l.account_no like :search or l.external_id like :search)) ";
+                    + " from m_loan l left join m_client c on l.client_id = c.id left join m_group g ON l.group_id = g.id left join m_product_loan pl on pl.id=l.product_id where l.id in (:LOAN)) ";
 
 
             final String savingMatchSql = " (select 'SAVING' as entityType, s.id as entityId, sp.name as entityName, s.external_id as entityExternalId, s.account_no as entityAccountNo "
                     + " , IFNULL(c.id,g.id) as parentId, IFNULL(c.display_name,g.display_name) as parentName, null as entityMobileNo, s.status_enum as entityStatusEnum, IF(g.id is null, 'client', 'group') as parentType "
-                    + " from m_savings_account s left join m_client c on s.client_id = c.id left join m_group g ON s.group_id = g.id left join m_office o on o.id = c.office_id left join m_savings_product sp on sp.id=s.product_id "
-                    + " where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (s.account_no like :search or s.external_id like :search)) ";
+                    + " from m_savings_account s left join m_client c on s.client_id = c.id left join m_group g ON s.group_id = g.id left join m_savings_product sp on sp.id=s.product_id "
+                    + " where s.id in (:SAVING)) ";
             
             final String clientIdentifierMatchSql = " (select 'CLIENTIDENTIFIER' as entityType, ci.id as entityId, ci.document_key as entityName, "
                     + " null as entityExternalId, null as entityAccountNo, c.id as parentId, c.display_name as parentName,null as entityMobileNo, c.status_enum as entityStatusEnum, null as parentType "
-                    + " from m_client_identifier ci join m_client c on ci.client_id=c.id join m_office o on o.id = c.office_id "
-                    + " where o.hierarchy like :hierarchy and ci.document_key like :search ) ";
+                    + " from m_client_identifier ci join m_client c on ci.client_id=c.id "
+                    + " where ci.id in (:CLIENTIDENTIFIER) ) ";
             final String groupMatchSql = " (select IF(g.level_id=1,'CENTER','GROUP') as entityType, g.id as entityId, g.display_name as entityName, g.external_id as entityExternalId, g.account_no as entityAccountNo "
                     + " , g.office_id as parentId, o.name as parentName, null as entityMobileNo, g.status_enum as entityStatusEnum, null as parentType "
-                    + " from m_group g join m_office o on o.id = g.office_id where o.hierarchy like :hierarchy and (g.account_no like :search or g.display_name like :search or g.external_id like :search or g.id like :search )) ";
+                    + " from m_group g join m_office o on o.id = g.office_id where g.id in (:GROUP)) ";
             final StringBuffer sql = new StringBuffer();
 
-            if (searchConditions.isClientSearch()) {
+            if (entityTypes.contains(SEARCH_INDEX_ENTITY_TYPES.CLIENT.name())) {
                 sql.append(clientMatchSql).append(union);
             }
 
-            if (searchConditions.isLoanSeach()) {
+            if (entityTypes.contains(SEARCH_INDEX_ENTITY_TYPES.LOAN.name())) {
                 sql.append(loanMatchSql).append(union);
             }
 
-            if (searchConditions.isSavingSeach()) {
+            if (entityTypes.contains(SEARCH_INDEX_ENTITY_TYPES.SAVING.name())) {
                 sql.append(savingMatchSql).append(union);
             }
 
-            if (searchConditions.isClientIdentifierSearch()) {
+            if (entityTypes.contains(SEARCH_INDEX_ENTITY_TYPES.CLIENTIDENTIFIER.name())) {
                 sql.append(clientIdentifierMatchSql).append(union);
             }
 
-            if (searchConditions.isGroupSearch()) {
+            if (entityTypes.contains(SEARCH_INDEX_ENTITY_TYPES.GROUP.name())) {
                 sql.append(groupMatchSql).append(union);
             }
 
@@ -31,6 +31,7 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
 
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
 import org.mifosplatform.commands.domain.CommandWrapper;
 import org.mifosplatform.commands.service.CommandWrapperBuilder;
 import org.mifosplatform.commands.service.PortfolioCommandSourceWritePlatformService;
@@ -182,7 +183,39 @@ public class TemplatesApiResource {
         @SuppressWarnings("unchecked")
         final HashMap<String, Object> result = new ObjectMapper().readValue(apiRequestBodyAsJson, HashMap.class);
 
-        final MultivaluedMap<String, String> parameters = uriInfo.getQueryParameters();
+        final Map<String, Object> parametersMap = queryParametersAsMap(uriInfo.getQueryParameters());
+        parametersMap.put("BASE_URI", uriInfo.getBaseUri());
+        parametersMap.putAll(result);
+        return this.templateMergeService.compile(template, parametersMap);
+    }
+
+    /**
+     * Merges the template for each object of the posted json array, e.g. one
+     * letter per client. Query parameters are shared by all of them; the
+     * response is the json array of merged texts in the same order.
+     */
+    @POST
+    @Path("{templateId}/bulk")
+    @Produces({ MediaType.APPLICATION_JSON })
+    public String mergeTemplateInBulk(@PathParam("templateId") final Long templateId, @Context final UriInfo uriInfo,
+            final String apiRequestBodyAsJson) throws IOException {
+
+        this.context.authenticatedUser().validateHasReadPermission(this.RESOURCE_NAME_FOR_PERMISSION);
+
+        final Template template = this.templateService.findOneById(templateId);
+
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final List<Map<String, Object>> entities = objectMapper.readValue(apiRequestBodyAsJson,
+                new TypeReference<List<Map<String, Object>>>() {});
+
+        final Map<String, Object> parametersMap = queryParametersAsMap(uriInfo.getQueryParameters());
+        parametersMap.put("BASE_URI", uriInfo.getBaseUri());
+
+        final List<String> merged = this.templateMergeService.compileAll(template, parametersMap, entities, null);
+        return objectMapper.writeValueAsString(merged);
+    }
+
+    private static Map<String, Object> queryParametersAsMap(final MultivaluedMap<String, String> parameters) {
         final Map<String, Object> parametersMap = new HashMap<>();
         for (final Map.Entry<String, List<String>> entry : parameters.entrySet()) {
 
@@ -192,9 +225,6 @@ public class TemplatesApiResource {
                 parametersMap.put(entry.getKey(), entry.getValue());
             }
         }
-
-        parametersMap.put("BASE_URI", uriInfo.getBaseUri());
-        parametersMap.putAll(result);
-        return this.templateMergeService.compile(template, parametersMap);
+        return parametersMap;
     }
 }
\ No newline at end of file
@@ -36,6 +36,9 @@ public class JpaTemplateDomainService implements TemplateDomainService {
     @Autowired
     private TemplateRepository templateRepository;
 
+    @Autowired
+    private TemplateMergeService templateMergeService;
+
     @Override
     public List<Template> getAll() {
         return this.templateRepository.findAll();
@@ -102,6 +105,7 @@ public class JpaTemplateDomainService implements TemplateDomainService {
         template.setMappers(mappersList);
 
         this.templateRepository.saveAndFlush(template);
+        this.templateMergeService.evict(templateId);
 
         return new CommandProcessingResultBuilder()
                 .withCommandId(command.commandId())
@@ -114,6 +118,7 @@ public class JpaTemplateDomainService implements TemplateDomainService {
         final Template template = findOneById(templateId);
 
         this.templateRepository.delete(template);
+        this.templateMergeService.evict(templateId);
 
         return new CommandProcessingResultBuilder().withEntityId(templateId)
                 .build();
@@ -122,6 +127,7 @@ public class JpaTemplateDomainService implements TemplateDomainService {
     @Transactional
     @Override
     public Template updateTemplate(final Template template) {
+        this.templateMergeService.evict(template.getId());
         return this.templateRepository.saveAndFlush(template);
     }
 
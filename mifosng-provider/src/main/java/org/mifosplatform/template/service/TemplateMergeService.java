@@ -11,23 +11,43 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.StringWriter;
-import java.net.Authenticator;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.PasswordAuthentication;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.xml.bind.DatatypeConverter;
 
 import org.codehaus.jackson.map.ObjectMapper;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
 import org.mifosplatform.template.domain.Template;
 import org.mifosplatform.template.domain.TemplateFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -35,103 +55,308 @@ import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheFactory;
 
+/**
+ * Merges templates with their scopes. Compiled templates are kept per tenant
+ * and template id and reused as long as the text and mappers they were
+ * compiled from are unchanged; mapper urls that do not depend on each other
+ * are fetched concurrently on a bounded pool.
+ */
 @Service
 public class TemplateMergeService {
-	private final static Logger logger = LoggerFactory.getLogger(TemplateMergeService.class);
 
-    // private final FromJsonHelper fromApiJsonHelper;
-    private Map<String, Object> scopes;
-    private String authToken;
+    private final static Logger logger = LoggerFactory.getLogger(TemplateMergeService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MustacheFactory mustacheFactory = new DefaultMustacheFactory();
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    @Value("${mifos.template.merge.threads:8}")
+    private int mergeThreads;
 
-    // @Autowired
-    // public TemplateMergeService(final FromJsonHelper fromApiJsonHelper) {
-    // this.fromApiJsonHelper = fromApiJsonHelper;
-    // }
+    /**
+     * <code>null</code> when not managed by spring, mappers are then resolved
+     * on the calling thread.
+     */
+    private ThreadPoolExecutor executor;
 
-    public void setAuthToken(final String authToken) {
-        this.authToken = authToken;
+    @PostConstruct
+    public void start() {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        this.executor = new ThreadPoolExecutor(this.mergeThreads, this.mergeThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "template-merge-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.executor.shutdownNow();
     }
 
+    /**
+     * Mapper urls are requested with the credentials of the current user.
+     */
     public String compile(final Template template, final Map<String, Object> scopes) throws MalformedURLException, IOException {
-        this.scopes = scopes;
-        this.scopes.put("static", new TemplateFunctions());
+        return compile(template, scopes, null);
+    }
+
+    /**
+     * @param authToken
+     *            basic authentication token for the mapper urls,
+     *            <code>null</code> for the credentials of the current user
+     */
+    public String compile(final Template template, final Map<String, Object> scopes, final String authToken)
+            throws MalformedURLException, IOException {
+        final CompiledTemplate compiledTemplate = compiledTemplateFor(template);
+        return merge(compiledTemplate, scopes, authorizationFor(authToken), this.executor != null);
+    }
+
+    /**
+     * Renders the template once per entity, compiling it only once.
+     *
+     * @param sharedScopes
+     *            scopes common to every entity, e.g. <code>BASE_URI</code>
+     * @param entityScopes
+     *            the scopes of each entity, overriding the shared ones
+     * @return the merged text of each entity, in the order of
+     *         <code>entityScopes</code>
+     */
+    public List<String> compileAll(final Template template, final Map<String, Object> sharedScopes,
+            final List<Map<String, Object>> entityScopes, final String authToken) throws IOException {
+        final CompiledTemplate compiledTemplate = compiledTemplateFor(template);
+        final String authorization = authorizationFor(authToken);
 
-        final MustacheFactory mf = new DefaultMustacheFactory();
-        final Mustache mustache = mf.compile(new StringReader(template.getText()), template.getName());
+        final List<String> merged = new ArrayList<>(entityScopes.size());
+        if (this.executor == null) {
+            for (final Map<String, Object> entity : entityScopes) {
+                merged.add(merge(compiledTemplate, scopesOf(sharedScopes, entity), authorization, false));
+            }
+            return merged;
+        }
 
-        final Map<String, Object> mappers = getCompiledMapFromMappers(template.getMappersAsMap());
-        this.scopes.putAll(mappers);
+        // entities are merged concurrently, so each resolves its own mappers
+        // on its worker thread
+        final List<Callable<String>> merges = new ArrayList<>(entityScopes.size());
+        for (final Map<String, Object> entity : entityScopes) {
+            merges.add(new Callable<String>() {
+
+                @Override
+                public String call() throws Exception {
+                    return merge(compiledTemplate, scopesOf(sharedScopes, entity), authorization, false);
+                }
+            });
+        }
+        try {
+            for (final Future<String> result : this.executor.invokeAll(merges)) {
+                merged.add(result.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while merging template " + template.getName(), e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) { throw (IOException) e.getCause(); }
+            if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+            throw new IOException(e.getCause());
+        }
+        return merged;
+    }
+
+    /**
+     * Drops the compiled copy of an updated or deleted template.
+     */
+    public void evict(final Long templateId) {
+        if (templateId != null) {
+            this.compiledTemplates.remove(cacheKey(templateId));
+        }
+    }
+
+    private String merge(final CompiledTemplate compiledTemplate, final Map<String, Object> scopes, final String authorization,
+            final boolean parallelMappers) {
+        scopes.put("static", new TemplateFunctions());
+
+        resolveMappers(compiledTemplate, scopes, authorization, parallelMappers);
 
         expandMapArrays(scopes);
 
         final StringWriter stringWriter = new StringWriter();
-        mustache.execute(stringWriter, this.scopes);
+        compiledTemplate.mustache.execute(stringWriter, scopes);
 
         return stringWriter.toString();
     }
 
-	private Map<String, Object> getCompiledMapFromMappers(final Map<String, String> data) {
-        final MustacheFactory mf = new DefaultMustacheFactory();
+    private CompiledTemplate compiledTemplateFor(final Template template) {
+        final LinkedHashMap<String, String> mappers = template.getMappersAsMap();
+        if (template.getId() == null) { return compileTemplate(template, mappers); }
+
+        final String key = cacheKey(template.getId());
+        CompiledTemplate compiledTemplate = this.compiledTemplates.get(key);
+        if (compiledTemplate == null || !compiledTemplate.isCompiledFrom(template.getText(), mappers)) {
+            compiledTemplate = compileTemplate(template, mappers);
+            this.compiledTemplates.put(key, compiledTemplate);
+        }
+        return compiledTemplate;
+    }
+
+    private CompiledTemplate compileTemplate(final Template template, final LinkedHashMap<String, String> mapperTexts) {
+        final Mustache mustache = this.mustacheFactory.compile(new StringReader(template.getText()), template.getName());
 
-        if (data != null) {
-            for (final Map.Entry<String, String> entry : data.entrySet()) {
-                final Mustache mappersMustache = mf.compile(new StringReader(entry.getValue()), "");
-                final StringWriter stringWriter = new StringWriter();
+        final Map<String, Mustache> mappers = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> entry : mapperTexts.entrySet()) {
+            mappers.put(entry.getKey(), this.mustacheFactory.compile(new StringReader(entry.getValue()), ""));
+        }
+        return new CompiledTemplate(template.getText(), mapperTexts, mustache, mappers);
+    }
+
+    private static String cacheKey(final Long templateId) {
+        final MifosPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final String tenantIdentifier = tenant == null ? "" : tenant.getTenantIdentifier();
+        return tenantIdentifier + ":" + templateId;
+    }
+
+    private static Map<String, Object> scopesOf(final Map<String, Object> sharedScopes, final Map<String, Object> entityScopes) {
+        final Map<String, Object> scopes = new HashMap<>(sharedScopes);
+        scopes.putAll(entityScopes);
+        return scopes;
+    }
+
+    /**
+     * Resolves the mappers in waves: a mapper whose url refers to another
+     * mapper still to be resolved waits for it, all others of a wave are
+     * fetched concurrently.
+     */
+    private void resolveMappers(final CompiledTemplate compiledTemplate, final Map<String, Object> scopes, final String authorization,
+            final boolean parallel) {
+        final Map<String, Mustache> pending = new LinkedHashMap<>(compiledTemplate.mappers);
+        while (!pending.isEmpty()) {
+            final Map<String, String> urls = new LinkedHashMap<>();
+            for (final Map.Entry<String, Mustache> entry : pending.entrySet()) {
+                if (!dependsOnPending(entry.getKey(), compiledTemplate.mapperTexts.get(entry.getKey()), pending.keySet())) {
+                    urls.put(entry.getKey(), renderUrl(entry.getValue(), scopes));
+                }
+            }
+            if (urls.isEmpty()) {
+                // circular references, fall back to the configured order
+                final Map.Entry<String, Mustache> first = pending.entrySet().iterator().next();
+                urls.put(first.getKey(), renderUrl(first.getValue(), scopes));
+            }
+            pending.keySet().removeAll(urls.keySet());
 
-                mappersMustache.execute(stringWriter, this.scopes);
-                String url = stringWriter.toString();
-                if (!url.startsWith("http")) {
-                    url = this.scopes.get("BASE_URI") + url;
+            if (parallel && urls.size() > 1) {
+                fetchConcurrently(urls, scopes, authorization);
+            } else {
+                for (final Map.Entry<String, String> url : urls.entrySet()) {
+                    putMapFromUrl(url.getKey(), url.getValue(), scopes, authorization);
                 }
+            }
+        }
+    }
+
+    private static boolean dependsOnPending(final String mapperKey, final String mapperText, final Iterable<String> pendingKeys) {
+        for (final String key : pendingKeys) {
+            if (key.equals(mapperKey)) {
+                continue;
+            }
+            if (mapperText.contains("{{" + key + ".") || mapperText.contains("{{" + key + "}}") || mapperText.contains("{{#" + key)
+                    || mapperText.contains("{{{" + key)) { return true; }
+        }
+        return false;
+    }
+
+    private String renderUrl(final Mustache mapper, final Map<String, Object> scopes) {
+        final StringWriter stringWriter = new StringWriter();
+        mapper.execute(stringWriter, scopes);
+        String url = stringWriter.toString();
+        if (!url.startsWith("http")) {
+            url = scopes.get("BASE_URI") + url;
+        }
+        return url;
+    }
+
+    private void fetchConcurrently(final Map<String, String> urls, final Map<String, Object> scopes, final String authorization) {
+        final Map<String, Future<Map<String, Object>>> responses = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> url : urls.entrySet()) {
+            responses.put(url.getKey(), this.executor.submit(new Callable<Map<String, Object>>() {
+
+                @Override
+                public Map<String, Object> call() throws Exception {
+                    return getMapFromUrl(url.getValue(), authorization);
+                }
+            }));
+        }
+
+        final Iterator<Map.Entry<String, Future<Map<String, Object>>>> iterator = responses.entrySet().iterator();
+        try {
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Future<Map<String, Object>>> response = iterator.next();
                 try {
-                    this.scopes.put(entry.getKey(), getMapFromUrl(url));
-                } catch (final IOException e) {
-                	logger.error("getCompiledMapFromMappers() failed", e);
+                    scopes.put(response.getKey(), response.getValue().get());
+                } catch (final ExecutionException e) {
+                    logger.error("resolveMappers() failed", e.getCause());
                 }
             }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (final Future<Map<String, Object>> response : responses.values()) {
+                response.cancel(true);
+            }
+        }
+    }
+
+    private void putMapFromUrl(final String key, final String url, final Map<String, Object> scopes, final String authorization) {
+        try {
+            scopes.put(key, getMapFromUrl(url, authorization));
+        } catch (final IOException e) {
+            logger.error("resolveMappers() failed", e);
         }
-        return this.scopes;
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> getMapFromUrl(final String url) throws MalformedURLException, IOException {
-        final HttpURLConnection connection = getConnection(url);
+    private Map<String, Object> getMapFromUrl(final String url, final String authorization) throws MalformedURLException, IOException {
+        final HttpURLConnection connection = getConnection(url, authorization);
 
         final String response = getStringFromInputStream(connection.getInputStream());
         HashMap<String, Object> result = new HashMap<>();
         if (connection.getContentType().equals("text/plain")) {
             result.put("src", response);
         } else {
-            result = new ObjectMapper().readValue(response, HashMap.class);
+            result = objectMapper.readValue(response, HashMap.class);
         }
         return result;
     }
 
-    private HttpURLConnection getConnection(final String url) {
-        if (this.authToken == null) {
-            final String name = SecurityContextHolder.getContext().getAuthentication().getName();
-            final String password = SecurityContextHolder.getContext().getAuthentication().getCredentials().toString();
+    /**
+     * The basic authorization header for mapper urls, set on each connection
+     * rather than through the JVM wide {@link java.net.Authenticator}.
+     */
+    private static String authorizationFor(final String authToken) {
+        if (authToken != null) { return "Basic " + authToken; }
 
-            Authenticator.setDefault(new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(name, password.toCharArray());
-                }
-            });
-        }
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getCredentials() == null) { return null; }
+        final String credentials = authentication.getName() + ":" + authentication.getCredentials().toString();
+        return "Basic " + DatatypeConverter.printBase64Binary(credentials.getBytes(StandardCharsets.UTF_8));
+    }
 
+    private HttpURLConnection getConnection(final String url, final String authorization) {
         HttpURLConnection connection = null;
         try {
             connection = (HttpURLConnection) new URL(url).openConnection();
-            if (this.authToken != null) {
-                connection.setRequestProperty("Authorization", "Basic " + this.authToken);
+            if (authorization != null) {
+                connection.setRequestProperty("Authorization", authorization);
             }
             TrustModifier.relaxHostChecking(connection);
 
             connection.setDoInput(true);
 
         } catch (IOException | KeyManagementException | NoSuchAlgorithmException | KeyStoreException e) {
-        	logger.error("getConnection() failed, return null", e);
+            logger.error("getConnection() failed, return null", e);
         }
 
         return connection;
@@ -151,7 +376,7 @@ public class TemplateMergeService {
             }
 
         } catch (final IOException e) {
-        	logger.error("getStringFromInputStream() failed", e);
+            logger.error("getStringFromInputStream() failed", e);
         } finally {
             if (br != null) {
                 try {
@@ -164,27 +389,46 @@ public class TemplateMergeService {
 
         return sb.toString();
     }
-    
-	@SuppressWarnings("unchecked")
-	private void expandMapArrays(Object value) {
-		if (value instanceof Map) {
-			Map<String, Object> valueAsMap = (Map<String, Object>) value;
-			for (Entry<String, Object> valueAsMapEntry : valueAsMap.entrySet()) {
-				Object valueAsMapEntryValue = valueAsMapEntry.getValue();
-				if (valueAsMapEntryValue instanceof Map) { // JSON Object
-					expandMapArrays(valueAsMapEntryValue);
-				} else if (valueAsMapEntryValue instanceof Iterable) { // JSON Array
-					Iterable<Object> valueAsMapEntryValueIterable = (Iterable<Object>) valueAsMapEntryValue;
-					String valueAsMapEntryKey = valueAsMapEntry.getKey();
-					int i = 0;
-					for (Object object : valueAsMapEntryValueIterable) {
-						valueAsMap.put(valueAsMapEntryKey + "#" + i, object);
-						++i;
-						expandMapArrays(object);
-					}
-				}
-			}
-		}		
-	}
 
+    @SuppressWarnings("unchecked")
+    private void expandMapArrays(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> valueAsMap = (Map<String, Object>) value;
+            for (Entry<String, Object> valueAsMapEntry : new ArrayList<>(valueAsMap.entrySet())) {
+                Object valueAsMapEntryValue = valueAsMapEntry.getValue();
+                if (valueAsMapEntryValue instanceof Map) { // JSON Object
+                    expandMapArrays(valueAsMapEntryValue);
+                } else if (valueAsMapEntryValue instanceof Iterable) { // JSON Array
+                    Iterable<Object> valueAsMapEntryValueIterable = (Iterable<Object>) valueAsMapEntryValue;
+                    String valueAsMapEntryKey = valueAsMapEntry.getKey();
+                    int i = 0;
+                    for (Object object : valueAsMapEntryValueIterable) {
+                        valueAsMap.put(valueAsMapEntryKey + "#" + i, object);
+                        ++i;
+                        expandMapArrays(object);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class CompiledTemplate {
+
+        private final String text;
+        private final Map<String, String> mapperTexts;
+        private final Mustache mustache;
+        private final Map<String, Mustache> mappers;
+
+        CompiledTemplate(final String text, final Map<String, String> mapperTexts, final Mustache mustache,
+                final Map<String, Mustache> mappers) {
+            this.text = text;
+            this.mapperTexts = mapperTexts;
+            this.mustache = mustache;
+            this.mappers = mappers;
+        }
+
+        boolean isCompiledFrom(final String text, final Map<String, String> mapperTexts) {
+            return this.text.equals(text) && this.mapperTexts.equals(mapperTexts);
+        }
+    }
 }
@@ -7,10 +7,12 @@ package org.mifosplatform.useradministration.domain;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -24,6 +26,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 import javax.persistence.UniqueConstraint;
 
 import org.mifosplatform.infrastructure.core.api.JsonCommand;
@@ -101,6 +104,19 @@ public class AppUser extends AbstractPersistable<Long> implements PlatformUser {
     @Column(name = "password_never_expires", nullable = false)
     private boolean passwordNeverExpires;
 
+    /**
+     * Upper-cased permission codes of all roles, flattened on first use so
+     * permission checks are a single set lookup. Cached users are evicted from
+     * the <code>users</code> and <code>usersByUsername</code> caches whenever
+     * users, roles or permissions change, so the set is only ever rebuilt from
+     * a freshly loaded user or after {@link #updateRoles(Set)}.
+     */
+    @Transient
+    private volatile Set<String> permissionCodes;
+
+    @Transient
+    private volatile List<GrantedAuthority> grantedAuthorities;
+
     public static AppUser fromJson(final Office userOffice, final Staff linkedStaff, final Set<Role> allRoles, final JsonCommand command) {
 
         final String username = command.stringValueOfParameterNamed("username");
@@ -187,6 +203,7 @@ public class AppUser extends AbstractPersistable<Long> implements PlatformUser {
         if (!allRoles.isEmpty()) {
             this.roles.clear();
             this.roles = allRoles;
+            resetPermissions();
         }
     }
 
@@ -297,6 +314,7 @@ public class AppUser extends AbstractPersistable<Long> implements PlatformUser {
         this.firstTimeLoginRemaining = true;
         this.username = getId() + "_DELETED_" + this.username;
         this.roles.clear();
+        resetPermissions();
     }
 
     public boolean isDeleted() {
@@ -305,7 +323,12 @@ public class AppUser extends AbstractPersistable<Long> implements PlatformUser {
 
     @Override
     public Collection<GrantedAuthority> getAuthorities() {
-        return populateGrantedAuthorities();
+        List<GrantedAuthority> authorities = this.grantedAuthorities;
+        if (authorities == null) {
+            authorities = Collections.unmodifiableList(populateGrantedAuthorities());
+            this.grantedAuthorities = authorities;
+        }
+        return authorities;
     }
 
     private List<GrantedAuthority> populateGrantedAuthorities() {
@@ -319,6 +342,28 @@ public class AppUser extends AbstractPersistable<Long> implements PlatformUser {
         return grantedAuthorities;
     }
 
+    private Set<String> permissionCodes() {
+        Set<String> codes = this.permissionCodes;
+        if (codes == null) {
+            final Set<String> allCodes = new HashSet<>();
+            for (final Role role : this.roles) {
+                for (final Permission permission : role.getPermissions()) {
+                    if (permission.getCode() != null) {
+                        allCodes.add(permission.getCode().toUpperCase(Locale.ENGLISH));
+                    }
+                }
+            }
+            codes = Collections.unmodifiableSet(allCodes);
+            this.permissionCodes = codes;
+        }
+        return codes;
+    }
+
+    private void resetPermissions() {
+        this.permissionCodes = null;
+        this.grantedAuthorities = null;
+    }
+
     @Override
     public String getPassword() {
         return this.password;
@@ -451,27 +496,11 @@ public class AppUser extends AbstractPersistable<Long> implements PlatformUser {
     }
 
     private boolean hasPermissionTo(final String permissionCode) {
-        boolean hasPermission = hasAllFunctionsPermission();
-        if (!hasPermission) {
-            for (final Role role : this.roles) {
-                if (role.hasPermissionTo(permissionCode)) {
-                    hasPermission = true;
-                    break;
-                }
-            }
-        }
-        return hasPermission;
+        return hasAllFunctionsPermission() || permissionCodes().contains(permissionCode.toUpperCase(Locale.ENGLISH));
     }
 
     private boolean hasAllFunctionsPermission() {
-        boolean match = false;
-        for (final Role role : this.roles) {
-            if (role.hasPermissionTo("ALL_FUNCTIONS")) {
-                match = true;
-                break;
-            }
-        }
-        return match;
+        return permissionCodes().contains("ALL_FUNCTIONS");
     }
 
     public boolean hasIdOf(final Long userId) {
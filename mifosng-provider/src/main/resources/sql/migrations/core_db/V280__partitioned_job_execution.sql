@@ -0,0 +1,14 @@
+CREATE TABLE `job_chunk_checkpoint` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`job_name` VARCHAR(100) NOT NULL,
+	`run_date` DATE NOT NULL,
+	`chunk_start_id` BIGINT(20) NOT NULL,
+	`chunk_end_id` BIGINT(20) NOT NULL,
+	`processed_count` INT(11) NOT NULL,
+	`completed_time` DATETIME NOT NULL,
+	PRIMARY KEY (`id`),
+	INDEX `IDX_job_chunk_checkpoint_job_run_date` (`job_name`, `run_date`)
+);
+
+insert into c_configuration(name, value, enabled, is_trap_door, description) values('job-partition-thread-count', '4', '0', '0', 'Number of worker threads used by scheduler jobs that support partitioned execution. When disabled these jobs run sequentially on the scheduler thread.');
+insert into c_configuration(name, value, enabled, is_trap_door, description) values('job-partition-chunk-size', '500', '1', '0', 'Number of records processed and committed together by a worker of a partitioned scheduler job');
@@ -0,0 +1,19 @@
+CREATE TABLE `m_hook_delivery` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`hook_id` BIGINT(20) NOT NULL,
+	`payload_url` VARCHAR(255) NOT NULL,
+	`content_type` VARCHAR(100) NOT NULL,
+	`entity_name` VARCHAR(45) NOT NULL,
+	`action_name` VARCHAR(45) NOT NULL,
+	`payload` MEDIUMTEXT NOT NULL,
+	`status_enum` SMALLINT(5) NOT NULL,
+	`attempt_count` INT(11) NOT NULL DEFAULT 0,
+	`next_attempt_time` DATETIME NOT NULL,
+	`claimed_time` DATETIME NULL DEFAULT NULL,
+	`delivered_time` DATETIME NULL DEFAULT NULL,
+	`last_error` VARCHAR(500) NULL DEFAULT NULL,
+	`created_date` DATETIME NOT NULL,
+	PRIMARY KEY (`id`),
+	INDEX `IDX_hook_delivery_status_next_attempt` (`status_enum`, `next_attempt_time`),
+	CONSTRAINT `FK_hook_delivery_hook` FOREIGN KEY (`hook_id`) REFERENCES `m_hook` (`id`) ON DELETE CASCADE
+);
@@ -0,0 +1,14 @@
+CREATE TABLE `acc_gl_running_balance_snapshot` (
+	`office_id` BIGINT(20) NOT NULL,
+	`account_id` BIGINT(20) NOT NULL,
+	`entry_date` DATE NOT NULL,
+	`journal_entry_id` BIGINT(20) NOT NULL,
+	`running_balance` DECIMAL(19,6) NOT NULL,
+	PRIMARY KEY (`account_id`, `office_id`),
+	CONSTRAINT `FK_running_balance_snapshot_office` FOREIGN KEY (`office_id`) REFERENCES `m_office` (`id`),
+	CONSTRAINT `FK_running_balance_snapshot_account` FOREIGN KEY (`account_id`) REFERENCES `acc_gl_account` (`id`)
+);
+
+ALTER TABLE `acc_gl_journal_entry`
+	ADD INDEX `IDX_journal_entry_running_balance` (`account_id`, `is_running_balance_calculated`, `entry_date`),
+	ADD INDEX `IDX_journal_entry_account_office_date` (`account_id`, `office_id`, `entry_date`);
@@ -0,0 +1,68 @@
+CREATE TABLE `m_search_index` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`entity_type` VARCHAR(20) NOT NULL,
+	`entity_id` BIGINT(20) NOT NULL,
+	`office_id` BIGINT(20) NULL DEFAULT NULL,
+	`term` VARCHAR(100) NOT NULL,
+	`whole_value` TINYINT(1) NOT NULL DEFAULT '1',
+	PRIMARY KEY (`id`),
+	INDEX `IDX_search_index_term` (`term`, `entity_type`),
+	INDEX `IDX_search_index_entity` (`entity_type`, `entity_id`)
+);
+
+-- whole values of every searchable column
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'CLIENT', c.id, c.office_id, LEFT(TRIM(t.term), 100), 1
+FROM m_client c
+JOIN (SELECT id, account_no AS term FROM m_client
+	UNION ALL SELECT id, display_name FROM m_client
+	UNION ALL SELECT id, external_id FROM m_client
+	UNION ALL SELECT id, mobile_no FROM m_client) t ON t.id = c.id
+WHERE t.term IS NOT NULL AND TRIM(t.term) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'LOAN', l.id, c.office_id, LEFT(TRIM(t.term), 100), 1
+FROM m_loan l
+LEFT JOIN m_client c ON c.id = l.client_id
+JOIN (SELECT id, account_no AS term FROM m_loan
+	UNION ALL SELECT id, external_id FROM m_loan) t ON t.id = l.id
+WHERE t.term IS NOT NULL AND TRIM(t.term) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'SAVING', s.id, c.office_id, LEFT(TRIM(t.term), 100), 1
+FROM m_savings_account s
+LEFT JOIN m_client c ON c.id = s.client_id
+JOIN (SELECT id, account_no AS term FROM m_savings_account
+	UNION ALL SELECT id, external_id FROM m_savings_account) t ON t.id = s.id
+WHERE t.term IS NOT NULL AND TRIM(t.term) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'CLIENTIDENTIFIER', ci.id, c.office_id, LEFT(TRIM(ci.document_key), 100), 1
+FROM m_client_identifier ci
+JOIN m_client c ON c.id = ci.client_id
+WHERE ci.document_key IS NOT NULL AND TRIM(ci.document_key) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'GROUP', g.id, g.office_id, LEFT(TRIM(t.term), 100), 1
+FROM m_group g
+JOIN (SELECT id, account_no AS term FROM m_group
+	UNION ALL SELECT id, display_name FROM m_group
+	UNION ALL SELECT id, external_id FROM m_group
+	UNION ALL SELECT id, CAST(id AS CHAR) FROM m_group) t ON t.id = g.id
+WHERE t.term IS NOT NULL AND TRIM(t.term) <> '';
+
+-- names are also found by the start of their second, third and fourth word,
+-- the application indexes every word of names it writes
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'CLIENT', c.id, c.office_id, LEFT(SUBSTRING(TRIM(c.display_name), LENGTH(SUBSTRING_INDEX(TRIM(c.display_name), ' ', w.n)) + 2), 100), 0
+FROM m_client c
+JOIN (SELECT 1 AS n UNION ALL SELECT 2 UNION ALL SELECT 3) w
+WHERE LENGTH(TRIM(c.display_name)) - LENGTH(REPLACE(TRIM(c.display_name), ' ', '')) >= w.n;
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'GROUP', g.id, g.office_id, LEFT(SUBSTRING(TRIM(g.display_name), LENGTH(SUBSTRING_INDEX(TRIM(g.display_name), ' ', w.n)) + 2), 100), 0
+FROM m_group g
+JOIN (SELECT 1 AS n UNION ALL SELECT 2 UNION ALL SELECT 3) w
+WHERE LENGTH(TRIM(g.display_name)) - LENGTH(REPLACE(TRIM(g.display_name), ' ', '')) >= w.n;
@@ -0,0 +1,13 @@
+CREATE TABLE `m_loan_arrears_aging_change` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`loan_id` BIGINT(20) NOT NULL,
+	PRIMARY KEY (`id`)
+);
+
+CREATE TABLE `m_loan_arrears_aging_run` (
+	`id` INT(11) NOT NULL,
+	`last_run_date` DATE NOT NULL,
+	PRIMARY KEY (`id`)
+);
+
+insert into c_configuration(name, value, enabled, is_trap_door, description) values('incremental-arrears-ageing', '0', '0', '0', 'When enabled the Update Loan Arrears Ageing job only recomputes loans changed since its last run or with installments that became overdue, instead of rebuilding the whole arrears ageing table');
@@ -0,0 +1,10 @@
+CREATE TABLE `m_loan_summary_dirty` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`loan_id` BIGINT(20) NOT NULL,
+	PRIMARY KEY (`id`),
+	INDEX `IDX_loan_summary_dirty_loan` (`loan_id`)
+);
+
+-- the first run of the Update loan Summary job refreshes every disbursed loan
+INSERT INTO `m_loan_summary_dirty` (`loan_id`)
+SELECT ml.id FROM m_loan ml WHERE ml.disbursedon_date IS NOT NULL;
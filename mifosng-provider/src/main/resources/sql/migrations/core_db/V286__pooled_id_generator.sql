@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS `m_id_generator` (
+	`table_name` VARCHAR(100) NOT NULL,
+	`next_val` BIGINT(20) NOT NULL,
+	PRIMARY KEY (`table_name`)
+);
+
+-- ids of these tables are now reserved in blocks from m_id_generator, so rows
+-- inserted directly (for instance sample data) must bump next_val past them.
+-- The sample data ships its own m_id_generator rows, which are only ever
+-- moved forward here.
+INSERT INTO `m_id_generator` (`table_name`, `next_val`)
+SELECT 'm_loan_repayment_schedule', IFNULL(MAX(id), 0) + 1 FROM m_loan_repayment_schedule
+ON DUPLICATE KEY UPDATE `next_val` = GREATEST(`next_val`, VALUES(`next_val`));
+
+INSERT INTO `m_id_generator` (`table_name`, `next_val`)
+SELECT 'm_savings_account_transaction', IFNULL(MAX(id), 0) + 1 FROM m_savings_account_transaction
+ON DUPLICATE KEY UPDATE `next_val` = GREATEST(`next_val`, VALUES(`next_val`));
+
+INSERT INTO `m_id_generator` (`table_name`, `next_val`)
+SELECT 'm_portfolio_command_source', IFNULL(MAX(id), 0) + 1 FROM m_portfolio_command_source
+ON DUPLICATE KEY UPDATE `next_val` = GREATEST(`next_val`, VALUES(`next_val`));
@@ -0,0 +1,11 @@
+-- offices a holiday has already been applied to, kept until the holiday is
+-- processed so that a failed Apply Holidays To Loans run resumes
+CREATE TABLE `m_holiday_office_applied` (
+	`holiday_id` BIGINT(20) NOT NULL,
+	`office_id` BIGINT(20) NOT NULL,
+	`installments_moved` INT(11) NOT NULL DEFAULT '0',
+	`applied_date` DATETIME NOT NULL,
+	PRIMARY KEY (`holiday_id`, `office_id`),
+	CONSTRAINT `FK_holiday_office_applied_holiday` FOREIGN KEY (`holiday_id`) REFERENCES `m_holiday` (`id`),
+	CONSTRAINT `FK_holiday_office_applied_office` FOREIGN KEY (`office_id`) REFERENCES `m_office` (`id`)
+);
@@ -0,0 +1,24 @@
+-- zero padded account numbers are also found by their significant digits,
+-- the application indexes them without leading zeros for the rows it writes
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'CLIENT', c.id, c.office_id, LEFT(TRIM(LEADING '0' FROM TRIM(c.account_no)), 100), 0
+FROM m_client c
+WHERE TRIM(c.account_no) LIKE '0%' AND TRIM(LEADING '0' FROM TRIM(c.account_no)) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'LOAN', l.id, c.office_id, LEFT(TRIM(LEADING '0' FROM TRIM(l.account_no)), 100), 0
+FROM m_loan l
+LEFT JOIN m_client c ON c.id = l.client_id
+WHERE TRIM(l.account_no) LIKE '0%' AND TRIM(LEADING '0' FROM TRIM(l.account_no)) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'SAVING', s.id, c.office_id, LEFT(TRIM(LEADING '0' FROM TRIM(s.account_no)), 100), 0
+FROM m_savings_account s
+LEFT JOIN m_client c ON c.id = s.client_id
+WHERE TRIM(s.account_no) LIKE '0%' AND TRIM(LEADING '0' FROM TRIM(s.account_no)) <> '';
+
+INSERT INTO `m_search_index` (`entity_type`, `entity_id`, `office_id`, `term`, `whole_value`)
+SELECT 'GROUP', g.id, g.office_id, LEFT(TRIM(LEADING '0' FROM TRIM(g.account_no)), 100), 0
+FROM m_group g
+WHERE TRIM(g.account_no) LIKE '0%' AND TRIM(LEADING '0' FROM TRIM(g.account_no)) <> '';
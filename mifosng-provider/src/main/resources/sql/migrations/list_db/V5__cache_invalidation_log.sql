@@ -0,0 +1,13 @@
+-- cache evictions published by the nodes of a multi node deployment, polled
+-- by the other nodes
+CREATE TABLE `c_cache_invalidation` (
+	`id` BIGINT(20) NOT NULL AUTO_INCREMENT,
+	`node_id` VARCHAR(36) NOT NULL,
+	`cache_name` VARCHAR(100) NOT NULL,
+	`cache_key` VARCHAR(500) NULL DEFAULT NULL,
+	`created_date` DATETIME NOT NULL,
+	PRIMARY KEY (`id`),
+	INDEX `IDX_cache_invalidation_created` (`created_date`)
+)
+COLLATE='utf8_general_ci'
+ENGINE=InnoDB;
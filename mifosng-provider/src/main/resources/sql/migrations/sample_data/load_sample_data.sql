@@ -1981,6 +1981,23 @@ INSERT INTO `m_hook_templates` (`id`, `name`) VALUES
 /*!40000 ALTER TABLE `m_hook_templates` ENABLE KEYS */;
 
 
+-- Dumping structure for table mifostenant-reference.m_id_generator
+DROP TABLE IF EXISTS `m_id_generator`;
+CREATE TABLE IF NOT EXISTS `m_id_generator` (
+  `table_name` varchar(100) NOT NULL,
+  `next_val` bigint(20) NOT NULL,
+  PRIMARY KEY (`table_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+-- Dumping data for table mifostenant-reference.m_id_generator: ~3 rows (approximately)
+/*!40000 ALTER TABLE `m_id_generator` DISABLE KEYS */;
+INSERT INTO `m_id_generator` (`table_name`, `next_val`) VALUES
+	('m_loan_repayment_schedule', 26),
+	('m_portfolio_command_source', 73),
+	('m_savings_account_transaction', 1);
+/*!40000 ALTER TABLE `m_id_generator` ENABLE KEYS */;
+
+
 -- Dumping structure for table mifostenant-reference.m_image
 DROP TABLE IF EXISTS `m_image`;
 CREATE TABLE IF NOT EXISTS `m_image` (
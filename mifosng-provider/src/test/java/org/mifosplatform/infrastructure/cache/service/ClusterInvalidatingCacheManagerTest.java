@@ -0,0 +1,71 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.cache.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.ehcache.EhCacheCacheManager;
+
+public class ClusterInvalidatingCacheManagerTest {
+
+    private ConcurrentMapCache localCache;
+    private CacheInvalidationTransport transport;
+    private ClusterInvalidatingCacheManager cacheManager;
+
+    @Before
+    public void setUp() {
+        this.localCache = new ConcurrentMapCache("offices");
+        final EhCacheCacheManager ehcacheCacheManager = Mockito.mock(EhCacheCacheManager.class);
+        Mockito.when(ehcacheCacheManager.getCache("offices")).thenReturn(this.localCache);
+        this.transport = Mockito.mock(CacheInvalidationTransport.class);
+        this.cacheManager = new ClusterInvalidatingCacheManager(ehcacheCacheManager, this.transport);
+    }
+
+    @Test
+    public void evictionIsAppliedLocallyAndPublished() {
+        final Cache cache = this.cacheManager.getCache("offices");
+        cache.put("defaultof", "office");
+
+        cache.evict("defaultof");
+
+        assertNull(this.localCache.get("defaultof"));
+        Mockito.verify(this.transport).publish("offices", "defaultof");
+        assertEquals(1, this.cacheManager.publishedInvalidations("offices"));
+    }
+
+    @Test
+    public void clearAndEvictionOfNonStringKeysArePublishedAsClear() {
+        final Cache cache = this.cacheManager.getCache("offices");
+
+        cache.clear();
+        cache.evict(Long.valueOf(1));
+
+        Mockito.verify(this.transport, Mockito.times(2)).publish("offices", null);
+    }
+
+    @Test
+    public void invalidationFromOtherNodeIsAppliedWithoutPublishing() {
+        this.localCache.put("defaultof", "office");
+        this.localCache.put("defaultofd", "office");
+
+        this.cacheManager.invalidate("offices", "defaultof");
+
+        assertNull(this.localCache.get("defaultof"));
+        assertEquals("office", this.localCache.get("defaultofd").get());
+
+        this.cacheManager.invalidate("offices", null);
+
+        assertNull(this.localCache.get("defaultofd"));
+        Mockito.verifyZeroInteractions(this.transport);
+        assertEquals(2, this.cacheManager.receivedInvalidations("offices"));
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.configuration.domain;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifosplatform.infrastructure.cache.domain.PlatformCacheRepository;
+import org.mifosplatform.infrastructure.cache.service.RuntimeDelegatingCacheManager;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.useradministration.domain.Permission;
+import org.mifosplatform.useradministration.domain.PermissionRepository;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Checks that configuration lookups are served from the snapshot of the
+ * tenant, and when the snapshot is read again.
+ */
+public class ConfigurationDomainServiceJpaTest {
+
+    private final PermissionRepository permissionRepository = mock(PermissionRepository.class);
+    private final GlobalConfigurationRepositoryWrapper globalConfigurationRepository = mock(GlobalConfigurationRepositoryWrapper.class);
+    private final RuntimeDelegatingCacheManager cacheManager = mock(RuntimeDelegatingCacheManager.class);
+    private final ConcurrentMapCache snapshotCache = new ConcurrentMapCache(ConfigurationDomainServiceJpa.SNAPSHOT_CACHE);
+    private final GlobalConfigurationProperty amazonS3 = mock(GlobalConfigurationProperty.class);
+
+    private ConfigurationDomainServiceJpa configurationDomainService;
+
+    @Before
+    public void setUp() {
+        when(this.amazonS3.getName()).thenReturn("amazon-S3");
+        when(this.amazonS3.isEnabled()).thenReturn(true);
+        when(this.globalConfigurationRepository.findAll()).thenReturn(Arrays.asList(this.amazonS3));
+        when(this.permissionRepository.findAll()).thenReturn(Collections.<Permission> emptyList());
+        when(this.cacheManager.getCache(ConfigurationDomainServiceJpa.SNAPSHOT_CACHE)).thenReturn(this.snapshotCache);
+
+        this.configurationDomainService = new ConfigurationDomainServiceJpa(this.permissionRepository,
+                this.globalConfigurationRepository, mock(PlatformCacheRepository.class), this.cacheManager);
+        ThreadLocalContextUtil.setTenant(new MifosPlatformTenant(Long.valueOf(1), "default", "Default Demo Tenant", "Asia/Kolkata",
+                null));
+    }
+
+    @After
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void readsTheConfigurationOnceWithCachingOff() {
+        when(this.cacheManager.isCacheEnabled()).thenReturn(false);
+
+        assertTrue(this.configurationDomainService.isAmazonS3Enabled());
+        assertTrue(this.configurationDomainService.isAmazonS3Enabled());
+
+        verify(this.globalConfigurationRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void readsTheConfigurationAgainAfterAWrite() {
+        when(this.cacheManager.isCacheEnabled()).thenReturn(false);
+        assertTrue(this.configurationDomainService.isAmazonS3Enabled());
+
+        when(this.amazonS3.isEnabled()).thenReturn(false);
+        this.configurationDomainService.refreshConfigurationSnapshot();
+
+        assertFalse(this.configurationDomainService.isAmazonS3Enabled());
+        assertFalse(this.configurationDomainService.isAmazonS3Enabled());
+        verify(this.globalConfigurationRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void readsTheConfigurationAgainWhenAnotherNodeEvictsTheMarker() {
+        when(this.cacheManager.isCacheEnabled()).thenReturn(true);
+        assertTrue(this.configurationDomainService.isAmazonS3Enabled());
+        assertTrue(this.configurationDomainService.isAmazonS3Enabled());
+        verify(this.globalConfigurationRepository, times(1)).findAll();
+
+        when(this.amazonS3.isEnabled()).thenReturn(false);
+        this.snapshotCache.evict("default");
+
+        assertFalse(this.configurationDomainService.isAmazonS3Enabled());
+        verify(this.globalConfigurationRepository, times(2)).findAll();
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.boot.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifosplatform.infrastructure.core.domain.PooledTableIdGenerator;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.infrastructure.security.service.BasicAuthTenantDetailsService;
+import org.mifosplatform.portfolio.loanaccount.domain.Loan;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Saves a repayment schedule through the JPA mapping and counts the insert
+ * statements MySQL receives, to check that installments with ids from the
+ * {@link PooledTableIdGenerator} are written in batches.
+ */
+public class PooledIdBatchInsertTest extends AbstractSpringBootWithMariaDB4jIntegrationTest {
+
+    private static final int NUMBER_OF_INSTALLMENTS = 120;
+
+    // hibernate.jdbc.batch_size of META-INF/persistence.xml
+    private static final int BATCH_SIZE = 100;
+
+    @Autowired
+    private BasicAuthTenantDetailsService tenantDetailsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(this.tenantDetailsService.loadTenantById("default", false));
+    }
+
+    @After
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void savingARepaymentScheduleSendsBatchedInserts() {
+        final Long insertStatements = this.transactionTemplate.execute(new TransactionCallback<Long>() {
+
+            @Override
+            public Long doInTransaction(final TransactionStatus status) {
+                status.setRollbackOnly();
+                final EntityManager em = PooledIdBatchInsertTest.this.entityManager;
+                final Session session = em.unwrap(Session.class);
+                // the schedule is saved for a loan that does not exist
+                execute(session, "set foreign_key_checks = 0");
+                try {
+                    final Loan loan = em.getReference(Loan.class, Long.valueOf(1));
+
+                    final long insertsBefore = insertStatementCount(session);
+                    LocalDate fromDate = new LocalDate(2015, 1, 1);
+                    for (int installment = 1; installment <= NUMBER_OF_INSTALLMENTS; installment++) {
+                        final LocalDate dueDate = fromDate.plusMonths(1);
+                        em.persist(new LoanRepaymentScheduleInstallment(loan, installment, fromDate, dueDate, BigDecimal.valueOf(83.33),
+                                BigDecimal.valueOf(12.5), BigDecimal.ZERO, BigDecimal.ZERO, false));
+                        fromDate = dueDate;
+                    }
+                    em.flush();
+                    return insertStatementCount(session) - insertsBefore;
+                } finally {
+                    execute(session, "set foreign_key_checks = 1");
+                }
+            }
+        });
+
+        final long expectedBatches = (NUMBER_OF_INSTALLMENTS + BATCH_SIZE - 1) / BATCH_SIZE;
+        assertEquals(expectedBatches, insertStatements.longValue());
+    }
+
+    private static void execute(final Session session, final String sql) {
+        session.doReturningWork(new ReturningWork<Void>() {
+
+            @Override
+            public Void execute(final Connection connection) throws SQLException {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(sql);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Insert statements run so far on the connection of the session, a
+     * rewritten batch counts as one.
+     */
+    private static long insertStatementCount(final Session session) {
+        return session.doReturningWork(new ReturningWork<Long>() {
+
+            @Override
+            public Long execute(final Connection connection) throws SQLException {
+                try (Statement statement = connection.createStatement();
+                        ResultSet rs = statement.executeQuery("show session status like 'Com_insert'")) {
+                    rs.next();
+                    return rs.getLong(2);
+                }
+            }
+        });
+    }
+}
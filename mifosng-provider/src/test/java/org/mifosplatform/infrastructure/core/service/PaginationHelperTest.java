@@ -0,0 +1,181 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.infrastructure.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.junit.Test;
+import org.mifosplatform.infrastructure.core.exception.UnrecognizedQueryParamException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Walks a listing of seven rows with keyset pagination, three rows a page.
+ */
+public class PaginationHelperTest {
+
+    private static final String KEY_COLUMN = "r.id";
+
+    private final PaginationHelper<Long> paginationHelper = new PaginationHelper<>();
+    private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+
+    @Test
+    public void firstPageEndsWithATokenForTheFollowingPage() {
+        final Page<Long> page = fetch("select r.id from first_page r", "", false);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), page.getPageItems());
+        assertEquals(Long.valueOf(3), PaginationHelper.decodeKeysetToken(page.getNext()));
+        assertNull(page.getTotalFilteredRecords());
+    }
+
+    @Test
+    public void middlePageSeeksPastTheKeyOfTheToken() {
+        final Page<Long> page = fetch("select r.id from middle_page r", PaginationHelper.encodeKeysetToken(3L), false);
+
+        assertEquals(Arrays.asList(4L, 5L, 6L), page.getPageItems());
+        assertEquals(Long.valueOf(6), PaginationHelper.decodeKeysetToken(page.getNext()));
+        assertTrue(this.jdbcTemplate.lastSql.contains(KEY_COLUMN + " > ?"));
+    }
+
+    @Test
+    public void lastPageHasNoToken() {
+        final Page<Long> page = fetch("select r.id from last_page r", PaginationHelper.encodeKeysetToken(6L), false);
+
+        assertEquals(Arrays.asList(7L), page.getPageItems());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void pageThatExactlyFillsTheLimitIsTheLastPage() {
+        final Page<Long> page = fetch("select r.id from full_last_page r", PaginationHelper.encodeKeysetToken(4L), false);
+
+        assertEquals(Arrays.asList(5L, 6L, 7L), page.getPageItems());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void totalIsCountedOnceForAllPagesOfAListing() {
+        final String sql = "select r.id from counted_pages r";
+        final Page<Long> first = fetch(sql, "", true);
+        final Page<Long> second = fetch(sql, first.getNext(), true);
+
+        assertEquals(Integer.valueOf(7), first.getTotalFilteredRecords());
+        assertEquals(Integer.valueOf(7), second.getTotalFilteredRecords());
+        assertEquals(1, this.jdbcTemplate.countQueries);
+    }
+
+    @Test(expected = UnrecognizedQueryParamException.class)
+    public void rejectsATokenThatIsNotBase64() {
+        fetch("select r.id from invalid_token r", "not a token!", false);
+    }
+
+    @Test(expected = UnrecognizedQueryParamException.class)
+    public void rejectsATamperedTokenWithAnotherPrefix() {
+        fetch("select r.id from tampered_token r", base64("key:3"), false);
+    }
+
+    @Test(expected = UnrecognizedQueryParamException.class)
+    public void rejectsATamperedTokenWithoutANumericKey() {
+        fetch("select r.id from tampered_key r", base64("id:3 or 1=1"), false);
+    }
+
+    @Test
+    public void offsetPagingIsKeptWithoutAToken() {
+        final SearchParameters searchParameters = SearchParameters.forPagination(20, 3);
+
+        assertSame(searchParameters, searchParameters.withKeyset(null, Boolean.TRUE));
+        assertFalse(searchParameters.isKeysetPaged());
+    }
+
+    @Test
+    public void keysetPagingIgnoresTheOffset() {
+        final SearchParameters searchParameters = SearchParameters.forPagination(20, 3).withKeyset("", null);
+
+        assertTrue(searchParameters.isKeysetPaged());
+        assertNull(searchParameters.getOffset());
+        assertFalse(searchParameters.isTotalRequested());
+        assertNull(PaginationHelper.decodeKeysetToken(searchParameters.getAfter()));
+    }
+
+    private Page<Long> fetch(final String sql, final String after, final boolean totalRequested) {
+        final SearchParameters searchParameters = SearchParameters.forPagination(null, 3).withKeyset(after, totalRequested);
+        return this.paginationHelper.fetchKeysetPage(this.jdbcTemplate, sql, " where ", KEY_COLUMN, new Object[] {}, searchParameters,
+                new RowMapper<Long>() {
+
+                    @Override
+                    public Long mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+                        return rs.getLong("id");
+                    }
+                });
+    }
+
+    private static String base64(final String value) {
+        return DatatypeConverter.printBase64Binary(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serves ascending ids, applying the key seek and limit of the keyset
+     * query.
+     */
+    private static final class FakeJdbcTemplate extends JdbcTemplate {
+
+        private static final Pattern LIMIT = Pattern.compile(" limit (\\d+)");
+
+        private final List<Long> ids;
+        private String lastSql;
+        private int countQueries;
+
+        FakeJdbcTemplate(final Long... ids) {
+            this.ids = Arrays.asList(ids);
+        }
+
+        @Override
+        public <T> List<T> query(final String sql, final Object[] args, final RowMapper<T> rowMapper) {
+            this.lastSql = sql;
+            final long afterKey = sql.contains(" > ?") ? (Long) args[args.length - 1] : Long.MIN_VALUE;
+            final Matcher limit = LIMIT.matcher(sql);
+            final int maxRows = limit.find() ? Integer.parseInt(limit.group(1)) : Integer.MAX_VALUE;
+
+            final List<T> rows = new ArrayList<>();
+            try {
+                for (final Long id : this.ids) {
+                    if (id > afterKey && rows.size() < maxRows) {
+                        final ResultSet rs = mock(ResultSet.class);
+                        when(rs.getLong("id")).thenReturn(id);
+                        rows.add(rowMapper.mapRow(rs, rows.size()));
+                    }
+                }
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return rows;
+        }
+
+        @Override
+        public <T> T queryForObject(@SuppressWarnings("unused") final String sql, @SuppressWarnings("unused") final Object[] args,
+                final Class<T> requiredType) {
+            this.countQueries++;
+            return requiredType.cast(Integer.valueOf(this.ids.size()));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mifosplatform.accounting.journalentry.service.JournalEntryBatchWriter;
+import org.mifosplatform.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkProcessor;
+import org.mifosplatform.infrastructure.jobs.service.JobChunkReader;
+import org.mifosplatform.infrastructure.jobs.service.JobName;
+import org.mifosplatform.infrastructure.jobs.service.PartitionedJobRunner;
+import org.mifosplatform.portfolio.charge.domain.Charge;
+import org.mifosplatform.portfolio.charge.domain.ChargeRepositoryWrapper;
+import org.mifosplatform.portfolio.loanaccount.loanschedule.data.OverdueLoanScheduleData;
+import org.mifosplatform.portfolio.loanaccount.service.LoanReadPlatformService;
+import org.mifosplatform.portfolio.loanaccount.service.LoanSchedularServiceImpl;
+import org.mifosplatform.portfolio.loanaccount.service.LoanWritePlatformService;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Runs the overdue penalty job loan by loan and in partitions over the same
+ * overdue installments and checks that every loan is charged for exactly the
+ * same installments, and that the partitioned run loads charge definitions
+ * and writes journal entries once per chunk.
+ *
+ * The penalties and journal entries themselves are compared against a running
+ * server in SchedulerJobsTestResults.
+ */
+public class OverduePenaltyPartitionComparisonTest {
+
+    private static final Long PENALTY_WAIT_PERIOD = Long.valueOf(2);
+    private static final int CHUNK_SIZE = 2;
+
+    private final List<OverdueLoanScheduleData> overdueInstallments = new ArrayList<>();
+    private ChargeRepositoryWrapper chargeRepository;
+    private JournalEntryBatchWriter journalEntryWriter;
+    private Map<Long, Map<Long, Charge>> chargeDefinitionsOfLoan;
+
+    @Before
+    public void setUp() {
+        // rows of different loans are interleaved as the unordered query may
+        // return them
+        this.overdueInstallments.add(installment(7L, 1L, 1));
+        this.overdueInstallments.add(installment(3L, 1L, 1));
+        this.overdueInstallments.add(installment(7L, 2L, 1));
+        this.overdueInstallments.add(installment(3L, 1L, 2));
+        this.overdueInstallments.add(installment(12L, 1L, 4));
+        this.overdueInstallments.add(installment(5L, 2L, 3));
+        this.overdueInstallments.add(installment(7L, 1L, 2));
+        this.overdueInstallments.add(installment(9L, 1L, 1));
+    }
+
+    @Test
+    public void partitionedRunChargesTheSameInstallmentsAsLoanByLoanRun() throws Exception {
+        final Map<Long, List<String>> loanByLoan = runJob(false);
+        final Map<Long, List<String>> partitioned = runJob(true);
+
+        assertEquals(Arrays.asList(3L, 5L, 7L, 9L, 12L), new ArrayList<>(loanByLoan.keySet()));
+        assertEquals(loanByLoan, partitioned);
+    }
+
+    @Test
+    public void loanByLoanRunLeavesChargeDefinitionsAndJournalEntriesToEachLoan() throws Exception {
+        runJob(false);
+
+        verify(this.chargeRepository, never()).findActiveByIds(anyCollectionOf(Long.class));
+        verify(this.journalEntryWriter, never()).startBatch();
+        for (final Map<Long, Charge> chargeDefinitions : this.chargeDefinitionsOfLoan.values()) {
+            assertEquals(Collections.emptyMap(), chargeDefinitions);
+        }
+    }
+
+    @Test
+    public void partitionedRunLoadsChargeDefinitionsAndWritesJournalEntriesOncePerChunk() throws Exception {
+        runJob(true);
+
+        // loans 3 and 5, 7 and 9, 12
+        final int chunks = 3;
+        verify(this.chargeRepository, times(chunks)).findActiveByIds(anyCollectionOf(Long.class));
+        verify(this.chargeRepository, times(2)).findActiveByIds(new HashSet<>(Arrays.asList(1L, 2L)));
+        verify(this.chargeRepository).findActiveByIds(Collections.singleton(1L));
+
+        final InOrder inOrder = inOrder(this.journalEntryWriter);
+        for (int i = 0; i < chunks; i++) {
+            inOrder.verify(this.journalEntryWriter).startBatch();
+            inOrder.verify(this.journalEntryWriter).writeBatch();
+            inOrder.verify(this.journalEntryWriter).endBatch();
+        }
+
+        // the loans of a chunk share the charge definitions loaded for it
+        assertEquals(this.chargeDefinitionsOfLoan.get(3L), this.chargeDefinitionsOfLoan.get(5L));
+        assertEquals(this.chargeDefinitionsOfLoan.get(7L), this.chargeDefinitionsOfLoan.get(9L));
+        final Map<Map<Long, Charge>, Boolean> distinctDefinitions = new IdentityHashMap<>();
+        for (final Map<Long, Charge> chargeDefinitions : this.chargeDefinitionsOfLoan.values()) {
+            distinctDefinitions.put(chargeDefinitions, Boolean.TRUE);
+        }
+        assertEquals(chunks, distinctDefinitions.size());
+    }
+
+    private Map<Long, List<String>> runJob(final boolean partitioningEnabled) throws Exception {
+        final ConfigurationDomainService configurationDomainService = mock(ConfigurationDomainService.class);
+        when(configurationDomainService.retrievePenaltyWaitPeriod()).thenReturn(PENALTY_WAIT_PERIOD);
+        when(configurationDomainService.isJobPartitioningEnabled()).thenReturn(partitioningEnabled);
+
+        final LoanReadPlatformService loanReadPlatformService = mock(LoanReadPlatformService.class);
+        when(loanReadPlatformService.retrieveAllLoansWithOverdueInstallments(PENALTY_WAIT_PERIOD)).thenReturn(this.overdueInstallments);
+        when(loanReadPlatformService.retrieveLoanIdsWithOverdueInstallments(eq(PENALTY_WAIT_PERIOD), anyLong(), anyInt())).thenAnswer(
+                new Answer<List<Long>>() {
+
+                    @Override
+                    public List<Long> answer(final InvocationOnMock invocation) {
+                        final Long afterId = (Long) invocation.getArguments()[1];
+                        final int limit = (Integer) invocation.getArguments()[2];
+                        final TreeSet<Long> loanIds = new TreeSet<>();
+                        for (final OverdueLoanScheduleData installment : OverduePenaltyPartitionComparisonTest.this.overdueInstallments) {
+                            if (installment.getLoanId() > afterId) {
+                                loanIds.add(installment.getLoanId());
+                            }
+                        }
+                        final List<Long> chunk = new ArrayList<>(loanIds);
+                        return chunk.subList(0, Math.min(limit, chunk.size()));
+                    }
+                });
+        when(loanReadPlatformService.retrieveOverdueInstallments(eq(PENALTY_WAIT_PERIOD), anyCollectionOf(Long.class))).thenAnswer(
+                new Answer<Collection<OverdueLoanScheduleData>>() {
+
+                    @Override
+                    public Collection<OverdueLoanScheduleData> answer(final InvocationOnMock invocation) {
+                        @SuppressWarnings("unchecked")
+                        final Collection<Long> loanIds = (Collection<Long>) invocation.getArguments()[1];
+                        final Map<String, OverdueLoanScheduleData> ordered = new TreeMap<>();
+                        for (final OverdueLoanScheduleData installment : OverduePenaltyPartitionComparisonTest.this.overdueInstallments) {
+                            if (loanIds.contains(installment.getLoanId())) {
+                                ordered.put(String.format("%010d-%05d-%010d", installment.getLoanId(), installment.getPeriodNumber(),
+                                        installment.getChargeId()), installment);
+                            }
+                        }
+                        return new ArrayList<>(ordered.values());
+                    }
+                });
+
+        this.chargeRepository = mock(ChargeRepositoryWrapper.class);
+        when(this.chargeRepository.findActiveByIds(anyCollectionOf(Long.class))).thenAnswer(new Answer<Map<Long, Charge>>() {
+
+            @Override
+            public Map<Long, Charge> answer(final InvocationOnMock invocation) {
+                @SuppressWarnings("unchecked")
+                final Collection<Long> chargeIds = (Collection<Long>) invocation.getArguments()[0];
+                final Map<Long, Charge> chargeDefinitions = new HashMap<>();
+                for (final Long chargeId : chargeIds) {
+                    chargeDefinitions.put(chargeId, mock(Charge.class));
+                }
+                return chargeDefinitions;
+            }
+        });
+        this.journalEntryWriter = mock(JournalEntryBatchWriter.class);
+
+        final Map<Long, List<String>> charged = new TreeMap<>();
+        this.chargeDefinitionsOfLoan = new HashMap<>();
+        final LoanWritePlatformService loanWritePlatformService = mock(LoanWritePlatformService.class);
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                final Long loanId = (Long) invocation.getArguments()[0];
+                @SuppressWarnings("unchecked")
+                final Collection<OverdueLoanScheduleData> installments = (Collection<OverdueLoanScheduleData>) invocation.getArguments()[1];
+                @SuppressWarnings("unchecked")
+                final Map<Long, Charge> chargeDefinitions = (Map<Long, Charge>) invocation.getArguments()[2];
+                assertEquals(null, charged.put(loanId, describe(loanId, installments)));
+                OverduePenaltyPartitionComparisonTest.this.chargeDefinitionsOfLoan.put(loanId, chargeDefinitions);
+                return null;
+            }
+        }).when(loanWritePlatformService).applyOverdueChargesForLoan(anyLong(), anyCollectionOf(OverdueLoanScheduleData.class),
+                any(Map.class));
+
+        final LoanSchedularServiceImpl loanSchedularService = new LoanSchedularServiceImpl(configurationDomainService,
+                loanReadPlatformService, loanWritePlatformService, null, new SynchronousPartitionedJobRunner(), this.chargeRepository,
+                this.journalEntryWriter);
+        loanSchedularService.applyChargeForOverdueLoans();
+        return charged;
+    }
+
+    /**
+     * Installments of a loan in a stable order, as the loan by loan run keeps
+     * the order of the query while the partitioned run orders them
+     */
+    private static List<String> describe(final Long loanId, final Collection<OverdueLoanScheduleData> installments) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final OverdueLoanScheduleData installment : installments) {
+            assertEquals(loanId, installment.getLoanId());
+            descriptions.add(installment.getPeriodNumber() + ":" + installment.getChargeId() + ":" + installment.getDueDate() + ":"
+                    + installment.getAmount());
+        }
+        Collections.sort(descriptions);
+        return descriptions;
+    }
+
+    private static OverdueLoanScheduleData installment(final Long loanId, final Long chargeId, final int periodNumber) {
+        return new OverdueLoanScheduleData(loanId, chargeId, "0" + periodNumber + " January 2015", BigDecimal.valueOf(25), "dd MMMM yyyy",
+                "en", BigDecimal.valueOf(100), BigDecimal.valueOf(10), periodNumber);
+    }
+
+    private static final class SynchronousPartitionedJobRunner implements PartitionedJobRunner {
+
+        @Override
+        public List<String> run(final JobName jobName, final JobChunkReader reader,
+                final JobChunkProcessor processor) {
+            Long afterId = Long.valueOf(0);
+            List<Long> ids = reader.readIdsAfter(afterId, CHUNK_SIZE);
+            while (!ids.isEmpty()) {
+                processor.process(ids);
+                afterId = ids.get(ids.size() - 1);
+                ids = reader.readIdsAfter(afterId, CHUNK_SIZE);
+            }
+            return new ArrayList<>();
+        }
+    }
+}
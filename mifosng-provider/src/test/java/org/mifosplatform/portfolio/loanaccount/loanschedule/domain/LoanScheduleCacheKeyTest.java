@@ -0,0 +1,220 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.loanschedule.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.joda.time.DateTimeUtils;
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifosplatform.organisation.holiday.domain.Holiday;
+import org.mifosplatform.organisation.monetary.domain.ApplicationCurrency;
+import org.mifosplatform.organisation.monetary.domain.MonetaryCurrency;
+import org.mifosplatform.organisation.monetary.domain.Money;
+import org.mifosplatform.organisation.monetary.domain.MoneyHelper;
+import org.mifosplatform.organisation.workingdays.domain.RepaymentRescheduleType;
+import org.mifosplatform.organisation.workingdays.domain.WorkingDays;
+import org.mifosplatform.portfolio.calendar.domain.Calendar;
+import org.mifosplatform.portfolio.calendar.domain.CalendarInstance;
+import org.mifosplatform.portfolio.charge.domain.Charge;
+import org.mifosplatform.portfolio.common.domain.DayOfWeekType;
+import org.mifosplatform.portfolio.common.domain.DaysInMonthType;
+import org.mifosplatform.portfolio.common.domain.DaysInYearType;
+import org.mifosplatform.portfolio.common.domain.PeriodFrequencyType;
+import org.mifosplatform.portfolio.loanaccount.data.DisbursementData;
+import org.mifosplatform.portfolio.loanaccount.data.LoanTermVariationsData;
+import org.mifosplatform.portfolio.loanaccount.domain.LoanCharge;
+import org.mifosplatform.portfolio.loanproduct.domain.AmortizationMethod;
+import org.mifosplatform.portfolio.loanproduct.domain.InterestCalculationPeriodMethod;
+import org.mifosplatform.portfolio.loanproduct.domain.InterestMethod;
+import org.mifosplatform.portfolio.loanproduct.domain.LoanPreClosureInterestCalculationStrategy;
+import org.mifosplatform.portfolio.loanproduct.domain.RecalculationFrequencyType;
+
+/**
+ * Checks that every input a schedule generator reads besides the loan terms
+ * is part of the key, so a cached preview is never served after a charge,
+ * holiday, working day, rounding or date change.
+ */
+public class LoanScheduleCacheKeyTest {
+
+    private static final String WEEKDAYS = "FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TU,WE,TH,FR";
+
+    private final LocalDate disbursementDate = new LocalDate(2015, 1, 5);
+
+    private ApplicationCurrency applicationCurrency;
+    private MonetaryCurrency currency;
+
+    @Before
+    public void setUp() throws Exception {
+        final Field roundingMode = MoneyHelper.class.getDeclaredField("roundingMode");
+        roundingMode.setAccessible(true);
+        roundingMode.set(null, RoundingMode.HALF_EVEN);
+
+        final Constructor<ApplicationCurrency> constructor = ApplicationCurrency.class.getDeclaredConstructor(String.class,
+                String.class, int.class, Integer.class, String.class, String.class);
+        constructor.setAccessible(true);
+        this.applicationCurrency = constructor.newInstance("USD", "US Dollar", 2, null, "currency.USD", "$");
+        this.currency = new MonetaryCurrency("USD", 2, null);
+
+        DateTimeUtils.setCurrentMillisFixed(new LocalDate(2015, 1, 2).toDateTimeAtStartOfDay().getMillis());
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void sameInputsGiveTheSameKey() {
+        assertEquals(key(charges(charge(1L, "100")), holidays(holiday(1L, 10)), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN),
+                key(charges(charge(1L, "100.00")), holidays(holiday(1L, 10)), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void orderOfChargesAndHolidaysDoesNotChangeTheKey() {
+        assertEquals(
+                key(charges(charge(1L, "100"), charge(2L, "5")), holidays(holiday(1L, 10), holiday(2L, 20)), workingDays(WEEKDAYS),
+                        RoundingMode.HALF_EVEN),
+                key(charges(charge(2L, "5"), charge(1L, "100")), holidays(holiday(2L, 20), holiday(1L, 10)), workingDays(WEEKDAYS),
+                        RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void changedChargeChangesTheKey() {
+        final String key = key(charges(charge(1L, "100")), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN);
+
+        assertNotEquals(key, key(charges(charge(1L, "150")), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+        assertNotEquals(key, key(charges(charge(2L, "100")), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+        assertNotEquals(key, key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void changedHolidayChangesTheKey() {
+        final String key = key(charges(), holidays(holiday(1L, 10)), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN);
+
+        assertNotEquals(key, key(charges(), holidays(holiday(1L, 11)), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+        assertNotEquals(key, key(charges(), holidays(holiday(1L, 10), holiday(2L, 20)), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+        assertNotEquals(key, key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void disabledHolidaysChangeTheKey() {
+        final LoanApplicationTerms terms = loanApplicationTerms();
+
+        assertNotEquals(LoanScheduleCacheKey.of(terms, charges(), true, holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN),
+                LoanScheduleCacheKey.of(terms, charges(), false, holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void changedWorkingDaysChangeTheKey() {
+        final String key = key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN);
+
+        assertNotEquals(key, key(charges(), holidays(), workingDays("FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TU,WE,TH,FR,SA"),
+                RoundingMode.HALF_EVEN));
+        assertNotEquals(key, key(charges(), holidays(), new WorkingDays(WEEKDAYS,
+                RepaymentRescheduleType.MOVE_TO_PREVIOUS_WORKING_DAY.getValue(), false) {}, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void changedRoundingModeChangesTheKey() {
+        assertNotEquals(key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN),
+                key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void nextTenantDateChangesTheKey() {
+        final String key = key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN);
+
+        DateTimeUtils.setCurrentMillisFixed(new LocalDate(2015, 1, 3).toDateTimeAtStartOfDay().getMillis());
+
+        assertNotEquals(key, key(charges(), holidays(), workingDays(WEEKDAYS), RoundingMode.HALF_EVEN));
+    }
+
+    private String key(final Collection<LoanCharge> loanCharges, final Collection<Holiday> holidays, final WorkingDays workingDays,
+            final RoundingMode roundingMode) {
+        return LoanScheduleCacheKey.of(loanApplicationTerms(), loanCharges, true, holidays, workingDays, roundingMode);
+    }
+
+    private static Collection<LoanCharge> charges(final LoanCharge... loanCharges) {
+        return new ArrayList<>(Arrays.asList(loanCharges));
+    }
+
+    private static Collection<Holiday> holidays(final Holiday... holidays) {
+        return new ArrayList<>(Arrays.asList(holidays));
+    }
+
+    private LoanCharge charge(final Long chargeId, final String amount) {
+        final Charge charge = mock(Charge.class);
+        when(charge.getId()).thenReturn(chargeId);
+        final LoanCharge loanCharge = mock(LoanCharge.class);
+        when(loanCharge.getCharge()).thenReturn(charge);
+        when(loanCharge.isSpecifiedDueDate()).thenReturn(true);
+        when(loanCharge.amount()).thenReturn(new BigDecimal(amount));
+        when(loanCharge.amountOrPercentage()).thenReturn(new BigDecimal(amount));
+        when(loanCharge.getDueLocalDate()).thenReturn(this.disbursementDate.plusMonths(1));
+        return loanCharge;
+    }
+
+    private Holiday holiday(final Long holidayId, final int dayOfMonth) {
+        final LocalDate holidayDate = this.disbursementDate.plusMonths(1).withDayOfMonth(dayOfMonth);
+        final Holiday holiday = mock(Holiday.class);
+        when(holiday.getId()).thenReturn(holidayId);
+        when(holiday.getFromDateLocalDate()).thenReturn(holidayDate);
+        when(holiday.getToDateLocalDate()).thenReturn(holidayDate);
+        when(holiday.getRepaymentsRescheduledToLocalDate()).thenReturn(holidayDate.plusDays(1));
+        return holiday;
+    }
+
+    private static WorkingDays workingDays(final String recurrence) {
+        return new WorkingDays(recurrence, RepaymentRescheduleType.MOVE_TO_NEXT_WORKING_DAY.getValue(), false) {};
+    }
+
+    private LoanApplicationTerms loanApplicationTerms() {
+        final Integer numberOfRepayments = 12;
+        final Integer nthDay = null;
+        final DayOfWeekType weekDayType = null;
+        final LocalDate repaymentsStartingFromDate = null;
+        final LocalDate calculatedRepaymentsStartingFromDate = this.disbursementDate.plusMonths(1);
+        final Integer graceOnPrincipalPayment = null;
+        final Integer graceOnInterestPayment = null;
+        final Integer graceOnInterestCharged = null;
+        final LocalDate interestChargedFromDate = null;
+        final BigDecimal emiAmount = null;
+        final BigDecimal maxOutstandingBalance = null;
+        final Integer graceOnArrearsAgeing = null;
+        final RecalculationFrequencyType recalculationFrequencyType = null;
+        final CalendarInstance restCalendarInstance = null;
+        final CalendarInstance compoundingCalendarInstance = null;
+        final RecalculationFrequencyType compoundingFrequencyType = null;
+        final Integer installmentAmountInMultiplesOf = null;
+        final Calendar loanCalendar = null;
+        final BigDecimal principal = BigDecimal.valueOf(100000);
+
+        return LoanApplicationTerms.assembleFrom(this.applicationCurrency, numberOfRepayments, PeriodFrequencyType.MONTHS,
+                numberOfRepayments, 1, PeriodFrequencyType.MONTHS, nthDay, weekDayType, AmortizationMethod.EQUAL_INSTALLMENTS,
+                InterestMethod.DECLINING_BALANCE, BigDecimal.valueOf(2), PeriodFrequencyType.MONTHS, BigDecimal.valueOf(24),
+                InterestCalculationPeriodMethod.SAME_AS_REPAYMENT_PERIOD, Money.of(this.currency, principal), this.disbursementDate,
+                repaymentsStartingFromDate, calculatedRepaymentsStartingFromDate, graceOnPrincipalPayment, graceOnInterestPayment,
+                graceOnInterestCharged, interestChargedFromDate, Money.zero(this.currency), false, emiAmount,
+                new ArrayList<DisbursementData>(), maxOutstandingBalance, new ArrayList<LoanTermVariationsData>(), graceOnArrearsAgeing,
+                DaysInMonthType.ACTUAL, DaysInYearType.ACTUAL, false, recalculationFrequencyType, restCalendarInstance,
+                compoundingCalendarInstance, compoundingFrequencyType, BigDecimal.valueOf(50), installmentAmountInMultiplesOf,
+                LoanPreClosureInterestCalculationStrategy.NONE, loanCalendar, principal, new ArrayList<LoanTermVariationsData>());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.loanaccount.loanschedule.service;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mifosplatform.infrastructure.core.domain.MifosPlatformTenant;
+import org.mifosplatform.infrastructure.core.service.ThreadLocalContextUtil;
+import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleModel;
+import org.mifosplatform.portfolio.loanaccount.loanschedule.domain.LoanScheduleModelPeriod;
+
+/**
+ * Fills a preview cache of two schedules and checks which one is dropped when
+ * a third is generated.
+ */
+public class LoanSchedulePreviewCacheTest {
+
+    private final LoanSchedulePreviewCache cache = new LoanSchedulePreviewCache(2);
+
+    @After
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedScheduleAtCapacity() {
+        final LoanScheduleModel first = schedule();
+        final LoanScheduleModel second = schedule();
+        final LoanScheduleModel third = schedule();
+        this.cache.put("first", first);
+        this.cache.put("second", second);
+
+        // previewing the first schedule again makes the second the eldest
+        assertSame(first, this.cache.get("first"));
+        this.cache.put("third", third);
+
+        assertSame(first, this.cache.get("first"));
+        assertNull(this.cache.get("second"));
+        assertSame(third, this.cache.get("third"));
+    }
+
+    @Test
+    public void replacingAScheduleDoesNotEvictAnother() {
+        final LoanScheduleModel replacement = schedule();
+        this.cache.put("first", schedule());
+        this.cache.put("second", schedule());
+        this.cache.put("first", replacement);
+
+        assertSame(replacement, this.cache.get("first"));
+        assertNotNull(this.cache.get("second"));
+    }
+
+    @Test
+    public void schedulesAreNotSharedBetweenTenants() {
+        final LoanScheduleModel schedule = schedule();
+        ThreadLocalContextUtil.setTenant(tenant("default"));
+        this.cache.put("first", schedule);
+
+        ThreadLocalContextUtil.setTenant(tenant("other"));
+        assertNull(this.cache.get("first"));
+
+        ThreadLocalContextUtil.setTenant(tenant("default"));
+        assertSame(schedule, this.cache.get("first"));
+    }
+
+    private static MifosPlatformTenant tenant(final String tenantIdentifier) {
+        return new MifosPlatformTenant(Long.valueOf(1), tenantIdentifier, tenantIdentifier, "Asia/Kolkata", null);
+    }
+
+    /**
+     * The cache never reads the schedule, a distinct instance per entry is
+     * enough to tell them apart.
+     */
+    private static LoanScheduleModel schedule() {
+        return LoanScheduleModel.from(new ArrayList<LoanScheduleModelPeriod>(), null, 0, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.savings.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.mifosplatform.organisation.monetary.domain.MonetaryCurrency;
+import org.mifosplatform.organisation.monetary.domain.Money;
+import org.mifosplatform.organisation.monetary.domain.MoneyHelper;
+import org.mifosplatform.portfolio.account.service.AccountTransfersReadPlatformService;
+import org.mifosplatform.portfolio.accountdetails.domain.AccountType;
+import org.mifosplatform.portfolio.savings.SavingsCompoundingInterestPeriodType;
+import org.mifosplatform.portfolio.savings.SavingsInterestCalculationDaysInYearType;
+import org.mifosplatform.portfolio.savings.SavingsInterestCalculationType;
+import org.mifosplatform.portfolio.savings.SavingsPostingInterestPeriodType;
+import org.mifosplatform.portfolio.savings.domain.interest.PostingPeriod;
+
+/**
+ * Recalculates the balances of an account after back dated and reversed
+ * transactions from its balance checkpoint and checks them against replaying
+ * the whole history of an account with the same transactions.
+ */
+public class SavingsAccountBalanceCheckpointTest {
+
+    private final MonetaryCurrency currency = new MonetaryCurrency("USD", 2, null);
+    private final MathContext mc = new MathContext(10, RoundingMode.HALF_EVEN);
+    private final LocalDate activationDate = new LocalDate(2014, 1, 1);
+    private final LocalDate upToDate = new LocalDate(2014, 12, 31);
+
+    @Before
+    public void setUp() throws Exception {
+        final Field field = MoneyHelper.class.getDeclaredField("roundingMode");
+        field.setAccessible(true);
+        field.set(null, RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    public void recalculationFromCheckpointMatchesFullReplay() {
+        final SavingsAccount account = account();
+        addTransactions(account);
+        account.calculateInterestUsing(this.mc, this.upToDate, false, false, 1);
+        addInterestPostings(account);
+        account.calculateInterestUsing(this.mc, this.upToDate, false, false, 1);
+
+        // a back dated deposit and a reversed withdrawal after the balances
+        // were calculated
+        account.transactions.add(deposit(account, new LocalDate(2014, 6, 20), 750));
+        withdrawalOn(account, new LocalDate(2014, 9, 10)).reverse();
+        final List<PostingPeriod> recalculated = account.calculateInterestUsing(this.mc, this.upToDate, false, false, 1);
+
+        final SavingsAccount replayed = account();
+        addTransactions(replayed);
+        addInterestPostings(replayed);
+        replayed.transactions.add(deposit(replayed, new LocalDate(2014, 6, 20), 750));
+        withdrawalOn(replayed, new LocalDate(2014, 9, 10)).reverse();
+        final List<PostingPeriod> expected = replayed.calculateInterestUsing(this.mc, this.upToDate, false, false, 1);
+
+        assertEquals(expected.size(), recalculated.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getInterestEarned().getAmount(), recalculated.get(i).getInterestEarned().getAmount());
+            assertEquals(expected.get(i).closingBalance().getAmount(), recalculated.get(i).closingBalance().getAmount());
+        }
+        assertEquals(replayed.getSummary().getAccountBalance(), account.getSummary().getAccountBalance());
+
+        final List<SavingsAccountTransaction> transactions = account.retreiveListOfTransactions();
+        final List<SavingsAccountTransaction> expectedTransactions = replayed.retreiveListOfTransactions();
+        assertEquals(expectedTransactions.size(), transactions.size());
+        for (int i = 0; i < expectedTransactions.size(); i++) {
+            assertEquals(expectedTransactions.get(i).getRunningBalance(this.currency).getAmount(),
+                    transactions.get(i).getRunningBalance(this.currency).getAmount());
+        }
+    }
+
+    private SavingsAccount account() {
+        final BigDecimal interestRate = BigDecimal.valueOf(6);
+        final SavingsCompoundingInterestPeriodType compoundingType = SavingsCompoundingInterestPeriodType.DAILY;
+        final SavingsPostingInterestPeriodType postingType = SavingsPostingInterestPeriodType.MONTHLY;
+        final SavingsInterestCalculationType calculationType = SavingsInterestCalculationType.DAILY_BALANCE;
+        final SavingsInterestCalculationDaysInYearType daysInYearType = SavingsInterestCalculationDaysInYearType.DAYS_365;
+
+        final SavingsProduct product = SavingsProduct.createNew("Savings", "SAV", null, this.currency, interestRate, compoundingType,
+                postingType, calculationType, daysInYearType, null, null, null, false, null, null, false, null, false, null, null);
+        final SavingsAccount account = SavingsAccount.createNewApplicationForSubmittal(null, null, product, null, "000000001", null,
+                AccountType.INDIVIDUAL, this.activationDate, null, interestRate, compoundingType, postingType, calculationType,
+                daysInYearType, null, null, null, false, new HashSet<SavingsAccountCharge>(), false, null, false, null);
+        account.activatedOnDate = this.activationDate.toDate();
+
+        final AccountTransfersReadPlatformService accountTransfersReadPlatformService = mock(AccountTransfersReadPlatformService.class);
+        when(accountTransfersReadPlatformService.fetchPostInterestTransactionIds(anyLong())).thenReturn(new ArrayList<Long>());
+        account.setHelpers(new SavingsAccountTransactionSummaryWrapper(), new SavingsHelper(accountTransfersReadPlatformService));
+        return account;
+    }
+
+    private void addTransactions(final SavingsAccount account) {
+        for (int month = 1; month <= 12; month++) {
+            account.transactions.add(deposit(account, new LocalDate(2014, month, 5), 1000));
+            account.transactions.add(SavingsAccountTransaction.withdrawal(account, null, null, new LocalDate(2014, month, 10),
+                    Money.of(this.currency, BigDecimal.valueOf(400)), new LocalDate(2014, month, 10).toDate(), null));
+        }
+    }
+
+    private void addInterestPostings(final SavingsAccount account) {
+        for (int month = 1; month <= 12; month++) {
+            final LocalDate monthEnd = new LocalDate(2014, month, 1).dayOfMonth().withMaximumValue();
+            account.transactions.add(SavingsAccountTransaction.interestPosting(account, null, monthEnd,
+                    Money.of(this.currency, BigDecimal.valueOf(2 * month))));
+        }
+    }
+
+    private SavingsAccountTransaction deposit(final SavingsAccount account, final LocalDate date, final int amount) {
+        return SavingsAccountTransaction.deposit(account, null, null, date, Money.of(this.currency, BigDecimal.valueOf(amount)),
+                date.toDate(), null);
+    }
+
+    private static SavingsAccountTransaction withdrawalOn(final SavingsAccount account, final LocalDate date) {
+        for (final SavingsAccountTransaction transaction : account.transactions) {
+            if (transaction.isWithdrawal() && transaction.occursOn(date)) { return transaction; }
+        }
+        throw new IllegalStateException("No withdrawal on " + date);
+    }
+}
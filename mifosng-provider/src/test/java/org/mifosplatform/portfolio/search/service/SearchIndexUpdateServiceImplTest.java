@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks which commands reindex the entities they touch.
+ */
+public class SearchIndexUpdateServiceImplTest {
+
+    @Test
+    public void reindexesEveryCommandOnClientsGroupsAndCenters() {
+        for (final String entityName : new String[] { "CLIENT", "CLIENTIDENTIFIER", "GROUP", "CENTER" }) {
+            assertTrue(entityName, SearchIndexUpdateServiceImpl.isIndexed(entityName, "CREATE"));
+            assertTrue(entityName, SearchIndexUpdateServiceImpl.isIndexed(entityName, "UPDATE"));
+            assertTrue(entityName, SearchIndexUpdateServiceImpl.isIndexed(entityName, "ACTIVATE"));
+        }
+    }
+
+    @Test
+    public void reindexesAccountsWhenTheyAreCreatedUpdatedOrDeleted() {
+        for (final String entityName : new String[] { "LOAN", "SAVINGSACCOUNT", "FIXEDDEPOSITACCOUNT", "RECURRINGDEPOSITACCOUNT" }) {
+            assertTrue(entityName, SearchIndexUpdateServiceImpl.isIndexed(entityName, "CREATE"));
+            assertTrue(entityName, SearchIndexUpdateServiceImpl.isIndexed(entityName, "UPDATE"));
+            assertTrue(entityName, SearchIndexUpdateServiceImpl.isIndexed(entityName, "DELETE"));
+        }
+    }
+
+    @Test
+    public void skipsAccountTransactions() {
+        assertFalse(SearchIndexUpdateServiceImpl.isIndexed("LOAN", "REPAYMENT"));
+        assertFalse(SearchIndexUpdateServiceImpl.isIndexed("SAVINGSACCOUNT", "DEPOSIT"));
+        assertFalse(SearchIndexUpdateServiceImpl.isIndexed("FIXEDDEPOSITACCOUNT", "APPROVE"));
+        assertFalse(SearchIndexUpdateServiceImpl.isIndexed("RECURRINGDEPOSITACCOUNT", "DEPOSIT"));
+    }
+
+    @Test
+    public void skipsEntitiesThatAreNotSearched() {
+        assertFalse(SearchIndexUpdateServiceImpl.isIndexed("OFFICE", "CREATE"));
+        assertFalse(SearchIndexUpdateServiceImpl.isIndexed("LOANPRODUCT", "UPDATE"));
+    }
+}
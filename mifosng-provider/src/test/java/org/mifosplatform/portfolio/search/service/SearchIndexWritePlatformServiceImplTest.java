@@ -0,0 +1,78 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+/**
+ * Checks the terms a searchable column value is indexed by.
+ */
+public class SearchIndexWritePlatformServiceImplTest {
+
+    @Test
+    public void indexesTheTrimmedWholeValue() {
+        assertEquals(terms("EXT-42", true), SearchIndexWritePlatformServiceImpl.termsOf("external_id", "  EXT-42 ", false));
+    }
+
+    @Test
+    public void indexesNamesAlsoByWhatFollowsEachWord() {
+        final Map<String, Boolean> expected = terms("John Michael Smith", true);
+        expected.put("Michael Smith", Boolean.FALSE);
+        expected.put("Smith", Boolean.FALSE);
+
+        assertEquals(expected, SearchIndexWritePlatformServiceImpl.termsOf("display_name", "John Michael Smith", true));
+    }
+
+    @Test
+    public void doesNotSplitColumnsThatAreNotTokenized() {
+        assertEquals(terms("John Smith", true), SearchIndexWritePlatformServiceImpl.termsOf("external_id", "John Smith", false));
+    }
+
+    @Test
+    public void indexesZeroPaddedAccountNumbersAlsoByTheirSignificantDigits() {
+        final Map<String, Boolean> expected = terms("000000123", true);
+        expected.put("123", Boolean.FALSE);
+
+        assertEquals(expected, SearchIndexWritePlatformServiceImpl.termsOf("account_no", "000000123", false));
+    }
+
+    @Test
+    public void indexesAccountNumbersWithoutLeadingZerosOnce() {
+        assertEquals(terms("4711", true), SearchIndexWritePlatformServiceImpl.termsOf("account_no", "4711", false));
+        assertEquals(terms("0000", true), SearchIndexWritePlatformServiceImpl.termsOf("account_no", "0000", false));
+    }
+
+    @Test
+    public void stripsLeadingZerosOfOtherColumnsOnlyForAccountNumbers() {
+        assertEquals(terms("0042", true), SearchIndexWritePlatformServiceImpl.termsOf("mobile_no", "0042", false));
+    }
+
+    @Test
+    public void skipsBlankValues() {
+        assertTrue(SearchIndexWritePlatformServiceImpl.termsOf("external_id", null, false).isEmpty());
+        assertTrue(SearchIndexWritePlatformServiceImpl.termsOf("display_name", "   ", true).isEmpty());
+    }
+
+    @Test
+    public void truncatesTermsToTheColumnLength() {
+        final String value = StringUtils.repeat("a", 150);
+
+        assertEquals(terms(StringUtils.repeat("a", 100), true), SearchIndexWritePlatformServiceImpl.termsOf("external_id", value, false));
+    }
+
+    private static Map<String, Boolean> terms(final String wholeValue, final boolean isWholeValue) {
+        final Map<String, Boolean> terms = new LinkedHashMap<>();
+        terms.put(wholeValue, Boolean.valueOf(isWholeValue));
+        return terms;
+    }
+}
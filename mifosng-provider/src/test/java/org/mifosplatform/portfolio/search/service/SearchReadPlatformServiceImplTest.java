@@ -0,0 +1,58 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.portfolio.search.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mifosplatform.portfolio.search.data.SearchConditions;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Checks the lookup of a search in the search index.
+ */
+public class SearchReadPlatformServiceImplTest {
+
+    private final List<String> entityTypes = Arrays.asList("CLIENT", "LOAN");
+
+    @Test
+    public void scopesMatchesToTheOfficesUnderTheHierarchyOfTheUser() {
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        final String sql = SearchReadPlatformServiceImpl.indexMatchSql(new SearchConditions("123", null, false), this.entityTypes,
+                ".1.2.", params);
+
+        assertTrue(sql.contains("o.hierarchy like :hierarchy"));
+        assertTrue(sql.contains("si.office_id is null"));
+        assertEquals(".1.2.%", params.getValue("hierarchy"));
+        assertEquals(this.entityTypes, params.getValue("entityTypes"));
+    }
+
+    @Test
+    public void matchesAnyTermByPrefix() {
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        final String sql = SearchReadPlatformServiceImpl.indexMatchSql(new SearchConditions("123", null, false), this.entityTypes, ".",
+                params);
+
+        assertTrue(sql.contains("si.term like :search"));
+        assertFalse(sql.contains("whole_value"));
+        assertEquals("123%", params.getValue("search"));
+    }
+
+    @Test
+    public void matchesWholeValuesOnlyForExactSearches() {
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        final String sql = SearchReadPlatformServiceImpl.indexMatchSql(new SearchConditions("000000123", null, true), this.entityTypes,
+                ".", params);
+
+        assertTrue(sql.contains("si.term = :search and si.whole_value = 1"));
+        assertEquals("000000123", params.getValue("search"));
+    }
+}
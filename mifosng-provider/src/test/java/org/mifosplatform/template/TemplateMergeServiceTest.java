@@ -14,6 +14,7 @@ import java.lang.reflect.Type;
 import java.math.RoundingMode;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +107,24 @@ public class TemplateMergeServiceTest {
         assertEquals(expectedOutput, output);
     }
 
+    @Test
+    public void compileAllMergesEachEntity() throws Exception {
+        Template template = new Template("TemplateName", "Dear {{name}}, your branch is {{office}}.", null, null,
+                new ArrayList<TemplateMapper>());
+
+        Map<String, Object> shared = new HashMap<>();
+        shared.put("office", "Head Office");
+        List<Map<String, Object>> entities = new ArrayList<>();
+        for (String name : Arrays.asList("Michael", "Terence")) {
+            Map<String, Object> entity = new HashMap<>();
+            entity.put("name", name);
+            entities.add(entity);
+        }
+
+        List<String> output = tms.compileAll(template, shared, entities, null);
+        assertEquals(Arrays.asList("Dear Michael, your branch is Head Office.", "Dear Terence, your branch is Head Office."), output);
+    }
+
     protected String compileTemplateText(String templateText, Map<String, Object> scope) throws MalformedURLException, IOException {
         List<TemplateMapper> mappers = new ArrayList<>();
         Template template = new Template("TemplateName", templateText, null, null, mappers);
@@ -0,0 +1,78 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this file,
+ * You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.mifosplatform.useradministration.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.mifosplatform.infrastructure.security.exception.NoAuthorizationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+public class AppUserPermissionTest {
+
+    @Test
+    public void permissionChecksIgnoreCase() {
+        final AppUser user = userWith(role("Loan officer", "READ_LOAN", "CREATE_CLIENT"));
+
+        assertFalse(user.hasNotPermissionForAnyOf("read_loan"));
+        assertFalse(user.hasNotPermissionForAnyOf("DELETE_LOAN", "CREATE_CLIENT"));
+        assertTrue(user.hasNotPermissionForAnyOf("DELETE_LOAN"));
+        user.validateHasReadPermission("loan");
+    }
+
+    @Test(expected = NoAuthorizationException.class)
+    public void missingPermissionIsRejected() {
+        final AppUser user = userWith(role("Loan officer", "READ_LOAN"));
+
+        user.validateHasPermissionTo("DELETE_LOAN");
+    }
+
+    @Test
+    public void allFunctionsGrantsEveryPermission() {
+        final AppUser user = userWith(role("Super user", "ALL_FUNCTIONS"));
+
+        assertFalse(user.hasNotPermissionForAnyOf("DELETE_LOAN"));
+        user.validateHasPermissionTo("DELETE_LOAN");
+    }
+
+    @Test
+    public void updatingRolesRebuildsPermissions() {
+        final AppUser user = userWith(role("Loan officer", "READ_LOAN"));
+        assertTrue(user.hasNotPermissionForAnyOf("DELETE_LOAN"));
+        assertEquals(1, user.getAuthorities().size());
+
+        user.updateRoles(new HashSet<>(Collections.singleton(role("Supervisor", "READ_LOAN", "DELETE_LOAN"))));
+
+        assertFalse(user.hasNotPermissionForAnyOf("DELETE_LOAN"));
+        assertTrue(user.getAuthorities().contains(new SimpleGrantedAuthority("DELETE_LOAN")));
+    }
+
+    private static Role role(final String name, final String... permissionCodes) {
+        final Role role = new Role(name, name);
+        for (final String code : permissionCodes) {
+            final int separator = code.indexOf('_');
+            role.updatePermission(new Permission("portfolio", code.substring(separator + 1), code.substring(0, separator)), true);
+        }
+        return role;
+    }
+
+    private static AppUser userWith(final Role role) {
+        return userWith(new HashSet<>(Collections.singleton(role)));
+    }
+
+    private static AppUser userWith(final Set<Role> roles) {
+        final User user = new User("mifos", "password", true, true, true, true, new ArrayList<SimpleGrantedAuthority>());
+        return new AppUser(null, user, roles, "mifos@example.com", "App", "User", null, false);
+    }
+}